@@ -0,0 +1,133 @@
+package org.resume.fileantivirusservice.clamav;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.fileantivirusservice.constant.ErrorMessages;
+import org.resume.fileantivirusservice.exception.ClamdException;
+import org.resume.fileantivirusservice.properties.ClamAVProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Клиент clamd с пулом постоянных сессий и балансировкой между демонами.
+ * <p>
+ * Сканирование уходит на работающий демон с наименьшей нагрузкой
+ * ({@code (inFlight + 1) / weight}), при равенстве — по кругу.
+ * Если к демону не удаётся подключиться, он помечается недоступным и
+ * сканирование сразу переходит к следующему: данные ещё не отправлены.
+ * Обрыв посреди INSTREAM повторить нельзя — поток уже прочитан, поэтому
+ * ошибка уходит наверх и запись повторяется через retry консьюмера.
+ * <p>
+ * Фоновая проверка раз в {@code healthCheckInterval} шлёт PING всем демонам:
+ * возвращает в работу поднявшиеся и держит свободные сессии живыми.
+ * Недоступные демоны остаются последним вариантом, если не отвечает ни один.
+ */
+@Slf4j
+public class ClamdClient implements AutoCloseable {
+
+    private final List<ClamdDaemon> daemons;
+    private final ClamAVProperties.Pool pool;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    public ClamdClient(List<ClamAVProperties.Endpoint> endpoints, ClamAVProperties.Pool pool, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.daemons = endpoints.stream()
+                .map(endpoint -> new ClamdDaemon(endpoint, pool, meterRegistry))
+                .toList();
+    }
+
+    /**
+     * Запускает фоновую проверку демонов.
+     */
+    public void start() {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("clamd-health-"));
+        long intervalMs = pool.getHealthCheckInterval().toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Сканирует поток на одном из демонов.
+     *
+     * @throws ClamdException если ни один демон недоступен, обмен оборвался
+     *                        или clamd ответил ошибкой
+     */
+    public ClamdScanResult scan(InputStream data) {
+        IOException lastFailure = null;
+        for (ClamdDaemon daemon : candidates()) {
+            daemon.beginScan();
+            try {
+                ClamdConnection connection;
+                try {
+                    connection = daemon.borrow();
+                } catch (IOException e) {
+                    daemon.markDown(e.getMessage());
+                    lastFailure = e;
+                    continue;
+                }
+                return daemon.scan(connection, data);
+            } catch (IOException e) {
+                throw new ClamdException("clamd " + daemon.name() + " failed during scan", e);
+            } finally {
+                daemon.endScan();
+            }
+        }
+        throw new ClamdException(ErrorMessages.CLAMAV_UNAVAILABLE, lastFailure);
+    }
+
+    /**
+     * Проверяет все демоны PING.
+     *
+     * @return число отвечающих демонов
+     */
+    public int checkHealth() {
+        int alive = 0;
+        for (ClamdDaemon daemon : daemons) {
+            try {
+                if (daemon.healthCheck()) {
+                    alive++;
+                }
+            } catch (RuntimeException e) {
+                log.error("clamd {} health check failed", daemon.name(), e);
+            }
+        }
+        return alive;
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        daemons.forEach(ClamdDaemon::closeIdle);
+    }
+
+    List<ClamdDaemon> daemons() {
+        return daemons;
+    }
+
+    /**
+     * Порядок попыток: работающие по возрастанию нагрузки, затем недоступные.
+     * Сдвиг по кругу перед стабильной сортировкой разводит равные нагрузки.
+     */
+    private List<ClamdDaemon> candidates() {
+        int size = daemons.size();
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), size);
+        List<ClamdDaemon> ordered = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ordered.add(daemons.get((offset + i) % size));
+        }
+        ordered.sort(Comparator.comparing((ClamdDaemon daemon) -> !daemon.isUp())
+                .thenComparingDouble(ClamdDaemon::load));
+        return ordered;
+    }
+}
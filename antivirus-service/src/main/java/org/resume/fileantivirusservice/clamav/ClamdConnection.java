@@ -0,0 +1,160 @@
+package org.resume.fileantivirusservice.clamav;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Постоянное соединение с clamd в режиме IDSESSION.
+ * <p>
+ * Команды идут в null-terminated формате ({@code z}-префикс), ответ на каждую
+ * приходит с номером запроса: {@code "3: stream: OK"}. Соединение используется
+ * одним потоком за раз, в сессии не больше одной незавершённой команды.
+ */
+final class ClamdConnection implements Closeable {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final byte[] IDSESSION = command("IDSESSION");
+    private static final byte[] PING = command("PING");
+    private static final byte[] INSTREAM = command("INSTREAM");
+    private static final byte[] END = command("END");
+    private static final int STALE_CHECK_TIMEOUT_MS = 1;
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final InputStream in;
+    private final int readTimeoutMs;
+    private long lastUsedNanos = System.nanoTime();
+
+    private ClamdConnection(Socket socket, int readTimeoutMs) throws IOException {
+        this.socket = socket;
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), CHUNK_SIZE + Integer.BYTES));
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    /**
+     * Открывает соединение и начинает сессию. На IDSESSION clamd не отвечает.
+     */
+    static ClamdConnection open(String host, int port, Duration connectTimeout, Duration readTimeout) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), (int) connectTimeout.toMillis());
+            socket.setSoTimeout((int) readTimeout.toMillis());
+            ClamdConnection connection = new ClamdConnection(socket, (int) readTimeout.toMillis());
+            connection.out.write(IDSESSION);
+            connection.out.flush();
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    String ping() throws IOException {
+        out.write(PING);
+        out.flush();
+        return readReply();
+    }
+
+    /**
+     * Отправляет поток чанками {@code <длина uint32><данные>}, завершая нулевым чанком.
+     *
+     * @return ответ clamd без номера запроса
+     */
+    String scan(InputStream data) throws IOException {
+        out.write(INSTREAM);
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int read;
+        while ((read = data.read(chunk)) != -1) {
+            if (read > 0) {
+                out.writeInt(read);
+                out.write(chunk, 0, read);
+            }
+        }
+        out.writeInt(0);
+        out.flush();
+        return readReply();
+    }
+
+    /**
+     * Проверяет, не закрыл ли clamd соединение, пока оно лежало в пуле.
+     * Живое соединение молчит, закрытое отдаёт EOF, а лишние байты означают
+     * рассинхронизацию сессии — такое соединение тоже выбрасывается.
+     */
+    boolean isStale() {
+        try {
+            if (in.available() > 0) {
+                return true;
+            }
+            socket.setSoTimeout(STALE_CHECK_TIMEOUT_MS);
+            try {
+                in.read();
+                return true;
+            } catch (SocketTimeoutException e) {
+                return false;
+            } finally {
+                socket.setSoTimeout(readTimeoutMs);
+            }
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    void touch() {
+        lastUsedNanos = System.nanoTime();
+    }
+
+    Duration idleTime() {
+        return Duration.ofNanos(System.nanoTime() - lastUsedNanos);
+    }
+
+    /**
+     * Завершает сессию командой END и закрывает сокет, ошибки игнорируются.
+     */
+    @Override
+    public void close() {
+        try (socket) {
+            out.write(END);
+            out.flush();
+        } catch (IOException ignored) {
+            // соединение уже оборвано
+        }
+    }
+
+    private String readReply() throws IOException {
+        ByteArrayOutputStream reply = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != 0) {
+            if (b == -1) {
+                throw new EOFException("clamd closed the session");
+            }
+            reply.write(b);
+        }
+        return stripRequestId(reply.toString(StandardCharsets.US_ASCII));
+    }
+
+    private static String stripRequestId(String reply) throws IOException {
+        int separator = reply.indexOf(": ");
+        if (separator <= 0 || !reply.chars().limit(separator).allMatch(Character::isDigit)) {
+            throw new IOException("Reply outside of clamd session: " + reply);
+        }
+        return reply.substring(separator + 2);
+    }
+
+    private static byte[] command(String name) {
+        return ("z" + name + "\0").getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,221 @@
+package org.resume.fileantivirusservice.clamav;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.fileantivirusservice.properties.ClamAVProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Один демон clamd: пул его сессий, состояние и метрики.
+ * <p>
+ * Свободные соединения хранятся стеком — чаще используются «горячие»,
+ * а лишние дольше лежат и первыми уходят по {@code idleTimeout}.
+ * Метрики помечены тегом {@code daemon=host:port}.
+ */
+@Slf4j
+final class ClamdDaemon {
+
+    static final String TAG_DAEMON = "daemon";
+
+    private final String name;
+    private final String host;
+    private final int port;
+    private final int weight;
+    private final ClamAVProperties.Pool pool;
+    private final Deque<ClamdConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private final Timer cleanTimer;
+    private final Timer infectedTimer;
+    private final Timer errorTimer;
+    private volatile boolean up = true;
+
+    ClamdDaemon(ClamAVProperties.Endpoint endpoint, ClamAVProperties.Pool pool, MeterRegistry meterRegistry) {
+        this.host = endpoint.getHost();
+        this.port = endpoint.getPort();
+        this.name = host + ":" + port;
+        this.weight = endpoint.getWeight();
+        this.pool = pool;
+        this.meterRegistry = meterRegistry;
+        this.cleanTimer = scanTimer("clean");
+        this.infectedTimer = scanTimer("infected");
+        this.errorTimer = scanTimer("error");
+        Gauge.builder("clamd.scans.in.flight", inFlight, AtomicInteger::get)
+                .description("Сканирования, выполняющиеся на демоне")
+                .tag(TAG_DAEMON, name)
+                .register(meterRegistry);
+        Gauge.builder("clamd.connections.idle", idle, Deque::size)
+                .description("Свободные сессии в пуле")
+                .tag(TAG_DAEMON, name)
+                .register(meterRegistry);
+        Gauge.builder("clamd.daemon.up", this, daemon -> daemon.up ? 1 : 0)
+                .description("1 — демон отвечает на PING")
+                .tag(TAG_DAEMON, name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Резервирует слот под сканирование до подключения, чтобы параллельные
+     * выборы демона сразу видели нагрузку. Парный вызов — {@link #endScan()}.
+     */
+    void beginScan() {
+        inFlight.incrementAndGet();
+    }
+
+    void endScan() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Сканирует поток на переданном соединении и возвращает соединение в пул.
+     * При ошибке обмена соединение закрывается.
+     */
+    ClamdScanResult scan(ClamdConnection connection, InputStream data) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer timer = errorTimer;
+        try {
+            String reply = connection.scan(data);
+            release(connection);
+            ClamdScanResult result = ClamdScanResult.parse(reply);
+            timer = result.verdict() == ClamdScanResult.Verdict.INFECTED ? infectedTimer : cleanTimer;
+            return result;
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        } finally {
+            sample.stop(timer);
+        }
+    }
+
+    /**
+     * Берёт свободную сессию или открывает новую. Сессии, простоявшие дольше
+     * {@code idleTimeout} или закрытые демоном, отбрасываются.
+     *
+     * @throws IOException если новое соединение открыть не удалось
+     */
+    ClamdConnection borrow() throws IOException {
+        ClamdConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (connection.idleTime().compareTo(pool.getIdleTimeout()) < 0 && !connection.isStale()) {
+                return connection;
+            }
+            connection.close();
+        }
+        return ClamdConnection.open(host, port, pool.getConnectTimeout(), pool.getReadTimeout());
+    }
+
+    void release(ClamdConnection connection) {
+        connection.touch();
+        if (idle.size() < pool.getMaxIdlePerDaemon()) {
+            idle.offerFirst(connection);
+        } else {
+            connection.close();
+        }
+    }
+
+    /**
+     * PING по всем свободным сессиям: проверяет демон и продлевает сессии,
+     * чтобы clamd не закрыл их по своему IdleTimeout. Без свободных сессий
+     * открывает новую — она остаётся в пуле тёплой.
+     *
+     * @return {@code true}, если демон ответил PONG
+     */
+    boolean healthCheck() {
+        List<ClamdConnection> checked = new ArrayList<>();
+        ClamdConnection connection;
+        while ((connection = idle.pollLast()) != null) {
+            checked.add(connection);
+        }
+
+        boolean alive = false;
+        for (ClamdConnection candidate : checked) {
+            alive |= ping(candidate);
+        }
+        if (!alive) {
+            try {
+                alive = ping(ClamdConnection.open(host, port, pool.getConnectTimeout(), pool.getReadTimeout()));
+            } catch (IOException e) {
+                log.debug("clamd {} health check connection failed: {}", name, e.getMessage());
+            }
+        }
+
+        if (alive) {
+            markUp();
+        } else {
+            markDown("PING failed");
+        }
+        return alive;
+    }
+
+    void markUp() {
+        if (!up) {
+            log.info("clamd {} is back up", name);
+        }
+        up = true;
+    }
+
+    void markDown(String reason) {
+        if (up) {
+            log.warn("clamd {} marked down: {}", name, reason);
+        }
+        up = false;
+        closeIdle();
+    }
+
+    /**
+     * Нагрузка с учётом веса: демон с весом 2 получает вдвое больше параллельных сканирований.
+     */
+    double load() {
+        return (inFlight.get() + 1) / (double) weight;
+    }
+
+    boolean isUp() {
+        return up;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    String name() {
+        return name;
+    }
+
+    void closeIdle() {
+        ClamdConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    private boolean ping(ClamdConnection connection) {
+        try {
+            if ("PONG".equals(connection.ping())) {
+                release(connection);
+                return true;
+            }
+        } catch (IOException e) {
+            log.debug("clamd {} PING failed: {}", name, e.getMessage());
+        }
+        connection.close();
+        return false;
+    }
+
+    private Timer scanTimer(String result) {
+        return Timer.builder("clamd.scan.duration")
+                .description("Время INSTREAM на демоне")
+                .tag(TAG_DAEMON, name)
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
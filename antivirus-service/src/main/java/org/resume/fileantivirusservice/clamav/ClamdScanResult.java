@@ -0,0 +1,45 @@
+package org.resume.fileantivirusservice.clamav;
+
+import org.resume.fileantivirusservice.exception.ClamdException;
+
+/**
+ * Результат команды INSTREAM.
+ *
+ * @param verdict   вердикт clamd
+ * @param virusName имя сигнатуры для {@link Verdict#INFECTED}, иначе {@code null}
+ * @param reply     исходный ответ clamd без номера запроса
+ */
+public record ClamdScanResult(Verdict verdict, String virusName, String reply) {
+
+    private static final String STREAM_PREFIX = "stream: ";
+    private static final String OK_SUFFIX = "OK";
+    private static final String FOUND_SUFFIX = " FOUND";
+    private static final String ERROR_SUFFIX = " ERROR";
+
+    public enum Verdict {
+        CLEAN,
+        INFECTED,
+        UNKNOWN
+    }
+
+    /**
+     * Разбирает ответ clamd на INSTREAM.
+     *
+     * @throws ClamdException если clamd ответил ошибкой, например превышен StreamMaxLength
+     */
+    static ClamdScanResult parse(String reply) {
+        if (reply.endsWith(ERROR_SUFFIX)) {
+            throw new ClamdException("clamd error: " + reply);
+        }
+        if (reply.startsWith(STREAM_PREFIX)) {
+            String body = reply.substring(STREAM_PREFIX.length());
+            if (body.equals(OK_SUFFIX)) {
+                return new ClamdScanResult(Verdict.CLEAN, null, reply);
+            }
+            if (body.endsWith(FOUND_SUFFIX)) {
+                return new ClamdScanResult(Verdict.INFECTED, body.substring(0, body.length() - FOUND_SUFFIX.length()), reply);
+            }
+        }
+        return new ClamdScanResult(Verdict.UNKNOWN, null, reply);
+    }
+}
@@ -1,20 +1,22 @@
 package org.resume.fileantivirusservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.resume.fileantivirusservice.clamav.ClamdClient;
 import org.resume.fileantivirusservice.properties.ClamAVProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import xyz.capybara.clamav.ClamavClient;
 
 /**
- * Конфигурация ClamAV клиента для антивирусного сканирования.
+ * Конфигурация клиента clamd для антивирусного сканирования.
  * <p>
- * Создает {@link ClamavClient} с настройками подключения к ClamAV демону.
- * Используется для сканирования файлов на вирусы через TCP соединение.
+ * Создаёт {@link ClamdClient} с пулом постоянных сессий (IDSESSION)
+ * к каждому демону из {@link ClamAVProperties} и балансировкой между ними.
+ * Метрики демонов публикуются в {@link MeterRegistry}.
  *
  * @see ClamAVProperties
- * @see ClamavClient
+ * @see ClamdClient
  */
 @Slf4j
 @Configuration
@@ -23,14 +25,14 @@ public class ClamAVConfig {
 
     private final ClamAVProperties clamAVProperties;
 
-    @Bean
-    public ClamavClient clamavClient() {
-        log.info("Initializing ClamAV client: {}:{}",
-                clamAVProperties.getHost(), clamAVProperties.getPort());
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ClamdClient clamdClient(MeterRegistry meterRegistry) {
+        log.info("Initializing clamd client: endpoints={}", clamAVProperties.resolveEndpoints());
 
-        return new ClamavClient(
-                clamAVProperties.getHost(),
-                clamAVProperties.getPort()
+        return new ClamdClient(
+                clamAVProperties.resolveEndpoints(),
+                clamAVProperties.getPool(),
+                meterRegistry
         );
     }
 
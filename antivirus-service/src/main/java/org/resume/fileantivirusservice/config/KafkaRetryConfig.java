@@ -3,9 +3,12 @@ package org.resume.fileantivirusservice.config;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.resume.common.model.FileUploadEvent;
 import org.resume.common.properties.KafkaProperties;
 import org.resume.fileantivirusservice.constant.ErrorMessages;
+import org.resume.fileantivirusservice.consumer.ParallelFileUploadConsumer;
+import org.resume.fileantivirusservice.consumer.RetryTierConsumer;
 import org.resume.fileantivirusservice.producer.FileScanResultProducer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +17,11 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 /**
  * Конфигурация Kafka retry и Dead Letter Topic.
@@ -25,6 +33,11 @@ import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
  *   <li>Логирование каждой retry попытки</li>
  * </ul>
  * <p>
+ * В неблокирующем режиме ({@code kafka.retry.non-blocking}) повторов на месте нет:
+ * упавшая запись сразу уходит на следующий уровень {@link RetryTiers}, а партиция
+ * продолжает читаться. Уровни обрабатывает {@link RetryTierConsumer}, с последнего
+ * запись уходит в DLT с тем же уведомлением об ERROR статусе.
+ * <p>
  * @see KafkaProperties
  */
 @Slf4j
@@ -44,20 +57,40 @@ public class KafkaRetryConfig {
      */
     @Bean
     public DefaultErrorHandler errorHandler() {
-        ExponentialBackOffWithMaxRetries backOff = createBackOff();
-        DeadLetterPublishingRecoverer recoverer = createRecoverer();
-
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(deadLetterRecoverer(), scanRetryBackOff());
         configureRetryListener(errorHandler);
 
         return errorHandler;
     }
 
+    /**
+     * Уровни retry-топиков; в блокирующем режиме цепочка пуста.
+     */
+    @Bean
+    public RetryTiers retryTiers() {
+        KafkaProperties.RetryConfig retry = kafkaProperties.getRetry();
+        if (!retry.isNonBlocking()) {
+            return RetryTiers.none();
+        }
+
+        RetryTiers tiers = RetryTiers.of(kafkaProperties.getTopics().getFileUploadEvents(), retry.getTopicDelays());
+        log.info("Non-blocking retry enabled: tiers={}", tiers.tiers());
+        return tiers;
+    }
+
     /**
      * Создаёт BackOff стратегию с exponential увеличением задержки.
+     * <p>
+     * Используется и {@link #errorHandler()}, и {@link ParallelFileUploadConsumer},
+     * который повторяет попытки в рабочем потоке. В неблокирующем режиме
+     * повторов на месте нет — запись сразу передаётся recoverer'у.
      */
-    private ExponentialBackOffWithMaxRetries createBackOff() {
+    @Bean
+    public BackOff scanRetryBackOff() {
         KafkaProperties.RetryConfig retry = kafkaProperties.getRetry();
+        if (retry.isNonBlocking()) {
+            return new FixedBackOff(0, 0);
+        }
 
         ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(
                 retry.getMaxAttempts()
@@ -70,30 +103,54 @@ public class KafkaRetryConfig {
     }
 
     /**
-     * Создаёт recoverer для отправки failed сообщений в DLT.
+     * Создаёт recoverer для отправки failed сообщений дальше по цепочке.
      * <p>
-     * Сохраняет оригинальный partition для консистенции.
+     * Пока есть следующий уровень {@link RetryTiers}, запись уходит туда
+     * с заголовком {@link RetryTiers#DUE_AT_HEADER}, иначе — в DLT.
+     * В DLT сохраняется оригинальный partition для консистенции.
      *
      * @return настроенный recoverer
      */
-    private DeadLetterPublishingRecoverer createRecoverer() {
-        return new DeadLetterPublishingRecoverer(
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer() {
+        RetryTiers tiers = retryTiers();
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
                 kafkaTemplate,
                 (record, e) -> {
+                    Optional<RetryTiers.Tier> next = tiers.next(record.topic());
+                    if (next.isPresent()) {
+                        log.warn("Sending to retry topic {}: topic={}, key={}, error={}",
+                                next.get().topic(),
+                                record.topic(),
+                                record.key(),
+                                e.getMessage());
+                        return new TopicPartition(next.get().topic(), -1);
+                    }
+
                     log.error("Sending to DLT after {} attempts: topic={}, key={}, error={}",
-                            kafkaProperties.getRetry().getMaxAttempts(),
+                            tiers.isEmpty() ? kafkaProperties.getRetry().getMaxAttempts() : tiers.tiers().size(),
                             record.topic(),
                             record.key(),
                             e.getMessage());
 
                     sendErrorStatus(record.value());
 
+                    boolean fromMainTopic = record.topic().equals(kafkaProperties.getTopics().getFileUploadEvents());
                     return new TopicPartition(
                             kafkaProperties.getTopics().getFileUploadEventsDlt(),
-                            record.partition()
+                            fromMainTopic ? record.partition() : -1
                     );
                 }
         );
+        recoverer.setHeadersFunction((record, e) -> tiers.next(record.topic())
+                .map(tier -> {
+                    long dueAt = System.currentTimeMillis() + tier.delay().toMillis();
+                    RecordHeaders headers = new RecordHeaders();
+                    headers.add(RetryTiers.DUE_AT_HEADER, Long.toString(dueAt).getBytes(StandardCharsets.US_ASCII));
+                    return headers;
+                })
+                .orElse(null));
+        return recoverer;
     }
 
     /**
@@ -117,7 +174,7 @@ public class KafkaRetryConfig {
      * Настраивает логирование retry попыток.
      * <p>
      * Логирует только попытки до достижения лимита,
-     * последняя попытка логируется в {@link #createRecoverer()}.
+     * последняя попытка логируется в {@link #deadLetterRecoverer()}.
      *
      * @param errorHandler error handler для настройки
      */
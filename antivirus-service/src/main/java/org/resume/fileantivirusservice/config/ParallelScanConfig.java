@@ -0,0 +1,38 @@
+package org.resume.fileantivirusservice.config;
+
+import org.resume.fileantivirusservice.consumer.ParallelFileUploadConsumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Конфигурация контейнера для {@link ParallelFileUploadConsumer}.
+ * <p>
+ * Подтверждения ручные и асинхронные: записи можно подтверждать в любом порядке
+ * и из любого потока, контейнер откладывает коммит, пока не закроется разрыв
+ * перед подтверждённым offset. Пока не подтверждены все записи предыдущего poll,
+ * консьюмер стоит на паузе — в памяти не больше одного poll на партицию.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "scan.processing", name = "parallel-enabled", havingValue = "true")
+public class ParallelScanConfig {
+
+    public static final String CONTAINER_FACTORY = "parallelScanContainerFactory";
+
+    @Bean(CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> parallelScanContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setAsyncAcks(true);
+        return factory;
+    }
+}
@@ -0,0 +1,59 @@
+package org.resume.fileantivirusservice.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Цепочка retry-топиков неблокирующего режима.
+ * <p>
+ * Топик уровня называется {@code <основной>-retry-<задержка в секундах>s},
+ * например {@code file-upload-events-retry-10s}. Запись, упавшая в основном
+ * топике, уходит на первый уровень, упавшая на уровне — на следующий,
+ * с последнего — в DLT. Пустая цепочка — блокирующий режим: сразу в DLT.
+ *
+ * @param tiers уровни в порядке прохождения
+ */
+public record RetryTiers(List<Tier> tiers) {
+
+    /**
+     * Время (epoch millis, ASCII), раньше которого запись уровня не обрабатывается.
+     */
+    public static final String DUE_AT_HEADER = "scan-retry-due-at";
+
+    /**
+     * Уровень повторов: записи в {@code topic} обрабатываются не раньше,
+     * чем через {@code delay} после попадания туда.
+     */
+    public record Tier(String topic, Duration delay) {
+    }
+
+    public static RetryTiers of(String mainTopic, List<Duration> delays) {
+        return new RetryTiers(delays.stream()
+                .map(delay -> new Tier(mainTopic + "-retry-" + delay.toSeconds() + "s", delay))
+                .toList());
+    }
+
+    public static RetryTiers none() {
+        return new RetryTiers(List.of());
+    }
+
+    /**
+     * Следующий уровень для записи, упавшей в {@code topic}.
+     *
+     * @return уровень или пусто, если дальше только DLT
+     */
+    public Optional<Tier> next(String topic) {
+        int current = IntStream.range(0, tiers.size())
+                .filter(i -> tiers.get(i).topic().equals(topic))
+                .findFirst()
+                .orElse(-1);
+        int next = current + 1;
+        return next < tiers.size() ? Optional.of(tiers.get(next)) : Optional.empty();
+    }
+
+    public boolean isEmpty() {
+        return tiers.isEmpty();
+    }
+}
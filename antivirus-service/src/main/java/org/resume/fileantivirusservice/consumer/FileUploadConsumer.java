@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.resume.common.model.FileUploadEvent;
 import org.resume.fileantivirusservice.config.KafkaRetryConfig;
 import org.resume.fileantivirusservice.service.FileOrchestrationService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -13,11 +14,16 @@ import org.springframework.stereotype.Component;
  * <p>
  * Retry и DLT настроены в {@link KafkaRetryConfig}.
  * При ошибке Spring Kafka автоматически делает retry с exponential backoff,
- * после исчерпания попыток отправляет в DLT.
+ * после исчерпания попыток отправляет в DLT. В неблокирующем режиме запись
+ * сразу уходит в retry-топик ({@link RetryTierConsumer}), партиция не ждёт.
+ * <p>
+ * Записи партиции обрабатываются строго по одной. Работает, когда
+ * scan.processing.parallel-enabled выключен, иначе — {@link ParallelFileUploadConsumer}.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "scan.processing", name = "parallel-enabled", havingValue = "false", matchIfMissing = true)
 public class FileUploadConsumer {
 
     private final FileOrchestrationService fileOrchestrationService;
@@ -0,0 +1,74 @@
+package org.resume.fileantivirusservice.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Исполнитель, сохраняющий порядок задач внутри ключа.
+ * <p>
+ * Задачи с разными ключами выполняются параллельно, не больше
+ * {@code maxConcurrency} одновременно. Задача с ключом, по которому
+ * ещё выполняется предыдущая, ставится за ней в цепочку и не занимает
+ * поток, пока ждёт. Задачи без ключа упорядочивать не с чем.
+ */
+@Slf4j
+class KeyOrderedExecutor {
+
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    KeyOrderedExecutor(int maxConcurrency) {
+        this.executor = Executors.newFixedThreadPool(maxConcurrency, new CustomizableThreadFactory("scan-worker-"));
+    }
+
+    /**
+     * Ставит задачу в очередь ключа.
+     *
+     * @param key  ключ упорядочивания, {@code null} — без упорядочивания
+     * @param task задача; исключения логируются и не прерывают очередь ключа
+     * @return future, завершающийся после выполнения задачи
+     */
+    CompletableFuture<Void> submit(String key, Runnable task) {
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Ordered task failed: key={}", key, e);
+            }
+        };
+        if (key == null) {
+            return CompletableFuture.runAsync(guarded, executor);
+        }
+
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.runAsync(guarded, executor)
+                : tail.thenRunAsync(guarded, executor));
+        next.whenComplete((result, e) -> tails.remove(key, next));
+        return next;
+    }
+
+    /**
+     * Количество ключей, по которым есть незавершённые задачи.
+     */
+    int activeKeys() {
+        return tails.size();
+    }
+
+    /**
+     * Перестаёт принимать задачи и ждёт завершения начатых.
+     *
+     * @return {@code true}, если все задачи завершились за отведённое время
+     */
+    boolean shutdown(Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
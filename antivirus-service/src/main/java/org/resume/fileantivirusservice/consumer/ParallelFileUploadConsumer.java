@@ -0,0 +1,140 @@
+package org.resume.fileantivirusservice.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.fileantivirusservice.config.KafkaRetryConfig;
+import org.resume.fileantivirusservice.config.ParallelScanConfig;
+import org.resume.fileantivirusservice.properties.ScanProcessingProperties;
+import org.resume.fileantivirusservice.service.FileOrchestrationService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * Consumer событий загрузки с параллельным сканированием внутри партиции.
+ * <p>
+ * Записи одной партиции сканируются одновременно, порядок сохраняется только
+ * для записей с одинаковым ключом ({@link KeyOrderedExecutor}). Поэтому
+ * пропускная способность ограничена числом потоков clamd, а не числом партиций.
+ * <p>
+ * Запись подтверждается после обработки, а контейнер ({@link ParallelScanConfig})
+ * коммитит offset только до наименьшей незавершённой записи: после падения
+ * или ребаланса незавершённые записи будут прочитаны повторно.
+ * <p>
+ * Retry и DLT — те же, что в {@link KafkaRetryConfig}, но выполняются
+ * в рабочем потоке: ожидание повтора не блокирует остальные ключи.
+ * В неблокирующем режиме упавшая запись сразу уходит в retry-топик.
+ * Включается через scan.processing.parallel-enabled, иначе работает
+ * {@link FileUploadConsumer}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "scan.processing", name = "parallel-enabled", havingValue = "true")
+public class ParallelFileUploadConsumer implements DisposableBean {
+
+    private static final long RECOVERY_RETRY_DELAY_MS = 5000;
+
+    private final FileOrchestrationService fileOrchestrationService;
+    private final BackOff scanRetryBackOff;
+    private final ConsumerRecordRecoverer deadLetterRecoverer;
+    private final ScanProcessingProperties scanProcessingProperties;
+    private final KeyOrderedExecutor executor;
+
+    public ParallelFileUploadConsumer(FileOrchestrationService fileOrchestrationService,
+                                      BackOff scanRetryBackOff,
+                                      ConsumerRecordRecoverer deadLetterRecoverer,
+                                      ScanProcessingProperties scanProcessingProperties) {
+        this.fileOrchestrationService = fileOrchestrationService;
+        this.scanRetryBackOff = scanRetryBackOff;
+        this.deadLetterRecoverer = deadLetterRecoverer;
+        this.scanProcessingProperties = scanProcessingProperties;
+        this.executor = new KeyOrderedExecutor(scanProcessingProperties.getMaxConcurrency());
+        log.info("Parallel scan processing enabled: maxConcurrency={}", scanProcessingProperties.getMaxConcurrency());
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topics.file-upload-events}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = ParallelScanConfig.CONTAINER_FACTORY
+    )
+    public void consumeFileUploadEvent(ConsumerRecord<String, FileUploadEvent> record, Acknowledgment acknowledgment) {
+        FileUploadEvent event = record.value();
+        log.info("Received file upload event: fileId={}, s3Key={}, partition={}, offset={}",
+                event.getFileId(), event.getS3Key(), record.partition(), record.offset());
+
+        executor.submit(record.key(), () -> process(record, acknowledgment));
+    }
+
+    /**
+     * Обрабатывает запись с повторами; после исчерпания попыток отправляет её в DLT.
+     * Запись подтверждается только после успеха или отправки в DLT.
+     */
+    void process(ConsumerRecord<String, FileUploadEvent> record, Acknowledgment acknowledgment) {
+        BackOffExecution backOff = scanRetryBackOff.start();
+        int attempt = 1;
+        while (true) {
+            try {
+                fileOrchestrationService.processFileUpload(record.value());
+                acknowledgment.acknowledge();
+                return;
+            } catch (RuntimeException e) {
+                long delay = backOff.nextBackOff();
+                if (delay == BackOffExecution.STOP) {
+                    if (recover(record, e)) {
+                        acknowledgment.acknowledge();
+                        return;
+                    }
+                    if (!sleep(RECOVERY_RETRY_DELAY_MS)) {
+                        return;
+                    }
+                    backOff = scanRetryBackOff.start();
+                    attempt = 1;
+                    continue;
+                }
+
+                log.warn("Retry attempt {}: topic={}, key={}, error={}",
+                        attempt++, record.topic(), record.key(), e.getMessage());
+                if (!sleep(delay)) {
+                    log.warn("Scan interrupted, record will be redelivered: partition={}, offset={}",
+                            record.partition(), record.offset());
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean recover(ConsumerRecord<String, FileUploadEvent> record, RuntimeException cause) {
+        try {
+            deadLetterRecoverer.accept(record, cause);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to send record to DLT, retrying: partition={}, offset={}",
+                    record.partition(), record.offset(), e);
+            return false;
+        }
+    }
+
+    private boolean sleep(long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!executor.shutdown(scanProcessingProperties.getShutdownTimeout())) {
+            log.warn("Scan workers did not finish in {}, unacknowledged records will be redelivered",
+                    scanProcessingProperties.getShutdownTimeout());
+        }
+    }
+}
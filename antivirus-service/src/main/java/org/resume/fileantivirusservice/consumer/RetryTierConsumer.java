@@ -0,0 +1,121 @@
+package org.resume.fileantivirusservice.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.fileantivirusservice.config.KafkaRetryConfig;
+import org.resume.fileantivirusservice.config.RetryTiers;
+import org.resume.fileantivirusservice.service.FileOrchestrationService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Consumer retry-топиков неблокирующего режима.
+ * <p>
+ * На каждый уровень {@link RetryTiers} — отдельный контейнер, чтобы ожидание
+ * на одном уровне не задерживало другие. Задержка уровня одинакова для всех
+ * его записей, поэтому они созревают в порядке offset: если первая запись ещё
+ * не созрела, контейнер через {@link Acknowledgment#nack(Duration)} ставит
+ * партицию на паузу до её срока, не занимая поток сном.
+ * <p>
+ * Ошибка обработки уходит в error handler из {@link KafkaRetryConfig}:
+ * без повторов на месте, на следующий уровень или в DLT.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kafka.retry", name = "non-blocking", havingValue = "true")
+public class RetryTierConsumer implements SmartLifecycle {
+
+    private final FileOrchestrationService fileOrchestrationService;
+    private final RetryTiers retryTiers;
+    private final ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory;
+    private List<ConcurrentMessageListenerContainer<Object, Object>> containers = List.of();
+    private volatile boolean running;
+
+    public RetryTierConsumer(FileOrchestrationService fileOrchestrationService,
+                             RetryTiers retryTiers,
+                             @Qualifier("kafkaListenerContainerFactory")
+                             ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory) {
+        this.fileOrchestrationService = fileOrchestrationService;
+        this.retryTiers = retryTiers;
+        this.containerFactory = containerFactory;
+    }
+
+    @Override
+    public void start() {
+        containers = retryTiers.tiers().stream()
+                .map(this::createContainer)
+                .toList();
+        containers.forEach(ConcurrentMessageListenerContainer::start);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Обрабатывает запись уровня, если её срок наступил, иначе откладывает.
+     */
+    void onRetry(ConsumerRecord<String, FileUploadEvent> record, Acknowledgment acknowledgment) {
+        long remainingMs = dueAt(record) - System.currentTimeMillis();
+        if (remainingMs > 0) {
+            log.debug("Retry record not due yet: topic={}, offset={}, remaining={}ms",
+                    record.topic(), record.offset(), remainingMs);
+            acknowledgment.nack(Duration.ofMillis(remainingMs));
+            return;
+        }
+
+        FileUploadEvent event = record.value();
+        log.info("Retrying file upload event: topic={}, fileId={}, s3Key={}",
+                record.topic(), event.getFileId(), event.getS3Key());
+        fileOrchestrationService.processFileUpload(event);
+        acknowledgment.acknowledge();
+    }
+
+    private ConcurrentMessageListenerContainer<Object, Object> createContainer(RetryTiers.Tier tier) {
+        ConcurrentMessageListenerContainer<Object, Object> container = containerFactory.createContainer(tier.topic());
+        container.setBeanName("scanRetry-" + tier.topic());
+        ContainerProperties containerProperties = container.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setMessageListener(
+                (AcknowledgingMessageListener<String, FileUploadEvent>) this::onRetry);
+        log.info("Retry tier consumer created: topic={}, delay={}", tier.topic(), tier.delay());
+        return container;
+    }
+
+    /**
+     * Срок записи: из заголовка recoverer'а, а без него — время записи плюс задержка уровня.
+     */
+    private long dueAt(ConsumerRecord<String, FileUploadEvent> record) {
+        Header header = record.headers().lastHeader(RetryTiers.DUE_AT_HEADER);
+        if (header != null) {
+            return Long.parseLong(new String(header.value(), StandardCharsets.US_ASCII));
+        }
+        Duration delay = retryTiers.tiers().stream()
+                .filter(tier -> tier.topic().equals(record.topic()))
+                .map(RetryTiers.Tier::delay)
+                .findFirst()
+                .orElse(Duration.ZERO);
+        return record.timestamp() + delay.toMillis();
+    }
+}
@@ -0,0 +1,15 @@
+package org.resume.fileantivirusservice.exception;
+
+/**
+ * Ошибка обмена с clamd: демон недоступен, оборвал соединение
+ * или ответил ошибкой на команду.
+ */
+public class ClamdException extends TechnicalException {
+    public ClamdException(String message) {
+        super(message);
+    }
+
+    public ClamdException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
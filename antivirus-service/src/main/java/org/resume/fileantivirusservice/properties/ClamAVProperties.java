@@ -1,22 +1,88 @@
 package org.resume.fileantivirusservice.properties;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки подключения к clamd.
+ * <p>
+ * Демоны задаются списком {@code endpoints} с весами; если список пуст,
+ * используется один демон {@code host}:{@code port}.
+ */
 @Data
 @Validated
 @Component
 @ConfigurationProperties(prefix = "clamav")
 public class ClamAVProperties {
 
-    @NotBlank(message = "ClamAV host cannot be empty")
     private String host;
 
-    @NotNull(message = "ClamAV port cannot be null")
     private Integer port;
 
+    @Valid
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Valid
+    @NotNull(message = "ClamAV pool settings cannot be null")
+    private Pool pool = new Pool();
+
+    /**
+     * Демоны, между которыми распределяются сканирования.
+     */
+    public List<Endpoint> resolveEndpoints() {
+        if (!endpoints.isEmpty()) {
+            return endpoints;
+        }
+        return List.of(new Endpoint(host, port, 1));
+    }
+
+    @AssertTrue(message = "ClamAV endpoints or host and port must be set")
+    public boolean isEndpointConfigured() {
+        return !endpoints.isEmpty() || (host != null && !host.isBlank() && port != null);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Endpoint {
+        @NotBlank(message = "ClamAV host cannot be empty")
+        private String host;
+
+        @NotNull(message = "ClamAV port cannot be null")
+        private Integer port;
+
+        @Min(value = 1, message = "ClamAV weight must be at least 1")
+        private int weight = 1;
+    }
+
+    @Data
+    public static class Pool {
+        @Min(value = 0, message = "Max idle connections cannot be negative")
+        private int maxIdlePerDaemon = 8;
+
+        @NotNull(message = "Idle timeout cannot be null")
+        private Duration idleTimeout = Duration.ofSeconds(20);
+
+        @NotNull(message = "Connect timeout cannot be null")
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        @NotNull(message = "Read timeout cannot be null")
+        private Duration readTimeout = Duration.ofSeconds(60);
+
+        @NotNull(message = "Health check interval cannot be null")
+        private Duration healthCheckInterval = Duration.ofSeconds(10);
+    }
 }
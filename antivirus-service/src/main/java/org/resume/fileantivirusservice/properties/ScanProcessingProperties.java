@@ -0,0 +1,36 @@
+package org.resume.fileantivirusservice.properties;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки параллельной обработки событий загрузки.
+ * <p>
+ * {@code parallelEnabled} — сканировать записи одной партиции параллельно
+ * с сохранением порядка по ключу, {@code maxConcurrency} — сколько файлов
+ * сканируется одновременно (не больше потоков clamd, MaxThreads).
+ */
+@Data
+@Validated
+@Component
+@ConfigurationProperties(prefix = "scan.processing")
+public class ScanProcessingProperties {
+
+    private boolean parallelEnabled;
+
+    @NotNull(message = "Max concurrency cannot be null")
+    @Min(value = 1, message = "Max concurrency must be at least 1")
+    @Max(value = 256, message = "Max concurrency must be at most 256")
+    private Integer maxConcurrency;
+
+    @NotNull(message = "Shutdown timeout cannot be null")
+    private Duration shutdownTimeout;
+
+}
@@ -0,0 +1,212 @@
+package org.resume.fileantivirusservice.clamav;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.fileantivirusservice.exception.ClamdException;
+import org.resume.fileantivirusservice.properties.ClamAVProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ClamdClient — пул сессий, балансировка и отказоустойчивость на встроенном clamd")
+class ClamdClientTest {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources.reversed()) {
+            resource.close();
+        }
+    }
+
+    /**
+     * Последовательные сканирования идут через одну сессию IDSESSION.
+     */
+    @Test
+    void shouldReuseSingleSession_whenScanningSequentially() throws IOException {
+        FakeClamd clamd = daemon();
+        ClamdClient client = client(endpoint(clamd, 1));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(client.scan(clean()).verdict()).isEqualTo(ClamdScanResult.Verdict.CLEAN);
+        }
+
+        assertThat(clamd.acceptedConnections()).isEqualTo(1);
+        assertThat(meterRegistry.get("clamd.scan.duration").tag("result", "clean").timer().count()).isEqualTo(5);
+    }
+
+    /**
+     * Сигнатура в потоке — вердикт INFECTED с именем вируса.
+     */
+    @Test
+    void shouldReturnVirusName_whenStreamIsInfected() throws IOException {
+        ClamdClient client = client(endpoint(daemon(), 1));
+
+        ClamdScanResult result = client.scan(stream("header " + FakeClamd.SIGNATURE + " trailer"));
+
+        assertThat(result.verdict()).isEqualTo(ClamdScanResult.Verdict.INFECTED);
+        assertThat(result.virusName()).isEqualTo(FakeClamd.VIRUS_NAME);
+    }
+
+    /**
+     * Ответ ERROR (превышен StreamMaxLength) — исключение, следующий скан открывает новую сессию.
+     */
+    @Test
+    void shouldThrowAndRecover_whenClamdRepliesError() throws IOException {
+        FakeClamd clamd = daemon();
+        ClamdClient client = client(endpoint(clamd, 1));
+
+        assertThatThrownBy(() -> client.scan(new ByteArrayInputStream(new byte[2 * 1024 * 1024])))
+                .isInstanceOf(ClamdException.class);
+
+        assertThat(client.scan(clean()).verdict()).isEqualTo(ClamdScanResult.Verdict.CLEAN);
+        assertThat(clamd.acceptedConnections()).isEqualTo(2);
+    }
+
+    /**
+     * Сессия, закрытая демоном в пуле, отбрасывается при выдаче — скан не падает.
+     */
+    @Test
+    void shouldDiscardStaleSession_whenDaemonClosedIt() throws Exception {
+        FakeClamd clamd = daemon();
+        ClamdClient client = client(endpoint(clamd, 1));
+        client.scan(clean());
+
+        clamd.dropSessions();
+        await(() -> client.daemons().getFirst().inFlight() == 0);
+
+        assertThat(client.scan(clean()).verdict()).isEqualTo(ClamdScanResult.Verdict.CLEAN);
+        assertThat(clamd.acceptedConnections()).isEqualTo(2);
+    }
+
+    /**
+     * Одновременные сканирования распределяются по наименьшей нагрузке с учётом веса.
+     */
+    @Test
+    void shouldSpreadConcurrentScansByWeight_whenSeveralDaemons() throws Exception {
+        FakeClamd light = daemon();
+        FakeClamd heavy = daemon();
+        light.hold();
+        heavy.hold();
+        ClamdClient client = client(endpoint(light, 1), endpoint(heavy, 2));
+
+        List<CompletableFuture<ClamdScanResult>> scans = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            scans.add(CompletableFuture.supplyAsync(() -> client.scan(clean())));
+            int started = i;
+            await(() -> light.activeScans() + heavy.activeScans() == started);
+        }
+        light.release();
+        heavy.release();
+        CompletableFuture.allOf(scans.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(light.completedScans()).isEqualTo(2);
+        assertThat(heavy.completedScans()).isEqualTo(4);
+    }
+
+    /**
+     * Недоступный демон помечается down, сканирования уходят на живой.
+     */
+    @Test
+    void shouldFailOverToLiveDaemon_whenOneIsDown() throws Exception {
+        FakeClamd dead = daemon();
+        FakeClamd live = daemon();
+        ClamdClient client = client(endpoint(dead, 1), endpoint(live, 1));
+        dead.close();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(client.scan(clean()).verdict()).isEqualTo(ClamdScanResult.Verdict.CLEAN);
+        }
+
+        assertThat(live.completedScans()).isEqualTo(4);
+        assertThat(upGauge(dead)).isZero();
+        assertThat(upGauge(live)).isEqualTo(1);
+    }
+
+    /**
+     * Все демоны недоступны — исключение о недоступности ClamAV.
+     */
+    @Test
+    void shouldThrow_whenAllDaemonsAreDown() throws Exception {
+        FakeClamd dead = daemon();
+        ClamdClient client = client(endpoint(dead, 1));
+        dead.close();
+
+        assertThatThrownBy(() -> client.scan(clean()))
+                .isInstanceOf(ClamdException.class)
+                .hasCauseInstanceOf(IOException.class);
+    }
+
+    /**
+     * PING возвращает поднявшийся демон в работу.
+     */
+    @Test
+    void shouldMarkDaemonUp_whenHealthCheckSucceedsAfterRestart() throws Exception {
+        FakeClamd clamd = daemon();
+        int port = clamd.port();
+        ClamdClient client = client(endpoint(clamd, 1));
+        clamd.close();
+        assertThat(client.checkHealth()).isZero();
+
+        FakeClamd restarted = FakeClamd.start(port);
+        resources.add(restarted);
+
+        assertThat(client.checkHealth()).isEqualTo(1);
+        assertThat(upGauge(restarted)).isEqualTo(1);
+        assertThat(client.scan(clean()).verdict()).isEqualTo(ClamdScanResult.Verdict.CLEAN);
+    }
+
+    private FakeClamd daemon() throws IOException {
+        FakeClamd clamd = FakeClamd.start();
+        resources.add(clamd);
+        return clamd;
+    }
+
+    private ClamdClient client(ClamAVProperties.Endpoint... endpoints) {
+        ClamAVProperties.Pool pool = new ClamAVProperties.Pool();
+        ClamdClient client = new ClamdClient(List.of(endpoints), pool, meterRegistry);
+        resources.add(client);
+        return client;
+    }
+
+    private static ClamAVProperties.Endpoint endpoint(FakeClamd clamd, int weight) {
+        return new ClamAVProperties.Endpoint("127.0.0.1", clamd.port(), weight);
+    }
+
+    private double upGauge(FakeClamd clamd) {
+        return meterRegistry.get("clamd.daemon.up").tag(ClamdDaemon.TAG_DAEMON, "127.0.0.1:" + clamd.port()).gauge().value();
+    }
+
+    private static InputStream clean() {
+        return stream("plain text document");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in 5s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.resume.fileantivirusservice.clamav;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Встроенный в тесты clamd: TCP-сервер с PING, IDSESSION, INSTREAM и END.
+ * <p>
+ * Поток с подстрокой {@link #SIGNATURE} считается заражённым, поток длиннее
+ * {@code streamMaxLength} отклоняется ошибкой, как у настоящего clamd.
+ * {@link #hold()} задерживает ответы на INSTREAM до {@link #release()}.
+ */
+class FakeClamd implements AutoCloseable {
+
+    static final String SIGNATURE = "X5O!P%@AP[4\\PZX54(P^)7CC)7}$EICAR-STANDARD-ANTIVIRUS-TEST-FILE!";
+    static final String VIRUS_NAME = "Eicar-Test-Signature";
+
+    private final ServerSocket serverSocket;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private final AtomicInteger activeScans = new AtomicInteger();
+    private final AtomicInteger completedScans = new AtomicInteger();
+    private final int streamMaxLength;
+    private final Thread acceptThread;
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    private FakeClamd(ServerSocket serverSocket, int streamMaxLength) {
+        this.serverSocket = serverSocket;
+        this.streamMaxLength = streamMaxLength;
+        this.acceptThread = Thread.ofVirtual().name("fake-clamd-accept").start(this::acceptLoop);
+    }
+
+    static FakeClamd start() throws IOException {
+        return start(0);
+    }
+
+    static FakeClamd start(int port) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        return new FakeClamd(socket, 1024 * 1024);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    int acceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    int activeScans() {
+        return activeScans.get();
+    }
+
+    int completedScans() {
+        return completedScans.get();
+    }
+
+    void hold() {
+        gate = new CountDownLatch(1);
+    }
+
+    void release() {
+        gate.countDown();
+    }
+
+    /**
+     * Закрывает все сессии, продолжая принимать новые — как clamd по IdleTimeout.
+     */
+    void dropSessions() {
+        clients.forEach(FakeClamd::closeQuietly);
+    }
+
+    /**
+     * Останавливает демон: порт закрыт, сессии оборваны.
+     * Закрытие сокета, на котором ждёт accept, завершается асинхронно,
+     * поэтому ждём поток приёма — после возврата порт гарантированно закрыт.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        release();
+        closeQuietly(serverSocket);
+        acceptThread.join();
+        dropSessions();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                if (serverSocket.isClosed()) {
+                    closeQuietly(client);
+                    return;
+                }
+                acceptedConnections.incrementAndGet();
+                clients.add(client);
+                Thread.ofVirtual().name("fake-clamd-session").start(() -> serve(client));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+            OutputStream out = client.getOutputStream();
+            boolean session = false;
+            int requestId = 0;
+            while (true) {
+                String command = readCommand(in);
+                String reply;
+                switch (command) {
+                    case "IDSESSION" -> {
+                        session = true;
+                        continue;
+                    }
+                    case "END" -> {
+                        return;
+                    }
+                    case "PING" -> reply = "PONG";
+                    case "INSTREAM" -> reply = instream(in);
+                    default -> reply = "UNKNOWN COMMAND";
+                }
+                String prefix = session ? ++requestId + ": " : "";
+                out.write((prefix + reply + "\0").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                if (!session || reply.endsWith("ERROR")) {
+                    return;
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // клиент закрыл соединение или демон остановлен
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    private String instream(DataInputStream in) throws IOException, InterruptedException {
+        activeScans.incrementAndGet();
+        try {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            int length;
+            while ((length = in.readInt()) > 0) {
+                if (data.size() + length > streamMaxLength) {
+                    return "INSTREAM size limit exceeded. ERROR";
+                }
+                data.write(in.readNBytes(length));
+            }
+            gate.await();
+            completedScans.incrementAndGet();
+            return data.toString(StandardCharsets.ISO_8859_1).contains(SIGNATURE)
+                    ? "stream: " + VIRUS_NAME + " FOUND"
+                    : "stream: OK";
+        } finally {
+            activeScans.decrementAndGet();
+        }
+    }
+
+    private static String readCommand(DataInputStream in) throws IOException {
+        int prefix = in.read();
+        if (prefix == -1) {
+            throw new EOFException();
+        }
+        int terminator = prefix == 'z' ? 0 : '\n';
+        ByteArrayOutputStream command = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != terminator) {
+            if (b == -1) {
+                throw new EOFException();
+            }
+            command.write(b);
+        }
+        return command.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // уже закрыт
+        }
+    }
+}
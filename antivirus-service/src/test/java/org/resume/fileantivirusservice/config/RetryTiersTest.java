@@ -0,0 +1,39 @@
+package org.resume.fileantivirusservice.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryTiersTest {
+
+    private static final String TOPIC = "file-upload-events";
+
+    private final RetryTiers tiers = RetryTiers.of(TOPIC, List.of(Duration.ofSeconds(10), Duration.ofMinutes(1)));
+
+    @Test
+    @DisplayName("Имена уровней содержат задержку в секундах")
+    void shouldNameTiersByDelay() {
+        assertThat(tiers.tiers()).extracting(RetryTiers.Tier::topic)
+                .containsExactly("file-upload-events-retry-10s", "file-upload-events-retry-60s");
+    }
+
+    @Test
+    @DisplayName("Из основного топика — на первый уровень, с уровня — на следующий, с последнего — в DLT")
+    void shouldWalkTiersInOrder() {
+        assertThat(tiers.next(TOPIC)).map(RetryTiers.Tier::topic).contains("file-upload-events-retry-10s");
+        assertThat(tiers.next("file-upload-events-retry-10s")).map(RetryTiers.Tier::topic)
+                .contains("file-upload-events-retry-60s");
+        assertThat(tiers.next("file-upload-events-retry-60s")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Без уровней запись сразу уходит в DLT")
+    void shouldGoStraightToDlt_whenNoTiers() {
+        assertThat(RetryTiers.none().isEmpty()).isTrue();
+        assertThat(RetryTiers.none().next(TOPIC)).isEmpty();
+    }
+}
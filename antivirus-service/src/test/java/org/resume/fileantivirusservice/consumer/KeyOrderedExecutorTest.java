@@ -0,0 +1,93 @@
+package org.resume.fileantivirusservice.consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("KeyOrderedExecutor — параллельно по ключам, по порядку внутри ключа")
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(4);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Задачи одного ключа выполняются строго в порядке постановки.
+     */
+    @Test
+    void shouldRunTasksInSubmissionOrder_whenKeyIsSame() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<?>[] futures = IntStream.range(0, 50)
+                .mapToObj(i -> executor.submit("file-1", () -> order.add(i)))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactlyElementsOf(IntStream.range(0, 50).boxed().toList());
+    }
+
+    /**
+     * Задачи разных ключей выполняются одновременно, пока есть свободные потоки.
+     */
+    @Test
+    void shouldRunDifferentKeysConcurrently_upToMaxConcurrency() throws Exception {
+        CountDownLatch started = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        CompletableFuture<?>[] futures = IntStream.range(0, 8)
+                .mapToObj(i -> executor.submit("file-" + i, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    await(release);
+                    running.decrementAndGet();
+                }))
+                .toArray(CompletableFuture[]::new);
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+
+        assertThat(maxRunning.get()).isEqualTo(4);
+    }
+
+    /**
+     * Упавшая задача не останавливает очередь ключа, а завершённые ключи не копятся.
+     */
+    @Test
+    void shouldContinueKeyQueueAndForgetKey_whenTaskFails() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        executor.submit("file-1", () -> {
+            throw new IllegalStateException("scan failed");
+        });
+        executor.submit("file-1", () -> order.add("next")).get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly("next");
+        assertThat(executor.activeKeys()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.resume.fileantivirusservice.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.fileantivirusservice.exception.ClamAvScanException;
+import org.resume.fileantivirusservice.properties.ScanProcessingProperties;
+import org.resume.fileantivirusservice.service.FileOrchestrationService;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelFileUploadConsumerTest {
+
+    private static final String TOPIC = "file-upload-events";
+
+    @Mock
+    private FileOrchestrationService fileOrchestrationService;
+
+    @Mock
+    private ConsumerRecordRecoverer deadLetterRecoverer;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private ParallelFileUploadConsumer consumer;
+
+    private final ConsumerRecord<String, FileUploadEvent> record = new ConsumerRecord<>(TOPIC, 0, 7L, "42",
+            FileUploadEvent.builder().fileId(42L).s3Key("files/42").userId(1L).build());
+
+    @BeforeEach
+    void setUp() {
+        ScanProcessingProperties properties = new ScanProcessingProperties();
+        properties.setMaxConcurrency(2);
+        properties.setShutdownTimeout(Duration.ofSeconds(5));
+        consumer = new ParallelFileUploadConsumer(fileOrchestrationService, new FixedBackOff(0, 2),
+                deadLetterRecoverer, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        consumer.destroy();
+    }
+
+    /**
+     * Временная ошибка повторяется, запись подтверждается после успешной попытки.
+     */
+    @Test
+    void shouldRetryAndAcknowledge_whenScanSucceedsAfterFailure() {
+        doThrow(new ClamAvScanException("ClamAV service unavailable", null))
+                .doNothing()
+                .when(fileOrchestrationService).processFileUpload(record.value());
+
+        consumer.process(record, acknowledgment);
+
+        verify(fileOrchestrationService, times(2)).processFileUpload(record.value());
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(deadLetterRecoverer);
+    }
+
+    /**
+     * После исчерпания попыток запись уходит в DLT и только затем подтверждается.
+     */
+    @Test
+    void shouldSendToDltThenAcknowledge_whenRetriesExhausted() {
+        ClamAvScanException failure = new ClamAvScanException("ClamAV service unavailable", null);
+        doThrow(failure).when(fileOrchestrationService).processFileUpload(record.value());
+
+        consumer.process(record, acknowledgment);
+
+        verify(fileOrchestrationService, times(3)).processFileUpload(record.value());
+        InOrder inOrder = inOrder(deadLetterRecoverer, acknowledgment);
+        inOrder.verify(deadLetterRecoverer).accept(record, failure);
+        inOrder.verify(acknowledgment).acknowledge();
+    }
+
+    /**
+     * Если отправка в DLT не удалась, запись не подтверждается и обрабатывается заново.
+     */
+    @Test
+    void shouldStartOver_whenDltPublishFails() {
+        doThrow(new ClamAvScanException("ClamAV service unavailable", null))
+                .doThrow(new ClamAvScanException("ClamAV service unavailable", null))
+                .doThrow(new ClamAvScanException("ClamAV service unavailable", null))
+                .doNothing()
+                .when(fileOrchestrationService).processFileUpload(record.value());
+        doThrow(new KafkaException("DLT unavailable"))
+                .when(deadLetterRecoverer).accept(eq(record), any());
+
+        consumer.process(record, acknowledgment);
+
+        verify(fileOrchestrationService, times(4)).processFileUpload(record.value());
+        verify(deadLetterRecoverer).accept(eq(record), any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    /**
+     * Слушатель только ставит запись в очередь ключа — подтверждение приходит из рабочего потока.
+     */
+    @Test
+    void shouldAcknowledgeFromWorker_whenRecordConsumed() {
+        consumer.consumeFileUploadEvent(record, acknowledgment);
+
+        verify(acknowledgment, timeout(5000)).acknowledge();
+        verify(fileOrchestrationService).processFileUpload(record.value());
+    }
+}
@@ -0,0 +1,93 @@
+package org.resume.fileantivirusservice.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.fileantivirusservice.config.RetryTiers;
+import org.resume.fileantivirusservice.service.FileOrchestrationService;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryTierConsumerTest {
+
+    private static final String TIER_TOPIC = "file-upload-events-retry-10s";
+
+    @Mock
+    private FileOrchestrationService fileOrchestrationService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private RetryTierConsumer consumer;
+
+    private final FileUploadEvent event = FileUploadEvent.builder().fileId(42L).s3Key("files/42").userId(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        RetryTiers tiers = RetryTiers.of("file-upload-events", List.of(Duration.ofSeconds(10)));
+        consumer = new RetryTierConsumer(fileOrchestrationService, tiers, new ConcurrentKafkaListenerContainerFactory<>());
+    }
+
+    /**
+     * Несозревшая запись не обрабатывается: партиция ставится на паузу до срока.
+     */
+    @Test
+    void shouldNackUntilDue_whenRecordNotDue() {
+        long dueAt = System.currentTimeMillis() + 5000;
+
+        consumer.onRetry(record(System.currentTimeMillis(), dueAt), acknowledgment);
+
+        ArgumentCaptor<Duration> sleep = ArgumentCaptor.forClass(Duration.class);
+        verify(acknowledgment).nack(sleep.capture());
+        assertThat(sleep.getValue()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(5));
+        verifyNoInteractions(fileOrchestrationService);
+    }
+
+    /**
+     * Созревшая запись обрабатывается и подтверждается.
+     */
+    @Test
+    void shouldProcessAndAcknowledge_whenRecordDue() {
+        consumer.onRetry(record(System.currentTimeMillis(), System.currentTimeMillis() - 1), acknowledgment);
+
+        verify(fileOrchestrationService).processFileUpload(event);
+        verify(acknowledgment).acknowledge();
+        verify(acknowledgment, never()).nack(any(Duration.class));
+    }
+
+    /**
+     * Без заголовка срок считается от времени записи плюс задержка уровня.
+     */
+    @Test
+    void shouldUseTimestampPlusTierDelay_whenHeaderMissing() {
+        consumer.onRetry(record(System.currentTimeMillis() - 11_000, null), acknowledgment);
+
+        verify(fileOrchestrationService).processFileUpload(event);
+        verify(acknowledgment).acknowledge();
+    }
+
+    private ConsumerRecord<String, FileUploadEvent> record(long timestamp, Long dueAt) {
+        RecordHeaders headers = new RecordHeaders();
+        if (dueAt != null) {
+            headers.add(RetryTiers.DUE_AT_HEADER, Long.toString(dueAt).getBytes(StandardCharsets.US_ASCII));
+        }
+        return new ConsumerRecord<>(TIER_TOPIC, 0, 3L, timestamp, TimestampType.CREATE_TIME, 0, 0,
+                "42", event, headers, Optional.empty());
+    }
+}
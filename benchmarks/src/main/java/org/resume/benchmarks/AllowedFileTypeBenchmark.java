@@ -0,0 +1,41 @@
+package org.resume.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.resume.s3filemanager.validation.AllowedFileType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка пары расширение/MIME-тип по {@link AllowedFileType}: первая запись
+ * перечисления, последняя и отсутствующая комбинация (полный проход).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllowedFileTypeBenchmark {
+
+    private String firstExtension = "pdf";
+    private String firstContentType = "application/pdf";
+    private String lastExtension = "md";
+    private String lastContentType = "text/markdown";
+    private String rejectedExtension = "exe";
+    private String rejectedContentType = "application/x-msdownload";
+
+    @Benchmark
+    public boolean firstEntry() {
+        return AllowedFileType.isAllowed(firstExtension, firstContentType);
+    }
+
+    @Benchmark
+    public boolean lastEntry() {
+        return AllowedFileType.isAllowed(lastExtension, lastContentType);
+    }
+
+    @Benchmark
+    public boolean rejected() {
+        return AllowedFileType.isAllowed(rejectedExtension, rejectedContentType);
+    }
+}
@@ -0,0 +1,159 @@
+package org.resume.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.resume.common.model.FileScanResult;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.common.model.ScanStatus;
+import org.resume.common.serialization.EventDeserializer;
+import org.resume.common.serialization.EventSerializer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson-сериализация событий на пути загрузки и сканирования.
+ * <p>
+ * {@code outbox*} — запись {@link FileUploadEvent} в payload outbox и обратное
+ * чтение релеем (ObjectMapper приложения). {@code kafka*} — JsonSerializer /
+ * JsonDeserializer Spring Kafka, которые стояли на продюсерах и консьюмерах
+ * обоих сервисов. {@code binary*} — {@link EventSerializer} / {@link EventDeserializer}
+ * из common-kafka, которые их заменили; {@code compat*} — чтение старого JSON
+ * через {@link EventDeserializer} во время выката.
+ * <p>
+ * Размер сообщений из {@link #setUp()}: FileUploadEvent — 162 байта JSON против 95 байт
+ * бинарного формата, FileScanResult — 176 против 79 (без заголовка {@code __TypeId__}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final String UPLOAD_TOPIC = "file-upload-events";
+    private static final String RESULT_TOPIC = "file-scan-results";
+
+    private ObjectMapper objectMapper;
+    private JsonSerializer<Object> kafkaSerializer;
+    private JsonDeserializer<FileUploadEvent> uploadEventDeserializer;
+    private JsonDeserializer<FileScanResult> scanResultDeserializer;
+    private EventSerializer binarySerializer;
+    private EventDeserializer binaryDeserializer;
+
+    private FileUploadEvent uploadEvent;
+    private FileScanResult scanResult;
+    private String uploadEventPayload;
+    private byte[] uploadEventBytes;
+    private byte[] scanResultBytes;
+    private Headers uploadEventJsonHeaders;
+    private byte[] uploadEventBinary;
+    private byte[] scanResultBinary;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        kafkaSerializer = new JsonSerializer<>();
+        uploadEventDeserializer = new JsonDeserializer<>(FileUploadEvent.class, false);
+        scanResultDeserializer = new JsonDeserializer<>(FileScanResult.class, false);
+        binarySerializer = new EventSerializer();
+        binaryDeserializer = new EventDeserializer();
+
+        String s3Key = UUID.randomUUID() + ".pdf";
+        uploadEvent = FileUploadEvent.builder()
+                .fileId(123_456L)
+                .userId(42L)
+                .s3Key(s3Key)
+                .bucketName("first-aws-bucket")
+                .originalFileName("Quarterly report (final).pdf")
+                .build();
+        scanResult = FileScanResult.builder()
+                .fileId(123_456L)
+                .s3Key(s3Key)
+                .status(ScanStatus.INFECTED)
+                .virusName("Win.Test.EICAR_HDB-1")
+                .scannedAt(Instant.parse("2026-01-15T10:15:30.123Z"))
+                .build();
+
+        uploadEventPayload = objectMapper.writeValueAsString(uploadEvent);
+        uploadEventBytes = kafkaSerializer.serialize(UPLOAD_TOPIC, uploadEvent);
+        scanResultBytes = kafkaSerializer.serialize(RESULT_TOPIC, scanResult);
+        uploadEventJsonHeaders = new RecordHeaders();
+        kafkaSerializer.serialize(UPLOAD_TOPIC, uploadEventJsonHeaders, uploadEvent);
+        uploadEventBinary = binarySerializer.serialize(UPLOAD_TOPIC, uploadEvent);
+        scanResultBinary = binarySerializer.serialize(RESULT_TOPIC, scanResult);
+    }
+
+    @TearDown
+    public void tearDown() {
+        kafkaSerializer.close();
+        uploadEventDeserializer.close();
+        scanResultDeserializer.close();
+        binarySerializer.close();
+        binaryDeserializer.close();
+    }
+
+    @Benchmark
+    public String outboxWriteUploadEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(uploadEvent);
+    }
+
+    @Benchmark
+    public FileUploadEvent outboxReadUploadEvent() throws JsonProcessingException {
+        return objectMapper.readValue(uploadEventPayload, FileUploadEvent.class);
+    }
+
+    @Benchmark
+    public byte[] kafkaSerializeUploadEvent() {
+        return kafkaSerializer.serialize(UPLOAD_TOPIC, uploadEvent);
+    }
+
+    @Benchmark
+    public FileUploadEvent kafkaDeserializeUploadEvent() {
+        return uploadEventDeserializer.deserialize(UPLOAD_TOPIC, uploadEventBytes);
+    }
+
+    @Benchmark
+    public byte[] kafkaSerializeScanResult() {
+        return kafkaSerializer.serialize(RESULT_TOPIC, scanResult);
+    }
+
+    @Benchmark
+    public FileScanResult kafkaDeserializeScanResult() {
+        return scanResultDeserializer.deserialize(RESULT_TOPIC, scanResultBytes);
+    }
+
+    @Benchmark
+    public byte[] binarySerializeUploadEvent() {
+        return binarySerializer.serialize(UPLOAD_TOPIC, uploadEvent);
+    }
+
+    @Benchmark
+    public Object binaryDeserializeUploadEvent() {
+        return binaryDeserializer.deserialize(UPLOAD_TOPIC, uploadEventBinary);
+    }
+
+    @Benchmark
+    public byte[] binarySerializeScanResult() {
+        return binarySerializer.serialize(RESULT_TOPIC, scanResult);
+    }
+
+    @Benchmark
+    public Object binaryDeserializeScanResult() {
+        return binaryDeserializer.deserialize(RESULT_TOPIC, scanResultBinary);
+    }
+
+    @Benchmark
+    public Object compatDeserializeUploadEventJson() {
+        return binaryDeserializer.deserialize(UPLOAD_TOPIC, uploadEventJsonHeaders, uploadEventBytes);
+    }
+}
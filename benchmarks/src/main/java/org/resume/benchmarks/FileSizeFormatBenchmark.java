@@ -0,0 +1,27 @@
+package org.resume.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.resume.s3filemanager.service.file.FilePaginationService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Форматирование размера файла для списков: вызывается на каждый элемент
+ * каждой страницы {@code FilePaginationService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileSizeFormatBenchmark {
+
+    @Param({"10240", "1048576", "31457280"})
+    private long bytes;
+
+    @Benchmark
+    public String convertToMB() {
+        return FilePaginationService.convertToMB(bytes);
+    }
+}
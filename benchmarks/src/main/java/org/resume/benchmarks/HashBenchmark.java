@@ -0,0 +1,96 @@
+package org.resume.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.resume.s3filemanager.enums.HashAlgorithm;
+import org.resume.s3filemanager.properties.HashingProperties;
+import org.resume.s3filemanager.service.hash.ContentHasher;
+import org.resume.s3filemanager.service.hash.HashingInputStream;
+import org.resume.s3filemanager.service.hash.Sha256ContentHasher;
+import org.resume.s3filemanager.service.hash.TreeSha256ContentHasher;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение алгоритмов хеширования содержимого на файлах от 1KB до 30MB.
+ * <p>
+ * {@code md5} — прежний алгоритм для точки отсчёта. {@code sha256} — потоковый
+ * SHA-256 на интринсиках. {@code tree-sha256} — древовидный хеш с параллельным
+ * хешированием чанков по 1MB на всех ядрах; на файлах меньше чанка он
+ * вырождается в один лист. {@code *Stream} — тот же хеш через
+ * {@link HashingInputStream} с буфером 8KB, как при загрузке в S3.
+ * <p>
+ * Запуск: {@code java -jar benchmarks/target/benchmarks.jar HashBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashBenchmark {
+
+    @Param({"1024", "65536", "1048576", "8388608", "31457280"})
+    private int size;
+
+    private byte[] content;
+    private ExecutorService executor;
+    private ContentHasher sha256;
+    private ContentHasher treeSha256;
+
+    @Setup
+    public void setUp() {
+        content = new byte[size];
+        new Random(size).nextBytes(content);
+
+        HashingProperties properties = new HashingProperties(
+                HashAlgorithm.TREE_SHA256, DataSize.ofMegabytes(1), 0, false, 50, 60_000);
+        executor = Executors.newFixedThreadPool(properties.effectiveParallelism());
+        sha256 = new Sha256ContentHasher();
+        treeSha256 = new TreeSha256ContentHasher(properties, executor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public String md5() {
+        return DigestUtils.md5DigestAsHex(content);
+    }
+
+    @Benchmark
+    public String sha256() {
+        return sha256.hash(content);
+    }
+
+    @Benchmark
+    public String treeSha256() {
+        return treeSha256.hash(content);
+    }
+
+    @Benchmark
+    public void sha256Stream(Blackhole blackhole) throws IOException {
+        blackhole.consume(stream(sha256));
+    }
+
+    @Benchmark
+    public void treeSha256Stream(Blackhole blackhole) throws IOException {
+        blackhole.consume(stream(treeSha256));
+    }
+
+    private String stream(ContentHasher hasher) throws IOException {
+        HashingInputStream stream = new HashingInputStream(new ByteArrayInputStream(content), hasher.newHash());
+        stream.transferTo(OutputStream.nullOutputStream());
+        return stream.getHash();
+    }
+}
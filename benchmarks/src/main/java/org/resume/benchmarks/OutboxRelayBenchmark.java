@@ -0,0 +1,150 @@
+package org.resume.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.common.serialization.EventSerializer;
+import org.resume.common.properties.KafkaProperties;
+import org.resume.s3filemanager.entity.OutboxEvent;
+import org.resume.s3filemanager.enums.OutboxEventType;
+import org.resume.s3filemanager.enums.OutboxRelayMode;
+import org.resume.s3filemanager.properties.OutboxProperties;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.resume.s3filemanager.service.kafka.FileEventProducer;
+import org.resume.s3filemanager.service.kafka.OutboxBatchRelay;
+import org.resume.s3filemanager.service.kafka.OutboxEventProcessor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность Outbox релея против локального брокера Kafka
+ * (Testcontainers, нужен Docker). Уже запущенный брокер можно передать через
+ * {@code -Dkafka.bootstrap-servers=host:port} — тогда контейнер не стартует.
+ * <p>
+ * {@code SEQUENTIAL} — прежний путь {@link OutboxEventProcessor}: одна отправка
+ * с ожиданием подтверждения на событие. {@code PIPELINED} — {@link OutboxBatchRelay}:
+ * пачка в полёте целиком, подтверждения ожидаются вместе. Результат — событий
+ * в секунду. Репозиторий заменён заглушкой, так что в цифрах только Kafka
+ * и собственный код релея.
+ * <p>
+ * Запуск: {@code java -jar benchmarks/target/benchmarks.jar OutboxRelayBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(OutboxRelayBenchmark.BATCH_SIZE)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OutboxRelayBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    private static final String KAFKA_IMAGE = "confluentinc/cp-kafka:7.6.0";
+    private static final String TOPIC = "file-upload-events";
+    private static final String BOOTSTRAP_SERVERS_PROPERTY = "kafka.bootstrap-servers";
+
+    @Param({"SEQUENTIAL", "PIPELINED"})
+    private OutboxRelayMode relayMode;
+
+    private KafkaContainer kafka;
+    private DefaultKafkaProducerFactory<String, FileUploadEvent> producerFactory;
+    private OutboxEventProcessor outboxEventProcessor;
+    private OutboxBatchRelay outboxBatchRelay;
+    private List<OutboxEvent> events;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        String bootstrapServers = System.getProperty(BOOTSTRAP_SERVERS_PROPERTY);
+        if (bootstrapServers == null) {
+            kafka = new KafkaContainer(DockerImageName.parse(KAFKA_IMAGE));
+            kafka.start();
+            bootstrapServers = kafka.getBootstrapServers();
+        }
+
+        producerFactory = new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, EventSerializer.class
+        ));
+        KafkaTemplate<String, FileUploadEvent> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        KafkaProperties.KafkaTopics topics = new KafkaProperties.KafkaTopics();
+        topics.setFileUploadEvents(TOPIC);
+        kafkaProperties.setTopics(topics);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        OutboxProperties outboxProperties = new OutboxProperties(
+                BATCH_SIZE, 3, 5, 30_000, relayMode, BATCH_SIZE, "benchmark", Duration.ofMinutes(2), false,
+                Duration.ofDays(7), 3, 3_600_000);
+        OutboxRepository outboxRepository = noOpRepository();
+        FileEventProducer fileEventProducer = new FileEventProducer(kafkaTemplate, kafkaProperties);
+
+        outboxEventProcessor = new OutboxEventProcessor(
+                fileEventProducer, objectMapper, outboxProperties, outboxRepository);
+        outboxBatchRelay = new OutboxBatchRelay(
+                fileEventProducer, objectMapper, outboxProperties, outboxRepository);
+
+        events = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= BATCH_SIZE; id++) {
+            FileUploadEvent event = FileUploadEvent.builder()
+                    .fileId(id)
+                    .userId(42L)
+                    .s3Key(UUID.randomUUID() + ".pdf")
+                    .bucketName("first-aws-bucket")
+                    .originalFileName("report-" + id + ".pdf")
+                    .build();
+            OutboxEvent outboxEvent = new OutboxEvent(OutboxEventType.FILE_UPLOAD, objectMapper.writeValueAsString(event));
+            outboxEvent.setId(id);
+            events.add(outboxEvent);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        producerFactory.destroy();
+        if (kafka != null) {
+            kafka.stop();
+        }
+    }
+
+    @Benchmark
+    public void relayBatch() {
+        switch (relayMode) {
+            case SEQUENTIAL -> events.forEach(outboxEventProcessor::process);
+            case PIPELINED -> outboxBatchRelay.relay(events);
+        }
+    }
+
+    /**
+     * Репозиторий без БД: UPDATE возвращают 0, save — переданную сущность.
+     */
+    private static OutboxRepository noOpRepository() {
+        return (OutboxRepository) Proxy.newProxyInstance(
+                OutboxRepository.class.getClassLoader(),
+                new Class<?>[]{OutboxRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> args[0];
+                    case "markSent", "scheduleRetry" -> 0;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "NoOpOutboxRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
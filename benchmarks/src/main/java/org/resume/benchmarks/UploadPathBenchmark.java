@@ -0,0 +1,102 @@
+package org.resume.benchmarks;
+
+import org.apache.tika.mime.MimeTypes;
+import org.openjdk.jmh.annotations.*;
+import org.resume.benchmarks.support.InMemoryMultipartFile;
+import org.resume.benchmarks.support.SampleFile;
+import org.resume.s3filemanager.enums.HashAlgorithm;
+import org.resume.s3filemanager.properties.FileDetectionProperties;
+import org.resume.s3filemanager.properties.HashingProperties;
+import org.resume.s3filemanager.service.file.FileHashService;
+import org.resume.s3filemanager.service.hash.Sha256ContentHasher;
+import org.resume.s3filemanager.service.hash.TreeSha256ContentHasher;
+import org.resume.s3filemanager.validation.AllowedTypesDetector;
+import org.resume.s3filemanager.validation.FileValidator;
+import org.resume.s3filemanager.validation.TikaFileDetector;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость CPU-этапов {@code FileFacadeService.uploadFileInternal} на файлах
+ * реальных размеров: валидация, определение типа через Tika и хеширование
+ * содержимого (алгоритм по умолчанию — tree-sha256).
+ * <p>
+ * {@code restrictToAllowedTypes} сравнивает детектор по разрешённым типам
+ * с полным реестром Tika; сигнатура в обоих случаях ищется в первых 64KB.
+ * <p>
+ * Сеть и БД сюда не входят — это базовая линия для собственного кода загрузки.
+ * Запуск с профилировщиком аллокаций:
+ * {@code java -jar benchmarks/target/benchmarks.jar UploadPathBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadPathBenchmark {
+
+    @Param({"IMAGE_10KB", "PDF_1MB", "VIDEO_30MB"})
+    private SampleFile sample;
+
+    @Param({"true", "false"})
+    private boolean restrictToAllowedTypes;
+
+    private InMemoryMultipartFile file;
+    private ExecutorService hashExecutor;
+    private TikaFileDetector tikaFileDetector;
+    private FileValidator fileValidator;
+    private FileHashService fileHashService;
+
+    @Setup
+    public void setUp() {
+        file = sample.multipartFile();
+        MimeTypes allTypes = MimeTypes.getDefaultMimeTypes();
+        tikaFileDetector = new TikaFileDetector(
+                restrictToAllowedTypes ? new AllowedTypesDetector(allTypes) : allTypes,
+                new FileDetectionProperties(DataSize.ofKilobytes(64), restrictToAllowedTypes, 0));
+        fileValidator = new FileValidator(tikaFileDetector);
+
+        HashingProperties properties = new HashingProperties(
+                HashAlgorithm.TREE_SHA256, DataSize.ofMegabytes(1), 0, false, 50, 60_000);
+        hashExecutor = Executors.newFixedThreadPool(properties.effectiveParallelism());
+        fileHashService = new FileHashService(null, properties, List.of(
+                new Sha256ContentHasher(), new TreeSha256ContentHasher(properties, hashExecutor)));
+
+        Optional<String> error = fileValidator.validateFile(file);
+        if (error.isPresent()) {
+            throw new IllegalStateException("Sample " + sample + " is rejected: " + error.get());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        hashExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Optional<String> validateFile() {
+        return fileValidator.validateFile(file);
+    }
+
+    @Benchmark
+    public String detectContentTypeBytes() {
+        return tikaFileDetector.detectContentType(file.content(), file.originalFilename());
+    }
+
+    @Benchmark
+    public String detectContentTypeStream() throws IOException {
+        return tikaFileDetector.detectContentType(file.getInputStream(), file.originalFilename());
+    }
+
+    @Benchmark
+    public String hashContent() {
+        return fileHashService.hash(file.content());
+    }
+}
@@ -0,0 +1,55 @@
+package org.resume.benchmarks.support;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * {@link MultipartFile} поверх массива байт — как у Tomcat для файлов,
+ * которые поместились в память, без накладных расходов на временные файлы.
+ */
+public record InMemoryMultipartFile(String originalFilename, String contentType, byte[] content)
+        implements MultipartFile {
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return content.length == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return content.length;
+    }
+
+    @Override
+    public byte[] getBytes() {
+        return content;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public void transferTo(File dest) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,68 @@
+package org.resume.benchmarks.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Типичные загрузки реальных размеров: картинка, документ и видео
+ * на верхней границе лимита в 30MB.
+ * <p>
+ * Содержимое — случайные байты с настоящей сигнатурой формата в начале,
+ * поэтому Tika определяет тот же тип, что и для реального файла.
+ */
+public enum SampleFile {
+
+    IMAGE_10KB("photo.png", "image/png", 10 * 1024, pngHeader()),
+    PDF_1MB("report.pdf", "application/pdf", 1024 * 1024, "%PDF-1.7\n%âãÏÓ\n".getBytes(StandardCharsets.ISO_8859_1)),
+    VIDEO_30MB("clip.mp4", "video/mp4", 30 * 1024 * 1024, mp4Header());
+
+    private final String fileName;
+    private final String contentType;
+    private final int size;
+    private final byte[] header;
+
+    SampleFile(String fileName, String contentType, int size, byte[] header) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.header = header;
+    }
+
+    public String fileName() {
+        return fileName;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Содержимое файла; одинаковое между запусками.
+     */
+    public byte[] content() {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        System.arraycopy(header, 0, content, 0, header.length);
+        return content;
+    }
+
+    public InMemoryMultipartFile multipartFile() {
+        return new InMemoryMultipartFile(fileName, contentType, content());
+    }
+
+    private static byte[] pngHeader() {
+        return new byte[]{
+                (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n',
+                0, 0, 0, 13, 'I', 'H', 'D', 'R',
+                0, 0, 0, 64, 0, 0, 0, 64, 8, 6, 0, 0, 0
+        };
+    }
+
+    private static byte[] mp4Header() {
+        return new byte[]{
+                0, 0, 0, 0x20, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm',
+                0, 0, 2, 0, 'i', 's', 'o', 'm', 'i', 's', 'o', '2',
+                'a', 'v', 'c', '1', 'm', 'p', '4', '1'
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package org.resume.common.properties;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -7,6 +8,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Конфигурация Kafka топиков и retry политики.
  */
@@ -44,6 +49,21 @@ public class KafkaProperties {
 
         @Min(value = 1000, message = "Max interval must be at least 1000ms")
         private Long maxInterval;
+
+        /**
+         * Повторы через retry-топики с задержками {@code topicDelays}
+         * вместо ожидания в потоке консьюмера.
+         */
+        private boolean nonBlocking;
+
+        private List<Duration> topicDelays = new ArrayList<>();
+
+        @AssertTrue(message = "Retry topic delays must be whole seconds between 1s and 5m")
+        public boolean isTopicDelaysValid() {
+            return topicDelays.stream().allMatch(delay -> delay.toMillis() % 1000 == 0
+                    && delay.compareTo(Duration.ofSeconds(1)) >= 0
+                    && delay.compareTo(Duration.ofMinutes(5)) <= 0);
+        }
     }
 
 }
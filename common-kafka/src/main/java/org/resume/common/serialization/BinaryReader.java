@@ -0,0 +1,67 @@
+package org.resume.common.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Чтение полей, записанных {@link BinaryWriter}.
+ * <p>
+ * Выход за границы сообщения или повреждённый varint приводят
+ * к {@link SerializationException}.
+ */
+final class BinaryReader {
+
+    private final byte[] data;
+    private int position;
+
+    BinaryReader(byte[] data, int offset) {
+        this.data = data;
+        this.position = offset;
+    }
+
+    int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new SerializationException("Malformed varint at offset " + position);
+    }
+
+    long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    String readString() {
+        long length = readVarLong();
+        if (length > data.length - position) {
+            throw new SerializationException("String length " + length + " exceeds remaining " + (data.length - position) + " bytes");
+        }
+        String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    Instant readInstant() {
+        long seconds = readSignedVarLong();
+        long nanos = readVarLong();
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > data.length) {
+            throw new SerializationException("Unexpected end of binary event at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.resume.common.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Запись полей события в компактном бинарном виде.
+ * <p>
+ * Целые — varint (zigzag для знаковых), строки — длина varint и UTF-8,
+ * {@link Instant} — секунды эпохи и наносекунды. Null-поля не пишутся:
+ * их отсутствие отмечается в битовой маске перед полями.
+ */
+final class BinaryWriter {
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int position;
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    void writeInstant(Instant value) {
+        writeSignedVarLong(value.getEpochSecond());
+        writeVarLong(value.getNano());
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.resume.common.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Версионированный бинарный формат событий.
+ * <p>
+ * Сообщение: байт-маркер {@link #MAGIC}, версия формата, идентификатор схемы
+ * и поля по схеме {@link EventCodec}. Маркер не может быть первым байтом JSON
+ * (JSON начинается с пробела, скобки, кавычки, цифры или литерала), поэтому
+ * по первому байту бинарное сообщение отличается от JSON старых продюсеров.
+ */
+final class EventBinaryFormat {
+
+    static final byte MAGIC = (byte) 0xCE;
+    static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 3;
+
+    private static final List<EventCodec<?>> CODECS = List.of(
+            new FileUploadEventCodec(),
+            new FileScanResultCodec()
+    );
+    private static final Map<Class<?>, EventCodec<?>> BY_TYPE = CODECS.stream()
+            .collect(Collectors.toUnmodifiableMap(EventCodec::type, Function.identity()));
+    private static final Map<Integer, EventCodec<?>> BY_ID = CODECS.stream()
+            .collect(Collectors.toUnmodifiableMap(EventCodec::typeId, Function.identity()));
+    private static final Map<String, Class<?>> BY_NAME = CODECS.stream()
+            .collect(Collectors.toUnmodifiableMap(codec -> codec.type().getName(), EventCodec::type));
+
+    private EventBinaryFormat() {
+    }
+
+    static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    /**
+     * Тип события по полному имени класса; только типы, для которых есть схема.
+     */
+    static Class<?> typeByName(String className) {
+        return BY_NAME.get(className);
+    }
+
+    @SuppressWarnings("unchecked")
+    static byte[] encode(Object event) {
+        EventCodec<Object> codec = (EventCodec<Object>) BY_TYPE.get(event.getClass());
+        if (codec == null) {
+            throw new SerializationException("No binary schema for " + event.getClass().getName());
+        }
+
+        BinaryWriter out = new BinaryWriter();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(codec.typeId());
+        codec.write(event, out);
+        return out.toByteArray();
+    }
+
+    static Object decode(byte[] data) {
+        if (data.length < HEADER_LENGTH) {
+            throw new SerializationException("Binary event is shorter than its header: " + data.length + " bytes");
+        }
+        int version = data[1] & 0xFF;
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported binary event version: " + version);
+        }
+        EventCodec<?> codec = BY_ID.get(data[2] & 0xFF);
+        if (codec == null) {
+            throw new SerializationException("Unknown binary event type: " + (data[2] & 0xFF));
+        }
+        return codec.read(new BinaryReader(data, HEADER_LENGTH));
+    }
+}
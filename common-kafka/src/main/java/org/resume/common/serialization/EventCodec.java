@@ -0,0 +1,25 @@
+package org.resume.common.serialization;
+
+/**
+ * Бинарная схема одного типа события.
+ * <p>
+ * Поля пишутся в фиксированном порядке после битовой маски присутствия.
+ * Новые поля добавляются только в конец схемы со следующим битом маски —
+ * старые читатели дочитывают известные поля и игнорируют остаток,
+ * новые читатели видят отсутствие бита в старых сообщениях.
+ *
+ * @param <T> тип события
+ */
+interface EventCodec<T> {
+
+    /**
+     * Идентификатор схемы в заголовке сообщения; не меняется после выпуска.
+     */
+    int typeId();
+
+    Class<T> type();
+
+    void write(T event, BinaryWriter out);
+
+    T read(BinaryReader in);
+}
@@ -0,0 +1,74 @@
+package org.resume.common.serialization;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka {@link Deserializer} для событий {@code org.resume.common.model}.
+ * <p>
+ * Читает и бинарный формат {@link EventSerializer}, и JSON старых продюсеров:
+ * формат определяется по первому байту. Тип JSON-сообщения берётся из заголовка
+ * {@code __TypeId__}, а без него — из {@code event.deserializer.default-type}.
+ * Принимаются только типы, для которых есть бинарная схема, — отдельный
+ * список доверенных пакетов не нужен.
+ *
+ * @see EventSerializer
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    public static final String DEFAULT_TYPE_CONFIG = "event.deserializer.default-type";
+
+    private Class<?> defaultType;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(DEFAULT_TYPE_CONFIG);
+        if (configured == null) {
+            return;
+        }
+        String className = configured instanceof Class<?> type ? type.getName() : configured.toString().trim();
+        defaultType = EventBinaryFormat.typeByName(className);
+        if (defaultType == null) {
+            throw new ConfigException(DEFAULT_TYPE_CONFIG, configured, "not a known event type");
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (EventBinaryFormat.isBinary(data)) {
+            return EventBinaryFormat.decode(data);
+        }
+        return EventJson.read(data, jsonType(topic, headers));
+    }
+
+    private Class<?> jsonType(String topic, Headers headers) {
+        Header typeHeader = headers != null ? headers.lastHeader(EventJson.TYPE_ID_HEADER) : null;
+        if (typeHeader == null) {
+            if (defaultType == null) {
+                throw new SerializationException("JSON event without type header and no default type: topic=" + topic);
+            }
+            return defaultType;
+        }
+
+        String className = new String(typeHeader.value(), StandardCharsets.UTF_8);
+        Class<?> type = EventBinaryFormat.typeByName(className);
+        if (type == null) {
+            throw new SerializationException("Untrusted event type in header: " + className);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,13 @@
+package org.resume.common.serialization;
+
+/**
+ * Формат, в котором {@link EventSerializer} пишет события.
+ * <p>
+ * {@code JSON} нужен на время выката: пока не все консьюмеры обновлены,
+ * продюсеры продолжают писать JSON, который понимают и старый
+ * {@code JsonDeserializer}, и {@link EventDeserializer}.
+ */
+public enum EventFormat {
+    BINARY,
+    JSON
+}
@@ -0,0 +1,43 @@
+package org.resume.common.serialization;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * JSON-формат событий, совместимый с {@code JsonSerializer}/{@code JsonDeserializer}
+ * Spring Kafka: те же модули Jackson, неизвестные поля игнорируются,
+ * тип передаётся в заголовке {@link #TYPE_ID_HEADER}.
+ */
+final class EventJson {
+
+    static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .build();
+
+    private EventJson() {
+    }
+
+    static byte[] write(Object event) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to write " + event.getClass().getName() + " as JSON", e);
+        }
+    }
+
+    static Object read(byte[] data, Class<?> type) {
+        try {
+            return OBJECT_MAPPER.readValue(data, type);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to read " + type.getName() + " from JSON", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.resume.common.serialization;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Kafka {@link Serializer} для событий {@code org.resume.common.model}.
+ * <p>
+ * По умолчанию пишет компактный бинарный формат без заголовков типа.
+ * С {@code event.serializer.format=json} пишет JSON с заголовком {@code __TypeId__},
+ * как {@code JsonSerializer} Spring Kafka, — для выката, пока у части консьюмеров
+ * стоит старый десериализатор.
+ *
+ * @see EventDeserializer
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "event.serializer.format";
+
+    private EventFormat format;
+
+    public EventSerializer() {
+        this(EventFormat.BINARY);
+    }
+
+    public EventSerializer(EventFormat format) {
+        this.format = format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(FORMAT_CONFIG);
+        if (configured != null) {
+            format = EventFormat.valueOf(configured.toString().trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (headers != null) {
+            headers.remove(EventJson.TYPE_ID_HEADER);
+        }
+
+        if (format == EventFormat.BINARY) {
+            return EventBinaryFormat.encode(data);
+        }
+        if (headers != null) {
+            headers.add(EventJson.TYPE_ID_HEADER, data.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        }
+        return EventJson.write(data);
+    }
+}
@@ -0,0 +1,108 @@
+package org.resume.common.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.resume.common.model.FileScanResult;
+import org.resume.common.model.ScanStatus;
+
+/**
+ * Схема {@link FileScanResult}: fileId, s3Key, status, virusName, errorMessage, scannedAt.
+ * <p>
+ * Статус пишется явным кодом, а не порядковым номером enum, чтобы перестановка
+ * констант {@link ScanStatus} не меняла формат.
+ */
+final class FileScanResultCodec implements EventCodec<FileScanResult> {
+
+    static final int TYPE_ID = 2;
+
+    private static final int FILE_ID = 1;
+    private static final int S3_KEY = 1 << 1;
+    private static final int STATUS = 1 << 2;
+    private static final int VIRUS_NAME = 1 << 3;
+    private static final int ERROR_MESSAGE = 1 << 4;
+    private static final int SCANNED_AT = 1 << 5;
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public Class<FileScanResult> type() {
+        return FileScanResult.class;
+    }
+
+    @Override
+    public void write(FileScanResult result, BinaryWriter out) {
+        int mask = (result.getFileId() != null ? FILE_ID : 0)
+                | (result.getS3Key() != null ? S3_KEY : 0)
+                | (result.getStatus() != null ? STATUS : 0)
+                | (result.getVirusName() != null ? VIRUS_NAME : 0)
+                | (result.getErrorMessage() != null ? ERROR_MESSAGE : 0)
+                | (result.getScannedAt() != null ? SCANNED_AT : 0);
+        out.writeVarLong(mask);
+
+        if (result.getFileId() != null) {
+            out.writeSignedVarLong(result.getFileId());
+        }
+        if (result.getS3Key() != null) {
+            out.writeString(result.getS3Key());
+        }
+        if (result.getStatus() != null) {
+            out.writeByte(statusCode(result.getStatus()));
+        }
+        if (result.getVirusName() != null) {
+            out.writeString(result.getVirusName());
+        }
+        if (result.getErrorMessage() != null) {
+            out.writeString(result.getErrorMessage());
+        }
+        if (result.getScannedAt() != null) {
+            out.writeInstant(result.getScannedAt());
+        }
+    }
+
+    @Override
+    public FileScanResult read(BinaryReader in) {
+        long mask = in.readVarLong();
+        FileScanResult result = new FileScanResult();
+
+        if ((mask & FILE_ID) != 0) {
+            result.setFileId(in.readSignedVarLong());
+        }
+        if ((mask & S3_KEY) != 0) {
+            result.setS3Key(in.readString());
+        }
+        if ((mask & STATUS) != 0) {
+            result.setStatus(status(in.readByte()));
+        }
+        if ((mask & VIRUS_NAME) != 0) {
+            result.setVirusName(in.readString());
+        }
+        if ((mask & ERROR_MESSAGE) != 0) {
+            result.setErrorMessage(in.readString());
+        }
+        if ((mask & SCANNED_AT) != 0) {
+            result.setScannedAt(in.readInstant());
+        }
+        return result;
+    }
+
+    private static int statusCode(ScanStatus status) {
+        return switch (status) {
+            case PENDING_SCAN -> 1;
+            case CLEAN -> 2;
+            case INFECTED -> 3;
+            case ERROR -> 4;
+        };
+    }
+
+    private static ScanStatus status(int code) {
+        return switch (code) {
+            case 1 -> ScanStatus.PENDING_SCAN;
+            case 2 -> ScanStatus.CLEAN;
+            case 3 -> ScanStatus.INFECTED;
+            case 4 -> ScanStatus.ERROR;
+            default -> throw new SerializationException("Unknown scan status code: " + code);
+        };
+    }
+}
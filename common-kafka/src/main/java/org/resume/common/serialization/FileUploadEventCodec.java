@@ -0,0 +1,76 @@
+package org.resume.common.serialization;
+
+import org.resume.common.model.FileUploadEvent;
+
+/**
+ * Схема {@link FileUploadEvent}: fileId, userId, s3Key, bucketName, originalFileName.
+ */
+final class FileUploadEventCodec implements EventCodec<FileUploadEvent> {
+
+    static final int TYPE_ID = 1;
+
+    private static final int FILE_ID = 1;
+    private static final int USER_ID = 1 << 1;
+    private static final int S3_KEY = 1 << 2;
+    private static final int BUCKET_NAME = 1 << 3;
+    private static final int ORIGINAL_FILE_NAME = 1 << 4;
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public Class<FileUploadEvent> type() {
+        return FileUploadEvent.class;
+    }
+
+    @Override
+    public void write(FileUploadEvent event, BinaryWriter out) {
+        int mask = (event.getFileId() != null ? FILE_ID : 0)
+                | (event.getUserId() != null ? USER_ID : 0)
+                | (event.getS3Key() != null ? S3_KEY : 0)
+                | (event.getBucketName() != null ? BUCKET_NAME : 0)
+                | (event.getOriginalFileName() != null ? ORIGINAL_FILE_NAME : 0);
+        out.writeVarLong(mask);
+
+        if (event.getFileId() != null) {
+            out.writeSignedVarLong(event.getFileId());
+        }
+        if (event.getUserId() != null) {
+            out.writeSignedVarLong(event.getUserId());
+        }
+        if (event.getS3Key() != null) {
+            out.writeString(event.getS3Key());
+        }
+        if (event.getBucketName() != null) {
+            out.writeString(event.getBucketName());
+        }
+        if (event.getOriginalFileName() != null) {
+            out.writeString(event.getOriginalFileName());
+        }
+    }
+
+    @Override
+    public FileUploadEvent read(BinaryReader in) {
+        long mask = in.readVarLong();
+        FileUploadEvent event = new FileUploadEvent();
+
+        if ((mask & FILE_ID) != 0) {
+            event.setFileId(in.readSignedVarLong());
+        }
+        if ((mask & USER_ID) != 0) {
+            event.setUserId(in.readSignedVarLong());
+        }
+        if ((mask & S3_KEY) != 0) {
+            event.setS3Key(in.readString());
+        }
+        if ((mask & BUCKET_NAME) != 0) {
+            event.setBucketName(in.readString());
+        }
+        if ((mask & ORIGINAL_FILE_NAME) != 0) {
+            event.setOriginalFileName(in.readString());
+        }
+        return event;
+    }
+}
@@ -0,0 +1,95 @@
+package org.resume.common.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.resume.common.model.FileScanResult;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.common.model.ScanStatus;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventDeserializerTest {
+
+    private static final String TOPIC = "file-scan-results";
+
+    private static final FileScanResult SCAN_RESULT = FileScanResult.builder()
+            .fileId(123_456L)
+            .s3Key("0b7e6a1c-5f7e-4c1e-9f55-2d0a4c3e8b11.pdf")
+            .status(ScanStatus.INFECTED)
+            .virusName("Win.Test.EICAR_HDB-1")
+            .scannedAt(Instant.parse("2026-01-15T10:15:30.123Z"))
+            .build();
+
+    private final EventDeserializer deserializer = new EventDeserializer();
+
+    /**
+     * Бинарное сообщение читается в исходное событие.
+     */
+    @Test
+    void shouldReadBinaryEvent_whenWrittenByEventSerializer() {
+        byte[] binary = new EventSerializer().serialize(TOPIC, SCAN_RESULT);
+
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), binary)).isEqualTo(SCAN_RESULT);
+    }
+
+    /**
+     * Режим совместимости — JSON старого JsonSerializer читается по заголовку типа.
+     */
+    @Test
+    void shouldReadLegacyJson_whenWrittenBySpringJsonSerializer() {
+        Headers headers = new RecordHeaders();
+        byte[] json;
+        try (JsonSerializer<Object> jsonSerializer = new JsonSerializer<>()) {
+            json = jsonSerializer.serialize(TOPIC, headers, SCAN_RESULT);
+        }
+
+        assertThat(deserializer.deserialize(TOPIC, headers, json)).isEqualTo(SCAN_RESULT);
+    }
+
+    /**
+     * JSON без заголовка типа читается как тип по умолчанию из конфигурации.
+     */
+    @Test
+    void shouldUseDefaultType_whenJsonHasNoTypeHeader() {
+        deserializer.configure(Map.of(EventDeserializer.DEFAULT_TYPE_CONFIG, FileUploadEvent.class.getName()), false);
+        byte[] json = "{\"fileId\":7,\"s3Key\":\"key.pdf\",\"unknown\":true}".getBytes(StandardCharsets.UTF_8);
+
+        Object event = deserializer.deserialize(TOPIC, new RecordHeaders(), json);
+
+        assertThat(event).isEqualTo(FileUploadEvent.builder().fileId(7L).s3Key("key.pdf").build());
+    }
+
+    /**
+     * Заголовок с классом вне известных событий отклоняется.
+     */
+    @Test
+    void shouldRejectJson_whenTypeHeaderIsUntrusted() {
+        Headers headers = new RecordHeaders();
+        headers.add(EventJson.TYPE_ID_HEADER, "java.util.HashMap".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, "{}".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Untrusted");
+    }
+
+    /**
+     * Обрезанное бинарное сообщение — ошибка десериализации, а не мусорное событие.
+     */
+    @Test
+    void shouldThrowSerializationException_whenBinaryIsTruncated() {
+        byte[] binary = new EventSerializer().serialize(TOPIC, SCAN_RESULT);
+        byte[] truncated = Arrays.copyOf(binary, binary.length - 5);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, new RecordHeaders(), truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,91 @@
+package org.resume.common.serialization;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.resume.common.model.FileScanResult;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.common.model.ScanStatus;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventSerializerTest {
+
+    private static final String TOPIC = "file-upload-events";
+
+    private static final FileUploadEvent UPLOAD_EVENT = FileUploadEvent.builder()
+            .fileId(123_456L)
+            .userId(42L)
+            .s3Key("0b7e6a1c-5f7e-4c1e-9f55-2d0a4c3e8b11.pdf")
+            .bucketName("first-aws-bucket")
+            .originalFileName("Квартальный отчёт.pdf")
+            .build();
+
+    /**
+     * По умолчанию пишется бинарный формат: маркер в первом байте,
+     * без заголовка типа и заметно короче JSON.
+     */
+    @Test
+    void shouldWriteCompactBinary_whenFormatIsDefault() {
+        Headers headers = new RecordHeaders();
+        byte[] binary = new EventSerializer().serialize(TOPIC, headers, UPLOAD_EVENT);
+
+        try (JsonSerializer<Object> jsonSerializer = new JsonSerializer<>()) {
+            byte[] json = jsonSerializer.serialize(TOPIC, UPLOAD_EVENT);
+            assertThat(binary.length).isLessThan(json.length * 3 / 4);
+        }
+        assertThat(binary[0]).isEqualTo(EventBinaryFormat.MAGIC);
+        assertThat(headers.lastHeader(EventJson.TYPE_ID_HEADER)).isNull();
+    }
+
+    /**
+     * JSON-режим для выката — заголовок типа как у JsonSerializer Spring Kafka.
+     */
+    @Test
+    void shouldWriteJsonWithTypeHeader_whenJsonFormatConfigured() {
+        EventSerializer serializer = new EventSerializer();
+        serializer.configure(Map.of(EventSerializer.FORMAT_CONFIG, "json"), false);
+        Headers headers = new RecordHeaders();
+
+        byte[] json = serializer.serialize(TOPIC, headers, UPLOAD_EVENT);
+
+        assertThat(new String(json, StandardCharsets.UTF_8)).startsWith("{").contains("\"fileId\":123456");
+        assertThat(new String(headers.lastHeader(EventJson.TYPE_ID_HEADER).value(), StandardCharsets.UTF_8))
+                .isEqualTo(FileUploadEvent.class.getName());
+    }
+
+    /**
+     * Null-поля и отрицательные значения переживают кодирование без потерь.
+     */
+    @Test
+    void shouldRoundTripNullAndEdgeValues_whenBinary() {
+        FileScanResult result = FileScanResult.builder()
+                .fileId(-1L)
+                .status(ScanStatus.ERROR)
+                .errorMessage("x".repeat(300))
+                .scannedAt(Instant.ofEpochSecond(-10, 999_999_999))
+                .build();
+
+        byte[] binary = new EventSerializer().serialize(TOPIC, result);
+
+        assertThat(EventBinaryFormat.decode(binary)).isEqualTo(result);
+    }
+
+    /**
+     * Тип без бинарной схемы — ошибка сериализации, а не молчаливый JSON.
+     */
+    @Test
+    void shouldThrowSerializationException_whenTypeHasNoSchema() {
+        EventSerializer serializer = new EventSerializer();
+
+        assertThatThrownBy(() -> serializer.serialize(TOPIC, "plain string"))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -1,20 +1,38 @@
 package org.resume.s3filemanager.config;
 
+import org.resume.s3filemanager.properties.BulkDeletionProperties;
+import org.resume.s3filemanager.properties.FileUploadProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.CompositeTaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 
 /**
  * Конфиг для асинхронного выполнения задач в приложении.
  * <p>
- * Создаёт ThreadPoolTaskExecutor с подключённым {@link MdcTaskDecorator} для безопасной передачи MDC
- * в асинхронные потоки.
+ * Создаёт executor для @Async с подключённым {@link MdcTaskDecorator} для безопасной передачи MDC
+ * в асинхронные потоки, а также executors на виртуальных потоках для пакетной загрузки
+ * и массового удаления файлов. Долгие фоновые задачи (удаление, повтор DLT) идут
+ * на своих executors, а не на @Async пуле аудита.
+ * <p>
+ * При {@code spring.threads.virtual.enabled=true} @Async executor тоже переходит на
+ * виртуальные потоки — вместе с Tomcat и Kafka listener'ами, которые Spring Boot
+ * переключает по тому же свойству.
  */
 @EnableAsync
 @Configuration
+@EnableConfigurationProperties({FileUploadProperties.class, BulkDeletionProperties.class})
 public class AsyncConfig {
 
     /**
@@ -23,6 +41,7 @@ public class AsyncConfig {
      * @return настроенный ThreadPoolTaskExecutor
      */
     @Bean("asyncExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
     public Executor asyncExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
@@ -36,4 +55,98 @@ public class AsyncConfig {
         return executor;
     }
 
+    /**
+     * Создаёт Executor для асинхронных задач на виртуальных потоках с передачей MDC.
+     * <p>
+     * Лимит параллелизма совпадает с maxPoolSize платформенного варианта,
+     * чтобы аудит не выбирал весь пул соединений БД.
+     *
+     * @return SimpleAsyncTaskExecutor на виртуальных потоках
+     */
+    @Bean("asyncExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualAsyncExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(20);
+
+        executor.setTaskDecorator(new MdcTaskDecorator());
+
+        return executor;
+    }
+
+    /**
+     * Создаёт Executor для параллельной обработки файлов пакетной загрузки.
+     * <p>
+     * Виртуальные потоки дёшевы при блокировке на S3 и БД, а лимит
+     * {@code app.multiple-upload.max-concurrency} ограничивает число файлов,
+     * обрабатываемых одновременно во всём приложении. В поток передаются
+     * MDC и SecurityContext вызывающего запроса.
+     *
+     * @return SimpleAsyncTaskExecutor на виртуальных потоках
+     */
+    @Bean("batchUploadExecutor")
+    public TaskExecutor batchUploadExecutor(FileUploadProperties fileUploadProperties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("batch-upload-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(fileUploadProperties.getMaxConcurrency());
+        TaskDecorator securityContextDecorator = runnable -> DelegatingSecurityContextRunnable.create(runnable, null);
+        executor.setTaskDecorator(new CompositeTaskDecorator(List.of(
+                new MdcTaskDecorator(),
+                securityContextDecorator
+        )));
+        return executor;
+    }
+
+    /**
+     * Создаёт Executor для пачек массового удаления файлов.
+     * <p>
+     * Пачка держит соединение БД на время своей транзакции, поэтому лимит
+     * {@code app.bulk-deletion.parallel-chunks} ограничивает и число
+     * одновременных транзакций удаления.
+     *
+     * @return SimpleAsyncTaskExecutor на виртуальных потоках
+     */
+    @Bean("bulkDeletionExecutor")
+    public TaskExecutor bulkDeletionExecutor(BulkDeletionProperties bulkDeletionProperties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("bulk-deletion-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(bulkDeletionProperties.getParallelChunks());
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        return executor;
+    }
+
+    /**
+     * Создаёт Executor для задач массового удаления целиком.
+     * <p>
+     * Задача идёт минутами и только ждёт свои пачки, поэтому у неё свой виртуальный
+     * поток, а не поток пула аудита. Лимит не нужен: уникальный индекс допускает
+     * не больше одной выполняющейся задачи на статус сканирования.
+     *
+     * @return SimpleAsyncTaskExecutor на виртуальных потоках
+     */
+    @Bean("bulkDeletionJobExecutor")
+    public TaskExecutor bulkDeletionJobExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("bulk-deletion-job-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        return executor;
+    }
+
+    /**
+     * Создаёт Executor для повтора Dead Letter Topic.
+     * <p>
+     * Повтор идёт до конца DLT и большую часть времени ждёт Kafka, поэтому у него
+     * свой виртуальный поток, а не поток пула аудита. Лимит не нужен: в кластере
+     * идёт не больше одного повтора.
+     *
+     * @return SimpleAsyncTaskExecutor на виртуальных потоках
+     */
+    @Bean("dltReplayExecutor")
+    public TaskExecutor dltReplayExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("dlt-replay-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        return executor;
+    }
 }
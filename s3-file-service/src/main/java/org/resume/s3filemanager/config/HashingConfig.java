@@ -0,0 +1,39 @@
+package org.resume.s3filemanager.config;
+
+import lombok.RequiredArgsConstructor;
+import org.resume.s3filemanager.properties.HashingProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Конфигурация хеширования содержимого файлов.
+ * <p>
+ * Создаёт пул потоков, на котором древовидный хеш считает чанки больших
+ * файлов параллельно. Хеширование — чистые вычисления, поэтому пул
+ * фиксированный, по числу ядер, а не на виртуальных потоках.
+ *
+ * @see HashingProperties
+ */
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(HashingProperties.class)
+public class HashingConfig {
+
+    private final HashingProperties hashingProperties;
+
+    /**
+     * Пул для хеширования чанков, размер равен числу ядер.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService contentHashExecutor() {
+        return Executors.newFixedThreadPool(
+                hashingProperties.effectiveParallelism(),
+                new CustomizableThreadFactory("content-hash-")
+        );
+    }
+}
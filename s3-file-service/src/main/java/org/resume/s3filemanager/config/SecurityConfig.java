@@ -32,7 +32,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
  *   <li>CORS политику из конфигурации</li>
  *   <li>Авторизацию на уровне endpoint'ов по ролям</li>
  * </ul>
- * Публичные endpoints: /api/auth/login, /api/auth/register, /api/home
+ * Публичные endpoints: /api/auth/login, /api/auth/register, /api/home, /api/home/scroll
  *
  * @see JwtTokenFilter
  */
@@ -74,7 +74,7 @@ public class SecurityConfig {
      * Публичные пути:
      * <ul>
      *   <li>/api/auth/* - регистрация и вход</li>
-     *   <li>/api/home - список файлов без аутентификации</li>
+     *   <li>/api/home, /api/home/scroll - список файлов без аутентификации</li>
      * </ul>
      * Защищенные пути:
      * <ul>
@@ -95,7 +95,7 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorizeRequests -> authorizeRequests
                         .requestMatchers("/api/auth/login", "/api/auth/register").permitAll()
-                        .requestMatchers("/api/home").permitAll()
+                        .requestMatchers("/api/home", "/api/home/scroll").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/files/{uniqueName}").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/files/upload").authenticated()
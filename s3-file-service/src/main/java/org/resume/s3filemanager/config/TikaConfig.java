@@ -1,22 +1,52 @@
 package org.resume.s3filemanager.config;
 
-import org.apache.tika.Tika;
+import lombok.RequiredArgsConstructor;
+import org.apache.tika.detect.Detector;
+import org.apache.tika.mime.MimeTypes;
+import org.resume.s3filemanager.properties.FileDetectionProperties;
+import org.resume.s3filemanager.validation.AllowedTypesDetector;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Конфигурация Apache Tika для определения типов файлов.
  * <p>
- * Предоставляет bean {@link Tika} для анализа файловых сигнатур
- * и защиты от подмены типа файла.
+ * Предоставляет {@link Detector} для анализа файловых сигнатур и защиты
+ * от подмены типа файла. Реестр MIME-типов строится при старте, а не при
+ * первой загрузке. По умолчанию сигнатуры сверяются только с разрешёнными
+ * типами ({@link AllowedTypesDetector}), иначе — с полным реестром Tika.
+ * <p>
+ * Если {@code prefixSize} меньше, чем детектору нужно байтов для сигнатур,
+ * приложение не стартует: иначе часть типов молча определялась бы неверно.
  *
- * @see Tika
+ * @see FileDetectionProperties
  */
 @Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(FileDetectionProperties.class)
 public class TikaConfig {
 
+    private final FileDetectionProperties fileDetectionProperties;
+
     @Bean
-    public Tika tika() {
-        return new Tika();
+    public Detector fileTypeDetector() {
+        MimeTypes allTypes = MimeTypes.getDefaultMimeTypes();
+        if (!fileDetectionProperties.isRestrictToAllowedTypes()) {
+            requirePrefixCovers(allTypes.getMinLength());
+            return allTypes;
+        }
+
+        AllowedTypesDetector detector = new AllowedTypesDetector(allTypes);
+        requirePrefixCovers(detector.getMinLength());
+        return detector;
+    }
+
+    private void requirePrefixCovers(int minLength) {
+        long prefixSize = fileDetectionProperties.getPrefixSize().toBytes();
+        if (prefixSize < minLength) {
+            throw new IllegalStateException("app.file-detection.prefix-size (" + prefixSize
+                    + " bytes) is smaller than the detector needs to read signatures (" + minLength + " bytes)");
+        }
     }
 }
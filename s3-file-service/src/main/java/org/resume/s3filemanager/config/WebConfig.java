@@ -1,32 +1,41 @@
 package org.resume.s3filemanager.config;
 
 import lombok.RequiredArgsConstructor;
+import org.resume.s3filemanager.properties.DownloadProperties;
 import org.resume.s3filemanager.properties.PageableProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
 
 /**
- * Конфигурация Spring MVC для пагинации.
+ * Конфигурация Spring MVC для пагинации и потоковых ответов.
  * <p>
  * Настраивает {@link PageableHandlerMethodArgumentResolver} с параметрами
- * пагинации по умолчанию из конфигурационных properties.
+ * пагинации по умолчанию из конфигурационных properties, а также
+ * ограниченный executor для потоковой отдачи файлов.
  *
  * @see PageableProperties
+ * @see DownloadProperties
  */
 @Configuration
 @RequiredArgsConstructor
-@EnableConfigurationProperties(PageableProperties.class)
+@EnableConfigurationProperties({PageableProperties.class, DownloadProperties.class})
 @EnableSpringDataWebSupport(pageSerializationMode = EnableSpringDataWebSupport.PageSerializationMode.VIA_DTO)
 public class WebConfig implements WebMvcConfigurer {
 
     private final PageableProperties pageableProperties;
+    private final DownloadProperties downloadProperties;
+    private final Environment environment;
 
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
@@ -38,4 +47,20 @@ public class WebConfig implements WebMvcConfigurer {
 
         resolvers.add(resolver);
     }
+
+    /**
+     * Потоковые ответы (StreamingResponseBody) пишутся в отдельном потоке:
+     * число одновременных скачиваний ограничено, MDC передаётся в поток записи.
+     * В режиме виртуальных потоков запись тоже идёт на виртуальных потоках.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("download-");
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setConcurrencyLimit(downloadProperties.getMaxConcurrentStreams());
+        executor.setTaskDecorator(new MdcTaskDecorator());
+
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(downloadProperties.getStreamTimeout().toMillis());
+    }
 }
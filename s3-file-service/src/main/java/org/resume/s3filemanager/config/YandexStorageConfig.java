@@ -3,41 +3,53 @@ package org.resume.s3filemanager.config;
 
 import lombok.RequiredArgsConstructor;
 import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.properties.AsyncStorageProperties;
+import org.resume.s3filemanager.properties.MultipartUploadProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.*;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.crt.S3CrtHttpConfiguration;
 
 import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Конфигурация S3 клиента для Yandex Object Storage.
  * <p>
- * Создает {@link S3Client} с настройками подключения к Yandex Cloud
- * через AWS SDK v2 с использованием S3-совместимого API.
+ * Создает блокирующий {@link S3Client} и неблокирующий CRT {@link S3AsyncClient}
+ * с настройками подключения к Yandex Cloud через AWS SDK v2 с использованием
+ * S3-совместимого API, а также пул потоков для параллельной загрузки частей
+ * multipart upload.
  *
  * @see YandexStorageProperties
+ * @see AsyncStorageProperties
  * @see S3Client
  */
 @Configuration
 @RequiredArgsConstructor
-@EnableConfigurationProperties({YandexStorageProperties.class})
+@EnableConfigurationProperties({
+        YandexStorageProperties.class,
+        MultipartUploadProperties.class,
+        AsyncStorageProperties.class
+})
 public class YandexStorageConfig {
 
     private final YandexStorageProperties properties;
+    private final MultipartUploadProperties multipartProperties;
+    private final AsyncStorageProperties asyncProperties;
 
     @Bean
     public S3Client yandexS3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(
-                properties.getAccessKey(),
-                properties.getSecretKey()
-        );
-
         return S3Client.builder()
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .credentialsProvider(credentialsProvider())
                 .endpointOverride(URI.create(properties.getEndpoint()))
                 .region(Region.of(properties.getRegion()))
                 .serviceConfiguration(S3Configuration.builder()
@@ -46,4 +58,44 @@ public class YandexStorageConfig {
                 .build();
     }
 
+    /**
+     * Неблокирующий клиент на CRT: запросы не занимают поток на время
+     * сетевого обмена, а соединения берутся из нативного пула CRT.
+     */
+    @Bean(destroyMethod = "close")
+    public S3AsyncClient yandexS3AsyncClient() {
+        return S3AsyncClient.crtBuilder()
+                .credentialsProvider(credentialsProvider())
+                .endpointOverride(URI.create(properties.getEndpoint()))
+                .region(Region.of(properties.getRegion()))
+                .forcePathStyle(true)
+                .maxConcurrency(asyncProperties.getMaxConcurrency())
+                .targetThroughputInGbps(asyncProperties.getTargetThroughputGbps())
+                .minimumPartSizeInBytes(asyncProperties.getMinimumPartSize().toBytes())
+                .httpConfiguration(S3CrtHttpConfiguration.builder()
+                        .connectionTimeout(asyncProperties.getConnectionTimeout())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Пул для загрузки частей multipart upload. Отдельный от executor'а @Async:
+     * части ждут сетевого ответа S3, и длинная загрузка не должна занимать
+     * потоки аудита и асинхронных операций хранилища.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService multipartUploadExecutor() {
+        return Executors.newFixedThreadPool(
+                multipartProperties.getThreadPoolSize(),
+                new CustomizableThreadFactory("s3-part-")
+        );
+    }
+
+    private AwsCredentialsProvider credentialsProvider() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(
+                properties.getAccessKey(),
+                properties.getSecretKey()
+        ));
+    }
+
 }
@@ -23,6 +23,9 @@ public class ErrorMessages {
     public static final String ACCESS_DENIED_DELETE_FILE = "Cannot delete other user's file";
     public static final String FILES_UPLOAD_ERROR = "Failed to upload all added files";
     public static final String MAX_FILES_EXCEEDED = "Maximum %d files allowed per upload";
+    public static final String RANGE_NOT_SATISFIABLE = "Requested range is not satisfiable";
+    public static final String INVALID_CURSOR = "Invalid page cursor: %s";
+    public static final String DELETION_JOB_NOT_FOUND = "Deletion job not found: %d";
 
     // Database
     public static final String DATA_INTEGRITY_UNIQUE = "Record with this data already exists";
@@ -15,6 +15,8 @@ import org.resume.s3filemanager.enums.UserStatus;
 import org.resume.s3filemanager.service.admin.AdminAuditService;
 import org.resume.s3filemanager.service.admin.AdminFileService;
 import org.resume.s3filemanager.service.admin.AdminUserService;
+import org.resume.s3filemanager.service.admin.FileBulkDeletionService;
+import org.resume.s3filemanager.service.kafka.OutboxService;
 import org.resume.s3filemanager.service.kafka.RetryDLTService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -38,7 +40,9 @@ public class AdminController {
     private final AdminUserService adminUserService;
     private final AdminAuditService adminAuditService;
     private final AdminFileService adminFileService;
+    private final FileBulkDeletionService fileBulkDeletionService;
     private final RetryDLTService retryDLTService;
+    private final OutboxService outboxService;
 
     @Operation(summary = "Журнал аудита", description = "Возвращает логи с фильтрацией по пользователю, операции, статусу и дате")
     @ApiResponses({
@@ -130,15 +134,43 @@ public class AdminController {
         return adminFileService.findAllByScanStatus(scanStatus, pageable);
     }
 
-    @Operation(summary = "Повторить обработку DLT", description = "Переотправляет все сообщения из Dead Letter Topic для файлов со статусом ERROR")
+    @Operation(summary = "Файлы по статусу сканирования по курсору", description = "Файлы с указанным статусом от новых к старым без подсчёта общего количества. Для следующей страницы передайте nextCursor из ответа")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Сообщения переотправлены"),
+            @ApiResponse(responseCode = "200", description = "Успешно"),
+            @ApiResponse(responseCode = "400", description = "Неверный курсор"),
+            @ApiResponse(responseCode = "401", description = "Токен отсутствует или истёк"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    @Parameter(name = "size", description = "Размер страницы", example = "20")
+    @GetMapping("/files/scan-status/scroll")
+    public CursorPageResponse<AdminFileResponse> scrollFilesByScanStatus(
+            @Parameter(description = "Статус сканирования", example = "CLEAN") @RequestParam ScanStatus scanStatus,
+            @Parameter(description = "Курсор из предыдущего ответа; без него — первая страница") @RequestParam(required = false) String cursor,
+            @Parameter(hidden = true) Pageable pageable) {
+        return adminFileService.scrollByScanStatus(scanStatus, cursor, pageable.getPageSize());
+    }
+
+    @Operation(summary = "Повторить обработку DLT", description = "Запускает в фоне переотправку новых сообщений Dead Letter Topic для файлов со статусом ERROR. Если повтор уже идёт — возвращает его прогресс")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Повтор запущен"),
             @ApiResponse(responseCode = "401", description = "Токен отсутствует или истёк"),
             @ApiResponse(responseCode = "403", description = "Недостаточно прав")
     })
     @PostMapping("/files/retry-dlt")
-    public CommonResponse<Integer> retryDlt() {
-        return CommonResponse.success(retryDLTService.retryFailedEvents());
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public CommonResponse<DltReplayProgressResponse> retryDlt() {
+        return CommonResponse.success(retryDLTService.startReplay());
+    }
+
+    @Operation(summary = "Прогресс повтора DLT", description = "Состояние и счётчики текущего или последнего повтора Dead Letter Topic")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешно"),
+            @ApiResponse(responseCode = "401", description = "Токен отсутствует или истёк"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    @GetMapping("/files/retry-dlt")
+    public CommonResponse<DltReplayProgressResponse> getDltReplayProgress() {
+        return CommonResponse.success(retryDLTService.getProgress());
     }
 
     @Operation(summary = "Повторить сканирование файла", description = "Отправляет файл на повторное сканирование. Только для статуса ERROR")
@@ -155,7 +187,7 @@ public class AdminController {
         return CommonResponse.success(adminFileService.retryScan(fileId));
     }
 
-    @Operation(summary = "Статистика файлов", description = "Количество файлов по каждому статусу сканирования")
+    @Operation(summary = "Статистика файлов", description = "Количество файлов по каждому статусу сканирования и их суммарный размер; данные могут отставать на несколько секунд")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Успешно"),
             @ApiResponse(responseCode = "401", description = "Токен отсутствует или истёк"),
@@ -166,16 +198,40 @@ public class AdminController {
         return CommonResponse.success(adminFileService.getFileStats());
     }
 
-    @Operation(summary = "Удалить файлы по статусу", description = "Для INFECTED — только метаданные (S3 уже очищен). Для остальных — удаляет и из S3, и метаданные")
+    @Operation(summary = "Статистика Outbox", description = "Количество событий, ожидающих отправки в Kafka, и событий в статусе FAILED")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешно"),
+            @ApiResponse(responseCode = "401", description = "Токен отсутствует или истёк"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    @GetMapping("/outbox/stats")
+    public CommonResponse<OutboxStatsResponse> getOutboxStats() {
+        return CommonResponse.success(outboxService.getStats());
+    }
+
+    @Operation(summary = "Удалить файлы по статусу", description = "Запускает в фоне удаление файлов с указанным статусом пачками. Для INFECTED — только метаданные (S3 уже очищен), для остальных — и объекты S3. Если удаление для статуса уже идёт — возвращает его прогресс")
     @ApiResponses({
-            @ApiResponse(responseCode = "204", description = "Файлы удалены"),
+            @ApiResponse(responseCode = "202", description = "Удаление запущено"),
             @ApiResponse(responseCode = "401", description = "Токен отсутствует или истёк"),
             @ApiResponse(responseCode = "403", description = "Недостаточно прав")
     })
     @DeleteMapping("/files/scan-status")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public CommonResponse<Integer> deleteFilesByScanStatus(
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public CommonResponse<FileDeletionJobResponse> deleteFilesByScanStatus(
             @Parameter(description = "Статус сканирования", example = "INFECTED") @RequestParam ScanStatus scanStatus) {
-        return CommonResponse.success(adminFileService.deleteAllByScanStatus(scanStatus));
+        return CommonResponse.success(fileBulkDeletionService.start(scanStatus));
+    }
+
+    @Operation(summary = "Прогресс удаления файлов", description = "Состояние и счётчики задачи массового удаления файлов по статусу")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешно"),
+            @ApiResponse(responseCode = "401", description = "Токен отсутствует или истёк"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена")
+    })
+    @GetMapping("/files/deletion-jobs/{jobId}")
+    public CommonResponse<FileDeletionJobResponse> getDeletionJob(
+            @Parameter(description = "ID задачи удаления", example = "1") @PathVariable Long jobId) {
+        return CommonResponse.success(fileBulkDeletionService.getProgress(jobId));
     }
 }
@@ -9,17 +9,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.resume.s3filemanager.constant.SuccessMessages;
 import org.resume.s3filemanager.dto.CommonResponse;
-import org.resume.s3filemanager.dto.FileDownloadResponse;
+import org.resume.s3filemanager.dto.FileStreamResponse;
 import org.resume.s3filemanager.dto.MultipleUploadResponse;
 import org.resume.s3filemanager.service.file.FileFacadeService;
 import org.resume.s3filemanager.validation.ValidFile;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -73,25 +75,46 @@ public class FileController {
         return CommonResponse.success(results);
     }
 
-    @Operation(summary = "Скачать файл", description = "Скачивает файл по уникальному имени")
+    @Operation(summary = "Скачать файл", description = "Потоково скачивает файл по уникальному имени. Поддерживает Range и If-Range")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Файл успешно скачан"),
+            @ApiResponse(responseCode = "206", description = "Отдан запрошенный диапазон байт"),
             @ApiResponse(responseCode = "404", description = "Файл не найден"),
+            @ApiResponse(responseCode = "416", description = "Диапазон за пределами файла"),
             @ApiResponse(responseCode = "500", description = "Ошибка S3")
     })
     @SecurityRequirements
     @GetMapping("/{uniqueName}")
-    public ResponseEntity<ByteArrayResource> download(
+    public ResponseEntity<StreamingResponseBody> download(
             @Parameter(description = "Уникальное имя файла", example = "212d7ce9-8451-4c4d-881e-d198593aa518.png")
-            @PathVariable String uniqueName) {
-        FileDownloadResponse response = fileFacadeService.downloadFile(uniqueName);
-        ByteArrayResource resource = new ByteArrayResource(response.getContent());
-        return ResponseEntity
-                .ok()
-                .contentLength(response.getSize())
+            @PathVariable String uniqueName,
+            @Parameter(description = "Диапазон байт", example = "bytes=0-1023")
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @Parameter(description = "ETag или дата, при совпадении которых применяется Range")
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        FileStreamResponse response = fileFacadeService.streamFile(uniqueName, range, ifRange);
+
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream content = response.getContent()) {
+                content.transferTo(outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity
+                .status(response.isPartial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentLength(response.getContentLength())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                 .header("Content-Type", response.getContentType())
-                .header("Content-Disposition", "attachment; filename*=UTF-8''" + response.getFileName())
-                .body(resource);
+                .header("Content-Disposition", "attachment; filename*=UTF-8''" + response.getFileName());
+
+        if (response.getETag() != null) {
+            builder.eTag(response.getETag());
+        }
+        if (response.isPartial()) {
+            builder.header(HttpHeaders.CONTENT_RANGE, response.getContentRange());
+        }
+
+        return builder.body(body);
     }
 
     @Operation(summary = "Удалить файл", description = "Удаляет файл по уникальному имени. Пользователи — только свои, админы — любые")
@@ -7,12 +7,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.resume.s3filemanager.dto.CursorPageResponse;
 import org.resume.s3filemanager.dto.FileResponse;
 import org.resume.s3filemanager.service.file.FilePaginationService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -43,4 +45,18 @@ public class HomeController {
     public Page<FileResponse> getFiles(@Parameter(hidden = true) Pageable pageable) {
         return filePaginationService.paginate(pageable);
     }
+
+    @Operation(summary = "Список файлов по курсору", description = "Файлы от новых к старым без подсчёта общего количества. Для следующей страницы передайте nextCursor из ответа")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешно"),
+            @ApiResponse(responseCode = "400", description = "Неверный курсор")
+    })
+    @Parameter(name = "size", description = "Размер страницы", example = "20")
+    @SecurityRequirements
+    @GetMapping("/scroll")
+    public CursorPageResponse<FileResponse> scrollFiles(
+            @Parameter(description = "Курсор из предыдущего ответа; без него — первая страница") @RequestParam(required = false) String cursor,
+            @Parameter(hidden = true) Pageable pageable) {
+        return filePaginationService.scroll(cursor, pageable.getPageSize());
+    }
 }
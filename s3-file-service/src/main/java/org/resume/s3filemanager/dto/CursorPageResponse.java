@@ -0,0 +1,24 @@
+package org.resume.s3filemanager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "Страница списка с курсором на следующую")
+public record CursorPageResponse<T>(
+        @Schema(description = "Элементы страницы")
+        List<T> content,
+
+        @Schema(description = "Размер страницы", example = "20")
+        int size,
+
+        @Schema(description = "Есть ли следующая страница", example = "true")
+        boolean hasNext,
+
+        @Schema(description = "Курсор следующей страницы; передаётся как есть в параметре cursor. Null — страница последняя",
+                example = "djE6MTAyNA")
+        String nextCursor
+) {
+}
@@ -0,0 +1,36 @@
+package org.resume.s3filemanager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import org.resume.s3filemanager.enums.DltReplayStatus;
+
+import java.time.Instant;
+
+@Builder
+@Schema(description = "Прогресс повторной обработки Dead Letter Topic")
+public record DltReplayProgressResponse(
+        @Schema(description = "Состояние повтора", example = "RUNNING")
+        DltReplayStatus status,
+
+        @Schema(description = "Время запуска", example = "2026-03-11T03:41:17.639342344Z")
+        Instant startedAt,
+
+        @Schema(description = "Время завершения", example = "2026-03-11T03:41:19.120000000Z")
+        Instant finishedAt,
+
+        @Schema(description = "Новых сообщений в DLT на момент запуска", example = "120")
+        long total,
+
+        @Schema(description = "Прочитано сообщений", example = "80")
+        long read,
+
+        @Schema(description = "Переотправлено в основной топик", example = "12")
+        long resent,
+
+        @Schema(description = "Пропущено: файл не в статусе ERROR, удалён или уже переотправлен", example = "68")
+        long skipped,
+
+        @Schema(description = "Не удалось переотправить", example = "0")
+        long failed
+) {
+}
@@ -0,0 +1,40 @@
+package org.resume.s3filemanager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.enums.DeletionJobStatus;
+
+import java.time.Instant;
+
+@Builder
+@Schema(description = "Прогресс массового удаления файлов по статусу сканирования")
+public record FileDeletionJobResponse(
+        @Schema(description = "ID задачи", example = "7")
+        Long id,
+
+        @Schema(description = "Статус сканирования удаляемых файлов", example = "ERROR")
+        ScanStatus scanStatus,
+
+        @Schema(description = "Состояние задачи", example = "RUNNING")
+        DeletionJobStatus status,
+
+        @Schema(description = "Удалено файлов", example = "42000")
+        long deletedFiles,
+
+        @Schema(description = "Удалено объектов S3, оставшихся без ссылок", example = "41870")
+        long deletedObjects,
+
+        @Schema(description = "Объекты S3, которые не удалось удалить; метаданные файлов уже удалены", example = "0")
+        long failedObjects,
+
+        @Schema(description = "Причина остановки задачи в статусе FAILED", example = "Connection refused")
+        String errorMessage,
+
+        @Schema(description = "Время запуска", example = "2026-03-11T03:41:17.639342344Z")
+        Instant startedAt,
+
+        @Schema(description = "Время завершения", example = "2026-03-11T03:44:02.120000000Z")
+        Instant finishedAt
+) {
+}
@@ -19,6 +19,9 @@ public record FileStatsResponse(
         long error,
 
         @Schema(description = "Всего файлов", example = "108")
-        long total
+        long total,
+
+        @Schema(description = "Суммарный размер всех файлов", example = "512.00 MB")
+        String totalSize
 ) {
 }
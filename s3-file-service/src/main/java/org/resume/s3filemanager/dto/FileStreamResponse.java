@@ -0,0 +1,24 @@
+package org.resume.s3filemanager.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.InputStream;
+
+/**
+ * Потоковый ответ на скачивание файла.
+ * <p>
+ * Содержит открытый поток S3 объекта (полного или диапазона байт),
+ * который контроллер переливает в ответ без буферизации в памяти.
+ */
+@Getter
+@Builder
+public class FileStreamResponse {
+    private InputStream content;
+    private String fileName;
+    private String contentType;
+    private long contentLength;
+    private String eTag;
+    private String contentRange;
+    private boolean partial;
+}
@@ -0,0 +1,15 @@
+package org.resume.s3filemanager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Статистика Outbox событий, ожидающих доставки в Kafka")
+public record OutboxStatsResponse(
+        @Schema(description = "События в очереди на отправку", example = "3")
+        long pending,
+
+        @Schema(description = "События, исчерпавшие попытки отправки", example = "1")
+        long failed
+) {
+}
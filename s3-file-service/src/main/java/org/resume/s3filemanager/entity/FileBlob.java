@@ -0,0 +1,45 @@
+package org.resume.s3filemanager.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.resume.common.model.ScanStatus;
+
+/**
+ * Физический объект в S3, общий для всех файлов с одинаковым содержимым.
+ * <p>
+ * Идентифицируется SHA-256 содержимого. Каждая запись {@link FileMetadata}
+ * ссылается на объект и учитывается в {@code refCount}; объект удаляется
+ * из S3, когда уходит последняя ссылка. Вердикт антивируса хранится здесь
+ * и наследуется всеми ссылками.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "file_blobs")
+public class FileBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 80, unique = true)
+    private String contentHash;
+
+    @Column(length = 64, nullable = false, unique = true)
+    private String storageKey;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScanStatus scanStatus = ScanStatus.PENDING_SCAN;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int refCount = 1;
+}
@@ -0,0 +1,75 @@
+package org.resume.s3filemanager.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.enums.DeletionJobStatus;
+
+import java.time.Instant;
+
+/**
+ * Задача массового удаления файлов по статусу сканирования.
+ * <p>
+ * Файлы удаляются пачками по возрастанию id; {@code lastFileId} — граница,
+ * до которой все файлы уже обработаны. Пока задача RUNNING, исполнитель
+ * обновляет {@code heartbeatAt}; задачу с устаревшим значением забирает
+ * другой экземпляр и продолжает с {@code lastFileId}. {@code claimedBy} — токен
+ * текущего исполнителя: исполнитель, у которого задачу забрали, больше не может
+ * записать в неё прогресс.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "file_deletion_jobs")
+public class FileDeletionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private ScanStatus scanStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DeletionJobStatus status;
+
+    @Column(nullable = false)
+    private long lastFileId;
+
+    @Column(nullable = false)
+    private long deletedFiles;
+
+    @Column(nullable = false)
+    private long deletedObjects;
+
+    @Column(nullable = false)
+    private long failedObjects;
+
+    @Column(length = 1024)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private Instant heartbeatAt;
+
+    @Column(length = 64)
+    private String claimedBy;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant finishedAt;
+
+    public FileDeletionJob(ScanStatus scanStatus, String claimedBy) {
+        this.scanStatus = scanStatus;
+        this.claimedBy = claimedBy;
+        this.status = DeletionJobStatus.RUNNING;
+        this.createdAt = Instant.now();
+        this.heartbeatAt = this.createdAt;
+    }
+}
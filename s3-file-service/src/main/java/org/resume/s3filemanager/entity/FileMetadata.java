@@ -10,7 +10,10 @@ import org.resume.common.model.ScanStatus;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "file_metadata")
+@Table(
+        name = "file_metadata",
+        uniqueConstraints = @UniqueConstraint(name = "uk_file_hash_user", columnNames = {"file_hash", "user_id"})
+)
 public class FileMetadata {
 
     @Id
@@ -28,7 +31,7 @@ public class FileMetadata {
     @Column(nullable = false)
     private long size;
 
-    @Column(length = 64, nullable = false, unique = true)
+    @Column(length = 80, nullable = false)
     private String fileHash;
 
     @Builder.Default
@@ -39,4 +42,8 @@ public class FileMetadata {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id", nullable = false)
+    private FileBlob blob;
 }
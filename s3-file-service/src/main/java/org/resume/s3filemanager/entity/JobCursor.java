@@ -0,0 +1,29 @@
+package org.resume.s3filemanager.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Курсор фоновой задачи, обходящей таблицу пачками по возрастанию id.
+ * <p>
+ * Хранится в БД, а не в памяти экземпляра: после рестарта или перехода задачи
+ * на другой экземпляр обход продолжается с {@code lastId}.
+ */
+@Getter
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "job_cursors")
+public class JobCursor {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastId;
+}
@@ -0,0 +1,34 @@
+package org.resume.s3filemanager.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Аренда фоновой задачи, которая во всём кластере должна идти не больше чем в одном экземпляре.
+ * <p>
+ * Владелец ({@code owner}) продлевает {@code leasedUntil} по ходу работы и удаляет
+ * строку по завершении. Аренду упавшего экземпляра после истечения берёт другой.
+ */
+@Getter
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "job_leases")
+public class JobLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant leasedUntil;
+}
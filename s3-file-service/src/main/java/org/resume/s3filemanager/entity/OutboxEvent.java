@@ -16,7 +16,10 @@ import java.time.Instant;
  * Событие в Outbox таблице.
  * <p>
  * Гарантирует доставку событий в Kafka через паттерн Transactional Outbox.
- * Scheduler периодически читает PENDING события и отправляет их в Kafka.
+ * Scheduler периодически забирает PENDING события в аренду и отправляет их в Kafka:
+ * пока аренда {@code claimedUntil} не истекла, событие не достанется другому экземпляру.
+ * <p>
+ * Таблица секционирована по дням {@code createdAt}, первичный ключ в БД — {@code (id, created_at)}.
  */
 
 @Getter
@@ -53,6 +56,11 @@ public class OutboxEvent {
 
     private Instant sentAt;
 
+    @Column(length = 64)
+    private String claimedBy;
+
+    private Instant claimedUntil;
+
     public OutboxEvent(OutboxEventType eventType, String payload) {
         this.eventType = eventType;
         this.payload = payload;
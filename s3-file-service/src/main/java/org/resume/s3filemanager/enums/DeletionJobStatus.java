@@ -0,0 +1,16 @@
+package org.resume.s3filemanager.enums;
+
+/**
+ * Состояние задачи массового удаления файлов.
+ */
+public enum DeletionJobStatus {
+
+    /** Задача выполняется или ждёт, пока её подхватит живой экземпляр. */
+    RUNNING,
+
+    /** Файлов с нужным статусом больше нет. */
+    COMPLETED,
+
+    /** Задача остановлена на ошибке; повторный запуск продолжит с последнего обработанного файла. */
+    FAILED
+}
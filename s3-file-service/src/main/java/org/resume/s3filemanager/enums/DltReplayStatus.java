@@ -0,0 +1,19 @@
+package org.resume.s3filemanager.enums;
+
+/**
+ * Состояние повторной обработки Dead Letter Topic.
+ */
+public enum DltReplayStatus {
+
+    /** Повтор ещё не запускался. */
+    IDLE,
+
+    /** Повтор выполняется. */
+    RUNNING,
+
+    /** Все новые сообщения DLT обработаны, offset'ы закоммичены. */
+    COMPLETED,
+
+    /** Повтор остановлен на ошибке; необработанные сообщения будут прочитаны следующим запуском. */
+    FAILED
+}
@@ -0,0 +1,58 @@
+package org.resume.s3filemanager.enums;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Алгоритмы хеширования содержимого файлов.
+ * <p>
+ * Хеш хранится в БД с тегом алгоритма: {@code "<tag>:<hex>"}. Благодаря тегу
+ * значения разных алгоритмов никогда не совпадают, а алгоритм можно сменить
+ * без пересчёта всех записей разом.
+ */
+public enum HashAlgorithm {
+
+    /** Устаревший алгоритм, только для чтения существующих записей. */
+    MD5("md5"),
+    SHA256("sha256"),
+    /** SHA-256 дерево Меркла над чанками фиксированного размера. */
+    TREE_SHA256("tree-sha256");
+
+    private static final char SEPARATOR = ':';
+
+    private final String tag;
+
+    HashAlgorithm(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Форматирует дайджест в хранимое значение с тегом алгоритма.
+     */
+    public String format(byte[] digest) {
+        return tag + SEPARATOR + HexFormat.of().formatHex(digest);
+    }
+
+    /**
+     * Проверяет, посчитано ли хранимое значение этим алгоритмом.
+     */
+    public boolean matches(String storedHash) {
+        return storedHash != null && storedHash.startsWith(tag + SEPARATOR);
+    }
+
+    /**
+     * Определяет алгоритм по хранимому значению.
+     *
+     * @throws IllegalArgumentException если тег неизвестен
+     */
+    public static HashAlgorithm fromStoredHash(String storedHash) {
+        return Arrays.stream(values())
+                .filter(algorithm -> algorithm.matches(storedHash))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown hash algorithm tag: " + storedHash));
+    }
+}
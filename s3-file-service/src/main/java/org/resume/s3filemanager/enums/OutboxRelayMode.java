@@ -0,0 +1,13 @@
+package org.resume.s3filemanager.enums;
+
+/**
+ * Режим доставки Outbox событий в Kafka.
+ */
+public enum OutboxRelayMode {
+
+    /** Одно событие за раз: отдельная транзакция и ожидание подтверждения Kafka. */
+    SEQUENTIAL,
+
+    /** Пачка целиком: все отправки в полёте одновременно, статусы — двумя bulk UPDATE. */
+    PIPELINED
+}
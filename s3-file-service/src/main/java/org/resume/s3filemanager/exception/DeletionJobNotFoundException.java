@@ -0,0 +1,9 @@
+package org.resume.s3filemanager.exception;
+
+import org.resume.s3filemanager.constant.ErrorMessages;
+
+public class DeletionJobNotFoundException extends RuntimeException {
+    public DeletionJobNotFoundException(Long jobId) {
+        super(String.format(ErrorMessages.DELETION_JOB_NOT_FOUND, jobId));
+    }
+}
@@ -0,0 +1,9 @@
+package org.resume.s3filemanager.exception;
+
+import org.resume.s3filemanager.constant.ErrorMessages;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super(String.format(ErrorMessages.INVALID_CURSOR, cursor));
+    }
+}
@@ -0,0 +1,15 @@
+package org.resume.s3filemanager.exception;
+
+import lombok.Getter;
+import org.resume.s3filemanager.constant.ErrorMessages;
+
+@Getter
+public class RangeNotSatisfiableException extends RuntimeException {
+
+    private final long fileSize;
+
+    public RangeNotSatisfiableException(long fileSize) {
+        super(ErrorMessages.RANGE_NOT_SATISFIABLE);
+        this.fileSize = fileSize;
+    }
+}
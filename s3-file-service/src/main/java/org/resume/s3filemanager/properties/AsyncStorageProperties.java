@@ -0,0 +1,37 @@
+package org.resume.s3filemanager.properties;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки асинхронного CRT клиента S3.
+ * <p>
+ * {@code maxConcurrency} ограничивает число одновременных HTTP соединений
+ * (размер пула CRT), {@code targetThroughputGbps} задаёт целевую пропускную
+ * способность, по которой CRT подбирает параллелизм частей.
+ */
+@Getter
+@Validated
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.storage.async")
+public class AsyncStorageProperties {
+
+    @Positive
+    private final int maxConcurrency;
+
+    @Positive
+    private final double targetThroughputGbps;
+
+    @NotNull
+    private final DataSize minimumPartSize;
+
+    @NotNull
+    private final Duration connectionTimeout;
+}
@@ -0,0 +1,54 @@
+package org.resume.s3filemanager.properties;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки массового удаления файлов.
+ * <p>
+ * Файлы удаляются пачками по {@code chunkSize} — столько же ключей уходит в один
+ * запрос S3 DeleteObjects, поэтому не больше 1000. Одновременно обрабатывается
+ * {@code parallelChunks} пачек. Задачу, чей исполнитель не обновлялся дольше
+ * {@code lease}, забирает другой экземпляр; зависшие задачи ищутся раз
+ * в {@code resumeIntervalMs}.
+ * <p>
+ * Признак жизни обновляется раз в шаг, поэтому ожидание ответа S3 на удаление
+ * объектов ограничено {@code objectDeleteTimeout} — он должен быть меньше {@code lease}.
+ * Объекты, не удалённые за это время, считаются в {@code failedObjects}.
+ */
+@Getter
+@Validated
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.bulk-deletion")
+public class BulkDeletionProperties {
+
+    @Positive
+    @Max(value = 1000)
+    private final int chunkSize;
+
+    @Positive
+    private final int parallelChunks;
+
+    @NotNull
+    private final Duration lease;
+
+    @NotNull
+    private final Duration objectDeleteTimeout;
+
+    @Positive
+    private final long resumeIntervalMs;
+
+    @AssertTrue(message = "objectDeleteTimeout must be positive and shorter than lease")
+    public boolean isObjectDeleteTimeoutValid() {
+        return objectDeleteTimeout == null || lease == null
+                || objectDeleteTimeout.isPositive() && objectDeleteTimeout.compareTo(lease) < 0;
+    }
+}
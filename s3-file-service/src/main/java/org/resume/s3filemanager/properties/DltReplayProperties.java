@@ -0,0 +1,54 @@
+package org.resume.s3filemanager.properties;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.resume.s3filemanager.service.kafka.FileEventProducer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки повторной обработки Dead Letter Topic.
+ * <p>
+ * DLT читается пачками по {@code batchSize} сообщений ({@code max.poll.records}),
+ * пачка ждёт сообщений не дольше {@code pollTimeout}. Переотправка асинхронная,
+ * одновременно в полёте не больше {@code maxInFlight} отправок.
+ * <p>
+ * Во всём кластере повтор идёт в одном экземпляре: запуск держит аренду в БД
+ * на {@code lease} и продлевает её после каждой пачки.
+ */
+@Getter
+@Validated
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.dlt-replay")
+public class DltReplayProperties {
+
+    @Positive
+    @Max(value = 1000)
+    private final int batchSize;
+
+    @Positive
+    private final int maxInFlight;
+
+    @NotNull
+    private final Duration pollTimeout;
+
+    @NotNull
+    private final Duration lease;
+
+    @AssertTrue(message = "lease must cover the longest batch: "
+            + "pollTimeout + (ceil(batchSize / maxInFlight) + 1) x send timeout")
+    public boolean isLeaseValid() {
+        if (lease == null || pollTimeout == null || batchSize <= 0 || maxInFlight <= 0) {
+            return true;
+        }
+        long sendTimeouts = (batchSize + maxInFlight - 1) / maxInFlight + 1;
+        Duration longestBatch = pollTimeout.plusSeconds(sendTimeouts * FileEventProducer.SEND_TIMEOUT_SECONDS);
+        return lease.compareTo(longestBatch) >= 0;
+    }
+}
@@ -0,0 +1,39 @@
+package org.resume.s3filemanager.properties;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Настройки определения реального типа файла.
+ * <p>
+ * {@code prefixSize} — сколько начальных байтов читается для проверки сигнатуры,
+ * независимо от размера файла. {@code restrictToAllowedTypes} — сверять сигнатуры
+ * только с типами из {@code AllowedFileType} и родственными им.
+ * {@code warmUpIterations} — число прогонов детектора при старте (0 — без прогрева).
+ */
+@Getter
+@Validated
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.file-detection")
+public class FileDetectionProperties {
+
+    @NotNull
+    private final DataSize prefixSize;
+
+    private final boolean restrictToAllowedTypes;
+
+    @PositiveOrZero
+    private final int warmUpIterations;
+
+    @AssertTrue(message = "prefixSize must be between 1KB and 1MB")
+    public boolean isPrefixSizeValid() {
+        return prefixSize == null
+                || (prefixSize.toBytes() >= 1024 && prefixSize.toBytes() <= DataSize.ofMegabytes(1).toBytes());
+    }
+}
@@ -0,0 +1,30 @@
+package org.resume.s3filemanager.properties;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки статистики файлов.
+ * <p>
+ * Счётчики читаются из {@code file_stats} и держатся в памяти {@code cacheTtl}
+ * (0 — без кэша). Расхождение счётчиков с file_metadata исправляется раз
+ * в {@code reconcileIntervalMs}.
+ */
+@Getter
+@Validated
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.file-stats")
+public class FileStatsProperties {
+
+    @NotNull
+    private final Duration cacheTtl;
+
+    @Positive
+    private final long reconcileIntervalMs;
+}
@@ -15,4 +15,7 @@ public class FileUploadProperties {
     @Positive
     @Max(value = 10)
     private final int maxBatchSize;
+
+    @Positive
+    private final int maxConcurrency;
 }
@@ -0,0 +1,75 @@
+package org.resume.s3filemanager.properties;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.resume.s3filemanager.enums.HashAlgorithm;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки хеширования содержимого файлов.
+ * <p>
+ * {@code algorithm} — алгоритм для новых загрузок. Для {@code TREE_SHA256}
+ * содержимое режется на чанки по {@code treeChunkSize}, которые хешируются
+ * параллельно на {@code parallelism} потоках (0 — по числу ядер).
+ * Миграция пересчитывает устаревшие MD5-хеши пачками по {@code migrationBatchSize};
+ * пачку ведёт один экземпляр, держащий аренду {@code migrationLease}, которая
+ * продлевается после каждого файла.
+ * <p>
+ * Существующие объекты дедуплицируются по {@code sha256:}, и миграция
+ * переводит на активный алгоритм только MD5-хеши файлов. Поэтому порядок такой:
+ * сначала миграция с {@code SHA256}, и лишь на базе без {@code md5:}/{@code sha256:}
+ * хешей — {@code TREE_SHA256}. Иначе повторная загрузка того же содержимого
+ * не распознаётся как дубликат и не находит общий объект.
+ */
+@Getter
+@Validated
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.hashing")
+public class HashingProperties {
+
+    @NotNull
+    private final HashAlgorithm algorithm;
+
+    @NotNull
+    private final DataSize treeChunkSize;
+
+    @PositiveOrZero
+    private final int parallelism;
+
+    private final boolean migrationEnabled;
+
+    @Positive
+    private final int migrationBatchSize;
+
+    @Positive
+    private final long migrationIntervalMs;
+
+    @NotNull
+    private final Duration migrationLease;
+
+    @AssertTrue(message = "MD5 is kept only for legacy hashes and cannot be used for new uploads")
+    public boolean isAlgorithmSupported() {
+        return algorithm != HashAlgorithm.MD5;
+    }
+
+    @AssertTrue(message = "treeChunkSize must be between 1KB and 64MB")
+    public boolean isTreeChunkSizeValid() {
+        return treeChunkSize == null
+                || (treeChunkSize.toBytes() >= 1024 && treeChunkSize.toBytes() <= DataSize.ofMegabytes(64).toBytes());
+    }
+
+    /**
+     * Число потоков для параллельного хеширования чанков.
+     */
+    public int effectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,62 @@
+package org.resume.s3filemanager.properties;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки multipart-загрузки в S3.
+ * <p>
+ * Файлы размером от {@code threshold} режутся на части по {@code partSize}
+ * и загружаются параллельно. Одновременно в памяти находится не более
+ * {@code maxConcurrentParts} частей на одну загрузку и не более
+ * {@code maxBufferedParts} частей на все загрузки сервиса, то есть буферы
+ * multipart занимают не больше {@code partSize × maxBufferedParts}.
+ */
+@Getter
+@Validated
+@RequiredArgsConstructor
+@ConfigurationProperties(prefix = "app.storage.multipart")
+public class MultipartUploadProperties {
+
+    private static final DataSize MIN_PART_SIZE = DataSize.ofMegabytes(5);
+
+    @NotNull
+    private final DataSize threshold;
+
+    @NotNull
+    private final DataSize partSize;
+
+    @Positive
+    private final int maxConcurrentParts;
+
+    @Positive
+    private final int maxBufferedParts;
+
+    @Positive
+    private final int threadPoolSize;
+
+    @Positive
+    private final int maxPartAttempts;
+
+    @NotNull
+    private final Duration retryBackoff;
+
+    @AssertTrue(message = "partSize must be at least 5MB (S3 minimum) and not exceed threshold")
+    public boolean isPartSizeValid() {
+        return partSize == null || threshold == null
+                || (partSize.compareTo(MIN_PART_SIZE) >= 0 && partSize.compareTo(threshold) <= 0);
+    }
+
+    @AssertTrue(message = "maxConcurrentParts must not exceed maxBufferedParts")
+    public boolean isMaxConcurrentPartsValid() {
+        return maxConcurrentParts <= maxBufferedParts;
+    }
+}
@@ -1,20 +1,51 @@
 package org.resume.s3filemanager.properties;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.resume.s3filemanager.enums.OutboxRelayMode;
+import org.resume.s3filemanager.service.kafka.FileEventProducer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
+/**
+ * Настройки доставки Outbox событий.
+ * <p>
+ * {@code relayMode} — последовательная или конвейерная отправка пачки.
+ * В режиме {@code PIPELINED} одновременно в полёте не больше {@code maxInFlight}
+ * отправок, остальные ждут освобождения слота.
+ * <p>
+ * Каждый экземпляр ({@code instanceId}) берёт пачку в аренду на {@code claimLease},
+ * поэтому несколько реплик разбирают outbox параллельно и без пересечений.
+ * Аренда упавшего экземпляра истекает, и его события забирают остальные.
+ * Аренда не продлевается, поэтому должна пережить самый долгий проход пачки:
+ * в {@code SEQUENTIAL} каждое событие ждёт подтверждения до таймаута отправки,
+ * в {@code PIPELINED} таймаут приходится на каждую волну из {@code maxInFlight}
+ * отправок и на итоговое ожидание подтверждений.
+ * <p>
+ * {@code listenEnabled} — будить релей по PostgreSQL NOTIFY сразу после вставки
+ * события; периодический опрос остаётся страховкой.
+ * <p>
+ * Таблица секционирована по дням: раз в {@code maintenanceIntervalMs} создаются
+ * секции на {@code partitionsAhead} дней вперёд, а секции старше {@code sentRetention},
+ * где все события SENT, удаляются целиком.
+ */
 @Getter
 @Validated
 @RequiredArgsConstructor
 @ConfigurationProperties(prefix = "app.outbox")
 public class OutboxProperties {
 
+    private static final Duration MIN_CLAIM_LEASE = Duration.ofSeconds(30);
+
     @Positive
-    @Max(value = 100)
+    @Max(value = 1000)
     private final int batchSize;
 
     @Positive
@@ -26,4 +57,54 @@ public class OutboxProperties {
 
     @Positive
     private final long schedulerIntervalMs;
+
+    @NotNull
+    private final OutboxRelayMode relayMode;
+
+    @Positive
+    private final int maxInFlight;
+
+    @NotBlank
+    private final String instanceId;
+
+    @NotNull
+    private final Duration claimLease;
+
+    private final boolean listenEnabled;
+
+    @NotNull
+    private final Duration sentRetention;
+
+    @Positive
+    @Max(value = 30)
+    private final int partitionsAhead;
+
+    @Positive
+    private final long maintenanceIntervalMs;
+
+    @AssertTrue(message = "claimLease must be at least 30s and cover the longest relay pass: "
+            + "batchSize x send timeout in SEQUENTIAL mode, "
+            + "(ceil(batchSize / maxInFlight) + 1) x send timeout in PIPELINED mode")
+    public boolean isClaimLeaseValid() {
+        if (claimLease == null || relayMode == null || batchSize <= 0 || maxInFlight <= 0) {
+            return true;
+        }
+        return claimLease.compareTo(MIN_CLAIM_LEASE) >= 0 && claimLease.compareTo(longestRelayPass()) >= 0;
+    }
+
+    /**
+     * Худшее время прохода одной пачки, если каждое ожидание отправки упирается в таймаут.
+     */
+    public Duration longestRelayPass() {
+        long sendTimeouts = switch (relayMode) {
+            case SEQUENTIAL -> batchSize;
+            case PIPELINED -> (batchSize + maxInFlight - 1) / maxInFlight + 1;
+        };
+        return Duration.ofSeconds(sendTimeouts * FileEventProducer.SEND_TIMEOUT_SECONDS);
+    }
+
+    @AssertTrue(message = "sentRetention must be at least 1 day: partitions are dropped by whole days")
+    public boolean isSentRetentionValid() {
+        return sentRetention == null || sentRetention.compareTo(Duration.ofDays(1)) >= 0;
+    }
 }
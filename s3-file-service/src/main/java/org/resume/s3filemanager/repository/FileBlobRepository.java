@@ -0,0 +1,119 @@
+package org.resume.s3filemanager.repository;
+
+import jakarta.transaction.Transactional;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.entity.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+    Optional<FileBlob> findByStorageKey(String storageKey);
+
+    /**
+     * Отбирает из переданных ключей S3 объекты с данным статусом сканирования одним запросом.
+     *
+     * @return ключи S3 найденных объектов
+     */
+    @Query("SELECT b.storageKey FROM FileBlob b WHERE b.storageKey IN :storageKeys AND b.scanStatus = :scanStatus")
+    List<String> findStorageKeysByScanStatus(@Param("storageKeys") Collection<String> storageKeys,
+                                             @Param("scanStatus") ScanStatus scanStatus);
+
+    /**
+     * Атомарно берёт ссылку на объект с данным содержимым.
+     * Если объекта ещё нет — регистрирует переданный ключ S3 как новый объект,
+     * иначе увеличивает счётчик ссылок существующего.
+     *
+     * @return id объекта, на который теперь ссылается файл
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO file_blobs (content_hash, storage_key, size, scan_status, ref_count)
+            VALUES (:contentHash, :storageKey, :size, 'PENDING_SCAN', 1)
+            ON CONFLICT (content_hash) DO UPDATE SET ref_count = file_blobs.ref_count + 1
+            RETURNING id
+            """, nativeQuery = true)
+    Long acquireReference(@Param("contentHash") String contentHash,
+                          @Param("storageKey") String storageKey,
+                          @Param("size") long size);
+
+    /**
+     * Уменьшает счётчик ссылок.
+     *
+     * @return оставшееся количество ссылок
+     */
+    @Transactional
+    @Query(value = "UPDATE file_blobs SET ref_count = ref_count - 1 WHERE id = :id RETURNING ref_count",
+            nativeQuery = true)
+    int releaseReference(@Param("id") Long id);
+
+    /**
+     * Удаляет объект, если на него больше никто не ссылается.
+     *
+     * @return ключ S3 удалённого объекта или пусто, если ссылка успела появиться снова
+     */
+    @Transactional
+    @Query(value = "DELETE FROM file_blobs WHERE id = :id AND ref_count <= 0 RETURNING storage_key",
+            nativeQuery = true)
+    Optional<String> deleteIfUnreferenced(@Param("id") Long id);
+
+    /**
+     * Блокирует объекты в порядке id, чтобы параллельные пачки отпускали общие объекты без взаимоблокировок.
+     */
+    @Query(value = "SELECT id FROM file_blobs WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Отпускает по {@code refs} ссылок на каждый объект пачки.
+     *
+     * @return количество обновлённых объектов
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - :refs WHERE b.id IN :ids")
+    int releaseReferences(@Param("ids") Collection<Long> ids, @Param("refs") int refs);
+
+    /**
+     * Удаляет объекты пачки, на которые больше никто не ссылается.
+     *
+     * @return ключи S3 удалённых объектов
+     */
+    @Transactional
+    @Query(value = "DELETE FROM file_blobs WHERE id IN (:ids) AND ref_count <= 0 RETURNING storage_key",
+            nativeQuery = true)
+    List<String> deleteUnreferenced(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Переводит объекты в новый статус сканирования одним условным UPDATE.
+     * Объекты, текущий статус которых не входит в {@code sources}, не меняются.
+     *
+     * @return ключи S3 объектов, сменивших статус
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE file_blobs SET scan_status = :target
+            WHERE storage_key IN (:storageKeys) AND scan_status IN (:sources)
+            RETURNING storage_key
+            """, nativeQuery = true)
+    List<String> transitionScanStatus(@Param("storageKeys") Collection<String> storageKeys,
+                                      @Param("sources") Collection<String> sources,
+                                      @Param("target") String target);
+
+    /**
+     * Проставляет хеш содержимого объекту, у которого его ещё нет.
+     *
+     * @return 1, если хеш проставлен, 0 — если он уже был
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileBlob b SET b.contentHash = :contentHash WHERE b.id = :id AND b.contentHash IS NULL")
+    int assignContentHash(@Param("id") Long id, @Param("contentHash") String contentHash);
+}
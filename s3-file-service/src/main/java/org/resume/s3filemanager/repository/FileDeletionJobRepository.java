@@ -0,0 +1,110 @@
+package org.resume.s3filemanager.repository;
+
+import jakarta.transaction.Transactional;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.entity.FileDeletionJob;
+import org.resume.s3filemanager.enums.DeletionJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileDeletionJobRepository extends JpaRepository<FileDeletionJob, Long> {
+
+    Optional<FileDeletionJob> findByScanStatusAndStatus(ScanStatus scanStatus, DeletionJobStatus status);
+
+    /**
+     * Выполняющиеся задачи, исполнитель которых не подавал признаков жизни с {@code staleBefore}.
+     */
+    @Query("""
+            SELECT j.id FROM FileDeletionJob j
+            WHERE j.status = org.resume.s3filemanager.enums.DeletionJobStatus.RUNNING
+              AND j.heartbeatAt < :staleBefore
+            ORDER BY j.id
+            """)
+    List<Long> findStaleJobIds(@Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Забирает зависшую задачу: из нескольких экземпляров обновить строку успеет только один.
+     * Задача переходит к исполнителю {@code owner}, прежний исполнитель больше не может её обновить.
+     *
+     * @return 1, если задача теперь принадлежит вызывающему
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE FileDeletionJob j SET j.heartbeatAt = :now, j.claimedBy = :owner
+            WHERE j.id = :id
+              AND j.status = org.resume.s3filemanager.enums.DeletionJobStatus.RUNNING
+              AND j.heartbeatAt < :staleBefore
+            """)
+    int claimStale(@Param("id") Long id,
+                   @Param("owner") String owner,
+                   @Param("now") Instant now,
+                   @Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Отпускает задачу, которую не удалось запустить: признак жизни сбрасывается,
+     * и её заберёт следующая проверка зависших задач на любом экземпляре.
+     *
+     * @return 0, если задача уже не выполняется или принадлежит другому исполнителю
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE FileDeletionJob j SET j.claimedBy = NULL, j.heartbeatAt = :staleAt
+            WHERE j.id = :id AND j.claimedBy = :owner
+              AND j.status = org.resume.s3filemanager.enums.DeletionJobStatus.RUNNING
+            """)
+    int releaseClaim(@Param("id") Long id, @Param("owner") String owner, @Param("staleAt") Instant staleAt);
+
+    /**
+     * Сдвигает границу обработанных файлов, добавляет счётчики пачки и обновляет признак жизни.
+     *
+     * @return 0, если задача уже не выполняется или её забрал другой исполнитель
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE FileDeletionJob j
+            SET j.lastFileId = :lastFileId,
+                j.deletedFiles = j.deletedFiles + :deletedFiles,
+                j.deletedObjects = j.deletedObjects + :deletedObjects,
+                j.failedObjects = j.failedObjects + :failedObjects,
+                j.heartbeatAt = :now
+            WHERE j.id = :id AND j.claimedBy = :owner
+              AND j.status = org.resume.s3filemanager.enums.DeletionJobStatus.RUNNING
+            """)
+    int recordProgress(@Param("id") Long id,
+                       @Param("owner") String owner,
+                       @Param("lastFileId") long lastFileId,
+                       @Param("deletedFiles") long deletedFiles,
+                       @Param("deletedObjects") long deletedObjects,
+                       @Param("failedObjects") long failedObjects,
+                       @Param("now") Instant now);
+
+    /**
+     * Завершает задачу, если она всё ещё принадлежит исполнителю {@code owner}.
+     *
+     * @return 0, если задача уже не выполняется или её забрал другой исполнитель
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE FileDeletionJob j
+            SET j.status = :status, j.errorMessage = :errorMessage, j.finishedAt = :finishedAt
+            WHERE j.id = :id AND j.claimedBy = :owner
+              AND j.status = org.resume.s3filemanager.enums.DeletionJobStatus.RUNNING
+            """)
+    int finish(@Param("id") Long id,
+               @Param("owner") String owner,
+               @Param("status") DeletionJobStatus status,
+               @Param("errorMessage") String errorMessage,
+               @Param("finishedAt") Instant finishedAt);
+}
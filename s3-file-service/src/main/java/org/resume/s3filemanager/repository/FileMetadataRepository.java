@@ -3,14 +3,17 @@ package org.resume.s3filemanager.repository;
 import jakarta.transaction.Transactional;
 import org.resume.common.model.ScanStatus;
 import org.resume.s3filemanager.entity.FileMetadata;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,9 +22,12 @@ public interface FileMetadataRepository extends JpaRepository<FileMetadata, Long
 
     boolean existsByFileHashAndUserId(String fileHash, Long userId);
 
-    @Query("SELECT f FROM FileMetadata f JOIN FETCH f.user WHERE f.uniqueName = :uniqueName")
+    @Query("SELECT f FROM FileMetadata f JOIN FETCH f.user JOIN FETCH f.blob WHERE f.uniqueName = :uniqueName")
     Optional<FileMetadata> findByUniqueName(@Param("uniqueName") String uniqueName);
 
+    @Query("SELECT f FROM FileMetadata f JOIN FETCH f.user JOIN FETCH f.blob WHERE f.id = :id")
+    Optional<FileMetadata> findWithUserAndBlobById(@Param("id") Long id);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM FileMetadata f WHERE f.uniqueName = :uniqueName")
@@ -32,7 +38,130 @@ public interface FileMetadataRepository extends JpaRepository<FileMetadata, Long
     @Query("SELECT f FROM FileMetadata f JOIN FETCH f.user WHERE f.scanStatus = :scanStatus")
     Page<FileMetadata> findByScanStatusWithUser(@Param("scanStatus") ScanStatus scanStatus, Pageable pageable);
 
-    List<FileMetadata> findAllByScanStatus(ScanStatus scanStatus);
+    /**
+     * Страница файлов с данным статусом, начиная с id меньше {@code beforeId}, от новых к старым.
+     * Slice выбирает на одну строку больше размера страницы вместо отдельного COUNT(*).
+     */
+    Slice<FileMetadata> findByScanStatusAndIdLessThanOrderByIdDesc(ScanStatus scanStatus, Long beforeId, Pageable pageable);
+
+    @Query("""
+            SELECT f FROM FileMetadata f JOIN FETCH f.user
+            WHERE f.scanStatus = :scanStatus AND f.id < :beforeId
+            ORDER BY f.id DESC
+            """)
+    Slice<FileMetadata> findSliceByScanStatusWithUser(@Param("scanStatus") ScanStatus scanStatus,
+                                                      @Param("beforeId") Long beforeId,
+                                                      Pageable pageable);
+
+    /**
+     * Следующая пачка id файлов с данным статусом, по возрастанию id.
+     * Читается только индекс (scan_status, id).
+     */
+    @Query("""
+            SELECT f.id FROM FileMetadata f
+            WHERE f.scanStatus = :scanStatus AND f.id > :afterId
+            ORDER BY f.id
+            """)
+    List<Long> findIdsByScanStatusAfter(@Param("scanStatus") ScanStatus scanStatus,
+                                        @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    /**
+     * Удаляет файлы пачки, которые всё ещё в данном статусе, одним DELETE.
+     *
+     * @return id объектов, на которые ссылались удалённые файлы, — по одному на файл
+     */
+    @Transactional
+    @Query(value = """
+            DELETE FROM file_metadata
+            WHERE id IN (:ids) AND scan_status = :scanStatus
+            RETURNING blob_id
+            """, nativeQuery = true)
+    List<Long> deleteByIdsAndScanStatus(@Param("ids") Collection<Long> ids, @Param("scanStatus") String scanStatus);
+
+    /**
+     * Следующая пачка id файлов пользователя, по возрастанию id.
+     */
+    @Query("""
+            SELECT f.id FROM FileMetadata f
+            WHERE f.user.id = :userId AND f.id > :afterId
+            ORDER BY f.id
+            """)
+    List<Long> findIdsByUserIdAfter(@Param("userId") Long userId,
+                                    @Param("afterId") Long afterId,
+                                    Limit limit);
+
+    /**
+     * Удаляет файлы пачки, принадлежащие пользователю, одним DELETE.
+     *
+     * @return id объектов, на которые ссылались удалённые файлы, — по одному на файл
+     */
+    @Transactional
+    @Query(value = """
+            DELETE FROM file_metadata
+            WHERE id IN (:ids) AND user_id = :userId
+            RETURNING blob_id
+            """, nativeQuery = true)
+    List<Long> deleteByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    /**
+     * Количество и суммарный размер файлов по статусам из счётчиков {@code file_stats}.
+     * Счётчики ведёт триггер на file_metadata, запрос читает не больше 16 строк на статус.
+     */
+    @Query(value = """
+            SELECT scan_status AS "scanStatus",
+                   CAST(sum(file_count) AS BIGINT) AS "fileCount",
+                   CAST(sum(total_size) AS BIGINT) AS "totalSize"
+            FROM file_stats
+            GROUP BY scan_status
+            """, nativeQuery = true)
+    List<ScanStatusTotals> sumFileStats();
+
+    /**
+     * Сверяет счётчики {@code file_stats} с file_metadata и добавляет расхождение.
+     *
+     * @return количество статусов, у которых счётчики разошлись
+     */
+    @Transactional
+    @Query(value = "SELECT file_stats_reconcile()", nativeQuery = true)
+    int reconcileFileStats();
+
+    /**
+     * Выставляет статус сканирования всем файлам, ссылающимся на объекты с данными ключами S3.
+     * Контекст очищается, чтобы уже загруженные файлы не остались со старым статусом.
+     *
+     * @return количество обновлённых файлов
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE FileMetadata f SET f.scanStatus = :scanStatus
+            WHERE f.blob.id IN (SELECT b.id FROM FileBlob b WHERE b.storageKey IN :storageKeys)
+            """)
+    int updateScanStatusByStorageKeys(@Param("storageKeys") Collection<String> storageKeys,
+                                      @Param("scanStatus") ScanStatus scanStatus);
+
+    /**
+     * Следующая пачка файлов с устаревшим MD5-хешем, по возрастанию id.
+     */
+    @Query("""
+            SELECT f FROM FileMetadata f JOIN FETCH f.blob
+            WHERE f.id > :afterId AND f.fileHash LIKE 'md5:%'
+            ORDER BY f.id
+            """)
+    List<FileMetadata> findLegacyHashedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileMetadata f SET f.fileHash = :fileHash WHERE f.id = :id")
+    int updateFileHash(@Param("id") Long id, @Param("fileHash") String fileHash);
+
+    interface ScanStatusTotals {
+
+        String getScanStatus();
+
+        long getFileCount();
 
-    long countByScanStatus(ScanStatus scanStatus);
+        long getTotalSize();
+    }
 }
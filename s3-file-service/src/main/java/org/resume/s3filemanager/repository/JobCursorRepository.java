@@ -0,0 +1,30 @@
+package org.resume.s3filemanager.repository;
+
+import jakarta.transaction.Transactional;
+import org.resume.s3filemanager.entity.JobCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobCursorRepository extends JpaRepository<JobCursor, String> {
+
+    @Query("SELECT c.lastId FROM JobCursor c WHERE c.name = :name")
+    Optional<Long> findLastId(@Param("name") String name);
+
+    /**
+     * Сохраняет курсор задачи, создавая строку при первом вызове.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO job_cursors (name, last_id)
+            VALUES (:name, :lastId)
+            ON CONFLICT (name) DO UPDATE SET last_id = EXCLUDED.last_id
+            """, nativeQuery = true)
+    void saveLastId(@Param("name") String name, @Param("lastId") long lastId);
+}
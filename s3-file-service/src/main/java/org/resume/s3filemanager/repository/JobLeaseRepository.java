@@ -0,0 +1,49 @@
+package org.resume.s3filemanager.repository;
+
+import jakarta.transaction.Transactional;
+import org.resume.s3filemanager.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Берёт аренду, если её нет или она истекла: из нескольких экземпляров строку
+     * вставит или перехватит только один.
+     *
+     * @return 1, если аренда теперь принадлежит {@code owner}
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO job_leases (name, owner, leased_until)
+            VALUES (:name, :owner, :leasedUntil)
+            ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, leased_until = EXCLUDED.leased_until
+            WHERE job_leases.leased_until < :now
+            """, nativeQuery = true)
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("now") Instant now,
+                   @Param("leasedUntil") Instant leasedUntil);
+
+    /**
+     * Продлевает аренду, если она всё ещё принадлежит {@code owner}.
+     *
+     * @return 0, если аренду перехватил другой экземпляр
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLease l SET l.leasedUntil = :leasedUntil WHERE l.name = :name AND l.owner = :owner")
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("leasedUntil") Instant leasedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JobLease l WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
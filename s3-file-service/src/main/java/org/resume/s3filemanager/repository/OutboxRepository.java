@@ -1,24 +1,142 @@
 package org.resume.s3filemanager.repository;
 
+import jakarta.transaction.Transactional;
 import org.resume.s3filemanager.entity.OutboxEvent;
 import org.resume.s3filemanager.enums.OutboxStatus;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
 
-    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :status AND e.nextRetryAt <= :now ORDER BY e.createdAt ASC")
-    List<OutboxEvent> findPendingEvents(
-            @Param("status") OutboxStatus status,
-            @Param("now") Instant now,
-            Pageable pageable
-    );
+    /**
+     * Атомарно берёт в аренду пачку PENDING событий, готовых к отправке.
+     * <p>
+     * Строки, которые в этот момент забирает другой экземпляр, пропускаются
+     * ({@code SKIP LOCKED}), а взятые получают {@code claimed_by} и срок аренды —
+     * до его истечения их не увидит никто другой. Аренда упавшего экземпляра
+     * истекает, и его события снова попадают в выборку.
+     *
+     * @return взятые события в порядке создания
+     */
+    @Transactional
+    @Query(value = """
+            WITH claimed AS (
+                UPDATE outbox_events
+                SET claimed_by = :owner, claimed_until = :claimedUntil
+                WHERE id IN (
+                    SELECT id FROM outbox_events
+                    WHERE status = 'PENDING'
+                      AND next_retry_at <= :now
+                      AND (claimed_until IS NULL OR claimed_until < :now)
+                    ORDER BY created_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING *
+            )
+            SELECT * FROM claimed ORDER BY created_at, id
+            """, nativeQuery = true)
+    List<OutboxEvent> claimPendingEvents(@Param("owner") String owner,
+                                         @Param("now") Instant now,
+                                         @Param("claimedUntil") Instant claimedUntil,
+                                         @Param("limit") int limit);
 
+    /**
+     * Помечает пачку событий отправленными одним UPDATE.
+     * <p>
+     * Трогаются только события, которые всё ещё арендует {@code owner}: если аренда
+     * истекла и событие забрал другой экземпляр, его состояние не перезаписывается.
+     *
+     * @return количество обновлённых событий
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE OutboxEvent e
+            SET e.status = org.resume.s3filemanager.enums.OutboxStatus.SENT, e.sentAt = :sentAt,
+                e.claimedBy = NULL, e.claimedUntil = NULL
+            WHERE e.id IN :ids AND e.claimedBy = :owner
+            """)
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("owner") String owner,
+                 @Param("sentAt") Instant sentAt);
+
+    /**
+     * Снимает аренду с событий, до отправки которых дело не дошло: они сразу
+     * доступны следующему проходу любого экземпляра, а не ждут истечения аренды.
+     * Трогаются только события, которые всё ещё арендует {@code owner}.
+     *
+     * @return количество освобождённых событий
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE OutboxEvent e
+            SET e.claimedBy = NULL, e.claimedUntil = NULL
+            WHERE e.id IN :ids AND e.claimedBy = :owner
+            """)
+    int releaseClaims(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    /**
+     * Откладывает пачку неотправленных событий одним UPDATE.
+     * <p>
+     * Счётчик попыток увеличивается, следующая попытка назначается через
+     * {@code baseBackoffMinutes * 2^retryCount} минут от {@code now}. Событие,
+     * исчерпавшее {@code maxRetryCount} попыток, переходит в FAILED. Аренда снимается.
+     * Как и в {@link #markSent}, трогаются только события, которые арендует {@code owner}.
+     *
+     * @return количество обновлённых событий
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE outbox_events
+            SET retry_count   = retry_count + 1,
+                status        = CASE WHEN retry_count + 1 >= :maxRetryCount THEN 'FAILED' ELSE status END,
+                next_retry_at = CAST(:now AS TIMESTAMPTZ)
+                                + make_interval(mins => CAST(:baseBackoffMinutes * power(2, retry_count + 1) AS INT)),
+                claimed_by    = NULL,
+                claimed_until = NULL
+            WHERE id IN (:ids) AND claimed_by = :owner
+            """, nativeQuery = true)
+    int scheduleRetry(@Param("ids") Collection<Long> ids,
+                      @Param("owner") String owner,
+                      @Param("now") Instant now,
+                      @Param("maxRetryCount") int maxRetryCount,
+                      @Param("baseBackoffMinutes") long baseBackoffMinutes);
+
+    /**
+     * Считает события в статусе; для PENDING и FAILED работает по частичным индексам.
+     */
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * Создаёт секцию за день (UTC), если её ещё нет. События этого дня,
+     * попавшие в секцию по умолчанию, переносятся в новую.
+     *
+     * @return {@code true}, если секция создана
+     */
+    @Transactional
+    @Query(value = "SELECT outbox_create_partition(CAST(:day AS DATE))", nativeQuery = true)
+    boolean createPartition(@Param("day") LocalDate day);
+
+    /**
+     * Удаляет дневные секции, закончившиеся до {@code cutoff}, если все их события SENT.
+     * Секции с PENDING или FAILED событиями остаются. SENT события старше {@code cutoff}
+     * удаляются и из секции по умолчанию.
+     *
+     * @return имена удалённых секций
+     */
+    @Transactional
+    @Query(value = "SELECT * FROM outbox_drop_sent_partitions(:cutoff)", nativeQuery = true)
+    List<String> dropSentPartitions(@Param("cutoff") Instant cutoff);
 }
@@ -0,0 +1,26 @@
+package org.resume.s3filemanager.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.s3filemanager.service.admin.FileBulkDeletionService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler для продолжения задач массового удаления, брошенных упавшим экземпляром.
+ * <p>
+ * Интервал настраивается через app.bulk-deletion.resume-interval-ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileDeletionJobScheduler {
+
+    private final FileBulkDeletionService fileBulkDeletionService;
+
+    @Scheduled(fixedDelayString = "${app.bulk-deletion.resume-interval-ms}")
+    public void resumeStaleJobs() {
+        log.debug("File deletion job scheduler triggered");
+        fileBulkDeletionService.resumeStaleJobs();
+    }
+}
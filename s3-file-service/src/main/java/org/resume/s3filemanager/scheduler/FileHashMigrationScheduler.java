@@ -0,0 +1,29 @@
+package org.resume.s3filemanager.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.s3filemanager.service.file.FileHashMigrationService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler для пересчёта устаревших MD5-хешей.
+ * <p>
+ * Включается через app.hashing.migration-enabled, интервал между пачками —
+ * app.hashing.migration-interval-ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.hashing", name = "migration-enabled", havingValue = "true")
+public class FileHashMigrationScheduler {
+
+    private final FileHashMigrationService fileHashMigrationService;
+
+    @Scheduled(fixedDelayString = "${app.hashing.migration-interval-ms}")
+    public void migrateLegacyHashes() {
+        log.debug("Hash migration scheduler triggered");
+        fileHashMigrationService.migrateNextBatch();
+    }
+}
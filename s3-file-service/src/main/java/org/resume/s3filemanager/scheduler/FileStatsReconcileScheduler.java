@@ -0,0 +1,26 @@
+package org.resume.s3filemanager.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.s3filemanager.service.admin.FileStatsService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler для сверки счётчиков file_stats с file_metadata.
+ * <p>
+ * Интервал настраивается через app.file-stats.reconcile-interval-ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileStatsReconcileScheduler {
+
+    private final FileStatsService fileStatsService;
+
+    @Scheduled(fixedDelayString = "${app.file-stats.reconcile-interval-ms}")
+    public void reconcileStats() {
+        log.debug("File stats reconcile scheduler triggered");
+        fileStatsService.reconcile();
+    }
+}
@@ -0,0 +1,28 @@
+package org.resume.s3filemanager.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.s3filemanager.service.kafka.OutboxMaintenanceService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler для обслуживания секций Outbox таблицы.
+ * <p>
+ * Создаёт секции на ближайшие дни и удаляет старые секции с отправленными
+ * событиями. Интервал настраивается через app.outbox.maintenance-interval-ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxMaintenanceScheduler {
+
+    private final OutboxMaintenanceService outboxMaintenanceService;
+
+    @Scheduled(fixedDelayString = "${app.outbox.maintenance-interval-ms}")
+    public void maintainPartitions() {
+        log.debug("Outbox maintenance scheduler triggered");
+        outboxMaintenanceService.createUpcomingPartitions();
+        outboxMaintenanceService.purgeSentPartitions();
+    }
+}
@@ -0,0 +1,129 @@
+package org.resume.s3filemanager.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.resume.s3filemanager.properties.OutboxProperties;
+import org.resume.s3filemanager.service.kafka.OutboxService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Слушатель PostgreSQL NOTIFY для Outbox событий.
+ * <p>
+ * Триггер на {@code outbox_events} шлёт уведомление в канал {@link #CHANNEL}
+ * при каждой вставке, PostgreSQL доставляет его только после коммита.
+ * Слушатель держит отдельное соединение вне пула и по уведомлению сразу
+ * запускает обработку — событие уходит в Kafka через миллисекунды,
+ * а не через интервал {@link OutboxScheduler}. Опрос остаётся страховкой
+ * на случай потерянного соединения или упавшего релея.
+ * <p>
+ * Уведомления, пришедшие во время обработки, схлопываются в один проход.
+ * Пока пачки приходят полными, обработка повторяется без ожидания.
+ * При обрыве соединение переоткрывается после паузы, а очередь догоняется сразу.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.outbox", name = "listen-enabled", havingValue = "true")
+public class OutboxNotificationListener implements SmartLifecycle {
+
+    public static final String CHANNEL = "outbox_events";
+
+    private static final int NOTIFICATION_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final OutboxService outboxService;
+    private final OutboxProperties outboxProperties;
+    private final DataSourceProperties dataSourceProperties;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new CustomizableThreadFactory("outbox-listener-").newThread(this::listen);
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for outbox notifications on channel {}", CHANNEL);
+
+                drain();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        log.debug("Received {} outbox notifications", notifications.length);
+                        drain();
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Outbox listener connection lost, reconnecting in {}ms", RECONNECT_DELAY_MS, e);
+                    pause();
+                }
+            }
+        }
+        log.info("Outbox listener stopped");
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private void drain() {
+        try {
+            while (running && outboxService.processPendingEvents() >= outboxProperties.getBatchSize()) {
+                log.debug("Outbox batch was full, processing next one");
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to process outbox events on notification", e);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,19 +4,21 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.resume.common.model.ScanStatus;
 import org.resume.s3filemanager.dto.AdminFileResponse;
+import org.resume.s3filemanager.dto.CursorPageResponse;
 import org.resume.s3filemanager.dto.FileStatsResponse;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.exception.FileNotFoundException;
 import org.resume.s3filemanager.exception.InvalidScanStatusException;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
-import org.resume.s3filemanager.service.file.YandexStorageService;
+import org.resume.s3filemanager.service.file.FileCursor;
+import org.resume.s3filemanager.service.file.ScanStatusTransitionService;
 import org.resume.s3filemanager.service.kafka.OutboxService;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 import static org.resume.s3filemanager.service.file.FilePaginationService.convertToMB;
 
 /**
@@ -31,30 +33,48 @@ public class AdminFileService {
 
     private final FileMetadataRepository fileMetadataRepository;
     private final OutboxService outboxService;
-    private final YandexStorageService yandexStorageService;
+    private final ScanStatusTransitionService scanStatusTransitionService;
+    private final FileStatsService fileStatsService;
 
     public Page<AdminFileResponse> findAllByScanStatus(ScanStatus scanStatus, Pageable pageable) {
         return fileMetadataRepository.findByScanStatusWithUser(scanStatus, pageable)
                 .map(this::toAdminFileResponse);
     }
 
+    /**
+     * Возвращает страницу файлов с указанным статусом по курсору, от новых к старым,
+     * без подсчёта общего количества.
+     *
+     * @param scanStatus статус сканирования
+     * @param cursor     курсор из предыдущего ответа или {@code null} для первой страницы
+     * @param pageSize   размер страницы
+     * @return страница с курсором на следующую
+     */
+    public CursorPageResponse<AdminFileResponse> scrollByScanStatus(ScanStatus scanStatus, String cursor, int pageSize) {
+        Slice<FileMetadata> slice = fileMetadataRepository.findSliceByScanStatusWithUser(
+                scanStatus, FileCursor.decode(cursor), PageRequest.ofSize(pageSize));
+        return FileCursor.toResponse(slice, this::toAdminFileResponse);
+    }
+
     /**
      * Повторно отправляет файл на сканирование.
-     * Доступно только для файлов со статусом ERROR.
+     * Доступно только для файлов со статусом ERROR. Сканируется общий объект S3,
+     * поэтому статус PENDING_SCAN получают все файлы с тем же содержимым.
+     * Статус проверяется условным UPDATE, поэтому из двух одновременных повторов
+     * событие на сканирование отправит только один.
      *
      * @param fileId ID файла
      * @return обновлённая информация о файле
      */
+    @Transactional
     public AdminFileResponse retryScan(Long fileId) {
-        FileMetadata file = fileMetadataRepository.findById(fileId)
+        FileMetadata file = fileMetadataRepository.findWithUserAndBlobById(fileId)
                 .orElseThrow(() -> new FileNotFoundException(fileId.toString()));
 
-        if (file.getScanStatus() != ScanStatus.ERROR) {
+        if (!scanStatusTransitionService.transition(file.getBlob().getStorageKey(), ScanStatus.PENDING_SCAN)) {
             throw new InvalidScanStatusException(file.getScanStatus());
         }
-
         file.setScanStatus(ScanStatus.PENDING_SCAN);
-        fileMetadataRepository.save(file);
 
         outboxService.saveFileUploadEvent(file, file.getUser().getId());
 
@@ -62,38 +82,12 @@ public class AdminFileService {
     }
 
     /**
-     * Возвращает статистику файлов по статусам сканирования.
+     * Возвращает статистику файлов по статусам сканирования из счётчиков {@link FileStatsService}.
      *
      * @return статистика по каждому статусу
      */
     public FileStatsResponse getFileStats() {
-        return FileStatsResponse.builder()
-                .pending(fileMetadataRepository.countByScanStatus(ScanStatus.PENDING_SCAN))
-                .clean(fileMetadataRepository.countByScanStatus(ScanStatus.CLEAN))
-                .infected(fileMetadataRepository.countByScanStatus(ScanStatus.INFECTED))
-                .error(fileMetadataRepository.countByScanStatus(ScanStatus.ERROR))
-                .total(fileMetadataRepository.count())
-                .build();
-    }
-
-    /**
-     * Удаляет все файлы с указанным статусом сканирования.
-     * Для INFECTED — только метаданные (S3 уже очищен).
-     * Для остальных — удаляет и из S3, и метаданные.
-     *
-     * @param scanStatus статус для удаления
-     * @return количество удалённых записей
-     */
-    @Transactional
-    public int deleteAllByScanStatus(ScanStatus scanStatus) {
-        List<FileMetadata> files = fileMetadataRepository.findAllByScanStatus(scanStatus);
-
-        if (scanStatus != ScanStatus.INFECTED) {
-            files.forEach(file -> yandexStorageService.deleteFileYandexS3(file.getUniqueName()));
-        }
-
-        fileMetadataRepository.deleteAll(files);
-        return files.size();
+        return fileStatsService.getStats();
     }
 
     private AdminFileResponse toAdminFileResponse(FileMetadata fileMetadata) {
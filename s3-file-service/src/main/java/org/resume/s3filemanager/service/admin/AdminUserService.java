@@ -1,25 +1,38 @@
 package org.resume.s3filemanager.service.admin;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.resume.s3filemanager.dto.UserDetailsResponse;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.FileUploadStatus;
 import org.resume.s3filemanager.enums.UserStatus;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
 import org.resume.s3filemanager.security.JwtWhitelistService;
 import org.resume.s3filemanager.service.auth.UserService;
+import org.resume.s3filemanager.service.file.FileBlobService;
+import org.resume.s3filemanager.service.file.YandexAsyncStorageService;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Сервис административных операций с пользователями.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AdminUserService {
 
+    private static final int FILE_CHUNK_SIZE = 500;
+
     private final UserService userService;
     private final JwtWhitelistService jwtWhitelistService;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FileBlobService fileBlobService;
+    private final YandexAsyncStorageService yandexAsyncStorageService;
 
     /**
      * Возвращает список всех пользователей.
@@ -67,15 +80,38 @@ public class AdminUserService {
     /**
      * Удаляет пользователя из системы.
      * Предварительно инвалидирует JWT токен.
+     * <p>
+     * Файлы пользователя удаляются пачками до удаления самого пользователя:
+     * каждая пачка отпускает ссылки на общие объекты в своей транзакции,
+     * а объекты S3, оставшиеся без ссылок, удаляются после её фиксации.
+     * Каскад по внешнему ключу к этому моменту удалять уже нечего.
      *
      * @param userId ID пользователя
      */
     public void deleteUser(Long userId) {
         User user = userService.findById(userId);
         jwtWhitelistService.deleteToken(user.getUsername());
+        deleteUserFiles(user.getId());
         userService.delete(user);
     }
 
+    private void deleteUserFiles(Long userId) {
+        long lastFileId = 0L;
+        List<Long> fileIds;
+        while (!(fileIds = fileMetadataRepository.findIdsByUserIdAfter(
+                userId, lastFileId, Limit.of(FILE_CHUNK_SIZE))).isEmpty()) {
+            List<String> orphanedKeys = fileBlobService.deleteUserFiles(fileIds, userId).orphanedKeys();
+            if (!orphanedKeys.isEmpty()) {
+                List<String> failed = yandexAsyncStorageService.deleteFilesAsync(orphanedKeys).join();
+                if (!failed.isEmpty()) {
+                    log.error("Failed to delete {} unreferenced object(s) of user {}: {}",
+                            failed.size(), userId, failed);
+                }
+            }
+            lastFileId = fileIds.get(fileIds.size() - 1);
+        }
+    }
+
     private UserDetailsResponse toUserDetailsResponse(User user) {
         return UserDetailsResponse.builder()
                 .id(user.getId())
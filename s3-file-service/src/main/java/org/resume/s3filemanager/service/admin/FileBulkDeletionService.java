@@ -0,0 +1,272 @@
+package org.resume.s3filemanager.service.admin;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.dto.FileDeletionJobResponse;
+import org.resume.s3filemanager.entity.FileDeletionJob;
+import org.resume.s3filemanager.enums.DeletionJobStatus;
+import org.resume.s3filemanager.exception.DeletionJobNotFoundException;
+import org.resume.s3filemanager.properties.BulkDeletionProperties;
+import org.resume.s3filemanager.repository.FileDeletionJobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.service.file.FileBlobService;
+import org.resume.s3filemanager.service.file.FileBlobService.DeletedFiles;
+import org.resume.s3filemanager.service.file.YandexAsyncStorageService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Фоновое массовое удаление файлов по статусу сканирования.
+ * <p>
+ * Задача хранится в {@code file_deletion_jobs} и идёт по id файлов через индекс
+ * (scan_status, id), не загружая сами файлы. За шаг берётся {@code parallelChunks}
+ * пачек по {@code chunkSize} файлов; каждая пачка удаляется в своей короткой
+ * транзакции ({@link FileBlobService#deleteFiles}), после фиксации объекты без
+ * ссылок удаляются одним запросом S3 DeleteObjects. Для INFECTED объекты S3
+ * уже удалены при сканировании, удаляются только метаданные.
+ * <p>
+ * Граница {@code lastFileId} сдвигается только после того, как завершились все
+ * пачки шага, вместе с признаком жизни исполнителя. После падения экземпляра
+ * задачу подхватывает {@link #resumeStaleJobs()} и продолжает с этой границы.
+ * Каждый исполнитель получает свой токен, и прогресс записывается только
+ * по нему: если задачу забрали, прежний исполнитель останавливается, не трогая
+ * её счётчики. Ожидание S3 ограничено {@code objectDeleteTimeout}, поэтому шаг
+ * не растягивается дольше аренды.
+ * Повторное удаление уже удалённой пачки ничего не делает, поэтому шаг,
+ * прерванный посередине, безопасно выполнить ещё раз.
+ * <p>
+ * Объекты, которые S3 не удалил, не останавливают задачу: метаданные уже
+ * удалены, объекты считаются в {@code failedObjects} и остаются в бакете.
+ * Ошибка БД останавливает задачу в статусе FAILED; повторный запуск для того же
+ * статуса продолжит удаление оставшихся файлов.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileBulkDeletionService {
+
+    private static final String REJECTED_MESSAGE = "Bulk deletion executor rejected the job";
+
+    private final FileDeletionJobRepository fileDeletionJobRepository;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FileBlobService fileBlobService;
+    private final YandexAsyncStorageService yandexAsyncStorageService;
+    private final BulkDeletionProperties bulkDeletionProperties;
+
+    @Qualifier("bulkDeletionJobExecutor")
+    private final Executor bulkDeletionJobExecutor;
+
+    @Qualifier("bulkDeletionExecutor")
+    private final Executor bulkDeletionExecutor;
+
+    /**
+     * Запускает удаление файлов с указанным статусом в фоне.
+     * Если удаление для этого статуса уже идёт, возвращает его прогресс.
+     * Если executor не принял задачу, она сразу завершается в статусе FAILED.
+     *
+     * @param scanStatus статус удаляемых файлов
+     * @return прогресс запущенной или уже идущей задачи
+     */
+    public FileDeletionJobResponse start(ScanStatus scanStatus) {
+        var running = fileDeletionJobRepository.findByScanStatusAndStatus(scanStatus, DeletionJobStatus.RUNNING);
+        if (running.isPresent()) {
+            log.info("Bulk deletion already running: jobId={}, scanStatus={}", running.get().getId(), scanStatus);
+            return toResponse(running.get());
+        }
+
+        String owner = UUID.randomUUID().toString();
+        FileDeletionJob job;
+        try {
+            job = fileDeletionJobRepository.saveAndFlush(new FileDeletionJob(scanStatus, owner));
+        } catch (DataIntegrityViolationException e) {
+            return fileDeletionJobRepository.findByScanStatusAndStatus(scanStatus, DeletionJobStatus.RUNNING)
+                    .map(this::toResponse)
+                    .orElseThrow(() -> e);
+        }
+
+        Long jobId = job.getId();
+        try {
+            bulkDeletionJobExecutor.execute(() -> run(jobId, owner));
+        } catch (RejectedExecutionException e) {
+            log.error("Bulk deletion rejected by executor: jobId={}, scanStatus={}", jobId, scanStatus, e);
+            fileDeletionJobRepository.finish(jobId, owner, DeletionJobStatus.FAILED, REJECTED_MESSAGE, Instant.now());
+            return getProgress(jobId);
+        }
+
+        log.info("Bulk deletion started: jobId={}, scanStatus={}", jobId, scanStatus);
+        return toResponse(job);
+    }
+
+    /**
+     * Возвращает прогресс задачи удаления.
+     *
+     * @param jobId ID задачи
+     * @return прогресс задачи
+     * @throws DeletionJobNotFoundException если задачи нет
+     */
+    public FileDeletionJobResponse getProgress(Long jobId) {
+        return fileDeletionJobRepository.findById(jobId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new DeletionJobNotFoundException(jobId));
+    }
+
+    /**
+     * Забирает задачи, исполнитель которых перестал обновлять признак жизни
+     * (экземпляр упал или перезапущен), и продолжает их. Задачу, которую executor
+     * не принял, отпускает для следующей проверки.
+     *
+     * @return количество подхваченных задач
+     */
+    public int resumeStaleJobs() {
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(bulkDeletionProperties.getLease());
+        int resumed = 0;
+        for (Long jobId : fileDeletionJobRepository.findStaleJobIds(staleBefore)) {
+            String owner = UUID.randomUUID().toString();
+            if (fileDeletionJobRepository.claimStale(jobId, owner, now, staleBefore) != 1) {
+                continue;
+            }
+            try {
+                bulkDeletionJobExecutor.execute(() -> run(jobId, owner));
+            } catch (RejectedExecutionException e) {
+                log.warn("Bulk deletion rejected by executor, releasing: jobId={}", jobId, e);
+                fileDeletionJobRepository.releaseClaim(jobId, owner, Instant.EPOCH);
+                continue;
+            }
+            log.info("Resuming bulk deletion: jobId={}", jobId);
+            resumed++;
+        }
+        return resumed;
+    }
+
+    void run(Long jobId, String owner) {
+        FileDeletionJob job = fileDeletionJobRepository.findById(jobId)
+                .orElseThrow(() -> new DeletionJobNotFoundException(jobId));
+        ScanStatus scanStatus = job.getScanStatus();
+        int chunkSize = bulkDeletionProperties.getChunkSize();
+        int stepSize = chunkSize * bulkDeletionProperties.getParallelChunks();
+        long lastFileId = job.getLastFileId();
+
+        try {
+            while (true) {
+                List<Long> fileIds = fileMetadataRepository.findIdsByScanStatusAfter(
+                        scanStatus, lastFileId, Limit.of(stepSize));
+                if (fileIds.isEmpty()) {
+                    fileDeletionJobRepository.finish(jobId, owner, DeletionJobStatus.COMPLETED, null, Instant.now());
+                    log.info("Bulk deletion completed: jobId={}, scanStatus={}", jobId, scanStatus);
+                    return;
+                }
+
+                List<CompletableFuture<ChunkResult>> chunks = submitChunks(fileIds, scanStatus, chunkSize);
+                ChunkResult step = ChunkResult.EMPTY;
+                RuntimeException failure = null;
+                for (CompletableFuture<ChunkResult> chunk : chunks) {
+                    try {
+                        step = step.plus(chunk.join());
+                    } catch (RuntimeException e) {
+                        failure = failure != null ? failure : e;
+                    }
+                }
+
+                long nextFileId = failure == null ? fileIds.get(fileIds.size() - 1) : lastFileId;
+                int updated = fileDeletionJobRepository.recordProgress(jobId, owner, nextFileId,
+                        step.deletedFiles(), step.deletedObjects(), step.failedObjects(), Instant.now());
+                if (failure != null) {
+                    throw failure;
+                }
+                if (updated == 0) {
+                    log.warn("Bulk deletion is no longer running, stopping: jobId={}", jobId);
+                    return;
+                }
+                lastFileId = nextFileId;
+            }
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Bulk deletion failed: jobId={}, scanStatus={}, lastFileId={}",
+                    jobId, scanStatus, lastFileId, cause);
+            fileDeletionJobRepository.finish(jobId, owner, DeletionJobStatus.FAILED, errorMessage(cause),
+                    Instant.now());
+        }
+    }
+
+    private List<CompletableFuture<ChunkResult>> submitChunks(List<Long> fileIds, ScanStatus scanStatus, int chunkSize) {
+        List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+        for (int from = 0; from < fileIds.size(); from += chunkSize) {
+            List<Long> chunk = fileIds.subList(from, Math.min(from + chunkSize, fileIds.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> deleteChunk(chunk, scanStatus), bulkDeletionExecutor));
+        }
+        return chunks;
+    }
+
+    private ChunkResult deleteChunk(List<Long> fileIds, ScanStatus scanStatus) {
+        DeletedFiles deleted = fileBlobService.deleteFiles(fileIds, scanStatus);
+        List<String> keys = deleted.orphanedKeys();
+        if (scanStatus == ScanStatus.INFECTED || keys.isEmpty()) {
+            return new ChunkResult(deleted.count(), 0, 0);
+        }
+
+        List<String> failed = awaitObjectDeletion(keys);
+        return new ChunkResult(deleted.count(), keys.size() - failed.size(), failed.size());
+    }
+
+    private List<String> awaitObjectDeletion(List<String> keys) {
+        long timeoutMs = bulkDeletionProperties.getObjectDeleteTimeout().toMillis();
+        try {
+            return yandexAsyncStorageService.deleteFilesAsync(keys).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("S3 did not confirm deletion of {} objects within {}ms, first: {}",
+                    keys.size(), timeoutMs, keys.get(0));
+        } catch (ExecutionException e) {
+            log.error("S3 error deleting {} objects, first: {}", keys.size(), keys.get(0), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while deleting {} objects, first: {}", keys.size(), keys.get(0));
+        }
+        return keys;
+    }
+
+    private String errorMessage(Throwable cause) {
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+
+    private FileDeletionJobResponse toResponse(FileDeletionJob job) {
+        return FileDeletionJobResponse.builder()
+                .id(job.getId())
+                .scanStatus(job.getScanStatus())
+                .status(job.getStatus())
+                .deletedFiles(job.getDeletedFiles())
+                .deletedObjects(job.getDeletedObjects())
+                .failedObjects(job.getFailedObjects())
+                .errorMessage(job.getErrorMessage())
+                .startedAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private record ChunkResult(long deletedFiles, long deletedObjects, long failedObjects) {
+
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, 0);
+
+        ChunkResult plus(ChunkResult other) {
+            return new ChunkResult(deletedFiles + other.deletedFiles,
+                    deletedObjects + other.deletedObjects,
+                    failedObjects + other.failedObjects);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.resume.s3filemanager.service.admin;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.dto.FileStatsResponse;
+import org.resume.s3filemanager.properties.FileStatsProperties;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository.ScanStatusTotals;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.resume.s3filemanager.service.file.FilePaginationService.convertToMB;
+
+/**
+ * Статистика файлов по статусам сканирования.
+ * <p>
+ * Количество и размер файлов не считаются по file_metadata, а читаются
+ * из {@code file_stats}: триггер обновляет счётчики в той же транзакции,
+ * что вставляет, удаляет или меняет статус файлов. Счётчик разбит на полосы,
+ * чтобы параллельные загрузки не ждали одну строку, поэтому чтение — сумма
+ * нескольких строк на статус, независимо от числа файлов. Результат держится
+ * в памяти {@code cacheTtl}.
+ * <p>
+ * {@link #reconcile()} исправляет расхождение, если счётчики разошлись
+ * с таблицей, например после ручной правки в обход триггера.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(FileStatsProperties.class)
+public class FileStatsService {
+
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FileStatsProperties fileStatsProperties;
+
+    private volatile CachedStats cachedStats;
+
+    /**
+     * Возвращает статистику файлов, из кэша, если она загружена не раньше {@code cacheTtl}.
+     *
+     * @return статистика по каждому статусу
+     */
+    public FileStatsResponse getStats() {
+        CachedStats cached = cachedStats;
+        long now = System.nanoTime();
+        if (cached != null && now - cached.loadedAt() < fileStatsProperties.getCacheTtl().toNanos()) {
+            return cached.stats();
+        }
+
+        FileStatsResponse stats = loadStats();
+        cachedStats = new CachedStats(stats, now);
+        return stats;
+    }
+
+    /**
+     * Сверяет счётчики с file_metadata и исправляет расхождение.
+     *
+     * @return количество статусов, у которых счётчики разошлись
+     */
+    public int reconcile() {
+        int corrected = fileMetadataRepository.reconcileFileStats();
+        if (corrected > 0) {
+            cachedStats = null;
+            log.warn("File stats drift corrected: statuses={}", corrected);
+        }
+        return corrected;
+    }
+
+    private FileStatsResponse loadStats() {
+        List<ScanStatusTotals> totals = fileMetadataRepository.sumFileStats();
+        Map<ScanStatus, Long> counts = new EnumMap<>(ScanStatus.class);
+        long totalCount = 0;
+        long totalSize = 0;
+        for (ScanStatusTotals status : totals) {
+            counts.put(ScanStatus.valueOf(status.getScanStatus()), status.getFileCount());
+            totalCount += status.getFileCount();
+            totalSize += status.getTotalSize();
+        }
+
+        return FileStatsResponse.builder()
+                .pending(counts.getOrDefault(ScanStatus.PENDING_SCAN, 0L))
+                .clean(counts.getOrDefault(ScanStatus.CLEAN, 0L))
+                .infected(counts.getOrDefault(ScanStatus.INFECTED, 0L))
+                .error(counts.getOrDefault(ScanStatus.ERROR, 0L))
+                .total(totalCount)
+                .totalSize(convertToMB(totalSize))
+                .build();
+    }
+
+    private record CachedStats(FileStatsResponse stats, long loadedAt) {
+    }
+}
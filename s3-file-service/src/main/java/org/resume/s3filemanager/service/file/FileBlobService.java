@@ -0,0 +1,141 @@
+package org.resume.s3filemanager.service.file;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.entity.FileBlob;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис content-addressed хранения.
+ * <p>
+ * Одинаковое содержимое хранится в S3 один раз, независимо от того,
+ * сколько пользователей его загрузили. Каждый файл держит ссылку на общий
+ * объект ({@link FileBlob}); объект удаляется из S3 только вместе с последней
+ * ссылкой. Вердикт антивируса принадлежит объекту и распространяется
+ * на все ссылающиеся файлы ({@link ScanStatusTransitionService}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileBlobService {
+
+    private final FileBlobRepository fileBlobRepository;
+    private final FileMetadataRepository fileMetadataRepository;
+
+    /**
+     * Берёт ссылку на объект с данным содержимым.
+     * <p>
+     * Если такого содержимого ещё нет, только что загруженный объект
+     * {@code storageKey} становится общим. Иначе возвращается существующий
+     * объект вместе с его вердиктом, а загруженная копия больше не нужна —
+     * её удаляет вызывающий код.
+     *
+     * @param contentHash хеш содержимого с тегом алгоритма
+     * @param storageKey  ключ только что загруженного объекта в S3
+     * @param size        размер содержимого в байтах
+     * @return объект, на который теперь ссылается файл
+     */
+    @Transactional
+    public FileBlob acquire(String contentHash, String storageKey, long size) {
+        Long blobId = fileBlobRepository.acquireReference(contentHash, storageKey, size);
+        FileBlob blob = fileBlobRepository.findById(blobId)
+                .orElseThrow(() -> new IllegalStateException("Blob disappeared after acquire: " + blobId));
+
+        if (!blob.getStorageKey().equals(storageKey)) {
+            log.info("Content already stored, reusing blob: storageKey={}, scanStatus={}",
+                    blob.getStorageKey(), blob.getScanStatus());
+        }
+        return blob;
+    }
+
+    /**
+     * Отпускает ссылку на объект.
+     * <p>
+     * Метаданные файла к этому моменту должны быть уже удалены в той же
+     * транзакции. Объект S3 удаляет вызывающий код — после фиксации транзакции.
+     *
+     * @param blob объект, на который ссылался файл
+     * @return ключ S3, если это была последняя ссылка и объект нужно удалить
+     */
+    @Transactional
+    public Optional<String> release(FileBlob blob) {
+        int remaining = fileBlobRepository.releaseReference(blob.getId());
+        if (remaining > 0) {
+            return Optional.empty();
+        }
+
+        Optional<String> orphanedKey = fileBlobRepository.deleteIfUnreferenced(blob.getId());
+        orphanedKey.ifPresent(key -> log.debug("Last reference released, blob removed: {}", key));
+        return orphanedKey;
+    }
+
+    /**
+     * Удаляет пачку файлов и отпускает их ссылки на объекты — несколько
+     * set-based запросов на пачку вместо запросов на каждый файл.
+     * <p>
+     * Файлы, успевшие сменить статус, пропускаются. Объекты S3 удаляет
+     * вызывающий код — после фиксации транзакции.
+     *
+     * @param fileIds    id файлов
+     * @param scanStatus статус, в котором файлы должны находиться
+     * @return количество удалённых файлов и ключи S3 объектов, оставшихся без ссылок
+     */
+    @Transactional
+    public DeletedFiles deleteFiles(Collection<Long> fileIds, ScanStatus scanStatus) {
+        return releaseAll(fileMetadataRepository.deleteByIdsAndScanStatus(fileIds, scanStatus.name()));
+    }
+
+    /**
+     * Удаляет пачку файлов пользователя и отпускает их ссылки на объекты,
+     * как {@link #deleteFiles(Collection, ScanStatus)}, но без условия на статус.
+     * Используется перед удалением пользователя: каскад по внешнему ключу
+     * удалил бы метаданные, не уменьшив счётчики ссылок.
+     *
+     * @param fileIds id файлов
+     * @param userId  id владельца
+     * @return количество удалённых файлов и ключи S3 объектов, оставшихся без ссылок
+     */
+    @Transactional
+    public DeletedFiles deleteUserFiles(Collection<Long> fileIds, Long userId) {
+        return releaseAll(fileMetadataRepository.deleteByIdsAndUserId(fileIds, userId));
+    }
+
+    private DeletedFiles releaseAll(List<Long> blobIds) {
+        if (blobIds.isEmpty()) {
+            return new DeletedFiles(0, List.of());
+        }
+
+        Map<Long, Long> refsByBlob = blobIds.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        fileBlobRepository.lockByIds(refsByBlob.keySet());
+        refsByBlob.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> entry.getValue().intValue(),
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                .forEach((refs, ids) -> fileBlobRepository.releaseReferences(ids, refs));
+
+        List<String> orphanedKeys = fileBlobRepository.deleteUnreferenced(refsByBlob.keySet());
+        log.debug("Deleted {} file(s), released {} blob(s), {} left without references",
+                blobIds.size(), refsByBlob.size(), orphanedKeys.size());
+        return new DeletedFiles(blobIds.size(), orphanedKeys);
+    }
+
+    /**
+     * Результат удаления пачки файлов.
+     *
+     * @param count        количество удалённых файлов
+     * @param orphanedKeys ключи S3 объектов, на которые больше никто не ссылается
+     */
+    public record DeletedFiles(int count, List<String> orphanedKeys) {
+    }
+}
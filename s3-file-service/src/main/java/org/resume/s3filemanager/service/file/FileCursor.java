@@ -0,0 +1,75 @@
+package org.resume.s3filemanager.service.file;
+
+import lombok.experimental.UtilityClass;
+import org.resume.s3filemanager.dto.CursorPageResponse;
+import org.resume.s3filemanager.entity.FileMetadata;
+import org.resume.s3filemanager.exception.InvalidCursorException;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Курсор постраничного просмотра файлов (keyset pagination).
+ * <p>
+ * Файлы идут от новых к старым по id. Курсор хранит id последнего файла
+ * страницы, следующая страница — файлы с меньшим id. Запрос начинается
+ * с позиции в индексе {@code (scan_status, id)}, а не пропускает OFFSET строк,
+ * поэтому страница стоит одинаково на любой глубине. Новые файлы не сдвигают
+ * уже показанные страницы.
+ * <p>
+ * Для клиента курсор непрозрачен: {@code v1:<id>} в Base64 URL без выравнивания.
+ */
+@UtilityClass
+public class FileCursor {
+
+    private static final String PREFIX = "v1:";
+
+    /**
+     * Верхняя граница id для страницы.
+     *
+     * @param cursor курсор из предыдущего ответа или {@code null} для первой страницы
+     * @throws InvalidCursorException если курсор не выдавался сервером
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            long id = Long.parseLong(value.substring(PREFIX.length()));
+            if (id <= 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Собирает ответ из среза: курсор указывает на последний файл, если есть следующая страница.
+     */
+    public static <T> CursorPageResponse<T> toResponse(Slice<FileMetadata> slice, Function<FileMetadata, T> mapper) {
+        List<FileMetadata> files = slice.getContent();
+        String nextCursor = slice.hasNext() && !files.isEmpty()
+                ? encode(files.getLast().getId())
+                : null;
+        return CursorPageResponse.<T>builder()
+                .content(files.stream().map(mapper).toList())
+                .size(slice.getSize())
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -8,27 +8,42 @@ import org.resume.s3filemanager.audit.ResourceType;
 import org.resume.s3filemanager.constant.ErrorMessages;
 import org.resume.s3filemanager.constant.SuccessMessages;
 import org.resume.s3filemanager.constant.ValidationMessages;
-import org.resume.s3filemanager.dto.FileDownloadResponse;
+import org.resume.s3filemanager.dto.FileStreamResponse;
 import org.resume.s3filemanager.dto.MultipleUploadResponse;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.CommonResponseStatus;
 import org.resume.s3filemanager.exception.*;
 import org.resume.s3filemanager.properties.FileUploadProperties;
+import org.resume.s3filemanager.service.hash.HashingInputStream;
 import org.resume.s3filemanager.service.kafka.OutboxService;
 import org.resume.s3filemanager.validation.FileValidator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Фасадный сервис для работы с файлами.
@@ -42,6 +57,8 @@ import java.util.UUID;
 @EnableConfigurationProperties(FileUploadProperties.class)
 public class FileFacadeService {
 
+    private static final String DUPLICATE_HASH_CONSTRAINT = "uk_file_hash_user";
+
     private final FileHashService fileHashService;
     private final YandexStorageService fileStorageService;
     private final FileMetadataService fileMetadataService;
@@ -50,6 +67,9 @@ public class FileFacadeService {
     private final FileUploadProperties fileUploadProperties;
     private final OutboxService outboxService;
 
+    @Qualifier("batchUploadExecutor")
+    private final TaskExecutor batchUploadExecutor;
+
     /**
      * Загружает один файл с проверкой прав пользователя.
      * <p>
@@ -57,9 +77,9 @@ public class FileFacadeService {
      * <ul>
      *   <li>Проверяет права пользователя на загрузку</li>
      *   <li>Генерирует уникальное имя файла</li>
+     *   <li>Потоково загружает файл в S3 хранилище, вычисляя хеши</li>
      *   <li>Проверяет наличие дубликатов (в рамках пользователя)</li>
-     *   <li>Загружает файл в S3 хранилище</li>
-     *   <li>Сохраняет метаданные в базу данных</li>
+     *   <li>Сохраняет метаданные в базу данных, привязывая их к общему объекту S3</li>
      * </ul>
      *
      * @param file загружаемый файл
@@ -79,6 +99,11 @@ public class FileFacadeService {
      * Реализует паттерн частичного успеха: валидные файлы загружаются, в то время как
      * невалидные отклоняются с конкретными сообщениями об ошибках. Хотя бы один файл
      * должен быть успешно загружен.
+     * <p>
+     * Файлы обрабатываются параллельно на {@code batchUploadExecutor}, поэтому время
+     * пакета определяется самым медленным файлом. Порядок результатов совпадает
+     * с порядком файлов в запросе; для каждого неудачного файла отдельно
+     * выполняется компенсация в S3.
      *
      * @param files массив загружаемых файлов (максимум 5)
      * @return список результатов загрузки для каждого файла со статусом и сообщением
@@ -89,17 +114,18 @@ public class FileFacadeService {
         validateBatchUpload(files);
         User admin = filePermissionService.checkUploadPermission();
 
-        List<MultipleUploadResponse> results = new ArrayList<>();
-        int successCount = 0;
+        List<CompletableFuture<MultipleUploadResponse>> uploads = Arrays.stream(files)
+                .map(file -> CompletableFuture.supplyAsync(
+                        () -> processSingleFile(file, admin), batchUploadExecutor))
+                .toList();
 
-        for (MultipartFile file : files) {
-            MultipleUploadResponse response = processSingleFile(file, admin);
-            results.add(response);
+        List<MultipleUploadResponse> results = uploads.stream()
+                .map(CompletableFuture::join)
+                .toList();
 
-            if (response.status() == CommonResponseStatus.SUCCESS) {
-                successCount++;
-            }
-        }
+        long successCount = results.stream()
+                .filter(response -> response.status() == CommonResponseStatus.SUCCESS)
+                .count();
 
         if (successCount == 0) {
             throw new MultipleFileUploadException(results);
@@ -110,28 +136,54 @@ public class FileFacadeService {
     }
 
     /**
-     * Скачивает файл по уникальному имени
+     * Потоково скачивает файл по уникальному имени с поддержкой HTTP Range.
+     * <p>
+     * Содержимое не загружается в память: возвращается открытый поток S3,
+     * который контроллер копирует в ответ. Для одиночного диапазона в S3 уходит
+     * ranged GET, и ответ помечается как частичный (206). Некорректный или
+     * составной заголовок Range игнорируется — отдаётся весь файл.
+     * <p>
+     * If-Range проверяется до разбора диапазона по ETag (только сильное сравнение)
+     * или по дате последнего изменения объекта, полученным HEAD-запросом. При
+     * несовпадении Range игнорируется (RFC 9110, 13.1.5): отдаётся весь файл,
+     * даже если диапазон лежит за его пределами. Поток S3 открывается один раз.
      *
-     * @param uniqueName the UUID-based unique filename
-     * @return file download response with content and metadata
-     * @throws FileNotFoundException if file metadata not found in database
-     * @throws S3YandexException if S3 download fails
+     * @param uniqueName  уникальное имя файла на основе UUID
+     * @param rangeHeader значение заголовка Range или null
+     * @param ifRangeHeader значение заголовка If-Range или null
+     * @return потоковый ответ, поток которого обязан закрыть вызывающий код
+     * @throws FileNotFoundException если файл не найден в БД или в S3
+     * @throws RangeNotSatisfiableException если диапазон лежит за пределами файла
+     * @throws S3YandexException при ошибке S3
      */
     @Auditable(operation = AuditOperation.FILE_DOWNLOAD, resourceType = ResourceType.FILE)
-    public FileDownloadResponse downloadFile(String uniqueName) {
+    public FileStreamResponse streamFile(String uniqueName, String rangeHeader, String ifRangeHeader) {
         FileMetadata metadata = fileMetadataService.findByUniqueName(uniqueName);
-        byte[] data = fileStorageService.downloadFileYandexS3(uniqueName);
+        String storageKey = metadata.getBlob().getStorageKey();
+
+        String s3Range = null;
+        if (StringUtils.hasText(rangeHeader)) {
+            if (isIfRangeSatisfied(ifRangeHeader, storageKey)) {
+                s3Range = resolveS3Range(rangeHeader, metadata.getSize());
+            } else {
+                log.debug("If-Range mismatch, sending full content: {}", uniqueName);
+            }
+        }
 
-        String encodedFileName = URLEncoder.encode(
-                metadata.getOriginalName(),
-                StandardCharsets.UTF_8
-        ).replace("+", "%20");
+        ResponseInputStream<GetObjectResponse> stream =
+                fileStorageService.openFileStreamYandexS3(storageKey, s3Range);
 
-        return FileDownloadResponse.builder()
-                .content(data)
-                .fileName(encodedFileName)
+        GetObjectResponse object = stream.response();
+        boolean partial = s3Range != null;
+
+        return FileStreamResponse.builder()
+                .content(stream)
+                .fileName(encodeFileName(metadata.getOriginalName()))
                 .contentType(metadata.getType())
-                .size(data.length)
+                .contentLength(object.contentLength() != null ? object.contentLength() : metadata.getSize())
+                .eTag(object.eTag())
+                .contentRange(partial ? object.contentRange() : null)
+                .partial(partial)
                 .build();
     }
 
@@ -140,6 +192,7 @@ public class FileFacadeService {
      * <p>
      * Пользователи могут удалять только свои файлы. Администраторы могут удалять любые файлы.
      * Сбрасывает статус загрузки пользователя на NOT_UPLOADED, если владелец удаляет файл.
+     * Объект S3 удаляется, только если это была последняя ссылка на содержимое.
      *
      * @param uniqueName уникальное имя файла на основе UUID
      * @throws FileNotFoundException если файл не найден
@@ -151,8 +204,8 @@ public class FileFacadeService {
         FileMetadata file = fileMetadataService.findByUniqueName(uniqueName);
         filePermissionService.checkDeletePermission(currentUser, file);
 
-        fileStorageService.deleteFileYandexS3(uniqueName);
-        fileMetadataService.deleteFileAndUpdateUserStatus(file);
+        fileMetadataService.deleteFileAndUpdateUserStatus(file)
+                .ifPresent(this::deleteUnreferencedObject);
 
         log.info("File deleted successfully: {}", uniqueName);
     }
@@ -160,8 +213,21 @@ public class FileFacadeService {
     /**
      * Основная логика загрузки файла без проверки прав.
      * <p>
-     * Реализует паттерн Saga: при ошибке сохранения метаданных
+     * Файл читается один раз: поток идёт напрямую в S3, а хеш содержимого считается
+     * по пути, поэтому в памяти держатся только буферы фиксированного размера.
+     * Хеш становится известен после загрузки, так что проверка дубликата
+     * выполняется уже после неё.
+     * <p>
+     * Если такое содержимое уже хранится, файл ссылается на существующий объект
+     * и наследует его вердикт: только что загруженная копия удаляется, событие
+     * на сканирование не отправляется.
+     * <p>
+     * Реализует паттерн Saga: при дубликате или ошибке сохранения метаданных
      * выполняется компенсирующая транзакция (удаление из S3).
+     * <p>
+     * Одинаковые файлы, загружаемые параллельно (например, в одном пакете), оба
+     * проходят проверку дубликата; проигравший упирается в {@code uk_file_hash_user}
+     * и тоже получает {@link DuplicateFileException}.
      *
      * @param file загружаемый файл
      * @param user пользователь-владелец файла
@@ -169,26 +235,40 @@ public class FileFacadeService {
      */
     private String uploadFileInternal(MultipartFile file, User user) {
         String uniqueFileName = generateUniqueFileName(file.getOriginalFilename());
-        byte[] fileBytes = readFileBytes(file);
-        String fileHash = fileHashService.calculateMD5(fileBytes);
-
-        fileHashService.checkDuplicateInDatabase(fileHash, user.getId());
-        fileStorageService.uploadFileYandexS3(uniqueFileName, fileBytes, file.getContentType());
+        String fileHash = streamToStorage(file, uniqueFileName);
 
         try {
-            FileMetadata saved = fileMetadataService.saveFileWithPermission(file, uniqueFileName, fileHash, user);
+            fileHashService.checkDuplicateInDatabase(fileHash, user.getId());
+            FileMetadata saved = saveFileMetadata(file, uniqueFileName, fileHash, user);
             log.info("File uploaded successfully: {}", uniqueFileName);
 
-            outboxService.saveFileUploadEvent(saved, user.getId());
+            if (uniqueFileName.equals(saved.getBlob().getStorageKey())) {
+                outboxService.saveFileUploadEvent(saved, user.getId());
+            } else {
+                compensateS3Upload(uniqueFileName);
+            }
 
             return uniqueFileName;
         } catch (Exception e) {
-            log.warn("DB save failed, rolling back S3 upload: {}", uniqueFileName);
+            log.warn("Upload rejected after storing, rolling back S3 upload: {}", uniqueFileName);
             compensateS3Upload(uniqueFileName);
             throw e;
         }
     }
 
+    private FileMetadata saveFileMetadata(MultipartFile file, String uniqueFileName, String fileHash, User user) {
+        try {
+            return fileMetadataService.saveFileWithPermission(file, uniqueFileName, fileHash, user);
+        } catch (DataIntegrityViolationException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            if (cause != null && cause.contains(DUPLICATE_HASH_CONSTRAINT)) {
+                log.warn("Concurrent duplicate detected with hash: {} for user: {}", fileHash, user.getId());
+                throw new DuplicateFileException();
+            }
+            throw e;
+        }
+    }
+
     /**
      * Обрабатывает один файл в рамках пакетной загрузки.
      * <p>
@@ -269,15 +349,79 @@ public class FileFacadeService {
     }
 
     // Helper methods
-    private byte[] readFileBytes(MultipartFile file) {
-        try {
-            return file.getBytes();
+    private String streamToStorage(MultipartFile file, String uniqueFileName) {
+        try (InputStream inputStream = file.getInputStream();
+             HashingInputStream hashingStream = fileHashService.hashingStream(inputStream)) {
+
+            fileStorageService.uploadFileYandexS3(
+                    uniqueFileName, hashingStream, file.getSize(), file.getContentType());
+            return hashingStream.getHash();
+
         } catch (IOException ex) {
             log.error("Failed to read file: {}", file.getOriginalFilename(), ex);
             throw new FileReadException(ex, file.getOriginalFilename());
         }
     }
 
+    /**
+     * Переводит заголовок Range в диапазон для S3 ("bytes=start-end").
+     * Возвращает null, если диапазона нет, он некорректен или их несколько.
+     */
+    private String resolveS3Range(String rangeHeader, long fileSize) {
+        if (!StringUtils.hasText(rangeHeader)) {
+            return null;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed Range header: {}", rangeHeader);
+            return null;
+        }
+
+        if (ranges.size() != 1) {
+            return null;
+        }
+
+        HttpRange range = ranges.getFirst();
+        long start = range.getRangeStart(fileSize);
+        long end = range.getRangeEnd(fileSize);
+        if (start > end) {
+            throw new RangeNotSatisfiableException(fileSize);
+        }
+        return "bytes=" + start + "-" + end;
+    }
+
+    private boolean isIfRangeSatisfied(String ifRangeHeader, String storageKey) {
+        if (!StringUtils.hasText(ifRangeHeader)) {
+            return true;
+        }
+
+        String condition = ifRangeHeader.trim();
+        if (condition.startsWith("W/")) {
+            return false;
+        }
+
+        HeadObjectResponse object = fileStorageService.headFileYandexS3(storageKey);
+        if (condition.startsWith("\"")) {
+            return condition.equals(object.eTag());
+        }
+
+        try {
+            Instant since = ZonedDateTime.parse(condition, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Instant lastModified = object.lastModified();
+            return lastModified != null
+                    && lastModified.truncatedTo(ChronoUnit.SECONDS).equals(since);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private String encodeFileName(String originalName) {
+        return URLEncoder.encode(originalName, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
     private void compensateS3Upload(String fileName) {
         try {
             fileStorageService.deleteFileYandexS3(fileName);
@@ -287,6 +431,14 @@ public class FileFacadeService {
         }
     }
 
+    private void deleteUnreferencedObject(String storageKey) {
+        try {
+            fileStorageService.deleteFileYandexS3(storageKey);
+        } catch (Exception ex) {
+            log.error("Failed to delete unreferenced object from S3: {}", storageKey, ex);
+        }
+    }
+
     private String generateUniqueFileName(String originalFilename) {
         String extension = StringUtils.getFilenameExtension(originalFilename);
         extension = (extension != null && !extension.isBlank()) ? extension : "tmp";
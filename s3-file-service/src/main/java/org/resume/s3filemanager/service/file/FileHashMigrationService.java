@@ -0,0 +1,150 @@
+package org.resume.s3filemanager.service.file;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.s3filemanager.entity.FileBlob;
+import org.resume.s3filemanager.entity.FileMetadata;
+import org.resume.s3filemanager.exception.FileNotFoundException;
+import org.resume.s3filemanager.exception.S3YandexException;
+import org.resume.s3filemanager.properties.HashingProperties;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.repository.JobCursorRepository;
+import org.resume.s3filemanager.repository.JobLeaseRepository;
+import org.resume.s3filemanager.service.hash.HashingInputStream;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Фоновый пересчёт устаревших MD5-хешей.
+ * <p>
+ * Файлы с хешем {@code md5:…} обходятся пачками по возрастанию id. Содержимое
+ * каждого объекта читается из S3 потоком и хешируется текущим алгоритмом;
+ * новый хеш записывается в {@code file_hash}, а объекту без хеша содержимого
+ * он проставляется как ключ дедупликации. Объект, на который ссылается
+ * несколько файлов, в пределах пачки читается один раз.
+ * <p>
+ * Файлы, которые не удалось пересчитать (объект пропал из S3, конфликт
+ * уникальности), остаются с MD5 и пропускаются до следующего прохода.
+ * <p>
+ * Курсор обхода хранится в {@code job_cursors}, поэтому обход продолжается
+ * после рестарта. Пачку во всём кластере ведёт один экземпляр: он берёт аренду
+ * {@code file-hash-migration} в {@code job_leases} и продлевает её после каждого
+ * файла, остальные экземпляры этот запуск пропускают.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileHashMigrationService {
+
+    private static final String MIGRATION_JOB = "file-hash-migration";
+
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final YandexStorageService fileStorageService;
+    private final FileHashService fileHashService;
+    private final HashingProperties hashingProperties;
+    private final JobLeaseRepository jobLeaseRepository;
+    private final JobCursorRepository jobCursorRepository;
+
+    /**
+     * Пересчитывает хеши следующей пачки файлов.
+     * <p>
+     * Когда файлы закончились, курсор возвращается в начало, чтобы на следующем
+     * проходе повторить пропущенные. Если пачку ведёт другой экземпляр, ничего не делает.
+     *
+     * @return количество файлов, получивших новый хеш
+     */
+    public int migrateNextBatch() {
+        String owner = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        if (jobLeaseRepository.tryAcquire(MIGRATION_JOB, owner, now, now.plus(hashingProperties.getMigrationLease())) == 0) {
+            log.debug("Hash migration batch is running on another instance");
+            return 0;
+        }
+
+        try {
+            return migrateBatch(owner);
+        } finally {
+            jobLeaseRepository.release(MIGRATION_JOB, owner);
+        }
+    }
+
+    private int migrateBatch(String owner) {
+        long cursor = jobCursorRepository.findLastId(MIGRATION_JOB).orElse(0L);
+        List<FileMetadata> batch = fileMetadataRepository.findLegacyHashedAfter(
+                cursor, Limit.of(hashingProperties.getMigrationBatchSize()));
+
+        if (batch.isEmpty()) {
+            if (cursor != 0) {
+                jobCursorRepository.saveLastId(MIGRATION_JOB, 0);
+            }
+            return 0;
+        }
+
+        Map<Long, Optional<String>> blobHashes = new HashMap<>();
+        int migrated = 0;
+
+        for (FileMetadata file : batch) {
+            Optional<String> hash = blobHashes.computeIfAbsent(file.getBlob().getId(), id -> rehash(file.getBlob()));
+            if (hash.isPresent() && updateFileHash(file, hash.get())) {
+                migrated++;
+            }
+            cursor = file.getId();
+            if (!renewLease(owner)) {
+                log.warn("Hash migration lease lost, stopping batch after id={}", cursor);
+                break;
+            }
+        }
+        jobCursorRepository.saveLastId(MIGRATION_JOB, cursor);
+
+        log.info("Rehashed {}/{} legacy files with {}", migrated, batch.size(), fileHashService.activeAlgorithm());
+        return migrated;
+    }
+
+    private boolean renewLease(String owner) {
+        Instant leasedUntil = Instant.now().plus(hashingProperties.getMigrationLease());
+        return jobLeaseRepository.renew(MIGRATION_JOB, owner, leasedUntil) > 0;
+    }
+
+    private Optional<String> rehash(FileBlob blob) {
+        String hash;
+        try (InputStream content = fileStorageService.openFileStreamYandexS3(blob.getStorageKey(), null);
+             HashingInputStream hashingStream = fileHashService.hashingStream(content)) {
+            hashingStream.transferTo(OutputStream.nullOutputStream());
+            hash = hashingStream.getHash();
+        } catch (FileNotFoundException | S3YandexException | IOException e) {
+            log.warn("Skipping rehash, object unavailable: {}", blob.getStorageKey(), e);
+            return Optional.empty();
+        }
+
+        if (blob.getContentHash() == null) {
+            try {
+                fileBlobRepository.assignContentHash(blob.getId(), hash);
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Content hash already owned by another object, keeping {} unshared", blob.getStorageKey());
+            }
+        }
+        return Optional.of(hash);
+    }
+
+    private boolean updateFileHash(FileMetadata file, String hash) {
+        try {
+            return fileMetadataRepository.updateFileHash(file.getId(), hash) == 1;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("User already has a file with hash {}, keeping legacy hash for: {}", hash, file.getUniqueName());
+            return false;
+        }
+    }
+}
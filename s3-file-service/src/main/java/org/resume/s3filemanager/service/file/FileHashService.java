@@ -1,39 +1,80 @@
 package org.resume.s3filemanager.service.file;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.DigestUtils;
+import org.resume.s3filemanager.enums.HashAlgorithm;
 import org.resume.s3filemanager.exception.DuplicateFileException;
+import org.resume.s3filemanager.properties.HashingProperties;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.service.hash.ContentHasher;
+import org.resume.s3filemanager.service.hash.HashingInputStream;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Сервис для вычисления хеша файлов и обнаружения дубликатов.
  * <p>
- * Использует MD5 хеширование для идентификации дубликатов файлов
- * в рамках каждого пользователя отдельно.
+ * Хеш считается алгоритмом из {@code app.hashing.algorithm} и хранится
+ * с тегом алгоритма ({@code "sha256:…"}, {@code "tree-sha256:…"}). Один и тот же
+ * хеш идентифицирует дубликаты в рамках пользователя и адресует общее
+ * содержимое в хранилище. Хеш может вычисляться как по массиву байт,
+ * так и инкрементально при потоковом чтении файла.
+ *
+ * @see ContentHasher
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class FileHashService {
 
     private final FileMetadataRepository fileMetadataRepository;
+    private final Map<HashAlgorithm, ContentHasher> hashers = new EnumMap<>(HashAlgorithm.class);
+    private final ContentHasher activeHasher;
+
+    public FileHashService(FileMetadataRepository fileMetadataRepository,
+                           HashingProperties hashingProperties,
+                           List<ContentHasher> contentHashers) {
+        this.fileMetadataRepository = fileMetadataRepository;
+        contentHashers.forEach(hasher -> hashers.put(hasher.algorithm(), hasher));
+        this.activeHasher = hasher(hashingProperties.getAlgorithm());
+    }
+
+    /**
+     * Алгоритм, которым хешируются новые загрузки.
+     */
+    public HashAlgorithm activeAlgorithm() {
+        return activeHasher.algorithm();
+    }
 
     /**
-     * Вычисляет MD5 хеш содержимого файла.
+     * Вычисляет хеш содержимого файла.
      *
      * @param fileBytes содержимое файла в виде массива байт
-     * @return MD5 хеш в виде шестнадцатеричной строки
+     * @return хеш с тегом алгоритма
      */
-    public String calculateMD5(byte[] fileBytes) {
-        return DigestUtils.md5DigestAsHex(fileBytes);
+    public String hash(byte[] fileBytes) {
+        return activeHasher.hash(fileBytes);
+    }
+
+    /**
+     * Оборачивает поток так, что хеш считается по мере чтения байт.
+     * <p>
+     * Итоговый хеш доступен через {@link HashingInputStream#getHash()}
+     * после того, как поток прочитан до конца.
+     *
+     * @param inputStream исходный поток файла
+     * @return поток, обновляющий хеш при каждом чтении
+     */
+    public HashingInputStream hashingStream(InputStream inputStream) {
+        return new HashingInputStream(inputStream, activeHasher.newHash());
     }
 
     /**
      * Проверяет наличие файла с заданным хешем у пользователя.
      *
-     * @param fileHash MD5 хеш файла
+     * @param fileHash хеш файла с тегом алгоритма
      * @param userId идентификатор пользователя для проверки дубликатов
      * @throws DuplicateFileException если дубликат найден у данного пользователя
      */
@@ -43,4 +84,12 @@ public class FileHashService {
             throw new DuplicateFileException();
         }
     }
+
+    private ContentHasher hasher(HashAlgorithm algorithm) {
+        ContentHasher hasher = hashers.get(algorithm);
+        if (hasher == null) {
+            throw new IllegalStateException("No hasher registered for algorithm: " + algorithm);
+        }
+        return hasher;
+    }
 }
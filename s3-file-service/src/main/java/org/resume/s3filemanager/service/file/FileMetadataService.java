@@ -3,7 +3,7 @@ package org.resume.s3filemanager.service.file;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.entity.FileBlob;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.FileUploadStatus;
@@ -14,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Optional;
+
 /**
  * Сервис для управления метаданными файлов в базе данных.
  * <p>
@@ -28,27 +30,30 @@ public class FileMetadataService {
     private final FileMetadataRepository fileMetadataRepository;
     private final FilePermissionService fileUploadPermissionService;
     private final UserService userService;
+    private final FileBlobService fileBlobService;
 
     /**
      * Сохраняет метаданные файла в базу данных с привязкой к пользователю.
      * <p>
-     * Обновляет статус загрузки пользователя на FILE_UPLOADED.
+     * Статус сканирования наследуется от объекта S3, на который ссылается файл.
      *
      * @param file загруженный файл
      * @param uniqueFileName сгенерированное уникальное имя файла (на основе UUID)
-     * @param fileHash MD5 хеш содержимого файла
+     * @param fileHash хеш содержимого файла с тегом алгоритма
+     * @param blob общий объект S3 с содержимым файла
      * @param user пользователь, загрузивший файл
      */
     public FileMetadata saveDatabaseMetadata(MultipartFile file, String uniqueFileName,
-                                     String fileHash, User user) {
+                                     String fileHash, FileBlob blob, User user) {
         FileMetadata metadata = FileMetadata.builder()
                 .uniqueName(uniqueFileName)
                 .originalName(file.getOriginalFilename())
                 .type(file.getContentType())
                 .size(file.getSize())
                 .fileHash(fileHash)
-                .scanStatus(ScanStatus.PENDING_SCAN)
+                .scanStatus(blob.getScanStatus())
                 .user(user)
+                .blob(blob)
                 .build();
 
         return fileMetadataRepository.save(metadata);
@@ -57,19 +62,37 @@ public class FileMetadataService {
     /**
      * Удаляет метаданные файла и обновляет статус загрузки пользователя если он не является Админом.
      * <p>
-     * Сбрасывает статус пользователя на NOT_UPLOADED, позволяя загружать новые файлы.
+     * Сбрасывает статус пользователя на NOT_UPLOADED, позволяя загружать новые файлы,
+     * и отпускает ссылку на объект S3.
      *
      * @param file метаданные файла для удаления
+     * @return ключ S3, если на объект больше никто не ссылается и его нужно удалить
      */
     @Transactional
-    public void deleteFileAndUpdateUserStatus(FileMetadata file) {
+    public Optional<String> deleteFileAndUpdateUserStatus(FileMetadata file) {
         deleteDatabaseMetadata(file.getUniqueName());
         userService.updateUploadStatus(file.getUser(), FileUploadStatus.NOT_UPLOADED);
+        return fileBlobService.release(file.getBlob());
     }
 
+    /**
+     * Сохраняет метаданные загруженного файла и отмечает загрузку у пользователя.
+     * <p>
+     * Файл привязывается к общему объекту с тем же содержимым. Если такой объект
+     * уже был, у сохранённого файла другой ключ S3, чем {@code uniqueFileName},
+     * и наследованный статус сканирования.
+     *
+     * @param file загруженный файл
+     * @param uniqueFileName уникальное имя файла, под которым он загружен в S3
+     * @param fileHash хеш содержимого файла с тегом алгоритма, он же ключ общего объекта
+     * @param user пользователь, загрузивший файл
+     * @return сохранённые метаданные
+     */
     @Transactional
-    public FileMetadata saveFileWithPermission(MultipartFile file, String uniqueFileName, String fileHash, User user) {
-        FileMetadata saved = saveDatabaseMetadata(file, uniqueFileName, fileHash, user);
+    public FileMetadata saveFileWithPermission(MultipartFile file, String uniqueFileName,
+                                               String fileHash, User user) {
+        FileBlob blob = fileBlobService.acquire(fileHash, uniqueFileName, file.getSize());
+        FileMetadata saved = saveDatabaseMetadata(file, uniqueFileName, fileHash, blob, user);
         fileUploadPermissionService.markFileUploaded();
         return saved;
     }
@@ -83,13 +106,6 @@ public class FileMetadataService {
         }
     }
 
-    @Transactional
-    public void updateScanStatus(String uniqueName, ScanStatus status) {
-        FileMetadata file = findByUniqueName(uniqueName);
-        file.setScanStatus(status);
-        fileMetadataRepository.save(file);
-    }
-
     public FileMetadata findByUniqueName(String uniqueFileName) {
         return fileMetadataRepository.findByUniqueName(uniqueFileName)
                 .orElseThrow(() -> new FileNotFoundException(uniqueFileName));
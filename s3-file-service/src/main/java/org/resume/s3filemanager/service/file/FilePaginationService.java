@@ -2,11 +2,14 @@ package org.resume.s3filemanager.service.file;
 
 import lombok.RequiredArgsConstructor;
 import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.dto.CursorPageResponse;
 import org.resume.s3filemanager.dto.FileResponse;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.Locale;
@@ -31,12 +34,31 @@ public class FilePaginationService {
      */
     public Page<FileResponse> paginate(Pageable pageable) {
         Page<FileMetadata> fileMetadataPage = fileMetadataRepository.findByScanStatus(ScanStatus.CLEAN, pageable);
-        return fileMetadataPage.map(
-                file -> FileResponse.builder()
-                        .fileName(file.getOriginalName())
-                        .uniqueName(file.getUniqueName())
-                        .fileSize(convertToMB(file.getSize()))
-                        .build());
+        return fileMetadataPage.map(FilePaginationService::toFileResponse);
+    }
+
+    /**
+     * Возвращает страницу файлов по курсору, от новых к старым.
+     * <p>
+     * В отличие от {@link #paginate(Pageable)} не считает общее количество
+     * и не пропускает OFFSET строк: любая страница стоит как первая.
+     *
+     * @param cursor   курсор из предыдущего ответа или {@code null} для первой страницы
+     * @param pageSize размер страницы
+     * @return страница с курсором на следующую
+     */
+    public CursorPageResponse<FileResponse> scroll(String cursor, int pageSize) {
+        Slice<FileMetadata> slice = fileMetadataRepository.findByScanStatusAndIdLessThanOrderByIdDesc(
+                ScanStatus.CLEAN, FileCursor.decode(cursor), PageRequest.ofSize(pageSize));
+        return FileCursor.toResponse(slice, FilePaginationService::toFileResponse);
+    }
+
+    private static FileResponse toFileResponse(FileMetadata file) {
+        return FileResponse.builder()
+                .fileName(file.getOriginalName())
+                .uniqueName(file.getUniqueName())
+                .fileSize(convertToMB(file.getSize()))
+                .build();
     }
 
     public static String convertToMB(long bytes) {
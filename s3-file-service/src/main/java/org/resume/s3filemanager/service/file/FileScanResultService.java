@@ -6,24 +6,42 @@ import org.resume.common.model.FileScanResult;
 import org.resume.common.model.ScanStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Сервис для обработки результатов антивирусного сканирования.
  * <p>
+ * Результат относится к общему объекту S3, поэтому статус выставляется
+ * всем файлам, которые на него ссылаются. Статус меняется только допустимым
+ * переходом ({@link ScanStatusTransitionService}): повторный или запоздавший
+ * результат, как и результат для удалённого объекта, пропускается.
  * Обрабатывает различные статусы сканирования:
  * <ul>
  *   <li>CLEAN — обновляет статус в БД</li>
- *   <li>INFECTED — удаляет файл из S3 и обновляет статус в БД</li>
+ *   <li>INFECTED — обновляет статус в БД и после коммита асинхронно удаляет файл из S3</li>
  *   <li>ERROR — обновляет статус в БД</li>
  * </ul>
+ * Пачка результатов ({@link #processScanResults}) сводится к последнему вердикту
+ * на объект и применяется одним UPDATE на статус, заражённые объекты удаляются
+ * из S3 общим запросом.
+ * <p>
+ * Объект удаляется из S3 только после коммита транзакции: при откате
+ * статус остаётся прежним, и файл, на который он указывает, должен уцелеть.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileScanResultService {
 
-    private final FileMetadataService fileMetadataService;
-    private final YandexStorageService yandexStorageService;
+    private final ScanStatusTransitionService scanStatusTransitionService;
+    private final YandexAsyncStorageService yandexAsyncStorageService;
 
     /**
      * Обрабатывает результат сканирования файла.
@@ -35,15 +53,58 @@ public class FileScanResultService {
         String s3Key = result.getS3Key();
         ScanStatus status = result.getStatus();
 
+        if (!scanStatusTransitionService.transition(s3Key, status)) {
+            log.info("Scan result skipped, status does not allow transition or file is gone: s3Key={}, status={}",
+                    s3Key, status);
+            return;
+        }
+
         if (status == ScanStatus.INFECTED) {
             handleInfectedFile(result);
-        } else {
-            fileMetadataService.updateScanStatus(s3Key, status);
         }
     }
 
     /**
-     * Обрабатывает заражённый файл: удаляет из S3 и обновляет статус.
+     * Обрабатывает пачку результатов сканирования.
+     * <p>
+     * Повторные результаты для одного объекта схлопываются в последний
+     * (сообщения с одним ключом приходят в порядке отправки). Результаты
+     * для объектов, которых уже нет или чей статус не допускает переход, пропускаются.
+     *
+     * @param results результаты в порядке чтения из топика
+     */
+    @Transactional
+    public void processScanResults(List<FileScanResult> results) {
+        Map<String, FileScanResult> latest = new LinkedHashMap<>();
+        for (FileScanResult result : results) {
+            if (result.getS3Key() == null || result.getStatus() == null) {
+                log.warn("Skipping incomplete scan result: s3Key={}, status={}", result.getS3Key(), result.getStatus());
+                continue;
+            }
+            latest.put(result.getS3Key(), result);
+        }
+
+        Map<ScanStatus, List<String>> keysByStatus = new EnumMap<>(ScanStatus.class);
+        latest.values().forEach(result ->
+                keysByStatus.computeIfAbsent(result.getStatus(), status -> new ArrayList<>()).add(result.getS3Key()));
+
+        int applied = 0;
+        for (Map.Entry<ScanStatus, List<String>> entry : keysByStatus.entrySet()) {
+            List<String> updated = scanStatusTransitionService.transitionAll(entry.getValue(), entry.getKey());
+            applied += updated.size();
+            if (entry.getKey() == ScanStatus.INFECTED && !updated.isEmpty()) {
+                handleInfectedFiles(updated, latest);
+            }
+        }
+
+        log.info("Scan results applied: received={}, unique={}, applied={}", results.size(), latest.size(), applied);
+    }
+
+    /**
+     * Удаляет из S3 заражённый файл, уже переведённый в INFECTED, после коммита транзакции.
+     * <p>
+     * Удаление не блокирует поток listener'а: ошибка S3 только логируется,
+     * статус INFECTED остаётся в любом случае.
      */
     private void handleInfectedFile(FileScanResult result) {
         String s3Key = result.getS3Key();
@@ -51,16 +112,41 @@ public class FileScanResultService {
         log.warn("Infected file detected: s3Key={}, virus={}",
                 s3Key, result.getVirusName());
 
-        try {
-            yandexStorageService.deleteFileYandexS3(s3Key);
-            log.debug("Infected file deleted from S3: s3Key={}", s3Key);
+        afterCommit(() -> yandexAsyncStorageService.deleteFileAsync(s3Key).whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                log.error("Failed to delete infected file from S3: s3Key={}, error={}",
+                        s3Key, ex.getMessage());
+            } else {
+                log.debug("Infected file deleted from S3: s3Key={}", s3Key);
+            }
+        }));
+    }
+
+    /**
+     * Удаляет пачку заражённых объектов из S3 одним запросом DeleteObjects на каждую тысячу ключей.
+     * Как и для одиночного результата, ошибка S3 только логируется.
+     */
+    private void handleInfectedFiles(List<String> s3Keys, Map<String, FileScanResult> results) {
+        s3Keys.forEach(s3Key -> log.warn("Infected file detected: s3Key={}, virus={}",
+                s3Key, results.get(s3Key).getVirusName()));
 
-            fileMetadataService.updateScanStatus(s3Key, ScanStatus.INFECTED);
+        afterCommit(() -> yandexAsyncStorageService.deleteFilesAsync(s3Keys).whenComplete((failed, ex) -> {
+            if (ex != null) {
+                log.error("Failed to delete infected files from S3: count={}, error={}", s3Keys.size(), ex.getMessage());
+            } else if (!failed.isEmpty()) {
+                log.error("Failed to delete {} of {} infected files from S3", failed.size(), s3Keys.size());
+            } else {
+                log.debug("Infected files deleted from S3: count={}", s3Keys.size());
+            }
+        }));
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to handle infected file: s3Key={}, error={}",
-                    s3Key, e.getMessage());
-            fileMetadataService.updateScanStatus(s3Key, ScanStatus.INFECTED);
-        }
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
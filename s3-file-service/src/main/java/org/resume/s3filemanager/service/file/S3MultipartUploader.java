@@ -0,0 +1,333 @@
+package org.resume.s3filemanager.service.file;
+
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.config.MdcTaskDecorator;
+import org.resume.s3filemanager.exception.S3YandexException;
+import org.resume.s3filemanager.properties.MultipartUploadProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Параллельная multipart-загрузка больших файлов в S3.
+ * <p>
+ * Поток читается последовательно (чтобы не ломать подсчёт хеша по пути),
+ * а готовые части отправляются параллельно на ограниченном пуле.
+ * Число частей в памяти ограничено дважды: {@code maxConcurrentParts} на одну
+ * загрузку и {@code maxBufferedParts} на все загрузки сервиса вместе, так что
+ * буферы частей никогда не занимают больше {@code partSize × maxBufferedParts}.
+ * Чтение следующей части ждёт, пока освободятся оба слота.
+ * <p>
+ * Каждая часть повторяется при временных ошибках S3. При любой
+ * неустранимой ошибке загрузка прерывается через AbortMultipartUpload,
+ * поэтому в бакете не остаётся ни объекта, ни осиротевших частей.
+ *
+ * @see MultipartUploadProperties
+ */
+@Slf4j
+@Component
+public class S3MultipartUploader {
+
+    private static final String PART_CONTENT_TYPE = "application/octet-stream";
+    private static final int MAX_PARTS = 10_000;
+
+    private final S3Client yandexS3Client;
+    private final YandexStorageProperties storageProperties;
+    private final MultipartUploadProperties multipartProperties;
+    private final ExecutorService multipartUploadExecutor;
+    private final TaskDecorator mdcTaskDecorator = new MdcTaskDecorator();
+    private final Semaphore bufferedParts;
+
+    public S3MultipartUploader(S3Client yandexS3Client,
+                               YandexStorageProperties storageProperties,
+                               MultipartUploadProperties multipartProperties,
+                               @Qualifier("multipartUploadExecutor") ExecutorService multipartUploadExecutor) {
+        this.yandexS3Client = yandexS3Client;
+        this.storageProperties = storageProperties;
+        this.multipartProperties = multipartProperties;
+        this.multipartUploadExecutor = multipartUploadExecutor;
+        this.bufferedParts = new Semaphore(multipartProperties.getMaxBufferedParts(), true);
+    }
+
+    /**
+     * Проверяет, нужно ли загружать файл данного размера по частям.
+     *
+     * @param contentLength размер файла в байтах
+     * @return true, если размер не меньше порога multipart-загрузки
+     */
+    public boolean supports(long contentLength) {
+        return contentLength >= multipartProperties.getThreshold().toBytes();
+    }
+
+    /**
+     * Загружает поток в S3 по частям.
+     *
+     * @param key           ключ объекта в S3
+     * @param inputStream   поток с содержимым файла
+     * @param contentLength точный размер файла в байтах
+     * @param contentType   MIME-тип файла
+     * @throws IOException если поток не удалось прочитать или он короче заявленного размера
+     * @throws S3YandexException при ошибке S3 (загрузка к этому моменту уже прервана)
+     *                           или если файл не укладывается в 10 000 частей S3
+     */
+    public void upload(String key, InputStream inputStream, long contentLength, String contentType)
+            throws IOException {
+        long partSize = multipartProperties.getPartSize().toBytes();
+        long partCount = (contentLength + partSize - 1) / partSize;
+        if (partCount > MAX_PARTS) {
+            throw new S3YandexException(new IllegalArgumentException(
+                    "File needs " + partCount + " parts, S3 allows at most " + MAX_PARTS), key);
+        }
+
+        UploadSession session = new UploadSession(key, createUpload(key, contentType));
+        log.debug("Multipart upload started: key={}, uploadId={}, size={}", key, session.uploadId, contentLength);
+
+        try {
+            long remaining = contentLength;
+            int partNumber = 1;
+
+            while (remaining > 0) {
+                int size = (int) Math.min(partSize, remaining);
+
+                session.acquireSlot();
+                boolean submitted = false;
+                try {
+                    session.throwIfAnyPartFailed();
+
+                    byte[] chunk = inputStream.readNBytes(size);
+                    if (chunk.length < size) {
+                        throw new EOFException("Stream ended before declared content length: " + key);
+                    }
+
+                    session.submit(partNumber++, chunk);
+                    submitted = true;
+                } finally {
+                    if (!submitted) {
+                        session.releaseSlot();
+                    }
+                }
+                remaining -= size;
+            }
+
+            completeUpload(session, session.awaitParts());
+            log.info("Multipart upload completed: key={}, parts={}", key, partNumber - 1);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortUpload(session);
+            throw new S3YandexException(e, key);
+        } catch (IOException | RuntimeException e) {
+            abortUpload(session);
+            throw e;
+        }
+    }
+
+    private String createUpload(String key, String contentType) {
+        try {
+            return yandexS3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .contentType(contentType)
+                    .build()
+            ).uploadId();
+
+        } catch (SdkException e) {
+            log.error("S3 error starting multipart upload: {}", key, e);
+            throw new S3YandexException(e, key);
+        }
+    }
+
+    private CompletedPart uploadPart(UploadSession session, int partNumber, byte[] chunk) {
+        int maxAttempts = multipartProperties.getMaxPartAttempts();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                UploadPartResponse response = yandexS3Client.uploadPart(
+                        UploadPartRequest.builder()
+                                .bucket(storageProperties.getBucketName())
+                                .key(session.key)
+                                .uploadId(session.uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) chunk.length)
+                                .build(),
+                        RequestBody.fromContentProvider(
+                                () -> new ByteArrayInputStream(chunk), chunk.length, PART_CONTENT_TYPE)
+                );
+                return CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build();
+
+            } catch (SdkException e) {
+                if (attempt >= maxAttempts || !isRetryable(e) || session.aborted.get()) {
+                    log.error("S3 error uploading part {} of {} (attempt {}/{})",
+                            partNumber, session.key, attempt, maxAttempts, e);
+                    throw new S3YandexException(e, session.key);
+                }
+                log.warn("Retrying part {} of {} after attempt {}/{}: {}",
+                        partNumber, session.key, attempt, maxAttempts, e.getMessage());
+                backoff(session, attempt);
+            }
+        }
+    }
+
+    private void completeUpload(UploadSession session, List<CompletedPart> parts) {
+        try {
+            yandexS3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(session.key)
+                    .uploadId(session.uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+
+        } catch (SdkException e) {
+            log.error("S3 error completing multipart upload: {}", session.key, e);
+            throw new S3YandexException(e, session.key);
+        }
+    }
+
+    /**
+     * Прерывает загрузку: новые части не стартуют, уже отправляемые
+     * дожидаются завершения, после чего S3 удаляет все загруженные части.
+     */
+    private void abortUpload(UploadSession session) {
+        session.aborted.set(true);
+        session.awaitSettled();
+
+        try {
+            yandexS3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(session.key)
+                    .uploadId(session.uploadId)
+                    .build());
+            log.info("Multipart upload aborted: key={}, uploadId={}", session.key, session.uploadId);
+
+        } catch (SdkException e) {
+            log.error("Failed to abort multipart upload: key={}, uploadId={}", session.key, session.uploadId, e);
+        }
+    }
+
+    private void backoff(UploadSession session, int attempt) {
+        try {
+            Thread.sleep(multipartProperties.getRetryBackoff().multipliedBy(attempt).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new S3YandexException(e, session.key);
+        }
+    }
+
+    private boolean isRetryable(SdkException e) {
+        if (e instanceof S3Exception s3Exception) {
+            return s3Exception.statusCode() >= 500 || s3Exception.statusCode() == 429;
+        }
+        return e instanceof SdkClientException;
+    }
+
+    /**
+     * Состояние одной multipart-загрузки.
+     */
+    private final class UploadSession {
+
+        private final String key;
+        private final String uploadId;
+        private final Semaphore inFlight = new Semaphore(multipartProperties.getMaxConcurrentParts());
+        private final AtomicBoolean aborted = new AtomicBoolean();
+        private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+
+        private UploadSession(String key, String uploadId) {
+            this.key = key;
+            this.uploadId = uploadId;
+        }
+
+        /**
+         * Отправляет часть в пул. Слот освобождает задача части; если пул
+         * отказал, слот остаётся за вызывающим.
+         */
+        private void submit(int partNumber, byte[] chunk) {
+            CompletableFuture<CompletedPart> future = new CompletableFuture<>();
+            parts.add(future);
+
+            try {
+                multipartUploadExecutor.execute(mdcTaskDecorator.decorate(() -> {
+                    try {
+                        if (aborted.get()) {
+                            future.cancel(false);
+                            return;
+                        }
+                        future.complete(uploadPart(this, partNumber, chunk));
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        releaseSlot();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+                throw new S3YandexException(e, key);
+            }
+        }
+
+        /**
+         * Занимает слот загрузки, затем общий слот сервиса. Общий слот
+         * берётся вторым, чтобы загрузка, упёршаяся в свой лимит,
+         * не держала память, нужную другим.
+         */
+        private void acquireSlot() throws InterruptedException {
+            inFlight.acquire();
+            try {
+                bufferedParts.acquire();
+            } catch (InterruptedException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        private void releaseSlot() {
+            bufferedParts.release();
+            inFlight.release();
+        }
+
+        private void throwIfAnyPartFailed() {
+            parts.stream()
+                    .filter(CompletableFuture::isCompletedExceptionally)
+                    .findFirst()
+                    .ifPresent(this::join);
+        }
+
+        private List<CompletedPart> awaitParts() {
+            return parts.stream().map(this::join).toList();
+        }
+
+        private void awaitSettled() {
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                    .exceptionally(ex -> null)
+                    .join();
+        }
+
+        private CompletedPart join(CompletableFuture<CompletedPart> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new S3YandexException(e.getCause(), key);
+            }
+        }
+    }
+}
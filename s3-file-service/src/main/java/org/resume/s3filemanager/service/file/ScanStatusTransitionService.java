@@ -0,0 +1,92 @@
+package org.resume.s3filemanager.service.file;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Переходы статуса сканирования.
+ * <p>
+ * Статус принадлежит общему объекту S3 ({@code file_blobs}) и копируется во все
+ * ссылающиеся файлы. Переход — условный UPDATE объектов по ключу S3 с допустимыми
+ * исходными статусами и UPDATE файлов найденных объектов, без чтения сущностей.
+ * Повторный или запоздавший результат сканирования не проходит условие и ничего
+ * не меняет, поэтому параллельные обработчики не перетирают друг друга.
+ * <p>
+ * Допустимые переходы:
+ * <ul>
+ *   <li>PENDING_SCAN → CLEAN, INFECTED, ERROR — вердикт антивируса</li>
+ *   <li>ERROR → CLEAN, INFECTED — вердикт после повтора из DLT</li>
+ *   <li>ERROR → PENDING_SCAN — повторное сканирование администратором</li>
+ * </ul>
+ * CLEAN и INFECTED — конечные статусы.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScanStatusTransitionService {
+
+    private static final Map<ScanStatus, Set<ScanStatus>> SOURCES = new EnumMap<>(Map.of(
+            ScanStatus.PENDING_SCAN, EnumSet.of(ScanStatus.ERROR),
+            ScanStatus.CLEAN, EnumSet.of(ScanStatus.PENDING_SCAN, ScanStatus.ERROR),
+            ScanStatus.INFECTED, EnumSet.of(ScanStatus.PENDING_SCAN, ScanStatus.ERROR),
+            ScanStatus.ERROR, EnumSet.of(ScanStatus.PENDING_SCAN)));
+
+    private final FileBlobRepository fileBlobRepository;
+    private final FileMetadataRepository fileMetadataRepository;
+
+    /**
+     * Переводит объект и все ссылающиеся на него файлы в новый статус.
+     *
+     * @param storageKey ключ объекта в S3
+     * @param target     новый статус
+     * @return {@code true}, если статус сменился; {@code false}, если объекта нет
+     *         или его текущий статус не допускает переход
+     */
+    @Transactional
+    public boolean transition(String storageKey, ScanStatus target) {
+        return !transitionAll(List.of(storageKey), target).isEmpty();
+    }
+
+    /**
+     * Переводит пачку объектов и все ссылающиеся на них файлы в новый статус —
+     * два UPDATE на пачку. Объекты, которых нет или чей статус не допускает
+     * переход, пропускаются.
+     *
+     * @param storageKeys ключи объектов в S3
+     * @param target      новый статус
+     * @return ключи объектов, сменивших статус
+     */
+    @Transactional
+    public List<String> transitionAll(Collection<String> storageKeys, ScanStatus target) {
+        Set<ScanStatus> sources = SOURCES.getOrDefault(target, Set.of());
+        if (storageKeys.isEmpty() || sources.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> updated = fileBlobRepository.transitionScanStatus(
+                storageKeys, sources.stream().map(Enum::name).toList(), target.name());
+        if (updated.size() < storageKeys.size()) {
+            log.debug("Skipped {} of {} transition(s) to {}: object missing or status does not allow it",
+                    storageKeys.size() - updated.size(), storageKeys.size(), target);
+        }
+        if (updated.isEmpty()) {
+            return updated;
+        }
+
+        int files = fileMetadataRepository.updateScanStatusByStorageKeys(updated, target);
+        log.debug("Scan status {} applied to {} blob(s) and {} file(s)", target, updated.size(), files);
+        return updated;
+    }
+}
@@ -0,0 +1,119 @@
+package org.resume.s3filemanager.service.file;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.exception.FileNotFoundException;
+import org.resume.s3filemanager.exception.S3YandexException;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Неблокирующий сервис для работы с Yandex Object Storage.
+ * <p>
+ * Все операции возвращают {@link CompletableFuture} и не занимают
+ * вызывающий поток на время сетевого обмена. Ошибки S3 приводятся к тем же
+ * исключениям, что и в {@link YandexStorageService}: future завершается
+ * с {@link FileNotFoundException} или {@link S3YandexException}.
+ *
+ * @see S3AsyncClient
+ * @see YandexStorageService
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class YandexAsyncStorageService {
+
+    /**
+     * Предел S3 на количество ключей в одном DeleteObjects.
+     */
+    static final int MAX_KEYS_PER_DELETE = 1000;
+
+    private final S3AsyncClient yandexS3AsyncClient;
+    private final YandexStorageProperties properties;
+
+    /**
+     * Асинхронно удаляет файл из Yandex Object Storage.
+     *
+     * @param uniqueFileName уникальное имя файла (ключ объекта в S3)
+     * @return future, завершающийся после удаления объекта
+     */
+    public CompletableFuture<Void> deleteFileAsync(String uniqueFileName) {
+        DeleteObjectRequest request = DeleteObjectRequest.builder()
+                .bucket(properties.getBucketName())
+                .key(uniqueFileName)
+                .build();
+
+        return translate(yandexS3AsyncClient.deleteObject(request), uniqueFileName, "deleting")
+                .thenApply(response -> null);
+    }
+
+    /**
+     * Асинхронно удаляет пачку файлов запросами DeleteObjects по {@value #MAX_KEYS_PER_DELETE} ключей.
+     * <p>
+     * Future не завершается с ошибкой: ключи, которые S3 не удалил, логируются
+     * и возвращаются вызывающему коду.
+     *
+     * @param uniqueFileNames ключи объектов в S3
+     * @return future со списком неудалённых ключей
+     */
+    public CompletableFuture<List<String>> deleteFilesAsync(Collection<String> uniqueFileNames) {
+        List<String> keys = List.copyOf(uniqueFileNames);
+        List<CompletableFuture<List<String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            chunks.add(deleteChunkAsync(keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, keys.size()))));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> chunks.stream()
+                        .flatMap(chunk -> chunk.join().stream())
+                        .toList());
+    }
+
+    private CompletableFuture<List<String>> deleteChunkAsync(List<String> keys) {
+        DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                .bucket(properties.getBucketName())
+                .delete(Delete.builder()
+                        .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                        .quiet(true)
+                        .build())
+                .build();
+
+        return yandexS3AsyncClient.deleteObjects(request).handle((response, throwable) -> {
+            if (throwable != null) {
+                log.error("S3 error deleting {} files, first: {}", keys.size(), keys.get(0), throwable);
+                return keys;
+            }
+            response.errors().forEach(error -> log.error("S3 error deleting file: {}, code={}, message={}",
+                    error.key(), error.code(), error.message()));
+            return response.errors().stream().map(S3Error::key).toList();
+        });
+    }
+
+    private <T> CompletableFuture<T> translate(CompletableFuture<T> future, String uniqueFileName, String operation) {
+        return future.handle((result, throwable) -> {
+            if (throwable == null) {
+                return result;
+            }
+
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+
+            if (cause instanceof NoSuchKeyException) {
+                log.warn("File not found in S3: {}", uniqueFileName);
+                throw new FileNotFoundException(uniqueFileName);
+            }
+
+            log.error("S3 error {} file: {}", operation, uniqueFileName, cause);
+            throw new S3YandexException(cause, uniqueFileName);
+        });
+    }
+}
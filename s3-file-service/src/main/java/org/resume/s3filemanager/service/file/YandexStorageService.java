@@ -12,7 +12,9 @@ import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Сервис для работы с объектным хранилищем Yandex Cloud S3.
@@ -27,27 +29,46 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class YandexStorageService {
 
+    private static final int STREAM_BUFFER_SIZE = 128 * 1024;
+
     private final S3Client yandexS3Client;
     private final YandexStorageProperties properties;
+    private final S3MultipartUploader multipartUploader;
 
     /**
-     * Загружает файл в Yandex Object Storage.
+     * Потоково загружает файл в Yandex Object Storage.
+     * <p>
+     * Тело запроса читается из потока частями, поэтому в памяти держится только
+     * буфер фиксированного размера. SDK делает mark/reset при retry — буфер
+     * изолирует исходный поток от повторного чтения (например, подсчёта хеша).
+     * <p>
+     * Файлы от порога multipart-загрузки отправляются параллельными частями
+     * через {@link S3MultipartUploader}.
      *
      * @param uniqueFileName уникальное имя файла (ключ объекта в S3)
-     * @param bytes          содержимое файла в виде массива байт
+     * @param inputStream    поток с содержимым файла
+     * @param contentLength  точный размер файла в байтах
      * @param contentType    MIME-тип файла
+     * @throws IOException при ошибке чтения потока в multipart-загрузке
      * @throws S3YandexException при ошибке взаимодействия с S3
      */
-    public void uploadFileYandexS3(String uniqueFileName, byte[] bytes, String contentType) {
+    public void uploadFileYandexS3(String uniqueFileName, InputStream inputStream,
+                                   long contentLength, String contentType) throws IOException {
+        if (multipartUploader.supports(contentLength)) {
+            multipartUploader.upload(uniqueFileName, inputStream, contentLength, contentType);
+            return;
+        }
+
         try {
             PutObjectRequest request = PutObjectRequest.builder()
                     .bucket(properties.getBucketName())
                     .key(uniqueFileName)
                     .contentType(contentType)
-                    .contentLength((long) bytes.length)
+                    .contentLength(contentLength)
                     .build();
 
-            yandexS3Client.putObject(request, RequestBody.fromBytes(bytes));
+            InputStream buffered = new BufferedInputStream(inputStream, STREAM_BUFFER_SIZE);
+            yandexS3Client.putObject(request, RequestBody.fromInputStream(buffered, contentLength));
 
         } catch (S3Exception e) {
             log.error("S3 error uploading file: {}", uniqueFileName, e);
@@ -56,26 +77,58 @@ public class YandexStorageService {
     }
 
     /**
-     * Скачивает файл из Yandex Object Storage.
+     * Открывает поток на чтение объекта из Yandex Object Storage.
+     * <p>
+     * Байты не буферизуются: вызывающий код обязан закрыть поток после чтения.
+     * Если задан диапазон, в S3 уходит ranged GET и читается только его часть.
      *
      * @param uniqueFileName уникальное имя файла (ключ объекта в S3)
-     * @return содержимое файла в виде массива байт
-     * @throws S3YandexException при ошибке взаимодействия с S3 или чтения потока
+     * @param range          диапазон в формате HTTP Range ("bytes=0-99") или null для всего объекта
+     * @return поток с содержимым и метаданными ответа S3 (ETag, длина, Content-Range)
+     * @throws FileNotFoundException если объекта нет в S3
+     * @throws S3YandexException при ошибке взаимодействия с S3
      */
-    public byte[] downloadFileYandexS3(String uniqueFileName) {
-        try (ResponseInputStream<GetObjectResponse> response = yandexS3Client.getObject(
-                GetObjectRequest.builder()
-                        .bucket(properties.getBucketName())
-                        .key(uniqueFileName)
-                        .build()
-        )) {
-            return response.readAllBytes();
+    public ResponseInputStream<GetObjectResponse> openFileStreamYandexS3(String uniqueFileName, String range) {
+        try {
+            return yandexS3Client.getObject(
+                    GetObjectRequest.builder()
+                            .bucket(properties.getBucketName())
+                            .key(uniqueFileName)
+                            .range(range)
+                            .build()
+            );
 
         } catch (NoSuchKeyException e) {
             log.warn("File not found in S3: {}", uniqueFileName);
             throw new FileNotFoundException(uniqueFileName);
-        } catch (S3Exception | IOException e) {
-            log.error("S3 error downloading file: {}", uniqueFileName, e);
+        } catch (S3Exception e) {
+            log.error("S3 error opening file stream: {}", uniqueFileName, e);
+            throw new S3YandexException(e, uniqueFileName);
+        }
+    }
+
+    /**
+     * Читает метаданные объекта (ETag, дата изменения, длина) без содержимого.
+     *
+     * @param uniqueFileName уникальное имя файла (ключ объекта в S3)
+     * @return ответ HEAD-запроса S3
+     * @throws FileNotFoundException если объекта нет в S3
+     * @throws S3YandexException при ошибке взаимодействия с S3
+     */
+    public HeadObjectResponse headFileYandexS3(String uniqueFileName) {
+        try {
+            return yandexS3Client.headObject(
+                    HeadObjectRequest.builder()
+                            .bucket(properties.getBucketName())
+                            .key(uniqueFileName)
+                            .build()
+            );
+
+        } catch (NoSuchKeyException e) {
+            log.warn("File not found in S3: {}", uniqueFileName);
+            throw new FileNotFoundException(uniqueFileName);
+        } catch (S3Exception e) {
+            log.error("S3 error reading file metadata: {}", uniqueFileName, e);
             throw new S3YandexException(e, uniqueFileName);
         }
     }
@@ -0,0 +1,31 @@
+package org.resume.s3filemanager.service.hash;
+
+import org.resume.s3filemanager.enums.HashAlgorithm;
+
+/**
+ * Реализация алгоритма хеширования содержимого файлов.
+ * <p>
+ * Каждая реализация — Spring-бин; {@link org.resume.s3filemanager.service.file.FileHashService}
+ * выбирает нужную по {@link #algorithm()}.
+ */
+public interface ContentHasher {
+
+    HashAlgorithm algorithm();
+
+    /**
+     * Начинает новое инкрементальное вычисление хеша.
+     */
+    IncrementalHash newHash();
+
+    /**
+     * Хеширует содержимое целиком.
+     *
+     * @param bytes содержимое файла
+     * @return хеш с тегом алгоритма
+     */
+    default String hash(byte[] bytes) {
+        IncrementalHash hash = newHash();
+        hash.update(bytes, 0, bytes.length);
+        return hash.digest();
+    }
+}
@@ -0,0 +1,83 @@
+package org.resume.s3filemanager.service.hash;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Поток, который хеширует содержимое по мере чтения.
+ * <p>
+ * Итоговый хеш доступен через {@link #getHash()} после того, как поток
+ * прочитан до конца. Пропущенные через {@link #skip(long)} байты тоже
+ * попадают в хеш, поэтому mark/reset не поддерживаются.
+ */
+public class HashingInputStream extends FilterInputStream {
+
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    private final IncrementalHash hash;
+    private String digest;
+
+    public HashingInputStream(InputStream in, IncrementalHash hash) {
+        super(in);
+        this.hash = hash;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = in.read();
+        if (value != -1) {
+            hash.update(new byte[]{(byte) value}, 0, 1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        int read = in.read(bytes, offset, length);
+        if (read > 0) {
+            hash.update(bytes, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(SKIP_BUFFER_SIZE, Math.max(count, 0))];
+        long skipped = 0;
+        while (skipped < count) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, count - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Возвращает хеш прочитанного содержимого.
+     *
+     * @return хеш с тегом алгоритма в формате {@code "<tag>:<hex>"}
+     */
+    public String getHash() {
+        if (digest == null) {
+            digest = hash.digest();
+        }
+        return digest;
+    }
+}
@@ -0,0 +1,24 @@
+package org.resume.s3filemanager.service.hash;
+
+/**
+ * Состояние хеша, который накапливается по мере чтения содержимого.
+ * <p>
+ * Экземпляр одноразовый и не потокобезопасный: байты подаются через
+ * {@link #update(byte[], int, int)} в порядке следования, итог берётся
+ * один раз через {@link #digest()}.
+ */
+public interface IncrementalHash {
+
+    /**
+     * Добавляет очередной фрагмент содержимого. Массив можно переиспользовать
+     * сразу после возврата из метода.
+     */
+    void update(byte[] bytes, int offset, int length);
+
+    /**
+     * Завершает вычисление.
+     *
+     * @return хеш с тегом алгоритма в формате {@code "<tag>:<hex>"}
+     */
+    String digest();
+}
@@ -0,0 +1,183 @@
+package org.resume.s3filemanager.service.hash;
+
+import org.resume.s3filemanager.enums.HashAlgorithm;
+import org.resume.s3filemanager.properties.HashingProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Древовидный хеш в духе BLAKE3 на базе SHA-256.
+ * <p>
+ * Содержимое режется на чанки по {@code app.hashing.tree-chunk-size}. Каждый
+ * чанк хешируется независимо (лист = SHA-256 от префикса листа, номера чанка
+ * и данных), затем листья попарно сворачиваются до корня (узел = SHA-256 от
+ * префикса узла и двух дочерних хешей). Префиксы разделяют листья и узлы,
+ * номер чанка фиксирует его позицию.
+ * <p>
+ * Независимые листья позволяют хешировать большие файлы на всех ядрах:
+ * заполненный чанк уходит на {@code contentHashExecutor}, пока вызывающий
+ * поток читает следующий. На одно вычисление в полёте не больше
+ * {@code parallelism} чанков — если все заняты, чанк хешируется в
+ * вызывающем потоке, так что память ограничена, а чтение не блокируется.
+ */
+@Component
+public class TreeSha256ContentHasher implements ContentHasher {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    private final ExecutorService contentHashExecutor;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public TreeSha256ContentHasher(HashingProperties properties,
+                                   @Qualifier("contentHashExecutor") ExecutorService contentHashExecutor) {
+        this.contentHashExecutor = contentHashExecutor;
+        this.chunkSize = (int) properties.getTreeChunkSize().toBytes();
+        this.parallelism = properties.effectiveParallelism();
+    }
+
+    @Override
+    public HashAlgorithm algorithm() {
+        return HashAlgorithm.TREE_SHA256;
+    }
+
+    @Override
+    public IncrementalHash newHash() {
+        return new TreeHash();
+    }
+
+    /**
+     * Хеширует массив без копирования чанков: массив принадлежит вызову
+     * до его завершения, поэтому листья читают его напрямую.
+     */
+    @Override
+    public String hash(byte[] bytes) {
+        TreeHash hash = new TreeHash();
+        int offset = 0;
+        while (bytes.length - offset > chunkSize) {
+            hash.submitLeaf(bytes, offset, chunkSize);
+            offset += chunkSize;
+        }
+        hash.addLeaf(bytes, offset, bytes.length - offset);
+        return hash.finish();
+    }
+
+    private static byte[] leaf(long index, byte[] bytes, int offset, int length) {
+        byte[] header = new byte[1 + Long.BYTES];
+        header[0] = LEAF_PREFIX;
+        for (int i = 0; i < Long.BYTES; i++) {
+            header[header.length - 1 - i] = (byte) (index >>> (8 * i));
+        }
+
+        MessageDigest digest = Sha256ContentHasher.newDigest();
+        digest.update(header);
+        digest.update(bytes, offset, length);
+        return digest.digest();
+    }
+
+    private static byte[] node(byte[] left, byte[] right) {
+        MessageDigest digest = Sha256ContentHasher.newDigest();
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    private static byte[] root(List<byte[]> leaves) {
+        List<byte[]> level = leaves;
+        while (level.size() > 1) {
+            List<byte[]> parents = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i + 1 < level.size(); i += 2) {
+                parents.add(node(level.get(i), level.get(i + 1)));
+            }
+            if (level.size() % 2 == 1) {
+                parents.add(level.getLast());
+            }
+            level = parents;
+        }
+        return level.getFirst();
+    }
+
+    /**
+     * Состояние одного вычисления. Буфер чанка растёт по мере заполнения,
+     * поэтому маленький файл не занимает целый чанк памяти. Последний чанк
+     * всегда хешируется в вызывающем потоке — передавать его в пул незачем.
+     */
+    private final class TreeHash implements IncrementalHash {
+
+        private static final int INITIAL_BUFFER_SIZE = 8192;
+
+        private final List<CompletableFuture<byte[]>> leaves = new ArrayList<>();
+        private final Semaphore inFlight = new Semaphore(parallelism);
+        private byte[] buffer = new byte[0];
+        private int filled;
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            while (length > 0) {
+                int copied = Math.min(length, chunkSize - filled);
+                ensureCapacity(filled + copied);
+                System.arraycopy(bytes, offset, buffer, filled, copied);
+                filled += copied;
+                offset += copied;
+                length -= copied;
+
+                if (filled == chunkSize) {
+                    submitLeaf(buffer, 0, chunkSize);
+                    buffer = new byte[chunkSize];
+                    filled = 0;
+                }
+            }
+        }
+
+        @Override
+        public String digest() {
+            if (filled > 0 || leaves.isEmpty()) {
+                addLeaf(buffer, 0, filled);
+                filled = 0;
+            }
+            return finish();
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > buffer.length) {
+                int grown = Math.max(required, Math.max(INITIAL_BUFFER_SIZE, buffer.length * 2));
+                buffer = Arrays.copyOf(buffer, Math.min(chunkSize, grown));
+            }
+        }
+
+        private void addLeaf(byte[] bytes, int offset, int length) {
+            leaves.add(CompletableFuture.completedFuture(leaf(leaves.size(), bytes, offset, length)));
+        }
+
+        private void submitLeaf(byte[] bytes, int offset, int length) {
+            long index = leaves.size();
+            if (inFlight.tryAcquire()) {
+                try {
+                    leaves.add(CompletableFuture
+                            .supplyAsync(() -> leaf(index, bytes, offset, length), contentHashExecutor)
+                            .whenComplete((result, error) -> inFlight.release()));
+                    return;
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                }
+            }
+            addLeaf(bytes, offset, length);
+        }
+
+        private String finish() {
+            List<byte[]> hashes = leaves.stream().map(CompletableFuture::join).toList();
+            return HashAlgorithm.TREE_SHA256.format(root(hashes));
+        }
+    }
+}
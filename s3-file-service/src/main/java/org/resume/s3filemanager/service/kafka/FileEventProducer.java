@@ -7,8 +7,10 @@ import org.resume.common.properties.KafkaProperties;
 import org.resume.s3filemanager.exception.KafkaSendException;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -16,7 +18,8 @@ import java.util.concurrent.TimeoutException;
 /**
  * Producer для отправки событий загрузки файлов в Kafka.
  * <p>
- * Использует синхронную отправку с таймаутом для гарантии доставки.
+ * Синхронная отправка ждёт подтверждения с таймаутом, асинхронная
+ * возвращает future, чтобы пачка событий отправлялась конвейером.
  * Вызывается только через OutboxService.
  */
 @Slf4j
@@ -25,20 +28,14 @@ import java.util.concurrent.TimeoutException;
 @EnableConfigurationProperties(KafkaProperties.class)
 public class FileEventProducer {
 
-    private static final int SEND_TIMEOUT_SECONDS = 10;
+    public static final int SEND_TIMEOUT_SECONDS = 10;
 
     private final KafkaTemplate<String, FileUploadEvent> kafkaTemplate;
     private final KafkaProperties kafkaProperties;
 
     public void sendFileUploadEvent(FileUploadEvent event) {
-        String topic = kafkaProperties.getTopics().getFileUploadEvents();
-
-        log.info("Sending file upload event to Kafka: fileId={}, s3Key={}",
-                event.getFileId(), event.getS3Key());
-
         try {
-            kafkaTemplate.send(topic, event.getFileId().toString(), event)
-                    .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            sendFileUploadEventAsync(event).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
 
             log.debug("File upload event sent successfully: fileId={}", event.getFileId());
 
@@ -54,4 +51,19 @@ public class FileEventProducer {
             throw new KafkaSendException(e, event.getFileId());
         }
     }
+
+    /**
+     * Отправляет событие без ожидания подтверждения.
+     *
+     * @param event событие загрузки файла
+     * @return future, завершающийся подтверждением брокера или ошибкой отправки
+     */
+    public CompletableFuture<SendResult<String, FileUploadEvent>> sendFileUploadEventAsync(FileUploadEvent event) {
+        String topic = kafkaProperties.getTopics().getFileUploadEvents();
+
+        log.info("Sending file upload event to Kafka: fileId={}, s3Key={}",
+                event.getFileId(), event.getS3Key());
+
+        return kafkaTemplate.send(topic, event.getFileId().toString(), event);
+    }
 }
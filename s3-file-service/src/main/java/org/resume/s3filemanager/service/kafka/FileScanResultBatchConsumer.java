@@ -0,0 +1,39 @@
+package org.resume.s3filemanager.service.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.model.FileScanResult;
+import org.resume.s3filemanager.service.file.FileScanResultService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Пакетный consumer результатов антивирусного сканирования.
+ * <p>
+ * Получает все результаты одного poll и применяет их одной транзакцией:
+ * несколько UPDATE на пачку вместо двух запросов и транзакции на сообщение.
+ * При ошибке пачка повторяется целиком — обновления статусов идемпотентны.
+ * Включается через app.scan-results.batch-enabled, иначе работает
+ * {@link FileScanResultConsumer}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.scan-results", name = "batch-enabled", havingValue = "true")
+public class FileScanResultBatchConsumer {
+
+    private final FileScanResultService fileScanResultService;
+
+    @KafkaListener(
+            topics = "${kafka.topics.file-scan-results}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            batch = "true"
+    )
+    public void consumeScanResults(List<FileScanResult> results) {
+        log.debug("Processing {} scan results", results.size());
+        fileScanResultService.processScanResults(results);
+    }
+}
@@ -3,8 +3,8 @@ package org.resume.s3filemanager.service.kafka;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.resume.common.model.FileScanResult;
-import org.resume.s3filemanager.exception.FileNotFoundException;
 import org.resume.s3filemanager.service.file.FileScanResultService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -12,12 +12,15 @@ import org.springframework.stereotype.Component;
  * Consumer результатов антивирусного сканирования.
  * <p>
  * Слушает topic file-scan-results и обновляет статус файла в БД.
- * При отсутствии файла в БД — пропускает сообщение без ошибки.
+ * Результат для отсутствующего файла или недопустимого перехода статуса
+ * пропускается без ошибки.
  * При других ошибках — пробрасывает exception для retry.
+ * Работает, когда выключен пакетный режим {@link FileScanResultBatchConsumer}.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.scan-results", name = "batch-enabled", havingValue = "false", matchIfMissing = true)
 public class FileScanResultConsumer {
 
     private final FileScanResultService fileScanResultService;
@@ -29,10 +32,6 @@ public class FileScanResultConsumer {
     public void consumeScanResult(FileScanResult result) {
         log.info("Processing scan result: s3Key={}, status={}", result.getS3Key(), result.getStatus());
 
-        try {
-            fileScanResultService.processScanResult(result);
-        } catch (FileNotFoundException e) {
-            log.warn("File not found, skipping: s3Key={}", result.getS3Key());
-        }
+        fileScanResultService.processScanResult(result);
     }
 }
@@ -0,0 +1,159 @@
+package org.resume.s3filemanager.service.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.s3filemanager.entity.OutboxEvent;
+import org.resume.s3filemanager.properties.OutboxProperties;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Конвейерная доставка пачки Outbox событий в Kafka.
+ * <p>
+ * Все отправки пачки запускаются сразу, без ожидания подтверждения каждой,
+ * и ожидаются вместе — пачка стоит одного round-trip до брокера, а не по
+ * одному на событие. В полёте одновременно не больше {@code app.outbox.max-in-flight}
+ * отправок. Итог записывается двумя bulk UPDATE: отправленные — SENT,
+ * остальные — следующая попытка с backoff или FAILED.
+ * <p>
+ * Сетевые вызовы идут вне транзакции: соединение с БД берётся только на UPDATE.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxBatchRelay {
+
+    private final FileEventProducer fileEventProducer;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties outboxProperties;
+    private final OutboxRepository outboxRepository;
+
+    /**
+     * Отправляет пачку событий и записывает результат.
+     * <p>
+     * Если слот для отправки не освободился за таймаут отправки, с оставшихся
+     * событий снимается аренда, и они уйдут в следующем проходе без ожидания
+     * её истечения. Счётчик попыток у них не растёт.
+     *
+     * @param events PENDING события в порядке создания
+     */
+    public void relay(List<OutboxEvent> events) {
+        Semaphore inFlight = new Semaphore(outboxProperties.getMaxInFlight());
+        Map<OutboxEvent, CompletableFuture<?>> sends = new LinkedHashMap<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        List<OutboxEvent> unattempted = List.of();
+
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            FileUploadEvent fileUploadEvent;
+            try {
+                fileUploadEvent = objectMapper.readValue(event.getPayload(), FileUploadEvent.class);
+            } catch (JsonProcessingException e) {
+                log.error("Failed to deserialize outbox event: id={}", event.getId(), e);
+                failed.add(event);
+                continue;
+            }
+
+            if (!acquire(inFlight)) {
+                unattempted = events.subList(i, events.size());
+                log.warn("No free send slot within {}s, releasing {} outbox events for the next run",
+                        FileEventProducer.SEND_TIMEOUT_SECONDS, unattempted.size());
+                break;
+            }
+            sends.put(event, send(fileUploadEvent).whenComplete((result, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    log.error("Failed to send outbox event to Kafka: id={}", event.getId(), error);
+                }
+            }));
+        }
+
+        awaitAll(List.copyOf(sends.values()));
+
+        List<Long> sentIds = new ArrayList<>();
+        sends.forEach((event, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                sentIds.add(event.getId());
+            } else {
+                failed.add(event);
+            }
+        });
+
+        if (!sentIds.isEmpty()) {
+            outboxRepository.markSent(sentIds, outboxProperties.getInstanceId(), Instant.now());
+        }
+        if (!failed.isEmpty()) {
+            scheduleRetry(failed);
+        }
+        if (!unattempted.isEmpty()) {
+            outboxRepository.releaseClaims(
+                    unattempted.stream().map(OutboxEvent::getId).toList(), outboxProperties.getInstanceId());
+        }
+
+        log.info("Outbox batch relayed: sent={}, failed={}, released={}",
+                sentIds.size(), failed.size(), unattempted.size());
+    }
+
+    private CompletableFuture<?> send(FileUploadEvent event) {
+        try {
+            return fileEventProducer.sendFileUploadEventAsync(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean acquire(Semaphore inFlight) {
+        try {
+            return inFlight.tryAcquire(FileEventProducer.SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitAll(List<CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(FileEventProducer.SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            log.debug("Some outbox sends failed, see per-event results");
+        } catch (TimeoutException e) {
+            log.warn("Outbox sends not acknowledged within {}s", FileEventProducer.SEND_TIMEOUT_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while awaiting outbox sends");
+        }
+    }
+
+    private void scheduleRetry(List<OutboxEvent> failed) {
+        int maxRetryCount = outboxProperties.getMaxRetryCount();
+        outboxRepository.scheduleRetry(
+                failed.stream().map(OutboxEvent::getId).toList(),
+                outboxProperties.getInstanceId(),
+                Instant.now(),
+                maxRetryCount,
+                outboxProperties.getBaseBackoffMinutes()
+        );
+
+        failed.stream()
+                .filter(event -> event.getRetryCount() + 1 >= maxRetryCount)
+                .forEach(event -> log.error("Outbox event permanently failed after {} retries: id={}",
+                        maxRetryCount, event.getId()));
+    }
+}
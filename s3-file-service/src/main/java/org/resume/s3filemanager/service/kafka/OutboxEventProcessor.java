@@ -6,7 +6,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.resume.common.model.FileUploadEvent;
 import org.resume.s3filemanager.entity.OutboxEvent;
-import org.resume.s3filemanager.enums.OutboxStatus;
 import org.resume.s3filemanager.exception.KafkaSendException;
 import org.resume.s3filemanager.properties.OutboxProperties;
 import org.resume.s3filemanager.repository.OutboxRepository;
@@ -15,10 +14,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 /**
  * Обрабатывает одно Outbox событие в отдельной транзакции.
+ * <p>
+ * Результат пишется только если событие всё ещё арендует этот экземпляр
+ * ({@link OutboxRepository#markSent}, {@link OutboxRepository#scheduleRetry}):
+ * если аренда истекла и событие забрал другой экземпляр, его состояние не перезаписывается.
  */
 @Slf4j
 @Service
@@ -47,9 +50,11 @@ public class OutboxEventProcessor {
 
             fileEventProducer.sendFileUploadEvent(fileUploadEvent);
 
-            event.setStatus(OutboxStatus.SENT);
-            event.setSentAt(Instant.now());
-            outboxRepository.save(event);
+            int updated = outboxRepository.markSent(List.of(event.getId()), outboxProperties.getInstanceId(), Instant.now());
+            if (updated == 0) {
+                log.warn("Outbox event sent after its claim was lost, not marking SENT: id={}", event.getId());
+                return;
+            }
 
             log.info("Outbox event sent: id={}, fileId={}", event.getId(), fileUploadEvent.getFileId());
 
@@ -59,22 +64,24 @@ public class OutboxEventProcessor {
     }
 
     private void handleFailedEvent(OutboxEvent event, Exception e) {
-        int newRetryCount = event.getRetryCount() + 1;
-        event.setRetryCount(newRetryCount);
+        int maxRetryCount = outboxProperties.getMaxRetryCount();
+        int updated = outboxRepository.scheduleRetry(
+                List.of(event.getId()),
+                outboxProperties.getInstanceId(),
+                Instant.now(),
+                maxRetryCount,
+                outboxProperties.getBaseBackoffMinutes()
+        );
+        if (updated == 0) {
+            log.warn("Outbox event failed after its claim was lost, retry not scheduled: id={}", event.getId(), e);
+            return;
+        }
 
-        if (newRetryCount >= outboxProperties.getMaxRetryCount()) {
-            event.setStatus(OutboxStatus.FAILED);
-            log.error("Outbox event permanently failed after {} retries: id={}",
-                    outboxProperties.getMaxRetryCount(), event.getId(), e);
+        int newRetryCount = event.getRetryCount() + 1;
+        if (newRetryCount >= maxRetryCount) {
+            log.error("Outbox event permanently failed after {} retries: id={}", maxRetryCount, event.getId(), e);
         } else {
-            long backoffMinutes = outboxProperties.getBaseBackoffMinutes() * (1L << newRetryCount);
-            event.setNextRetryAt(Instant.now().plus(backoffMinutes, ChronoUnit.MINUTES));
-            log.warn("Outbox event failed, retry {}/{} in {} minutes: id={}",
-                    newRetryCount, outboxProperties.getMaxRetryCount(), backoffMinutes, event.getId());
+            log.warn("Outbox event failed, retry {}/{}: id={}", newRetryCount, maxRetryCount, event.getId(), e);
         }
-
-        outboxRepository.save(event);
-        log.error("Outbox event permanently failed after {} retries: id={}",
-                outboxProperties.getMaxRetryCount(), event.getId(), e);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package org.resume.s3filemanager.service.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.resume.s3filemanager.properties.OutboxProperties;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Обслуживание секций Outbox таблицы.
+ * <p>
+ * {@code outbox_events} секционирована по дням {@code created_at} (UTC). Секции
+ * создаются заранее, чтобы вставки не попадали в секцию по умолчанию, а старые
+ * секции, где все события SENT, удаляются целиком через DROP — без построчного
+ * DELETE и последующего VACUUM. Секция с PENDING или FAILED событиями остаётся,
+ * пока события не будут доставлены или разобраны вручную.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxMaintenanceService {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxProperties outboxProperties;
+
+    /**
+     * Создаёт недостающие секции с сегодняшнего дня на {@code partitionsAhead} дней вперёд.
+     *
+     * @return количество созданных секций
+     */
+    public int createUpcomingPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        int created = 0;
+        for (int day = 0; day <= outboxProperties.getPartitionsAhead(); day++) {
+            if (outboxRepository.createPartition(today.plusDays(day))) {
+                created++;
+            }
+        }
+
+        if (created > 0) {
+            log.info("Created {} outbox partitions starting from {}", created, today);
+        }
+        return created;
+    }
+
+    /**
+     * Удаляет секции старше {@code sentRetention}, в которых все события SENT.
+     *
+     * @return имена удалённых секций
+     */
+    public List<String> purgeSentPartitions() {
+        Instant cutoff = Instant.now().minus(outboxProperties.getSentRetention());
+        List<String> dropped = outboxRepository.dropSentPartitions(cutoff);
+
+        if (!dropped.isEmpty()) {
+            log.info("Dropped {} outbox partitions older than {}: {}", dropped.size(), cutoff, dropped);
+        }
+        return dropped;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.resume.common.model.FileUploadEvent;
 import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.dto.OutboxStatsResponse;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.OutboxEvent;
 import org.resume.s3filemanager.enums.OutboxEventType;
@@ -14,7 +15,6 @@ import org.resume.s3filemanager.exception.OutboxSerializationException;
 import org.resume.s3filemanager.properties.OutboxProperties;
 import org.resume.s3filemanager.repository.OutboxRepository;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -24,7 +24,10 @@ import java.util.List;
  * Сервис для работы с Outbox таблицей.
  * <p>
  * Сохраняет события в рамках транзакции загрузки файла.
- * Scheduler периодически вызывает processPendingEvents для доставки в Kafka.
+ * Scheduler периодически вызывает processPendingEvents для доставки в Kafka:
+ * по одному событию ({@link OutboxEventProcessor}) или конвейером всей пачкой
+ * ({@link OutboxBatchRelay}) — в зависимости от {@code app.outbox.relay-mode}.
+ * События берутся в аренду, поэтому реплики сервиса не отправляют одно событие дважды.
  */
 @Slf4j
 @Service
@@ -34,6 +37,7 @@ public class OutboxService {
 
     private final OutboxRepository outboxRepository;
     private final OutboxEventProcessor outboxEventProcessor;
+    private final OutboxBatchRelay outboxBatchRelay;
     private final ObjectMapper objectMapper;
     private final OutboxProperties outboxProperties;
     private final YandexStorageProperties yandexStorageProperties;
@@ -43,7 +47,7 @@ public class OutboxService {
             FileUploadEvent event = FileUploadEvent.builder()
                     .fileId(metadata.getId())
                     .userId(userId)
-                    .s3Key(metadata.getUniqueName())
+                    .s3Key(metadata.getBlob().getStorageKey())
                     .bucketName(yandexStorageProperties.getBucketName())
                     .originalFileName(metadata.getOriginalName())
                     .build();
@@ -58,21 +62,42 @@ public class OutboxService {
         }
     }
 
-    public void processPendingEvents() {
-        List<OutboxEvent> events = outboxRepository.findPendingEvents(
-                OutboxStatus.PENDING,
-                Instant.now(),
-                PageRequest.of(0, outboxProperties.getBatchSize())
+    /**
+     * Забирает в аренду и отправляет одну пачку PENDING событий.
+     *
+     * @return количество взятых событий; равное batch-size означает, что в очереди могут быть ещё
+     */
+    public int processPendingEvents() {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = outboxRepository.claimPendingEvents(
+                outboxProperties.getInstanceId(),
+                now,
+                now.plus(outboxProperties.getClaimLease()),
+                outboxProperties.getBatchSize()
         );
 
         if (events.isEmpty()) {
-            return;
+            return 0;
         }
 
-        log.debug("Processing {} pending outbox events", events.size());
+        log.debug("Claimed {} pending outbox events as {}", events.size(), outboxProperties.getInstanceId());
 
-        for (OutboxEvent event : events) {
-            outboxEventProcessor.process(event);
+        switch (outboxProperties.getRelayMode()) {
+            case SEQUENTIAL -> events.forEach(outboxEventProcessor::process);
+            case PIPELINED -> outboxBatchRelay.relay(events);
         }
+        return events.size();
     }
-}
\ No newline at end of file
+
+    /**
+     * Возвращает количество событий в очереди и событий, исчерпавших попытки отправки.
+     *
+     * @return статистика Outbox
+     */
+    public OutboxStatsResponse getStats() {
+        return OutboxStatsResponse.builder()
+                .pending(outboxRepository.countByStatus(OutboxStatus.PENDING))
+                .failed(outboxRepository.countByStatus(OutboxStatus.FAILED))
+                .build();
+    }
+}
@@ -3,81 +3,366 @@ package org.resume.s3filemanager.service.kafka;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
 import org.resume.common.model.FileUploadEvent;
 import org.resume.common.model.ScanStatus;
 import org.resume.common.properties.KafkaProperties;
-import org.resume.s3filemanager.entity.FileMetadata;
-import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.dto.DltReplayProgressResponse;
+import org.resume.s3filemanager.enums.DltReplayStatus;
+import org.resume.s3filemanager.properties.DltReplayProperties;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.JobLeaseRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
  * Сервис для повторной обработки сообщений из Dead Letter Topic.
  * <p>
  * Читает сообщения из DLT и переотправляет в основной топик
- * только если файл всё ещё в статусе ERROR.
+ * только если файл всё ещё в статусе ERROR. Статус берётся у общего
+ * объекта S3, на который указывает ключ события.
+ * <p>
+ * Повтор инкрементальный: группа {@code dlt-replay} коммитит offset'ы
+ * обработанных сообщений, поэтому каждый запуск читает только сообщения,
+ * появившиеся после предыдущего. Запуск ограничен концом DLT на момент старта —
+ * сообщения, снова упавшие в DLT во время повтора, достанутся следующему.
+ * <p>
+ * Статусы проверяются одним запросом на пачку poll, отправка асинхронная —
+ * не больше {@code app.dlt-replay.max-in-flight} отправок в полёте.
+ * Объект, уже переотправленный в этом запуске, повторно не отправляется.
+ * Если отправка не удалась, offset партиции коммитится до этого сообщения
+ * и повтор останавливается: следующий запуск начнёт с него.
+ * <p>
+ * Во всём кластере повтор идёт в одном экземпляре: запуск берёт аренду
+ * {@code dlt-replay} в таблице {@code job_leases} и продлевает её после
+ * каждой пачки. Если аренду держит другой экземпляр, запуск не начинается;
+ * если аренду перехватили, повтор останавливается со статусом FAILED.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@EnableConfigurationProperties(DltReplayProperties.class)
 public class RetryDLTService {
 
     private static final String DLT_REPLAY_GROUP = "dlt-replay";
-    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final String DLT_REPLAY_LEASE = "dlt-replay";
 
     private final ConsumerFactory<String, FileUploadEvent> consumerFactory;
     private final KafkaProperties kafkaProperties;
     private final FileEventProducer fileEventProducer;
-    private final FileMetadataRepository fileMetadataRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final DltReplayProperties dltReplayProperties;
+    private final JobLeaseRepository jobLeaseRepository;
+
+    @Qualifier("dltReplayExecutor")
+    private final Executor dltReplayExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReplayRun lastRun;
 
     /**
-     * Переотправляет сообщения из DLT в Topic file-upload-events.
-     * Retry выполняется только для файлов со scan_status ERROR.
+     * Запускает повтор в фоне. Если повтор уже идёт в этом или другом экземпляре,
+     * второй не запускается.
      *
-     * @return количество переотправленных сообщений
+     * @return прогресс запущенного или уже идущего повтора; для повтора в другом
+     * экземпляре — только статус RUNNING
+     */
+    public DltReplayProgressResponse startReplay() {
+        if (!running.compareAndSet(false, true)) {
+            return getProgress();
+        }
+
+        String owner = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        if (jobLeaseRepository.tryAcquire(DLT_REPLAY_LEASE, owner, now, now.plus(dltReplayProperties.getLease())) == 0) {
+            running.set(false);
+            log.info("DLT replay is already running on another instance");
+            return DltReplayProgressResponse.builder().status(DltReplayStatus.RUNNING).build();
+        }
+
+        ReplayRun run = new ReplayRun(owner);
+        lastRun = run;
+        try {
+            dltReplayExecutor.execute(() -> replay(run));
+        } catch (RuntimeException e) {
+            run.finish(DltReplayStatus.FAILED);
+            jobLeaseRepository.release(DLT_REPLAY_LEASE, owner);
+            running.set(false);
+            throw e;
+        }
+        return run.snapshot();
+    }
+
+    /**
+     * Прогресс текущего или последнего повтора.
      */
-    public int retryFailedEvents() {
-        int retried = 0;
-        int skipped = 0;
+    public DltReplayProgressResponse getProgress() {
+        ReplayRun run = lastRun;
+        if (run == null) {
+            return DltReplayProgressResponse.builder().status(DltReplayStatus.IDLE).build();
+        }
+        return run.snapshot();
+    }
 
+    private void replay(ReplayRun run) {
         try (Consumer<String, FileUploadEvent> consumer = createDltConsumer()) {
-            consumer.subscribe(List.of(kafkaProperties.getTopics().getFileUploadEventsDlt()));
-            consumer.poll(POLL_TIMEOUT);
-            consumer.assignment().forEach(tp -> consumer.seekToBeginning(List.of(tp)));
-
-            while (true) {
-                ConsumerRecords<String, FileUploadEvent> records = consumer.poll(POLL_TIMEOUT);
-                if (records.isEmpty()) break;
-
-                for (ConsumerRecord<String, FileUploadEvent> record : records) {
-                    if (shouldRetry(record.value())) {
-                        fileEventProducer.sendFileUploadEvent(record.value());
-                        retried++;
-                    } else {
-                        skipped++;
-                    }
+            List<TopicPartition> partitions = dltPartitions(consumer);
+            consumer.assign(partitions);
+
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            run.total.set(partitions.stream()
+                    .mapToLong(tp -> Math.max(0, endOffsets.get(tp) - consumer.position(tp)))
+                    .sum());
+            log.info("DLT replay started: newRecords={}", run.total.get());
+
+            Set<String> resentKeys = new HashSet<>();
+            while (!reachedEnd(consumer, partitions, endOffsets)) {
+                ConsumerRecords<String, FileUploadEvent> records = consumer.poll(dltReplayProperties.getPollTimeout());
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+                boolean complete = replayBatch(records, endOffsets, resentKeys, run, processed);
+                if (!processed.isEmpty()) {
+                    consumer.commitSync(processed);
+                }
+                log.info("DLT replay progress: read={}/{}, resent={}, skipped={}, failed={}",
+                        run.read.get(), run.total.get(), run.resent.get(), run.skipped.get(), run.failed.get());
+
+                if (!complete) {
+                    run.finish(DltReplayStatus.FAILED);
+                    return;
+                }
+                if (!renewLease(run)) {
+                    log.warn("DLT replay lease lost, stopping: owner={}", run.owner);
+                    run.finish(DltReplayStatus.FAILED);
+                    return;
                 }
             }
+            run.finish(DltReplayStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            log.error("DLT replay failed", e);
+            run.finish(DltReplayStatus.FAILED);
+        } finally {
+            releaseLease(run);
+            running.set(false);
+            log.info("DLT retry completed: status={}, resent={}, skipped={}, failed={}",
+                    run.status, run.resent.get(), run.skipped.get(), run.failed.get());
         }
+    }
 
-        log.info("DLT retry completed: retried={}, skipped={}", retried, skipped);
-        return retried;
+    private boolean renewLease(ReplayRun run) {
+        Instant leasedUntil = Instant.now().plus(dltReplayProperties.getLease());
+        return jobLeaseRepository.renew(DLT_REPLAY_LEASE, run.owner, leasedUntil) > 0;
     }
 
-    private boolean shouldRetry(FileUploadEvent event) {
-        Optional<FileMetadata> file = fileMetadataRepository.findByUniqueName(event.getS3Key());
-        return file.map(f -> f.getScanStatus() == ScanStatus.ERROR).orElse(false);
+    private void releaseLease(ReplayRun run) {
+        try {
+            jobLeaseRepository.release(DLT_REPLAY_LEASE, run.owner);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release DLT replay lease, it expires in {}", dltReplayProperties.getLease(), e);
+        }
+    }
+
+    /**
+     * Переотправляет подходящие сообщения пачки и собирает offset'ы для коммита:
+     * по каждой партиции — до первого сообщения, которое отправить не удалось.
+     *
+     * @return {@code true}, если обработаны все сообщения пачки
+     */
+    private boolean replayBatch(ConsumerRecords<String, FileUploadEvent> records,
+                                Map<TopicPartition, Long> endOffsets,
+                                Set<String> resentKeys,
+                                ReplayRun run,
+                                Map<TopicPartition, OffsetAndMetadata> processed) {
+        List<ConsumerRecord<String, FileUploadEvent>> batch = new ArrayList<>();
+        for (TopicPartition tp : records.partitions()) {
+            long endOffset = endOffsets.getOrDefault(tp, Long.MAX_VALUE);
+            records.records(tp).stream()
+                    .filter(record -> record.offset() < endOffset)
+                    .forEach(batch::add);
+        }
+        run.read.addAndGet(batch.size());
+
+        Set<String> eligibleKeys = findEligibleKeys(batch);
+        Semaphore inFlight = new Semaphore(dltReplayProperties.getMaxInFlight());
+        Map<ConsumerRecord<String, FileUploadEvent>, CompletableFuture<?>> sends = new IdentityHashMap<>();
+
+        for (ConsumerRecord<String, FileUploadEvent> record : batch) {
+            FileUploadEvent event = record.value();
+            if (event == null || !eligibleKeys.contains(event.getS3Key()) || !resentKeys.add(event.getS3Key())) {
+                continue;
+            }
+            if (!acquire(inFlight)) {
+                sends.put(record, CompletableFuture.failedFuture(
+                        new TimeoutException("No free send slot within " + FileEventProducer.SEND_TIMEOUT_SECONDS + "s")));
+                continue;
+            }
+            sends.put(record, send(event).whenComplete((result, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    log.error("Failed to resend DLT record: partition={}, offset={}",
+                            record.partition(), record.offset(), error);
+                }
+            }));
+        }
+
+        awaitAll(List.copyOf(sends.values()));
+
+        Set<TopicPartition> stopped = new HashSet<>();
+        for (ConsumerRecord<String, FileUploadEvent> record : batch) {
+            TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+            if (stopped.contains(tp)) {
+                continue;
+            }
+            CompletableFuture<?> send = sends.get(record);
+            if (send == null) {
+                run.skipped.incrementAndGet();
+            } else if (send.isDone() && !send.isCompletedExceptionally()) {
+                run.resent.incrementAndGet();
+            } else {
+                run.failed.incrementAndGet();
+                stopped.add(tp);
+                continue;
+            }
+            processed.put(tp, new OffsetAndMetadata(record.offset() + 1));
+        }
+        return stopped.isEmpty();
+    }
+
+    private Set<String> findEligibleKeys(List<ConsumerRecord<String, FileUploadEvent>> batch) {
+        Set<String> storageKeys = new HashSet<>();
+        batch.stream()
+                .map(ConsumerRecord::value)
+                .filter(Objects::nonNull)
+                .map(FileUploadEvent::getS3Key)
+                .filter(Objects::nonNull)
+                .forEach(storageKeys::add);
+        if (storageKeys.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(fileBlobRepository.findStorageKeysByScanStatus(storageKeys, ScanStatus.ERROR));
+    }
+
+    private CompletableFuture<?> send(FileUploadEvent event) {
+        try {
+            return fileEventProducer.sendFileUploadEventAsync(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean acquire(Semaphore inFlight) {
+        try {
+            return inFlight.tryAcquire(FileEventProducer.SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitAll(List<CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(FileEventProducer.SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            log.debug("Some DLT resends failed, see per-record results");
+        } catch (TimeoutException e) {
+            log.warn("DLT resends not acknowledged within {}s", FileEventProducer.SEND_TIMEOUT_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while awaiting DLT resends");
+        }
+    }
+
+    private boolean reachedEnd(Consumer<String, FileUploadEvent> consumer,
+                               List<TopicPartition> partitions,
+                               Map<TopicPartition, Long> endOffsets) {
+        return partitions.stream().allMatch(tp -> consumer.position(tp) >= endOffsets.get(tp));
+    }
+
+    private List<TopicPartition> dltPartitions(Consumer<String, FileUploadEvent> consumer) {
+        List<PartitionInfo> partitions = consumer.partitionsFor(kafkaProperties.getTopics().getFileUploadEventsDlt());
+        if (partitions == null) {
+            return List.of();
+        }
+        return partitions.stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
     }
 
     private Consumer<String, FileUploadEvent> createDltConsumer() {
-        return consumerFactory.createConsumer(DLT_REPLAY_GROUP, null);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, dltReplayProperties.getBatchSize());
+        return consumerFactory.createConsumer(DLT_REPLAY_GROUP, null, null, overrides);
     }
 
+    /**
+     * Счётчики одного запуска: пишет поток повтора, читают запросы прогресса.
+     */
+    private static final class ReplayRun {
+
+        private final String owner;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong resent = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile DltReplayStatus status = DltReplayStatus.RUNNING;
+        private volatile Instant finishedAt;
+
+        ReplayRun(String owner) {
+            this.owner = owner;
+        }
+
+        void finish(DltReplayStatus status) {
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        DltReplayProgressResponse snapshot() {
+            return DltReplayProgressResponse.builder()
+                    .status(status)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .total(total.get())
+                    .read(read.get())
+                    .resent(resent.get())
+                    .skipped(skipped.get())
+                    .failed(failed.get())
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package org.resume.s3filemanager.validation;
+
+import org.apache.tika.detect.Detector;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.mime.MediaTypeRegistry;
+import org.apache.tika.mime.MimeTypes;
+import org.apache.tika.mime.MimeTypesFactory;
+import org.apache.tika.utils.XMLReaderUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Детектор Tika, сверяющий сигнатуры только с разрешёнными типами.
+ * <p>
+ * Полный реестр Tika проверяет каждый файл на полторы тысячи типов, хотя
+ * загрузить можно только {@link AllowedFileType}. Этот детектор строит
+ * урезанный реестр: разрешённые типы, их предки ({@code video/mp4 → video/quicktime})
+ * и все их уточнения ({@code text/plain → text/html}, {@code application/zip → application/java-archive}).
+ * Уточнения остаются, чтобы HTML под видом txt или JAR под видом zip
+ * по-прежнему определялись точно.
+ * <p>
+ * Сигнатуры несвязанных бинарных форматов в урезанном реестре отсутствуют,
+ * поэтому, например, исполняемый файл может пройти эвристику «похоже на текст».
+ * Текстовые результаты поэтому перепроверяются полным реестром — бинарные
+ * форматы (изображения, видео, архивы) его не касаются.
+ * <p>
+ * Поток должен поддерживать {@code mark/reset}.
+ */
+public class AllowedTypesDetector implements Detector {
+
+    private static final String MIME_TYPES_RESOURCE = "tika-mimetypes.xml";
+
+    private final MimeTypes allTypes;
+    private final MimeTypes allowedTypes;
+
+    public AllowedTypesDetector(MimeTypes allTypes) {
+        this.allTypes = allTypes;
+        this.allowedTypes = restrict(allTypes.getMediaTypeRegistry());
+    }
+
+    @Override
+    public MediaType detect(InputStream input, Metadata metadata) throws IOException {
+        MediaType type = allowedTypes.detect(input, metadata);
+        if (allTypes.getMediaTypeRegistry().isInstanceOf(type, MediaType.TEXT_PLAIN)) {
+            return allTypes.detect(input, metadata);
+        }
+        return type;
+    }
+
+    /**
+     * Минимальный префикс, при котором урезанный реестр видит все свои сигнатуры.
+     */
+    public int getMinLength() {
+        return allowedTypes.getMinLength();
+    }
+
+    private static MimeTypes restrict(MediaTypeRegistry registry) {
+        Set<MediaType> kept = keptTypes(registry);
+
+        try (InputStream definitions = MimeTypes.class.getResourceAsStream(MIME_TYPES_RESOURCE)) {
+            if (definitions == null) {
+                throw new IllegalStateException("Tika MIME definitions not found: " + MIME_TYPES_RESOURCE);
+            }
+            Document document = XMLReaderUtils.buildDOM(definitions);
+            NodeList mimeTypes = document.getDocumentElement().getElementsByTagName("mime-type");
+            for (int i = mimeTypes.getLength() - 1; i >= 0; i--) {
+                Element mimeType = (Element) mimeTypes.item(i);
+                MediaType type = registry.normalize(MediaType.parse(mimeType.getAttribute("type")));
+                if (!kept.contains(type)) {
+                    mimeType.getParentNode().removeChild(mimeType);
+                }
+            }
+            return MimeTypesFactory.create(document);
+        } catch (IOException | SAXException | TikaException e) {
+            throw new IllegalStateException("Failed to build restricted Tika MIME registry", e);
+        }
+    }
+
+    private static Set<MediaType> keptTypes(MediaTypeRegistry registry) {
+        Set<MediaType> allowed = new HashSet<>();
+        for (AllowedFileType fileType : AllowedFileType.values()) {
+            allowed.add(registry.normalize(MediaType.parse(fileType.getContentType())));
+        }
+
+        Set<MediaType> kept = new HashSet<>();
+        for (MediaType type : allowed) {
+            for (MediaType ancestor = type; ancestor != null; ancestor = registry.getSupertype(ancestor)) {
+                kept.add(ancestor);
+            }
+        }
+        for (MediaType type : registry.getTypes()) {
+            if (allowed.stream().anyMatch(allowedType -> registry.isSpecializationOf(type, allowedType))) {
+                kept.add(type);
+            }
+        }
+        return kept;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 
 /**
@@ -18,7 +19,7 @@ import java.util.Optional;
  * Выполняет валидацию на основе:
  * <ul>
  *   <li>Расширения и MIME-типа файла (первый уровень)</li>
- *   <li>Реальной сигнатуры файла через Apache Tika (второй уровень)</li>
+ *   <li>Реальной сигнатуры файла через Apache Tika по начальным байтам (второй уровень)</li>
  * </ul>
  * Защищает от подмены типа файла путем переименования.
  *
@@ -87,9 +88,8 @@ public class FileValidator implements ConstraintValidator<ValidFile, MultipartFi
             );
         }
 
-        try {
-            byte[] fileBytes = file.getBytes();
-            boolean isValid = tikaFileDetector.verifyContentType(fileBytes, filename, contentType);
+        try (InputStream inputStream = file.getInputStream()) {
+            boolean isValid = tikaFileDetector.verifyContentType(inputStream, filename, contentType);
 
             if (!isValid) {
                 return Optional.of(
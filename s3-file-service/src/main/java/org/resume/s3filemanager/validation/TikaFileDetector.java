@@ -1,35 +1,103 @@
 package org.resume.s3filemanager.validation;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.tika.Tika;
+import org.apache.tika.detect.Detector;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.resume.s3filemanager.properties.FileDetectionProperties;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
 /**
  * Детектор реального типа файлов на основе Apache Tika.
  * <p>
  * Анализирует магические байты (file signature) для определения
  * фактического типа файла, защищая от подмены через переименование.
+ * Сигнатура ищется только в первых {@code app.file-detection.prefix-size}
+ * байтах, поэтому проверка 30MB видео стоит столько же, сколько 10KB картинки.
+ * При старте детектор прогоняется на образцах сигнатур, чтобы первая
+ * загрузка после деплоя не платила за холодный старт.
  *
- * @see Tika
+ * @see Detector
+ * @see FileDetectionProperties
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class TikaFileDetector {
 
-    private final Tika tika;
+    private static final Map<String, byte[]> WARM_UP_SAMPLES = Map.of(
+            "warm-up.pdf", "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII),
+            "warm-up.png", new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A},
+            "warm-up.jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0},
+            "warm-up.zip", new byte[]{0x50, 0x4B, 0x03, 0x04},
+            "warm-up.txt", "warm-up".getBytes(StandardCharsets.US_ASCII)
+    );
+
+    private final Detector detector;
+    private final FileDetectionProperties properties;
+    private final int prefixSize;
+
+    public TikaFileDetector(Detector detector, FileDetectionProperties properties) {
+        this.detector = detector;
+        this.properties = properties;
+        this.prefixSize = (int) properties.getPrefixSize().toBytes();
+    }
+
+    /**
+     * Прогревает реестр MIME-типов и код детекции до приёма запросов.
+     */
+    @PostConstruct
+    void warmUp() {
+        int iterations = properties.getWarmUpIterations();
+        if (iterations == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            WARM_UP_SAMPLES.forEach((fileName, bytes) -> detect(bytes, bytes.length, fileName));
+        }
+        log.info("Tika detector warmed up: {} detections in {} ms",
+                iterations * WARM_UP_SAMPLES.size(), (System.nanoTime() - start) / 1_000_000);
+    }
 
     /**
      * Определяет реальный MIME-тип файла по его содержимому.
+     * <p>
+     * Учитываются только первые {@code prefixSize} байтов массива.
      *
      * @param fileBytes содержимое файла
      * @param fileName имя файла (используется как подсказка для Tika)
      * @return определенный MIME-тип
      */
     public String detectContentType(byte[] fileBytes, String fileName) {
-        String detectedType = tika.detect(fileBytes, fileName);
+        String detectedType = detect(fileBytes, Math.min(fileBytes.length, prefixSize), fileName);
+        log.debug("Detected content type: {} for file: {}", detectedType, fileName);
+        return detectedType;
+    }
+
+    /**
+     * Определяет реальный MIME-тип файла по начальным байтам потока.
+     * <p>
+     * Из потока читается не больше {@code prefixSize} байтов, поэтому файл
+     * целиком в память не загружается. Остаток потока не читается.
+     *
+     * @param inputStream поток с содержимым файла
+     * @param fileName имя файла (используется как подсказка для Tika)
+     * @return определенный MIME-тип
+     * @throws IOException при ошибке чтения потока
+     */
+    public String detectContentType(InputStream inputStream, String fileName) throws IOException {
+        byte[] prefix = inputStream.readNBytes(prefixSize);
+        String detectedType = detect(prefix, prefix.length, fileName);
         log.debug("Detected content type: {} for file: {}", detectedType, fileName);
         return detectedType;
     }
@@ -37,16 +105,18 @@ public class TikaFileDetector {
     /**
      * Проверяет соответствие реального типа файла заявленному.
      * <p>
-     * Сравнивает тип, определенный через Tika, с MIME-типом,
+     * Сравнивает тип, определенный через Tika по началу потока, с MIME-типом,
      * указанным клиентом, после нормализации обоих значений.
      *
-     * @param fileBytes содержимое файла
+     * @param inputStream поток с содержимым файла
      * @param fileName имя файла
      * @param declaredContentType MIME-тип, заявленный клиентом
      * @return true если типы совпадают, false при несоответствии
+     * @throws IOException при ошибке чтения потока
      */
-    public boolean verifyContentType(byte[] fileBytes, String fileName, String declaredContentType) {
-        String normalizedRealType = normalizeContentType(detectContentType(fileBytes, fileName));
+    public boolean verifyContentType(InputStream inputStream, String fileName, String declaredContentType)
+            throws IOException {
+        String normalizedRealType = normalizeContentType(detectContentType(inputStream, fileName));
         String normalizedDeclaredType = normalizeContentType(declaredContentType);
 
         if (normalizedRealType.equalsIgnoreCase(normalizedDeclaredType)) {
@@ -59,6 +129,16 @@ public class TikaFileDetector {
 
     }
 
+    private String detect(byte[] bytes, int length, String fileName) {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fileName);
+        try {
+            return detector.detect(new ByteArrayInputStream(bytes, 0, length), metadata).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unexpected IOException while reading in-memory bytes", e);
+        }
+    }
+
     private String normalizeContentType(String contentType) {
         MediaType mediaType = MediaType.parseMediaType(contentType);
         return String.format("%s/%s", mediaType.getType(), mediaType.getSubtype());
@@ -0,0 +1,15 @@
+CREATE OR REPLACE FUNCTION notify_outbox_events() RETURNS trigger AS
+$$
+BEGIN
+    PERFORM pg_notify('outbox_events', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_outbox_events_notify
+    AFTER INSERT
+    ON outbox_events
+    FOR EACH STATEMENT
+EXECUTE FUNCTION notify_outbox_events();
+
+COMMENT ON FUNCTION notify_outbox_events() IS 'Будит релей outbox: уведомление доставляется слушателям после коммита вставки';
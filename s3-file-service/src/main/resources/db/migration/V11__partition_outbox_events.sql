@@ -0,0 +1,119 @@
+ALTER TABLE outbox_events
+    RENAME TO outbox_events_legacy;
+
+DROP TRIGGER trg_outbox_events_notify ON outbox_events_legacy;
+
+CREATE TABLE outbox_events
+(
+    id            BIGINT                   NOT NULL DEFAULT nextval('outbox_events_id_seq'),
+    event_type    VARCHAR(20)              NOT NULL,
+    payload       JSONB                    NOT NULL,
+    status        VARCHAR(20)              NOT NULL DEFAULT 'PENDING',
+    retry_count   INT                      NOT NULL DEFAULT 0,
+    next_retry_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    sent_at       TIMESTAMP WITH TIME ZONE,
+    claimed_by    VARCHAR(64),
+    claimed_until TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE outbox_events_id_seq OWNED BY outbox_events.id;
+
+CREATE TABLE outbox_events_default PARTITION OF outbox_events DEFAULT;
+
+CREATE INDEX idx_outbox_events_pending ON outbox_events (next_retry_at, created_at)
+    WHERE status = 'PENDING';
+CREATE INDEX idx_outbox_events_failed ON outbox_events (created_at)
+    WHERE status = 'FAILED';
+
+COMMENT ON TABLE outbox_events IS 'Outbox таблица для гарантированной доставки событий в Kafka, секционирована по дням created_at (UTC)';
+COMMENT ON TABLE outbox_events_default IS 'Страховочная секция для событий, чей день ещё не создан; строки переносятся при создании секции';
+COMMENT ON COLUMN outbox_events.event_type IS 'Тип события: FILE_UPLOAD';
+COMMENT ON COLUMN outbox_events.payload IS 'Сериализованное событие в формате JSON';
+COMMENT ON COLUMN outbox_events.status IS 'Статус доставки: PENDING, SENT, FAILED';
+COMMENT ON COLUMN outbox_events.retry_count IS 'Количество попыток отправки';
+COMMENT ON COLUMN outbox_events.next_retry_at IS 'Время следующей попытки отправки';
+COMMENT ON COLUMN outbox_events.created_at IS 'Время создания события, ключ секционирования';
+COMMENT ON COLUMN outbox_events.sent_at IS 'Время успешной отправки в Kafka';
+COMMENT ON COLUMN outbox_events.claimed_by IS 'Экземпляр s3-file-service, взявший событие на отправку';
+COMMENT ON COLUMN outbox_events.claimed_until IS 'Срок аренды: после него событие может забрать другой экземпляр';
+
+CREATE OR REPLACE FUNCTION outbox_create_partition(day DATE) RETURNS BOOLEAN AS
+$$
+DECLARE
+    partition_name TEXT        := format('outbox_events_p%s', to_char(day, 'YYYYMMDD'));
+    range_from     TIMESTAMPTZ := day::TIMESTAMP AT TIME ZONE 'UTC';
+    range_to       TIMESTAMPTZ := (day + 1)::TIMESTAMP AT TIME ZONE 'UTC';
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('outbox_events_partitions'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE outbox_events INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM outbox_events_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved', range_from, range_to, partition_name);
+    EXECUTE format('ALTER TABLE outbox_events ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_from, range_to);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION outbox_create_partition(DATE) IS 'Создаёт секцию outbox_events за день (UTC), перенося её строки из секции по умолчанию; false — секция уже есть';
+
+CREATE OR REPLACE FUNCTION outbox_drop_sent_partitions(cutoff TIMESTAMPTZ) RETURNS SETOF TEXT AS
+$$
+DECLARE
+    partition_name TEXT;
+    range_to       TIMESTAMPTZ;
+    has_unsent     BOOLEAN;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('outbox_events_partitions'));
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'outbox_events'::REGCLASS
+          AND c.relname ~ '^outbox_events_p[0-9]{8}$'
+        ORDER BY c.relname
+        LOOP
+            range_to := (to_date(right(partition_name, 8), 'YYYYMMDD') + 1)::TIMESTAMP AT TIME ZONE 'UTC';
+            CONTINUE WHEN range_to > cutoff;
+
+            EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE status <> ''SENT'')', partition_name) INTO has_unsent;
+            IF has_unsent THEN
+                RAISE NOTICE 'Outbox partition % kept: it still has PENDING or FAILED events', partition_name;
+                CONTINUE;
+            END IF;
+
+            EXECUTE format('ALTER TABLE outbox_events DETACH PARTITION %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+            RETURN NEXT partition_name;
+        END LOOP;
+
+    DELETE FROM outbox_events_default WHERE status = 'SENT' AND created_at < cutoff;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION outbox_drop_sent_partitions(TIMESTAMPTZ) IS 'Удаляет дневные секции старше cutoff, в которых все события SENT; возвращает имена удалённых';
+
+SELECT outbox_create_partition(day::DATE)
+FROM generate_series(
+             date_trunc('day', COALESCE((SELECT min(created_at) FROM outbox_events_legacy), now()) AT TIME ZONE 'UTC'),
+             date_trunc('day', now() AT TIME ZONE 'UTC') + INTERVAL '3 days',
+             INTERVAL '1 day'
+     ) AS day;
+
+INSERT INTO outbox_events (id, event_type, payload, status, retry_count, next_retry_at, created_at, sent_at,
+                           claimed_by, claimed_until)
+SELECT id, event_type, payload, status, retry_count, next_retry_at, created_at, sent_at, claimed_by, claimed_until
+FROM outbox_events_legacy;
+
+DROP TABLE outbox_events_legacy;
+
+CREATE TRIGGER trg_outbox_events_notify
+    AFTER INSERT
+    ON outbox_events
+    FOR EACH STATEMENT
+EXECUTE FUNCTION notify_outbox_events();
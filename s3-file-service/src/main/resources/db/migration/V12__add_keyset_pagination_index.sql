@@ -0,0 +1,3 @@
+CREATE INDEX idx_file_metadata_scan_status_id ON file_metadata (scan_status, id);
+
+COMMENT ON INDEX idx_file_metadata_scan_status_id IS 'Постраничный просмотр по курсору: WHERE scan_status = ? AND id < ? ORDER BY id DESC';
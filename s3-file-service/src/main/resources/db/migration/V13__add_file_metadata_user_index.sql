@@ -0,0 +1,3 @@
+CREATE INDEX idx_file_metadata_user_id ON file_metadata (user_id);
+
+COMMENT ON INDEX idx_file_metadata_user_id IS 'Каскадное удаление пользователя: uk_file_hash_user начинается с file_hash и для поиска по user_id не подходит';
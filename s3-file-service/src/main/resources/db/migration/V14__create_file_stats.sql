@@ -0,0 +1,113 @@
+CREATE TABLE file_stats
+(
+    scan_status VARCHAR(20) NOT NULL,
+    stripe      SMALLINT    NOT NULL,
+    file_count  BIGINT      NOT NULL DEFAULT 0,
+    total_size  BIGINT      NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (scan_status, stripe)
+);
+
+COMMENT ON TABLE file_stats IS 'Счётчики file_metadata по статусам сканирования; итог по статусу — сумма по всем полосам';
+COMMENT ON COLUMN file_stats.stripe IS 'Полоса счётчика: сессия пишет в свою (pg_backend_pid() % 16), чтобы параллельные транзакции не ждали одну строку';
+COMMENT ON COLUMN file_stats.file_count IS 'Изменение количества файлов, накопленное в полосе; может быть отрицательным';
+COMMENT ON COLUMN file_stats.total_size IS 'Изменение суммарного размера файлов в байтах, накопленное в полосе; может быть отрицательным';
+
+CREATE OR REPLACE FUNCTION file_stats_track() RETURNS TRIGGER AS
+$$
+DECLARE
+    target_stripe SMALLINT := pg_backend_pid() % 16;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO file_stats (scan_status, stripe, file_count, total_size)
+        SELECT scan_status, target_stripe, count(*), sum(size)
+        FROM new_rows
+        GROUP BY scan_status
+        ORDER BY scan_status
+        ON CONFLICT (scan_status, stripe) DO UPDATE
+            SET file_count = file_stats.file_count + EXCLUDED.file_count,
+                total_size = file_stats.total_size + EXCLUDED.total_size;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO file_stats (scan_status, stripe, file_count, total_size)
+        SELECT scan_status, target_stripe, -count(*), -sum(size)
+        FROM old_rows
+        GROUP BY scan_status
+        ORDER BY scan_status
+        ON CONFLICT (scan_status, stripe) DO UPDATE
+            SET file_count = file_stats.file_count + EXCLUDED.file_count,
+                total_size = file_stats.total_size + EXCLUDED.total_size;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO file_stats (scan_status, stripe, file_count, total_size)
+        SELECT scan_status, target_stripe, sum(file_count), sum(total_size)
+        FROM (SELECT scan_status, 1 AS file_count, size AS total_size FROM new_rows
+              UNION ALL
+              SELECT scan_status, -1, -size FROM old_rows) delta
+        GROUP BY scan_status
+        HAVING sum(file_count) <> 0 OR sum(total_size) <> 0
+        ORDER BY scan_status
+        ON CONFLICT (scan_status, stripe) DO UPDATE
+            SET file_count = file_stats.file_count + EXCLUDED.file_count,
+                total_size = file_stats.total_size + EXCLUDED.total_size;
+    ELSE
+        DELETE FROM file_stats;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION file_stats_track() IS 'Переносит изменения file_metadata в file_stats одним UPSERT на оператор, в той же транзакции';
+
+CREATE TRIGGER file_stats_on_insert
+    AFTER INSERT ON file_metadata
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION file_stats_track();
+
+CREATE TRIGGER file_stats_on_update
+    AFTER UPDATE ON file_metadata
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION file_stats_track();
+
+CREATE TRIGGER file_stats_on_delete
+    AFTER DELETE ON file_metadata
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION file_stats_track();
+
+CREATE TRIGGER file_stats_on_truncate
+    AFTER TRUNCATE ON file_metadata
+    FOR EACH STATEMENT EXECUTE FUNCTION file_stats_track();
+
+CREATE OR REPLACE FUNCTION file_stats_reconcile() RETURNS INTEGER AS
+$$
+DECLARE
+    corrected INTEGER;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('file_stats_reconcile'));
+
+    WITH actual AS (SELECT scan_status, count(*) AS file_count, coalesce(sum(size), 0) AS total_size
+                    FROM file_metadata
+                    GROUP BY scan_status),
+         tracked AS (SELECT scan_status, sum(file_count) AS file_count, sum(total_size) AS total_size
+                     FROM file_stats
+                     GROUP BY scan_status),
+         drift AS (SELECT scan_status,
+                          coalesce(a.file_count, 0) - coalesce(t.file_count, 0) AS file_count,
+                          coalesce(a.total_size, 0) - coalesce(t.total_size, 0) AS total_size
+                   FROM actual a
+                            FULL JOIN tracked t USING (scan_status))
+    INSERT INTO file_stats (scan_status, stripe, file_count, total_size)
+    SELECT scan_status, 0, file_count, total_size
+    FROM drift
+    WHERE file_count <> 0 OR total_size <> 0
+    ORDER BY scan_status
+    ON CONFLICT (scan_status, stripe) DO UPDATE
+        SET file_count = file_stats.file_count + EXCLUDED.file_count,
+            total_size = file_stats.total_size + EXCLUDED.total_size;
+
+    GET DIAGNOSTICS corrected = ROW_COUNT;
+    RETURN corrected;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION file_stats_reconcile() IS 'Пересчитывает file_metadata и добавляет расхождение в полосу 0; возвращает число исправленных статусов. Расхождение считается по одному снимку, поэтому параллельные изменения не искажают поправку';
+
+SELECT file_stats_reconcile();
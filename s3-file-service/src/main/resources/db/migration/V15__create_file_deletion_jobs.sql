@@ -0,0 +1,25 @@
+CREATE TABLE file_deletion_jobs
+(
+    id              BIGSERIAL PRIMARY KEY,
+    scan_status     VARCHAR(20)              NOT NULL,
+    status          VARCHAR(20)              NOT NULL DEFAULT 'RUNNING',
+    last_file_id    BIGINT                   NOT NULL DEFAULT 0,
+    deleted_files   BIGINT                   NOT NULL DEFAULT 0,
+    deleted_objects BIGINT                   NOT NULL DEFAULT 0,
+    failed_objects  BIGINT                   NOT NULL DEFAULT 0,
+    error_message   VARCHAR(1024),
+    heartbeat_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at     TIMESTAMP WITH TIME ZONE
+);
+
+CREATE UNIQUE INDEX uk_file_deletion_jobs_running ON file_deletion_jobs (scan_status)
+    WHERE status = 'RUNNING';
+
+COMMENT ON TABLE file_deletion_jobs IS 'Фоновые задачи массового удаления файлов по статусу сканирования';
+COMMENT ON COLUMN file_deletion_jobs.scan_status IS 'Статус сканирования удаляемых файлов';
+COMMENT ON COLUMN file_deletion_jobs.status IS 'Состояние задачи: RUNNING, COMPLETED, FAILED; RUNNING — не больше одной на статус сканирования';
+COMMENT ON COLUMN file_deletion_jobs.last_file_id IS 'Все файлы с id до этого значения обработаны; после перезапуска задача продолжает отсюда';
+COMMENT ON COLUMN file_deletion_jobs.deleted_objects IS 'Объекты S3, удалённые вместе с последней ссылкой';
+COMMENT ON COLUMN file_deletion_jobs.failed_objects IS 'Объекты S3, которые не удалось удалить; метаданные уже удалены, объекты остаются в бакете';
+COMMENT ON COLUMN file_deletion_jobs.heartbeat_at IS 'Последний признак жизни исполнителя; задачу с устаревшим значением забирает другой экземпляр';
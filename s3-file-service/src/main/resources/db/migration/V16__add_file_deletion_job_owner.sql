@@ -0,0 +1,4 @@
+ALTER TABLE file_deletion_jobs
+    ADD COLUMN claimed_by VARCHAR(64);
+
+COMMENT ON COLUMN file_deletion_jobs.claimed_by IS 'Токен исполнителя, который сейчас ведёт задачу; прогресс и завершение записывает только он';
@@ -0,0 +1,10 @@
+CREATE TABLE job_leases
+(
+    name         VARCHAR(64) PRIMARY KEY,
+    owner        VARCHAR(64)              NOT NULL,
+    leased_until TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+COMMENT ON TABLE job_leases IS 'Аренды фоновых задач, которые во всём кластере должны идти не больше чем в одном экземпляре';
+COMMENT ON COLUMN job_leases.owner IS 'Токен запуска, держащего аренду';
+COMMENT ON COLUMN job_leases.leased_until IS 'Срок аренды: владелец продлевает его по ходу работы, после истечения аренду может взять другой экземпляр';
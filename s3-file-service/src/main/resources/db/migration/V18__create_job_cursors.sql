@@ -0,0 +1,8 @@
+CREATE TABLE job_cursors
+(
+    name    VARCHAR(64) PRIMARY KEY,
+    last_id BIGINT NOT NULL
+);
+
+COMMENT ON TABLE job_cursors IS 'Курсоры фоновых задач, обходящих таблицы по возрастанию id: переживают рестарт и переход задачи на другой экземпляр';
+COMMENT ON COLUMN job_cursors.last_id IS 'Последний обработанный id, следующая пачка начинается после него';
@@ -0,0 +1,24 @@
+CREATE OR REPLACE FUNCTION outbox_create_partition(day DATE) RETURNS BOOLEAN AS
+$$
+DECLARE
+    partition_name TEXT        := format('outbox_events_p%s', to_char(day, 'YYYYMMDD'));
+    range_from     TIMESTAMPTZ := day::TIMESTAMP AT TIME ZONE 'UTC';
+    range_to       TIMESTAMPTZ := (day + 1)::TIMESTAMP AT TIME ZONE 'UTC';
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('outbox_events_partitions'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    LOCK TABLE outbox_events IN SHARE ROW EXCLUSIVE MODE;
+
+    EXECUTE format('CREATE TABLE %I (LIKE outbox_events INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM outbox_events_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved', range_from, range_to, partition_name);
+    EXECUTE format('ALTER TABLE outbox_events ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_from, range_to);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION outbox_create_partition(DATE) IS 'Создаёт секцию outbox_events за день (UTC), перенося её строки из секции по умолчанию; false — секция уже есть. На время переноса и ATTACH запись в outbox_events блокируется, иначе строка дня, вставленная между ними в секцию по умолчанию, сорвёт ATTACH';
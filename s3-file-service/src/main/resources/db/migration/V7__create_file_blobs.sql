@@ -0,0 +1,36 @@
+CREATE TABLE IF NOT EXISTS file_blobs
+(
+    id           BIGSERIAL PRIMARY KEY,
+    content_hash VARCHAR(64) UNIQUE,
+    storage_key  VARCHAR(64) NOT NULL UNIQUE,
+    size         BIGINT      NOT NULL,
+    scan_status  VARCHAR(20) NOT NULL DEFAULT 'PENDING_SCAN',
+    ref_count    INT         NOT NULL DEFAULT 1
+);
+
+COMMENT ON TABLE file_blobs IS 'Физические объекты в S3, общие для всех файлов с одинаковым содержимым';
+COMMENT ON COLUMN file_blobs.content_hash IS 'SHA-256 содержимого; NULL для объектов, загруженных до дедупликации';
+COMMENT ON COLUMN file_blobs.storage_key IS 'Ключ объекта в S3';
+COMMENT ON COLUMN file_blobs.scan_status IS 'Вердикт антивируса для содержимого (PENDING_SCAN, CLEAN, INFECTED, ERROR)';
+COMMENT ON COLUMN file_blobs.ref_count IS 'Количество записей file_metadata, ссылающихся на объект';
+
+ALTER TABLE file_metadata
+    ADD COLUMN blob_id BIGINT;
+
+INSERT INTO file_blobs (storage_key, size, scan_status, ref_count)
+SELECT unique_name, size, scan_status, 1
+FROM file_metadata;
+
+UPDATE file_metadata f
+SET blob_id = b.id
+FROM file_blobs b
+WHERE b.storage_key = f.unique_name;
+
+ALTER TABLE file_metadata
+    ALTER COLUMN blob_id SET NOT NULL,
+    ADD CONSTRAINT fk_file_metadata_blob
+        FOREIGN KEY (blob_id) REFERENCES file_blobs (id);
+
+CREATE INDEX idx_file_metadata_blob_id ON file_metadata (blob_id);
+
+COMMENT ON COLUMN file_metadata.blob_id IS 'Общий объект S3 с содержимым файла';
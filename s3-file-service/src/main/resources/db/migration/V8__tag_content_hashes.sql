@@ -0,0 +1,20 @@
+ALTER TABLE file_metadata
+    ALTER COLUMN file_hash TYPE VARCHAR(80);
+
+ALTER TABLE file_blobs
+    ALTER COLUMN content_hash TYPE VARCHAR(80);
+
+UPDATE file_metadata
+SET file_hash = 'md5:' || file_hash
+WHERE file_hash NOT LIKE '%:%';
+
+UPDATE file_blobs
+SET content_hash = 'sha256:' || content_hash
+WHERE content_hash IS NOT NULL
+  AND content_hash NOT LIKE '%:%';
+
+CREATE INDEX idx_file_metadata_legacy_hash ON file_metadata (id)
+    WHERE file_hash LIKE 'md5:%';
+
+COMMENT ON COLUMN file_metadata.file_hash IS 'Хеш содержимого с тегом алгоритма: md5:, sha256:, tree-sha256:';
+COMMENT ON COLUMN file_blobs.content_hash IS 'Хеш содержимого с тегом алгоритма; NULL для объектов, ещё не прошедших перехеширование';
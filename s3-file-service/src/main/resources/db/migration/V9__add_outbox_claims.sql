@@ -0,0 +1,6 @@
+ALTER TABLE outbox_events
+    ADD COLUMN claimed_by    VARCHAR(64),
+    ADD COLUMN claimed_until TIMESTAMP WITH TIME ZONE;
+
+COMMENT ON COLUMN outbox_events.claimed_by IS 'Экземпляр s3-file-service, взявший событие на отправку';
+COMMENT ON COLUMN outbox_events.claimed_until IS 'Срок аренды: после него событие может забрать другой экземпляр';
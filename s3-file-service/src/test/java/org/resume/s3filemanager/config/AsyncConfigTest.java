@@ -0,0 +1,65 @@
+package org.resume.s3filemanager.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.constant.MdcConstants;
+import org.resume.s3filemanager.properties.FileUploadProperties;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AsyncConfig — передача контекста в виртуальные потоки")
+class AsyncConfigTest {
+
+    private final AsyncConfig asyncConfig = new AsyncConfig();
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * @Async executor в режиме виртуальных потоков — задача видит MDC вызывающего потока.
+     */
+    @Test
+    void shouldPropagateMdc_whenAsyncExecutorRunsOnVirtualThreads() throws Exception {
+        Executor executor = asyncConfig.virtualAsyncExecutor();
+        MDC.put(MdcConstants.REQUEST_ID, "req-42");
+
+        CompletableFuture<String[]> observed = CompletableFuture.supplyAsync(() -> new String[]{
+                MDC.get(MdcConstants.REQUEST_ID),
+                String.valueOf(Thread.currentThread().isVirtual())
+        }, executor);
+
+        assertThat(observed.get(5, TimeUnit.SECONDS)).containsExactly("req-42", "true");
+    }
+
+    /**
+     * Executor пакетной загрузки — задача видит MDC и SecurityContext запроса.
+     */
+    @Test
+    void shouldPropagateMdcAndSecurityContext_toBatchUploadThreads() throws Exception {
+        TaskExecutor executor = asyncConfig.batchUploadExecutor(new FileUploadProperties(5, 4));
+        Authentication admin = new UsernamePasswordAuthenticationToken("admin", null);
+        SecurityContextHolder.getContext().setAuthentication(admin);
+        MDC.put(MdcConstants.USERNAME, "admin");
+
+        CompletableFuture<Object[]> observed = CompletableFuture.supplyAsync(() -> new Object[]{
+                MDC.get(MdcConstants.USERNAME),
+                SecurityContextHolder.getContext().getAuthentication(),
+                Thread.currentThread().isVirtual()
+        }, executor);
+
+        assertThat(observed.get(5, TimeUnit.SECONDS)).containsExactly("admin", admin, true);
+    }
+}
@@ -0,0 +1,41 @@
+package org.resume.s3filemanager.config;
+
+import org.apache.tika.detect.Detector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.properties.FileDetectionProperties;
+import org.resume.s3filemanager.validation.AllowedTypesDetector;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TikaConfig — детектор типов и размер префикса")
+class TikaConfigTest {
+
+    /**
+     * Префикс по умолчанию покрывает сигнатуры урезанного реестра.
+     */
+    @Test
+    void shouldCreateAllowedTypesDetector_whenPrefixCoversSignatures() {
+        Detector detector = tikaConfig(DataSize.ofKilobytes(64), true).fileTypeDetector();
+
+        assertThat(detector).isInstanceOf(AllowedTypesDetector.class);
+    }
+
+    /**
+     * Префикс короче, чем нужно детектору, — приложение не стартует.
+     */
+    @Test
+    void shouldFailFast_whenPrefixShorterThanDetectorNeeds() {
+        assertThatThrownBy(() -> tikaConfig(DataSize.ofKilobytes(1), true).fileTypeDetector())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("prefix-size");
+        assertThatThrownBy(() -> tikaConfig(DataSize.ofKilobytes(1), false).fileTypeDetector())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private TikaConfig tikaConfig(DataSize prefixSize, boolean restrictToAllowedTypes) {
+        return new TikaConfig(new FileDetectionProperties(prefixSize, restrictToAllowedTypes, 0));
+    }
+}
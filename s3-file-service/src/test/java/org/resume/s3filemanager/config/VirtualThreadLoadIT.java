@@ -0,0 +1,202 @@
+package org.resume.s3filemanager.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.service.file.YandexStorageService;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatVirtualThreadsWebServerFactoryCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный тест режима виртуальных потоков.
+ * <p>
+ * Поднимает embedded Tomcat дважды — с пулом платформенных потоков и с
+ * виртуальными потоками (тем же customizer'ом, что включает
+ * {@code spring.threads.virtual.enabled}) — и отправляет одинаковую пачку
+ * одновременных скачиваний через {@link YandexStorageService} с медленным S3.
+ * Пропускная способность и p95 задержки выводятся в лог.
+ */
+@Slf4j
+@DisplayName("Virtual threads — пропускная способность при медленном S3")
+class VirtualThreadLoadIT {
+
+    private static final int CONCURRENT_REQUESTS = 400;
+    private static final int WARM_UP_REQUESTS = 50;
+    private static final int PLATFORM_MAX_THREADS = 50;
+    private static final Duration S3_LATENCY = Duration.ofMillis(500);
+    private static final byte[] PAYLOAD = new byte[16 * 1024];
+
+    /**
+     * При блокировке на S3 виртуальные потоки не упираются в maxThreads:
+     * пропускная способность кратно выше, p95 задержки ниже.
+     */
+    @Test
+    void shouldServeSlowS3DownloadsFaster_whenTomcatUsesVirtualThreads() throws Exception {
+        LoadResult platform = runLoad(false);
+        LoadResult virtual = runLoad(true);
+
+        log.info("Platform threads (maxThreads={}): {}", PLATFORM_MAX_THREADS, platform);
+        log.info("Virtual threads: {}", virtual);
+
+        assertThat(platform.failures()).isZero();
+        assertThat(virtual.failures()).isZero();
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput() * 2);
+        assertThat(virtual.p95Millis()).isLessThan(platform.p95Millis());
+    }
+
+    private LoadResult runLoad(boolean virtualThreads) throws Exception {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        factory.addConnectorCustomizers(connector -> {
+            AbstractProtocol<?> protocol = (AbstractProtocol<?>) connector.getProtocolHandler();
+            protocol.setMaxThreads(PLATFORM_MAX_THREADS);
+            protocol.setAcceptCount(CONCURRENT_REQUESTS);
+        });
+        if (virtualThreads) {
+            new TomcatVirtualThreadsWebServerFactoryCustomizer().customize(factory);
+        }
+
+        YandexStorageService storageService = slowStorageService();
+        WebServer server = factory.getWebServer(context -> context
+                .addServlet("download", new DownloadServlet(storageService))
+                .addMapping("/files/*"));
+        server.start();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            fire(clients, server.getPort(), WARM_UP_REQUESTS);
+            return fire(clients, server.getPort(), CONCURRENT_REQUESTS);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private LoadResult fire(ExecutorService clients, int port, int requestCount) {
+        long started = System.nanoTime();
+        List<Future<Long>> requests = new ArrayList<>();
+
+        for (int i = 0; i < requestCount; i++) {
+            URI uri = URI.create("http://localhost:" + port + "/files/file-" + i + ".bin");
+            requests.add(clients.submit(() -> download(uri)));
+        }
+
+        List<Long> latencies = requests.stream().map(this::await).toList();
+        double elapsedSeconds = Duration.ofNanos(System.nanoTime() - started).toMillis() / 1000.0;
+
+        List<Long> succeeded = latencies.stream().filter(latency -> latency >= 0).sorted().toList();
+        long p95 = succeeded.isEmpty() ? Long.MAX_VALUE : succeeded.get((int) (succeeded.size() * 0.95) - 1);
+
+        return new LoadResult(
+                succeeded.size() / elapsedSeconds,
+                p95,
+                latencies.size() - succeeded.size()
+        );
+    }
+
+    private long download(URI uri) throws IOException {
+        long sent = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try (InputStream body = connection.getInputStream()) {
+            int length = body.readAllBytes().length;
+            return connection.getResponseCode() == 200 && length == PAYLOAD.length
+                    ? Duration.ofNanos(System.nanoTime() - sent).toMillis()
+                    : -1L;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private long await(Future<Long> request) {
+        try {
+            return request.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1L;
+        } catch (ExecutionException e) {
+            return -1L;
+        }
+    }
+
+    private YandexStorageService slowStorageService() {
+        YandexStorageProperties properties = new YandexStorageProperties();
+        properties.setBucketName("load-test-bucket");
+        return new YandexStorageService(new SlowS3Client(), properties, null);
+    }
+
+    private record LoadResult(double throughput, long p95Millis, long failures) {
+
+        @Override
+        public String toString() {
+            return String.format("throughput=%.1f req/s, p95=%d ms, failures=%d", throughput, p95Millis, failures);
+        }
+    }
+
+    private static final class DownloadServlet extends HttpServlet {
+
+        private final transient YandexStorageService storageService;
+
+        private DownloadServlet(YandexStorageService storageService) {
+            this.storageService = storageService;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            try (ResponseInputStream<GetObjectResponse> content =
+                         storageService.openFileStreamYandexS3(request.getPathInfo().substring(1), null)) {
+                response.setContentLengthLong(content.response().contentLength());
+                content.transferTo(response.getOutputStream());
+            }
+        }
+    }
+
+    /**
+     * Заглушка S3, отвечающая на GetObject с фиксированной сетевой задержкой.
+     */
+    private static final class SlowS3Client implements S3Client {
+
+        @Override
+        public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+            try {
+                Thread.sleep(S3_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ResponseInputStream<>(
+                    GetObjectResponse.builder().contentLength((long) PAYLOAD.length).build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(PAYLOAD)));
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
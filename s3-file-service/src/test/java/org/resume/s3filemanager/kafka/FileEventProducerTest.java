@@ -10,9 +10,11 @@ import org.resume.common.model.FileUploadEvent;
 import org.resume.common.properties.KafkaProperties;
 import org.resume.s3filemanager.service.kafka.FileEventProducer;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
 import java.util.concurrent.CompletableFuture;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -62,4 +64,15 @@ class FileEventProducerTest {
 
         verify(kafkaTemplate).send(eq(TOPIC), eq("1"), eq(event));
     }
+
+    /**
+     * Асинхронная отправка не ждёт подтверждения и возвращает future KafkaTemplate.
+     */
+    @Test
+    void shouldReturnPendingFuture_whenSendingAsync() {
+        CompletableFuture<SendResult<String, FileUploadEvent>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, "1", event)).thenReturn(pending);
+
+        assertThat(fileEventProducer.sendFileUploadEventAsync(event)).isSameAs(pending);
+    }
 }
\ No newline at end of file
@@ -6,11 +6,13 @@ import org.junit.jupiter.api.Test;
 import org.resume.common.model.FileScanResult;
 import org.resume.common.model.ScanStatus;
 import org.resume.s3filemanager.BaseIntegrationTest;
+import org.resume.s3filemanager.entity.FileBlob;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.FileUploadStatus;
 import org.resume.s3filemanager.enums.UserRole;
 import org.resume.s3filemanager.enums.UserStatus;
+import org.resume.s3filemanager.repository.FileBlobRepository;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
 import org.resume.s3filemanager.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +34,9 @@ class FileScanResultConsumerIT extends BaseIntegrationTest {
     @Autowired
     private FileMetadataRepository fileMetadataRepository;
 
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -44,6 +49,7 @@ class FileScanResultConsumerIT extends BaseIntegrationTest {
     @BeforeEach
     void setUp() {
         fileMetadataRepository.deleteAll();
+        fileBlobRepository.deleteAll();
         userRepository.deleteAll();
 
         uniqueName = FAKER.internet().uuid() + ".pdf";
@@ -56,6 +62,12 @@ class FileScanResultConsumerIT extends BaseIntegrationTest {
         user.setStatus(UserStatus.ACTIVE);
         user = userRepository.save(user);
 
+        FileBlob blob = fileBlobRepository.save(FileBlob.builder()
+                .contentHash(FAKER.internet().uuid())
+                .storageKey(uniqueName)
+                .size(FAKER.number().randomNumber())
+                .build());
+
         fileMetadata = fileMetadataRepository.save(FileMetadata.builder()
                 .uniqueName(uniqueName)
                 .originalName(FAKER.file().fileName())
@@ -64,6 +76,7 @@ class FileScanResultConsumerIT extends BaseIntegrationTest {
                 .fileHash(FAKER.internet().uuid())
                 .scanStatus(ScanStatus.PENDING_SCAN)
                 .user(user)
+                .blob(blob)
                 .build());
     }
 
@@ -99,6 +112,8 @@ class FileScanResultConsumerIT extends BaseIntegrationTest {
         await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
             FileMetadata updated = fileMetadataRepository.findByUniqueName(uniqueName).orElseThrow();
             assertThat(updated.getScanStatus()).isEqualTo(ScanStatus.INFECTED);
+            assertThat(fileBlobRepository.findByStorageKey(uniqueName).orElseThrow().getScanStatus())
+                    .isEqualTo(ScanStatus.INFECTED);
         });
     }
 }
\ No newline at end of file
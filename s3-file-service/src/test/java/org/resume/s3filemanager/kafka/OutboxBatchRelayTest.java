@@ -0,0 +1,178 @@
+package org.resume.s3filemanager.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.s3filemanager.entity.OutboxEvent;
+import org.resume.s3filemanager.enums.OutboxEventType;
+import org.resume.s3filemanager.properties.OutboxProperties;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.resume.s3filemanager.service.kafka.FileEventProducer;
+import org.resume.s3filemanager.service.kafka.OutboxBatchRelay;
+import org.springframework.kafka.KafkaException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxBatchRelayTest {
+
+    private static final Faker FAKER = new Faker();
+    private static final int MAX_RETRY_COUNT = 3;
+    private static final long BASE_BACKOFF_MINUTES = 5;
+    private static final String INSTANCE_ID = "instance-1";
+
+    @Mock
+    private FileEventProducer fileEventProducer;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private OutboxProperties outboxProperties;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @InjectMocks
+    private OutboxBatchRelay outboxBatchRelay;
+
+    @BeforeEach
+    void setUp() {
+        when(outboxProperties.getMaxInFlight()).thenReturn(10);
+        when(outboxProperties.getInstanceId()).thenReturn(INSTANCE_ID);
+    }
+
+    /**
+     * Все отправки подтверждены — пачка помечается SENT одним UPDATE, backoff не вызывается.
+     */
+    @Test
+    void shouldMarkWholeBatchSent_whenAllSendsSucceed() throws JsonProcessingException {
+        OutboxEvent first = outboxEvent(1L);
+        OutboxEvent second = outboxEvent(2L);
+        stubPayload(first, fileUploadEvent());
+        stubPayload(second, fileUploadEvent());
+        when(fileEventProducer.sendFileUploadEventAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxBatchRelay.relay(List.of(first, second));
+
+        verify(fileEventProducer, times(2)).sendFileUploadEventAsync(any());
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), eq(INSTANCE_ID), any(Instant.class));
+        verify(outboxRepository, never()).scheduleRetry(any(), any(), any(), anyInt(), anyLong());
+    }
+
+    /**
+     * Ошибка брокера, ошибка отправки и битый payload — эти события уходят
+     * в один backoff UPDATE, успешное помечается SENT.
+     */
+    @Test
+    void shouldScheduleRetryForFailures_andMarkRestSent() throws JsonProcessingException {
+        OutboxEvent sent = outboxEvent(1L);
+        OutboxEvent rejected = outboxEvent(2L);
+        OutboxEvent thrown = outboxEvent(3L);
+        OutboxEvent corrupted = outboxEvent(4L);
+
+        FileUploadEvent sentEvent = fileUploadEvent();
+        FileUploadEvent rejectedEvent = fileUploadEvent();
+        FileUploadEvent thrownEvent = fileUploadEvent();
+        stubPayload(sent, sentEvent);
+        stubPayload(rejected, rejectedEvent);
+        stubPayload(thrown, thrownEvent);
+        when(objectMapper.readValue(corrupted.getPayload(), FileUploadEvent.class))
+                .thenThrow(new JsonProcessingException("error") {});
+
+        when(fileEventProducer.sendFileUploadEventAsync(sentEvent)).thenReturn(CompletableFuture.completedFuture(null));
+        when(fileEventProducer.sendFileUploadEventAsync(rejectedEvent))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker unavailable")));
+        when(fileEventProducer.sendFileUploadEventAsync(thrownEvent)).thenThrow(new KafkaException("buffer full"));
+        when(outboxProperties.getMaxRetryCount()).thenReturn(MAX_RETRY_COUNT);
+        when(outboxProperties.getBaseBackoffMinutes()).thenReturn(BASE_BACKOFF_MINUTES);
+
+        outboxBatchRelay.relay(List.of(sent, rejected, thrown, corrupted));
+
+        verify(outboxRepository).markSent(eq(List.of(1L)), eq(INSTANCE_ID), any(Instant.class));
+        verify(outboxRepository).scheduleRetry(
+                eq(List.of(4L, 2L, 3L)), eq(INSTANCE_ID), any(Instant.class), eq(MAX_RETRY_COUNT), eq(BASE_BACKOFF_MINUTES));
+    }
+
+    /**
+     * Отправки запускаются до ожидания первой: все события пачки уходят
+     * в producer, хотя ни одно ещё не подтверждено.
+     */
+    @Test
+    void shouldStartAllSends_beforeAwaitingAcknowledgements() throws JsonProcessingException {
+        OutboxEvent first = outboxEvent(1L);
+        OutboxEvent second = outboxEvent(2L);
+        stubPayload(first, fileUploadEvent());
+        stubPayload(second, fileUploadEvent());
+
+        CompletableFuture<Void> acknowledged = new CompletableFuture<>();
+        when(fileEventProducer.sendFileUploadEventAsync(any())).thenAnswer(invocation -> {
+            if (mockingDetails(fileEventProducer).getInvocations().size() == 2) {
+                acknowledged.complete(null);
+            }
+            return acknowledged;
+        });
+
+        outboxBatchRelay.relay(List.of(first, second));
+
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), eq(INSTANCE_ID), any(Instant.class));
+    }
+
+    /**
+     * Слот для отправки не получен — с неотправленных событий снимается аренда,
+     * счётчик попыток не трогается.
+     */
+    @Test
+    void shouldReleaseClaims_whenNoSendSlotAcquired() throws JsonProcessingException {
+        OutboxEvent first = outboxEvent(1L);
+        OutboxEvent second = outboxEvent(2L);
+        stubPayload(first, fileUploadEvent());
+
+        Thread.currentThread().interrupt();
+        try {
+            outboxBatchRelay.relay(List.of(first, second));
+        } finally {
+            Thread.interrupted();
+        }
+
+        verifyNoInteractions(fileEventProducer);
+        verify(outboxRepository).releaseClaims(List.of(1L, 2L), INSTANCE_ID);
+        verify(outboxRepository, never()).markSent(any(), any(), any());
+        verify(outboxRepository, never()).scheduleRetry(any(), any(), any(), anyInt(), anyLong());
+    }
+
+    private OutboxEvent outboxEvent(Long id) {
+        OutboxEvent event = new OutboxEvent(OutboxEventType.FILE_UPLOAD,
+                "{\"fileId\":" + FAKER.number().randomNumber() + ",\"id\":" + id + "}");
+        event.setId(id);
+        return event;
+    }
+
+    private FileUploadEvent fileUploadEvent() {
+        return FileUploadEvent.builder()
+                .fileId(FAKER.number().randomNumber())
+                .userId(FAKER.number().randomNumber())
+                .s3Key(FAKER.internet().uuid() + ".pdf")
+                .bucketName(FAKER.internet().slug())
+                .originalFileName(FAKER.file().fileName(null, null, "pdf", null))
+                .build();
+    }
+
+    private void stubPayload(OutboxEvent event, FileUploadEvent fileUploadEvent) throws JsonProcessingException {
+        when(objectMapper.readValue(event.getPayload(), FileUploadEvent.class)).thenReturn(fileUploadEvent);
+    }
+}
@@ -0,0 +1,130 @@
+package org.resume.s3filemanager.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.resume.s3filemanager.entity.OutboxEvent;
+import org.resume.s3filemanager.enums.OutboxEventType;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxClaimIT extends BaseIntegrationTest {
+
+    private static final int EVENT_COUNT = 200;
+    private static final int INSTANCE_COUNT = 4;
+    private static final int BATCH_SIZE = 20;
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            outboxRepository.save(new OutboxEvent(OutboxEventType.FILE_UPLOAD, "{\"fileId\":" + i + "}"));
+        }
+    }
+
+    /**
+     * Несколько экземпляров забирают события одновременно — каждое событие
+     * достаётся ровно одному, вместе они разбирают весь outbox.
+     */
+    @Test
+    void shouldClaimEachEventOnce_whenInstancesClaimConcurrently() throws Exception {
+        Instant now = Instant.now().plusSeconds(1);
+        ExecutorService instances = Executors.newFixedThreadPool(INSTANCE_COUNT);
+        List<Future<List<OutboxEvent>>> claims = new ArrayList<>();
+
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            String owner = "instance-" + i;
+            claims.add(instances.submit(() -> {
+                List<OutboxEvent> claimed = new ArrayList<>();
+                List<OutboxEvent> batch;
+                while (!(batch = outboxRepository.claimPendingEvents(owner, now, now.plus(LEASE), BATCH_SIZE)).isEmpty()) {
+                    claimed.addAll(batch);
+                }
+                return claimed;
+            }));
+        }
+
+        Set<Long> claimedIds = new HashSet<>();
+        int total = 0;
+        for (Future<List<OutboxEvent>> claim : claims) {
+            for (OutboxEvent event : claim.get()) {
+                claimedIds.add(event.getId());
+                total++;
+            }
+        }
+        instances.shutdown();
+
+        assertThat(total).isEqualTo(EVENT_COUNT);
+        assertThat(claimedIds).hasSize(EVENT_COUNT);
+    }
+
+    /**
+     * Экземпляр упал, не отправив события, — после истечения аренды их
+     * забирает другой экземпляр в порядке создания.
+     */
+    @Test
+    void shouldReclaimEvents_whenLeaseOfCrashedInstanceExpires() {
+        Instant now = Instant.now().plusSeconds(1);
+        outboxRepository.claimPendingEvents("crashed", now, now.plus(LEASE), EVENT_COUNT);
+
+        assertThat(outboxRepository.claimPendingEvents("survivor", now, now.plus(LEASE), BATCH_SIZE)).isEmpty();
+
+        Instant afterLease = now.plus(LEASE).plusSeconds(1);
+        List<OutboxEvent> reclaimed = outboxRepository.claimPendingEvents(
+                "survivor", afterLease, afterLease.plus(LEASE), BATCH_SIZE);
+
+        assertThat(reclaimed).hasSize(BATCH_SIZE);
+        assertThat(reclaimed).allMatch(event -> "survivor".equals(event.getClaimedBy()));
+        assertThat(reclaimed).isSortedAccordingTo(Comparator.comparing(OutboxEvent::getCreatedAt));
+    }
+
+    /**
+     * Отправленное событие больше не забирается, даже после истечения аренды.
+     */
+    @Test
+    void shouldNotReclaimSentEvents() {
+        Instant now = Instant.now().plusSeconds(1);
+        List<OutboxEvent> claimed = outboxRepository.claimPendingEvents("instance-0", now, now.plus(LEASE), EVENT_COUNT);
+
+        outboxRepository.markSent(claimed.stream().map(OutboxEvent::getId).toList(), "instance-0", now);
+
+        Instant afterLease = now.plus(LEASE).plusSeconds(1);
+        assertThat(outboxRepository.claimPendingEvents("instance-1", afterLease, afterLease.plus(LEASE), EVENT_COUNT))
+                .isEmpty();
+    }
+
+    /**
+     * Экземпляр, чья аренда истекла, не перезаписывает события, которые уже забрал другой.
+     */
+    @Test
+    void shouldIgnoreUpdates_whenLeaseTakenOver() {
+        Instant now = Instant.now().plusSeconds(1);
+        List<Long> ids = outboxRepository.claimPendingEvents("slow", now, now.plus(LEASE), EVENT_COUNT).stream()
+                .map(OutboxEvent::getId)
+                .toList();
+
+        Instant afterLease = now.plus(LEASE).plusSeconds(1);
+        outboxRepository.claimPendingEvents("survivor", afterLease, afterLease.plus(LEASE), EVENT_COUNT);
+
+        assertThat(outboxRepository.markSent(ids, "slow", afterLease)).isZero();
+        assertThat(outboxRepository.scheduleRetry(ids, "slow", afterLease, 3, 5)).isZero();
+        assertThat(outboxRepository.markSent(ids, "survivor", afterLease)).isEqualTo(ids.size());
+    }
+}
@@ -12,7 +12,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.model.FileUploadEvent;
 import org.resume.s3filemanager.entity.OutboxEvent;
 import org.resume.s3filemanager.enums.OutboxEventType;
-import org.resume.s3filemanager.enums.OutboxStatus;
 import org.resume.s3filemanager.exception.KafkaSendException;
 import org.resume.s3filemanager.properties.OutboxProperties;
 import org.resume.s3filemanager.repository.OutboxRepository;
@@ -20,9 +19,11 @@ import org.resume.s3filemanager.service.kafka.FileEventProducer;
 import org.resume.s3filemanager.service.kafka.OutboxEventProcessor;
 
 import java.time.Instant;
+import java.util.List;
 
-import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -30,6 +31,8 @@ import static org.mockito.Mockito.*;
 class OutboxEventProcessorTest {
 
     private static final Faker FAKER = new Faker();
+    private static final String INSTANCE_ID = "s3-file-service-1";
+    private static final Long EVENT_ID = 42L;
 
     @Mock
     private FileEventProducer fileEventProducer;
@@ -53,6 +56,9 @@ class OutboxEventProcessorTest {
     void setUp() {
         outboxEvent = new OutboxEvent(OutboxEventType.FILE_UPLOAD,
                 "{\"fileId\":" + FAKER.number().randomNumber() + "}");
+        outboxEvent.setId(EVENT_ID);
+        outboxEvent.setClaimedBy(INSTANCE_ID);
+        outboxEvent.setClaimedUntil(Instant.now().plusSeconds(120));
 
         fileUploadEvent = FileUploadEvent.builder()
                 .fileId(FAKER.number().randomNumber())
@@ -61,103 +67,78 @@ class OutboxEventProcessorTest {
                 .bucketName(FAKER.internet().slug())
                 .originalFileName(FAKER.file().fileName(null, null, "pdf", null))
                 .build();
+
+        when(outboxProperties.getInstanceId()).thenReturn(INSTANCE_ID);
     }
 
     /**
-     * Успешная отправка — статус меняется на SENT, sentAt устанавливается.
+     * Успешная отправка — событие помечается SENT только пока его арендует этот экземпляр.
      */
     @Test
     void shouldMarkAsSent_whenKafkaSendSucceeds() throws JsonProcessingException {
         when(objectMapper.readValue(any(String.class), eq(FileUploadEvent.class)))
                 .thenReturn(fileUploadEvent);
+        when(outboxRepository.markSent(eq(List.of(EVENT_ID)), eq(INSTANCE_ID), any(Instant.class))).thenReturn(1);
 
         outboxEventProcessor.process(outboxEvent);
 
-        assertThat(outboxEvent.getStatus()).isEqualTo(OutboxStatus.SENT);
-        assertThat(outboxEvent.getSentAt()).isNotNull();
-        assertThat(outboxEvent.getSentAt()).isBefore(Instant.now().plusSeconds(1));
-
         verify(fileEventProducer).sendFileUploadEvent(fileUploadEvent);
-        verify(outboxRepository).save(outboxEvent);
+        verify(outboxRepository).markSent(eq(List.of(EVENT_ID)), eq(INSTANCE_ID), any(Instant.class));
+        verify(outboxRepository, never()).save(any());
     }
 
     /**
-     * Ошибка Kafka — retry count увеличивается, nextRetryAt обновляется.
+     * Аренду перехватил другой экземпляр — его состояние не перезаписывается.
      */
     @Test
-    void shouldIncrementRetryCount_whenKafkaSendFails() throws JsonProcessingException {
+    void shouldNotOverwriteEvent_whenClaimLost() throws JsonProcessingException {
         when(objectMapper.readValue(any(String.class), eq(FileUploadEvent.class)))
                 .thenReturn(fileUploadEvent);
-        doThrow(new KafkaSendException(new RuntimeException(), 1L))
-                .when(fileEventProducer).sendFileUploadEvent(any());
-        when(outboxProperties.getMaxRetryCount()).thenReturn(3);
-        when(outboxProperties.getBaseBackoffMinutes()).thenReturn(5L);
+        when(outboxRepository.markSent(eq(List.of(EVENT_ID)), eq(INSTANCE_ID), any(Instant.class))).thenReturn(0);
 
         outboxEventProcessor.process(outboxEvent);
 
-        assertThat(outboxEvent.getStatus()).isEqualTo(OutboxStatus.PENDING);
-        assertThat(outboxEvent.getRetryCount()).isEqualTo(1);
-        assertThat(outboxEvent.getNextRetryAt()).isAfter(Instant.now());
-
-        verify(outboxRepository).save(outboxEvent);
+        verify(outboxRepository, never()).save(any());
+        verify(outboxRepository, never()).scheduleRetry(any(), any(), any(), anyInt(), anyLong());
     }
 
     /**
-     * Достигнут лимит retry — статус меняется на FAILED.
+     * Ошибка Kafka — повтор назначается с лимитом и базовой задержкой из настроек.
      */
     @Test
-    void shouldMarkAsFailed_whenMaxRetryCountReached() throws JsonProcessingException {
-        outboxEvent.setRetryCount(2);
+    void shouldScheduleRetry_whenKafkaSendFails() throws JsonProcessingException {
         when(objectMapper.readValue(any(String.class), eq(FileUploadEvent.class)))
                 .thenReturn(fileUploadEvent);
         doThrow(new KafkaSendException(new RuntimeException(), 1L))
                 .when(fileEventProducer).sendFileUploadEvent(any());
-        when(outboxProperties.getMaxRetryCount()).thenReturn(3);
+        givenRetryScheduled();
 
         outboxEventProcessor.process(outboxEvent);
 
-        assertThat(outboxEvent.getStatus()).isEqualTo(OutboxStatus.FAILED);
-        assertThat(outboxEvent.getRetryCount()).isEqualTo(3);
-
-        verify(outboxRepository).save(outboxEvent);
+        verify(outboxRepository).scheduleRetry(eq(List.of(EVENT_ID)), eq(INSTANCE_ID), any(Instant.class), eq(3), eq(5L));
+        verify(outboxRepository, never()).markSent(any(), any(), any());
+        verify(outboxRepository, never()).save(any());
     }
 
     /**
-     * Ошибка десериализации — retry count увеличивается.
+     * Ошибка десериализации — событие не отправляется, повтор назначается.
      */
     @Test
-    void shouldIncrementRetryCount_whenDeserializationFails() throws JsonProcessingException {
+    void shouldScheduleRetry_whenDeserializationFails() throws JsonProcessingException {
         when(objectMapper.readValue(any(String.class), eq(FileUploadEvent.class)))
                 .thenThrow(new JsonProcessingException("error") {});
-        when(outboxProperties.getMaxRetryCount()).thenReturn(3);
-        when(outboxProperties.getBaseBackoffMinutes()).thenReturn(5L);
+        givenRetryScheduled();
 
         outboxEventProcessor.process(outboxEvent);
 
-        assertThat(outboxEvent.getRetryCount()).isEqualTo(1);
-        assertThat(outboxEvent.getStatus()).isEqualTo(OutboxStatus.PENDING);
-
         verifyNoInteractions(fileEventProducer);
-        verify(outboxRepository).save(outboxEvent);
+        verify(outboxRepository).scheduleRetry(eq(List.of(EVENT_ID)), eq(INSTANCE_ID), any(Instant.class), eq(3), eq(5L));
     }
 
-    /**
-     * Exponential backoff — задержка увеличивается с каждым retry.
-     */
-    @Test
-    void shouldApplyExponentialBackoff_whenRetrying() throws JsonProcessingException {
-        when(objectMapper.readValue(any(String.class), eq(FileUploadEvent.class)))
-                .thenReturn(fileUploadEvent);
-        doThrow(new KafkaSendException(new RuntimeException(), 1L))
-                .when(fileEventProducer).sendFileUploadEvent(any());
+    private void givenRetryScheduled() {
         when(outboxProperties.getMaxRetryCount()).thenReturn(3);
         when(outboxProperties.getBaseBackoffMinutes()).thenReturn(5L);
-
-        outboxEventProcessor.process(outboxEvent);
-        Instant nextRetryAfterFirst = outboxEvent.getNextRetryAt();
-
-        assertThat(nextRetryAfterFirst).isAfter(Instant.now().plusSeconds(9 * 60));
-
-        verify(outboxRepository).save(outboxEvent);
+        when(outboxRepository.scheduleRetry(eq(List.of(EVENT_ID)), eq(INSTANCE_ID), any(Instant.class), eq(3), eq(5L)))
+                .thenReturn(1);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package org.resume.s3filemanager.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.s3filemanager.properties.OutboxProperties;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.resume.s3filemanager.service.kafka.OutboxMaintenanceService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxMaintenanceServiceTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private OutboxProperties outboxProperties;
+
+    @InjectMocks
+    private OutboxMaintenanceService outboxMaintenanceService;
+
+    /**
+     * Секции создаются с сегодняшнего дня (UTC) на partitionsAhead дней вперёд,
+     * уже существующие не считаются созданными.
+     */
+    @Test
+    void shouldCreatePartitionsFromTodayAhead_whenSomeAreMissing() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        when(outboxProperties.getPartitionsAhead()).thenReturn(2);
+        when(outboxRepository.createPartition(any(LocalDate.class))).thenReturn(false);
+        when(outboxRepository.createPartition(today.plusDays(2))).thenReturn(true);
+
+        int created = outboxMaintenanceService.createUpcomingPartitions();
+
+        assertThat(created).isEqualTo(1);
+        verify(outboxRepository).createPartition(today);
+        verify(outboxRepository).createPartition(today.plusDays(1));
+        verify(outboxRepository).createPartition(today.plusDays(2));
+        verifyNoMoreInteractions(outboxRepository);
+    }
+
+    /**
+     * Удаляются секции старше срока хранения: граница — сейчас минус sentRetention.
+     */
+    @Test
+    void shouldDropPartitionsOlderThanRetention_whenPurging() {
+        Duration retention = Duration.ofDays(7);
+        when(outboxProperties.getSentRetention()).thenReturn(retention);
+        when(outboxRepository.dropSentPartitions(any(Instant.class))).thenReturn(List.of("outbox_events_p20260101"));
+
+        Instant before = Instant.now().minus(retention);
+        List<String> dropped = outboxMaintenanceService.purgeSentPartitions();
+        Instant after = Instant.now().minus(retention);
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxRepository).dropSentPartitions(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before, after);
+        assertThat(dropped).containsExactly("outbox_events_p20260101");
+    }
+}
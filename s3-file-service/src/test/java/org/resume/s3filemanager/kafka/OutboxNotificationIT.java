@@ -0,0 +1,43 @@
+package org.resume.s3filemanager.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.resume.s3filemanager.entity.OutboxEvent;
+import org.resume.s3filemanager.enums.OutboxEventType;
+import org.resume.s3filemanager.enums.OutboxStatus;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@TestPropertySource(properties = "app.outbox.listen-enabled=true")
+class OutboxNotificationIT extends BaseIntegrationTest {
+
+    private static final String PAYLOAD = "{\"fileId\":1,\"userId\":1,\"s3Key\":\"notify-test\",\"bucketName\":\"test-bucket\",\"originalFileName\":\"notify.txt\"}";
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    /**
+     * Вставка события будит релей через NOTIFY — событие уходит в Kafka
+     * без участия планировщика (в тестах он замокан).
+     */
+    @Test
+    void shouldSendEvent_whenInsertIsCommitted() {
+        OutboxEvent saved = outboxRepository.save(new OutboxEvent(OutboxEventType.FILE_UPLOAD, PAYLOAD));
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(outboxRepository.findById(saved.getId()))
+                        .hasValueSatisfying(event -> assertThat(event.getStatus()).isEqualTo(OutboxStatus.SENT)));
+    }
+}
@@ -0,0 +1,121 @@
+package org.resume.s3filemanager.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.resume.s3filemanager.entity.OutboxEvent;
+import org.resume.s3filemanager.enums.OutboxEventType;
+import org.resume.s3filemanager.enums.OutboxStatus;
+import org.resume.s3filemanager.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxPartitionIT extends BaseIntegrationTest {
+
+    private static final Duration RETENTION = Duration.ofDays(7);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    /**
+     * Старая секция только с SENT событиями удаляется целиком,
+     * секция с FAILED событием остаётся вместе с ним.
+     */
+    @Test
+    void shouldDropOnlyFullySentPartitions_whenOlderThanRetention() {
+        LocalDate sentDay = LocalDate.now(ZoneOffset.UTC).minusDays(20);
+        LocalDate failedDay = LocalDate.now(ZoneOffset.UTC).minusDays(15);
+        outboxRepository.createPartition(sentDay);
+        outboxRepository.createPartition(failedDay);
+
+        OutboxEvent sent = saveEvent(sentDay, OutboxStatus.SENT);
+        OutboxEvent failed = saveEvent(failedDay, OutboxStatus.FAILED);
+        OutboxEvent pending = outboxRepository.save(new OutboxEvent(OutboxEventType.FILE_UPLOAD, "{}"));
+
+        assertThat(outboxRepository.dropSentPartitions(Instant.now().minus(RETENTION)))
+                .containsExactly(partitionName(sentDay));
+
+        assertThat(outboxRepository.findById(sent.getId())).isEmpty();
+        assertThat(outboxRepository.findById(failed.getId())).isPresent();
+        assertThat(outboxRepository.findById(pending.getId())).isPresent();
+        assertThat(outboxRepository.countByStatus(OutboxStatus.FAILED)).isEqualTo(1);
+    }
+
+    /**
+     * Событие за день без секции попадает в секцию по умолчанию и переносится
+     * в секцию своего дня при её создании.
+     */
+    @Test
+    void shouldMoveEventsFromDefaultPartition_whenPartitionCreated() {
+        LocalDate futureDay = LocalDate.now(ZoneOffset.UTC).plusDays(20);
+        OutboxEvent event = saveEvent(futureDay, OutboxStatus.PENDING);
+
+        assertThat(outboxRepository.createPartition(futureDay)).isTrue();
+        assertThat(outboxRepository.createPartition(futureDay)).isFalse();
+
+        assertThat(outboxRepository.findById(event.getId())).isPresent();
+        assertThat(outboxRepository.countByStatus(OutboxStatus.PENDING)).isEqualTo(1);
+    }
+
+    /**
+     * Событие дня вставлено в секцию по умолчанию незакоммиченной транзакцией —
+     * создание секции ждёт её коммита и переносит строку, а не падает на ATTACH.
+     */
+    @Test
+    void shouldWaitForConcurrentInsert_whenPartitionCreated()
+            throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+        LocalDate futureDay = LocalDate.now(ZoneOffset.UTC).plusDays(25);
+
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement insert = writer.prepareStatement(
+                    "INSERT INTO outbox_events (event_type, payload, created_at) VALUES ('FILE_UPLOAD', '{}', ?)")) {
+                insert.setTimestamp(1, Timestamp.from(futureDay.atTime(12, 0).toInstant(ZoneOffset.UTC)));
+                insert.executeUpdate();
+            }
+
+            CompletableFuture<Boolean> created = CompletableFuture.supplyAsync(() -> outboxRepository.createPartition(futureDay));
+            Thread.sleep(500);
+            assertThat(created).isNotDone();
+
+            writer.commit();
+            assertThat(created.get(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(outboxRepository.countByStatus(OutboxStatus.PENDING)).isEqualTo(1);
+    }
+
+    private OutboxEvent saveEvent(LocalDate day, OutboxStatus status) {
+        OutboxEvent event = new OutboxEvent(OutboxEventType.FILE_UPLOAD, "{}");
+        event.setCreatedAt(day.atTime(12, 0).toInstant(ZoneOffset.UTC));
+        event.setStatus(status);
+        return outboxRepository.save(event);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "outbox_events_p" + day.toString().replace("-", "");
+    }
+}
@@ -11,24 +11,30 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.properties.YandexStorageProperties;
+import org.resume.common.model.FileUploadEvent;
+import org.resume.s3filemanager.dto.OutboxStatsResponse;
+import org.resume.s3filemanager.entity.FileBlob;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.OutboxEvent;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.OutboxEventType;
+import org.resume.s3filemanager.enums.OutboxRelayMode;
 import org.resume.s3filemanager.enums.OutboxStatus;
 import org.resume.s3filemanager.exception.OutboxSerializationException;
 import org.resume.s3filemanager.properties.OutboxProperties;
 import org.resume.s3filemanager.repository.OutboxRepository;
+import org.resume.s3filemanager.service.kafka.OutboxBatchRelay;
 import org.resume.s3filemanager.service.kafka.OutboxEventProcessor;
 import org.resume.s3filemanager.service.kafka.OutboxService;
-import org.springframework.data.domain.PageRequest;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +42,8 @@ import static org.mockito.Mockito.*;
 class OutboxServiceTest {
 
     private static final Faker FAKER = new Faker();
+    private static final String INSTANCE_ID = "s3-file-service-1";
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(2);
 
     @Mock
     private OutboxRepository outboxRepository;
@@ -43,6 +51,9 @@ class OutboxServiceTest {
     @Mock
     private OutboxEventProcessor outboxEventProcessor;
 
+    @Mock
+    private OutboxBatchRelay outboxBatchRelay;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -72,6 +83,7 @@ class OutboxServiceTest {
                 .size(FAKER.number().numberBetween(1L, 10_000_000L))
                 .fileHash(FAKER.internet().uuid())
                 .user(user)
+                .blob(FileBlob.builder().storageKey(FAKER.internet().uuid() + ".pdf").build())
                 .build();
     }
 
@@ -86,6 +98,10 @@ class OutboxServiceTest {
 
         outboxService.saveFileUploadEvent(fileMetadata, user.getId());
 
+        ArgumentCaptor<FileUploadEvent> eventCaptor = ArgumentCaptor.forClass(FileUploadEvent.class);
+        verify(objectMapper).writeValueAsString(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getS3Key()).isEqualTo(fileMetadata.getBlob().getStorageKey());
+
         ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
         verify(outboxRepository).save(captor.capture());
 
@@ -113,52 +129,96 @@ class OutboxServiceTest {
     }
 
     /**
-     * Нет PENDING событий — processor не вызывается.
+     * Нет PENDING событий — processor не вызывается, взято ноль событий.
      */
     @Test
     void shouldNotProcess_whenNoPendingEvents() {
-        when(outboxProperties.getBatchSize()).thenReturn(10);
-        when(outboxRepository.findPendingEvents(eq(OutboxStatus.PENDING), any(Instant.class), any(PageRequest.class)))
+        stubClaimProperties(10);
+        when(outboxRepository.claimPendingEvents(eq(INSTANCE_ID), any(Instant.class), any(Instant.class), eq(10)))
                 .thenReturn(List.of());
 
-        outboxService.processPendingEvents();
+        int claimed = outboxService.processPendingEvents();
 
-        verifyNoInteractions(outboxEventProcessor);
+        assertThat(claimed).isZero();
+        verifyNoInteractions(outboxEventProcessor, outboxBatchRelay);
     }
 
     /**
-     * Есть PENDING события — processor вызывается для каждого.
+     * Последовательный режим — processor вызывается для каждого события.
      */
     @Test
-    void shouldProcessEachEvent_whenPendingEventsExist() {
+    void shouldProcessEachEvent_whenPendingEventsExistInSequentialMode() {
         OutboxEvent event1 = mock(OutboxEvent.class);
         OutboxEvent event2 = mock(OutboxEvent.class);
 
-        when(outboxProperties.getBatchSize()).thenReturn(10);
-        when(outboxRepository.findPendingEvents(eq(OutboxStatus.PENDING), any(Instant.class), any(PageRequest.class)))
+        stubClaimProperties(10);
+        when(outboxProperties.getRelayMode()).thenReturn(OutboxRelayMode.SEQUENTIAL);
+        when(outboxRepository.claimPendingEvents(eq(INSTANCE_ID), any(Instant.class), any(Instant.class), eq(10)))
                 .thenReturn(List.of(event1, event2));
 
         outboxService.processPendingEvents();
 
         verify(outboxEventProcessor).process(event1);
         verify(outboxEventProcessor).process(event2);
+        verifyNoInteractions(outboxBatchRelay);
     }
 
     /**
-     * Батч размер передаётся корректно в запрос.
+     * Конвейерный режим — вся пачка уходит в relay одним вызовом,
+     * возвращается размер взятой пачки.
      */
     @Test
-    void shouldUseBatchSize_fromProperties() {
+    void shouldRelayWholeBatch_whenPendingEventsExistInPipelinedMode() {
+        List<OutboxEvent> events = List.of(mock(OutboxEvent.class), mock(OutboxEvent.class));
+
+        stubClaimProperties(10);
+        when(outboxProperties.getRelayMode()).thenReturn(OutboxRelayMode.PIPELINED);
+        when(outboxRepository.claimPendingEvents(eq(INSTANCE_ID), any(Instant.class), any(Instant.class), eq(10)))
+                .thenReturn(events);
+
+        int claimed = outboxService.processPendingEvents();
+
+        assertThat(claimed).isEqualTo(2);
+        verify(outboxBatchRelay).relay(events);
+        verifyNoInteractions(outboxEventProcessor);
+    }
+
+    /**
+     * Пачка берётся в аренду от имени экземпляра: размер из настроек,
+     * срок аренды — сейчас плюс claim-lease.
+     */
+    @Test
+    void shouldClaimBatch_asThisInstanceWithLease() {
         int batchSize = 5;
-        when(outboxProperties.getBatchSize()).thenReturn(batchSize);
-        when(outboxRepository.findPendingEvents(any(), any(), any())).thenReturn(List.of());
+        stubClaimProperties(batchSize);
+        when(outboxRepository.claimPendingEvents(any(), any(), any(), anyInt())).thenReturn(List.of());
 
         outboxService.processPendingEvents();
 
-        verify(outboxRepository).findPendingEvents(
-                eq(OutboxStatus.PENDING),
-                any(Instant.class),
-                eq(PageRequest.of(0, batchSize))
-        );
+        ArgumentCaptor<Instant> now = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> claimedUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxRepository).claimPendingEvents(
+                eq(INSTANCE_ID), now.capture(), claimedUntil.capture(), eq(batchSize));
+        assertThat(Duration.between(now.getValue(), claimedUntil.getValue())).isEqualTo(CLAIM_LEASE);
+    }
+
+    private void stubClaimProperties(int batchSize) {
+        when(outboxProperties.getBatchSize()).thenReturn(batchSize);
+        when(outboxProperties.getInstanceId()).thenReturn(INSTANCE_ID);
+        when(outboxProperties.getClaimLease()).thenReturn(CLAIM_LEASE);
+    }
+
+    /**
+     * Статистика — количество PENDING и FAILED событий из репозитория.
+     */
+    @Test
+    void shouldReturnPendingAndFailedCounts_whenStatsRequested() {
+        when(outboxRepository.countByStatus(OutboxStatus.PENDING)).thenReturn(3L);
+        when(outboxRepository.countByStatus(OutboxStatus.FAILED)).thenReturn(1L);
+
+        OutboxStatsResponse stats = outboxService.getStats();
+
+        assertThat(stats.pending()).isEqualTo(3L);
+        assertThat(stats.failed()).isEqualTo(1L);
     }
-}
\ No newline at end of file
+}
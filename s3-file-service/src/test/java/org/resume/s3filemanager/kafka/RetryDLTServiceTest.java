@@ -4,29 +4,42 @@ import com.github.javafaker.Faker;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.model.FileUploadEvent;
 import org.resume.common.model.ScanStatus;
 import org.resume.common.properties.KafkaProperties;
-import org.resume.s3filemanager.entity.FileMetadata;
-import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.dto.DltReplayProgressResponse;
+import org.resume.s3filemanager.enums.DltReplayStatus;
+import org.resume.s3filemanager.properties.DltReplayProperties;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.JobLeaseRepository;
 import org.resume.s3filemanager.service.kafka.FileEventProducer;
 import org.resume.s3filemanager.service.kafka.RetryDLTService;
 import org.springframework.kafka.core.ConsumerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +47,7 @@ public class RetryDLTServiceTest {
 
     private static final Faker FAKER = new Faker();
     private static final String DLT_TOPIC = "file-upload-events.DLT";
+    private static final TopicPartition PARTITION = new TopicPartition(DLT_TOPIC, 0);
 
     @Mock
     private ConsumerFactory<String, FileUploadEvent> consumerFactory;
@@ -45,110 +59,236 @@ public class RetryDLTServiceTest {
     private FileEventProducer fileEventProducer;
 
     @Mock
-    private FileMetadataRepository fileMetadataRepository;
+    private FileBlobRepository fileBlobRepository;
+
+    @Mock
+    private JobLeaseRepository jobLeaseRepository;
 
     @Mock
     private Consumer<String, FileUploadEvent> consumer;
 
-    @InjectMocks
     private RetryDLTService retryDLTService;
 
-    private FileUploadEvent event;
-    private String s3Key;
+    private final AtomicLong position = new AtomicLong();
 
     @BeforeEach
     void setUp() {
-        s3Key = FAKER.internet().uuid() + ".pdf";
-
-        event = FileUploadEvent.builder()
-                .fileId(FAKER.number().randomNumber())
-                .s3Key(s3Key)
-                .bucketName("test-bucket")
-                .originalFileName(FAKER.file().fileName())
-                .build();
-
         KafkaProperties.KafkaTopics topics = new KafkaProperties.KafkaTopics();
         topics.setFileUploadEventsDlt(DLT_TOPIC);
 
+        retryDLTService = new RetryDLTService(consumerFactory, kafkaProperties, fileEventProducer,
+                fileBlobRepository, properties(), jobLeaseRepository, Runnable::run);
+
         when(kafkaProperties.getTopics()).thenReturn(topics);
-        when(consumerFactory.createConsumer(any(), any())).thenReturn(consumer);
-        when(consumer.assignment()).thenReturn(java.util.Set.of());
+        when(consumerFactory.createConsumer(eq("dlt-replay"), isNull(), isNull(), any(Properties.class)))
+                .thenReturn(consumer);
+        when(consumer.partitionsFor(DLT_TOPIC))
+                .thenReturn(List.of(new PartitionInfo(DLT_TOPIC, 0, null, null, null)));
+        when(consumer.position(PARTITION)).thenAnswer(invocation -> position.get());
+        when(jobLeaseRepository.tryAcquire(eq("dlt-replay"), anyString(), any(), any())).thenReturn(1);
     }
 
-    private ConsumerRecords<String, FileUploadEvent> recordsOf(FileUploadEvent event) {
-        TopicPartition tp = new TopicPartition(DLT_TOPIC, 0);
-        ConsumerRecord<String, FileUploadEvent> record =
-                new ConsumerRecord<>(DLT_TOPIC, 0, 0L, s3Key, event);
-        return new ConsumerRecords<>(Map.of(tp, List.of(record)));
+    /**
+     * Файл в статусе ERROR — сообщение переотправляется, offset коммитится.
+     */
+    @Test
+    void shouldResendAndCommit_whenFileHasErrorStatus() {
+        FileUploadEvent event = event();
+        givenDlt(List.of(event));
+        givenErrorKeys(event.getS3Key());
+        givenSendSucceeds();
+
+        givenLeaseRenewed();
+
+        DltReplayProgressResponse progress = retryDLTService.startReplay();
+
+        assertThat(progress.status()).isEqualTo(DltReplayStatus.COMPLETED);
+        assertThat(progress.resent()).isEqualTo(1);
+        verify(fileEventProducer).sendFileUploadEventAsync(event);
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(1)));
     }
 
     /**
-     * Файл в статусе ERROR — сообщение переотправляется, retried=1.
+     * Файл не в статусе ERROR или удалён — сообщение пропускается, но offset всё равно коммитится.
      */
     @Test
-    void shouldRetryEvent_whenFileHasErrorStatus() {
-        FileMetadata file = new FileMetadata();
-        file.setScanStatus(ScanStatus.ERROR);
+    void shouldSkipAndCommit_whenFileIsNotInErrorStatus() {
+        givenDlt(List.of(event()));
+        givenErrorKeys();
 
-        when(fileMetadataRepository.findByUniqueName(s3Key)).thenReturn(Optional.of(file));
-        when(consumer.poll(any(Duration.class)))
-                .thenReturn(ConsumerRecords.empty())
-                .thenReturn(recordsOf(event))
-                .thenReturn(ConsumerRecords.empty());
+        givenLeaseRenewed();
 
-        int retried = retryDLTService.retryFailedEvents();
+        DltReplayProgressResponse progress = retryDLTService.startReplay();
 
-        assertThat(retried).isEqualTo(1);
-        verify(fileEventProducer).sendFileUploadEvent(event);
+        assertThat(progress.status()).isEqualTo(DltReplayStatus.COMPLETED);
+        assertThat(progress.skipped()).isEqualTo(1);
+        assertThat(progress.resent()).isZero();
+        verifyNoInteractions(fileEventProducer);
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(1)));
     }
 
     /**
-     * Файл в статусе CLEAN — сообщение пропускается, retried=0.
+     * Статусы всей пачки проверяются одним запросом, объект переотправляется один раз.
      */
     @Test
-    void shouldSkipEvent_whenFileIsClean() {
-        FileMetadata file = new FileMetadata();
-        file.setScanStatus(ScanStatus.CLEAN);
+    void shouldCheckStatusesOnceAndResendEachObjectOnce_whenBatchHasDuplicates() {
+        FileUploadEvent first = event();
+        FileUploadEvent duplicate = FileUploadEvent.builder().fileId(FAKER.number().randomNumber())
+                .s3Key(first.getS3Key()).build();
+        FileUploadEvent clean = event();
+        givenDlt(List.of(first, duplicate, clean));
+        givenErrorKeys(first.getS3Key());
+        givenSendSucceeds();
 
-        when(fileMetadataRepository.findByUniqueName(s3Key)).thenReturn(Optional.of(file));
-        when(consumer.poll(any(Duration.class)))
-                .thenReturn(ConsumerRecords.empty())
-                .thenReturn(recordsOf(event))
-                .thenReturn(ConsumerRecords.empty());
+        givenLeaseRenewed();
 
-        int retried = retryDLTService.retryFailedEvents();
+        DltReplayProgressResponse progress = retryDLTService.startReplay();
 
-        assertThat(retried).isEqualTo(0);
-        verifyNoInteractions(fileEventProducer);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(fileBlobRepository).findStorageKeysByScanStatus(keys.capture(), eq(ScanStatus.ERROR));
+        assertThat(keys.getValue()).containsExactlyInAnyOrder(first.getS3Key(), clean.getS3Key());
+        verify(fileEventProducer).sendFileUploadEventAsync(first);
+        assertThat(progress.total()).isEqualTo(3);
+        assertThat(progress.read()).isEqualTo(3);
+        assertThat(progress.resent()).isEqualTo(1);
+        assertThat(progress.skipped()).isEqualTo(2);
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(3)));
     }
 
     /**
-     * Файл не найден в БД — сообщение пропускается.
+     * Ошибка отправки — offset коммитится до неотправленного сообщения, повтор останавливается.
      */
     @Test
-    void shouldSkipEvent_whenFileNotFoundInDatabase() {
-        when(fileMetadataRepository.findByUniqueName(s3Key)).thenReturn(Optional.empty());
-        when(consumer.poll(any(Duration.class)))
-                .thenReturn(ConsumerRecords.empty())
-                .thenReturn(recordsOf(event))
-                .thenReturn(ConsumerRecords.empty());
+    void shouldCommitUpToFailedRecordAndStop_whenResendFails() {
+        FileUploadEvent sent = event();
+        FileUploadEvent failed = event();
+        givenDlt(List.of(sent, failed));
+        givenErrorKeys(sent.getS3Key(), failed.getS3Key());
+        when(fileEventProducer.sendFileUploadEventAsync(sent)).thenReturn(CompletableFuture.completedFuture(null));
+        when(fileEventProducer.sendFileUploadEventAsync(failed))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
 
-        int retried = retryDLTService.retryFailedEvents();
+        DltReplayProgressResponse progress = retryDLTService.startReplay();
 
-        assertThat(retried).isEqualTo(0);
-        verifyNoInteractions(fileEventProducer);
+        assertThat(progress.status()).isEqualTo(DltReplayStatus.FAILED);
+        assertThat(progress.resent()).isEqualTo(1);
+        assertThat(progress.failed()).isEqualTo(1);
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(1)));
+        verify(consumer, times(1)).poll(any(Duration.class));
     }
 
     /**
-     * DLT пустой — ничего не переотправляется.
+     * Новых сообщений нет — DLT не читается.
      */
     @Test
-    void shouldReturnZero_whenDltIsEmpty() {
-        when(consumer.poll(any(Duration.class))).thenReturn(ConsumerRecords.empty());
+    void shouldNotPoll_whenNoNewRecords() {
+        position.set(5);
+        when(consumer.endOffsets(List.of(PARTITION))).thenReturn(Map.of(PARTITION, 5L));
 
-        int retried = retryDLTService.retryFailedEvents();
+        DltReplayProgressResponse progress = retryDLTService.startReplay();
 
-        assertThat(retried).isEqualTo(0);
-        verifyNoInteractions(fileEventProducer);
+        assertThat(progress.status()).isEqualTo(DltReplayStatus.COMPLETED);
+        assertThat(progress.total()).isZero();
+        verify(consumer, never()).poll(any(Duration.class));
+        verify(consumer, never()).seekToBeginning(anyCollection());
+        verifyNoInteractions(fileEventProducer, fileBlobRepository);
+    }
+
+    /**
+     * Пока повтор идёт, второй не запускается — возвращается прогресс текущего.
+     */
+    @Test
+    void shouldNotStartSecondReplay_whenAlreadyRunning() {
+        List<Runnable> scheduled = new ArrayList<>();
+        retryDLTService = new RetryDLTService(consumerFactory, kafkaProperties, fileEventProducer,
+                fileBlobRepository, properties(), jobLeaseRepository, scheduled::add);
+
+        DltReplayProgressResponse first = retryDLTService.startReplay();
+        DltReplayProgressResponse second = retryDLTService.startReplay();
+
+        assertThat(first.status()).isEqualTo(DltReplayStatus.RUNNING);
+        assertThat(second.startedAt()).isEqualTo(first.startedAt());
+        assertThat(scheduled).hasSize(1);
+
+        position.set(0);
+        when(consumer.endOffsets(List.of(PARTITION))).thenReturn(Map.of(PARTITION, 0L));
+        scheduled.get(0).run();
+        assertThat(retryDLTService.getProgress().status()).isEqualTo(DltReplayStatus.COMPLETED);
+    }
+
+    /**
+     * Аренду держит другой экземпляр — повтор не запускается, DLT не читается.
+     */
+    @Test
+    void shouldNotStartReplay_whenLeaseHeldByAnotherInstance() {
+        position.set(0);
+        when(consumer.endOffsets(List.of(PARTITION))).thenReturn(Map.of(PARTITION, 0L));
+        DltReplayProgressResponse previous = retryDLTService.startReplay();
+
+        when(jobLeaseRepository.tryAcquire(eq("dlt-replay"), anyString(), any(), any())).thenReturn(0);
+        DltReplayProgressResponse blocked = retryDLTService.startReplay();
+
+        assertThat(blocked.status()).isEqualTo(DltReplayStatus.RUNNING);
+        assertThat(retryDLTService.getProgress().startedAt()).isEqualTo(previous.startedAt());
+        verify(consumerFactory, times(1)).createConsumer(anyString(), any(), any(), any(Properties.class));
+        verify(jobLeaseRepository, times(1)).release(eq("dlt-replay"), anyString());
+    }
+
+    /**
+     * Аренду перехватили во время повтора — повтор останавливается после пачки, аренда освобождается.
+     */
+    @Test
+    void shouldStopAndReleaseLease_whenLeaseLost() {
+        FileUploadEvent event = event();
+        givenDlt(List.of(event));
+        givenErrorKeys(event.getS3Key());
+        givenSendSucceeds();
+        when(jobLeaseRepository.renew(eq("dlt-replay"), anyString(), any())).thenReturn(0);
+
+        DltReplayProgressResponse progress = retryDLTService.startReplay();
+
+        assertThat(progress.status()).isEqualTo(DltReplayStatus.FAILED);
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(1)));
+        verify(jobLeaseRepository).release(eq("dlt-replay"), anyString());
+    }
+
+    private DltReplayProperties properties() {
+        return new DltReplayProperties(500, 10, Duration.ofMillis(100), Duration.ofMinutes(5));
+    }
+
+    private FileUploadEvent event() {
+        return FileUploadEvent.builder()
+                .fileId(FAKER.number().randomNumber())
+                .s3Key(FAKER.internet().uuid() + ".pdf")
+                .bucketName("test-bucket")
+                .originalFileName(FAKER.file().fileName())
+                .build();
+    }
+
+    private void givenDlt(List<FileUploadEvent> events) {
+        List<ConsumerRecord<String, FileUploadEvent>> records = new ArrayList<>();
+        for (int offset = 0; offset < events.size(); offset++) {
+            FileUploadEvent event = events.get(offset);
+            records.add(new ConsumerRecord<>(DLT_TOPIC, 0, offset, event.getFileId().toString(), event));
+        }
+        when(consumer.endOffsets(List.of(PARTITION))).thenReturn(Map.of(PARTITION, (long) events.size()));
+        when(consumer.poll(any(Duration.class))).thenAnswer(invocation -> {
+            position.set(events.size());
+            return new ConsumerRecords<>(Map.of(PARTITION, records));
+        });
+    }
+
+    private void givenErrorKeys(String... storageKeys) {
+        when(fileBlobRepository.findStorageKeysByScanStatus(anyCollection(), eq(ScanStatus.ERROR)))
+                .thenReturn(List.of(storageKeys));
+    }
+
+    private void givenLeaseRenewed() {
+        when(jobLeaseRepository.renew(eq("dlt-replay"), anyString(), any())).thenReturn(1);
+    }
+
+    private void givenSendSucceeds() {
+        when(fileEventProducer.sendFileUploadEventAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
     }
 }
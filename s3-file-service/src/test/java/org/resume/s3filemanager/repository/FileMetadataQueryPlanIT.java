@@ -0,0 +1,206 @@
+package org.resume.s3filemanager.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы горячих запросов к file_metadata на объёме, близком к боевому.
+ * <p>
+ * Таблица заполняется 200 000 файлами: 97% CLEAN и по 1% ERROR, INFECTED,
+ * PENDING_SCAN. Метод {@link FileMetadataRepository} вызывается в откатываемой
+ * транзакции, его SQL перехватывает {@link SqlStatementCapture}, и этот же SQL
+ * с теми же параметрами проверяется через EXPLAIN (FORMAT JSON): file_metadata
+ * не читается последовательно, а стоимость не превышает заданной доли стоимости
+ * полного чтения таблицы. Доля, а не абсолютное число, не зависит от настроек
+ * планировщика в контейнере. Изменение запроса в репозитории сразу меняет
+ * проверяемый план; изменение его параметров ломает проверку их числа.
+ * <p>
+ * Счётчики по статусам читаются из file_stats и сюда не входят. OFFSET-страница
+ * по CLEAN тоже: она затрагивает почти всю таблицу, и последовательное чтение
+ * для неё — верный план.
+ */
+@DisplayName("Планы запросов к file_metadata")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.resume.s3filemanager.repository.SqlStatementCapture")
+class FileMetadataQueryPlanIT extends BaseIntegrationTest {
+
+    private static final int USER_COUNT = 1_000;
+    private static final int FILE_COUNT = 200_000;
+    private static final String PREFIX = "plan-";
+    private static final String FILE_METADATA = "file_metadata";
+
+    private static final double POINT_LOOKUP = 0.01;
+    private static final double PAGE = 0.05;
+    private static final double USER_FILES = 0.2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long firstUserId;
+    private long userId;
+    private List<Long> userFileIds;
+    private long middleFileId;
+    private double fullScanCost;
+
+    @BeforeAll
+    void seed() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO users (username, password)
+                SELECT ? || 'user-' || g, 'password' FROM generate_series(1, ?) g
+                """, PREFIX, USER_COUNT);
+        jdbcTemplate.update("""
+                INSERT INTO file_blobs (storage_key, size, scan_status)
+                SELECT ? || g, g, 'CLEAN' FROM generate_series(1, ?) g
+                """, PREFIX, FILE_COUNT);
+        firstUserId = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM users WHERE username LIKE ?", Long.class, PREFIX + "%");
+        long firstBlobId = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM file_blobs WHERE storage_key LIKE ?", Long.class, PREFIX + "%");
+        jdbcTemplate.update("""
+                INSERT INTO file_metadata (unique_name, original_name, type, size, file_hash, user_id, blob_id, scan_status)
+                SELECT ? || g, 'document-' || g || '.pdf', 'application/pdf', g, 'tree-sha256:' || md5(g::text),
+                       ? + g % ?, ? + g - 1,
+                       CASE g % 100 WHEN 0 THEN 'ERROR' WHEN 1 THEN 'INFECTED' WHEN 2 THEN 'PENDING_SCAN' ELSE 'CLEAN' END
+                FROM generate_series(1, ?) g
+                """, PREFIX, firstUserId, USER_COUNT, firstBlobId, FILE_COUNT);
+        jdbcTemplate.execute("VACUUM ANALYZE users, file_blobs, file_metadata");
+
+        userId = firstUserId + USER_COUNT / 2;
+        userFileIds = jdbcTemplate.queryForList(
+                "SELECT id FROM file_metadata WHERE user_id = ? ORDER BY id LIMIT 3", Long.class, userId);
+        middleFileId = jdbcTemplate.queryForObject(
+                "SELECT id FROM file_metadata WHERE unique_name = ?", Long.class, PREFIX + FILE_COUNT / 2);
+        fullScanCost = explain("SELECT * FROM file_metadata WHERE original_name = 'missing'")
+                .get("Total Cost").asDouble();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM file_blobs WHERE storage_key LIKE ?", PREFIX + "%");
+    }
+
+    Stream<Arguments> hotQueries() {
+        PageRequest firstPage = PageRequest.of(0, 20);
+        List<String> storageKeys = List.of(PREFIX + 1, PREFIX + 2, PREFIX + 3);
+        return Stream.of(
+                hotQuery("scroll: CLEAN по курсору", PAGE,
+                        repository -> repository.findByScanStatusAndIdLessThanOrderByIdDesc(
+                                ScanStatus.CLEAN, middleFileId, firstPage),
+                        "CLEAN", middleFileId, 21),
+                hotQuery("findSliceByScanStatusWithUser", PAGE,
+                        repository -> repository.findSliceByScanStatusWithUser(ScanStatus.ERROR, middleFileId, firstPage),
+                        "ERROR", middleFileId, 21),
+                hotQuery("findByScanStatusWithUser", PAGE,
+                        repository -> repository.findByScanStatusWithUser(ScanStatus.ERROR, PageRequest.of(5, 20)),
+                        "ERROR", 100, 20),
+                hotQuery("findIdsByScanStatusAfter", PAGE,
+                        repository -> repository.findIdsByScanStatusAfter(
+                                ScanStatus.INFECTED, middleFileId, Limit.of(100)),
+                        "INFECTED", middleFileId, 100),
+                hotQuery("findIdsByUserIdAfter", USER_FILES,
+                        repository -> repository.findIdsByUserIdAfter(userId, 0L, Limit.of(500)),
+                        userId, 0L, 500),
+                hotQuery("deleteByIdsAndUserId", POINT_LOOKUP,
+                        repository -> repository.deleteByIdsAndUserId(userFileIds, userId),
+                        userFileIds.get(0), userFileIds.get(1), userFileIds.get(2), userId),
+                hotQuery("existsByFileHashAndUserId", POINT_LOOKUP,
+                        repository -> repository.existsByFileHashAndUserId("tree-sha256:missing", userId),
+                        "tree-sha256:missing", userId, 1),
+                hotQuery("findByUniqueName", POINT_LOOKUP,
+                        repository -> repository.findByUniqueName(PREFIX + 777),
+                        PREFIX + 777),
+                hotQuery("updateScanStatusByStorageKeys", POINT_LOOKUP,
+                        repository -> repository.updateScanStatusByStorageKeys(storageKeys, ScanStatus.CLEAN),
+                        "CLEAN", storageKeys.get(0), storageKeys.get(1), storageKeys.get(2)),
+                hotQuery("findLegacyHashedAfter", PAGE,
+                        repository -> repository.findLegacyHashedAfter(0L, Limit.of(50)),
+                        0L, 50)
+        );
+    }
+
+    /**
+     * Горячий запрос идёт по индексу и стоит не больше своей доли полного чтения таблицы.
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void shouldUseIndex_whenRunningHotQuery(String name, double maxCostShare,
+                                            Consumer<FileMetadataRepository> query, List<Object> params)
+            throws Exception {
+        String sql = captureSql(query);
+        assertThat(StringUtils.countOccurrencesOf(sql, "?")).as(name + ": " + sql).isEqualTo(params.size());
+
+        JsonNode plan = explain(sql, params.toArray());
+
+        assertThat(seqScannedRelations(plan)).as(name).doesNotContain(FILE_METADATA);
+        assertThat(plan.get("Total Cost").asDouble()).as(name).isLessThan(fullScanCost * maxCostShare);
+    }
+
+    private static Arguments hotQuery(String name, double maxCostShare,
+                                      Consumer<FileMetadataRepository> query, Object... params) {
+        return Arguments.of(name, maxCostShare, query, List.of(params));
+    }
+
+    /**
+     * Вызывает метод репозитория в откатываемой транзакции и возвращает SQL его основного запроса.
+     * Page-запрос следом шлёт COUNT — он не проверяется.
+     */
+    private String captureSql(Consumer<FileMetadataRepository> query) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            List<String> statements = SqlStatementCapture.record(() -> query.accept(fileMetadataRepository));
+            assertThat(statements).isNotEmpty();
+            return statements.get(0);
+        });
+    }
+
+    private JsonNode explain(String sql, Object... params) throws Exception {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, params);
+        return objectMapper.readTree(json).get(0).get("Plan");
+    }
+
+    private List<String> seqScannedRelations(JsonNode plan) {
+        List<String> relations = new ArrayList<>();
+        collectSeqScans(plan, relations);
+        return relations;
+    }
+
+    private void collectSeqScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        node.path("Plans").forEach(child -> collectSeqScans(child, relations));
+    }
+}
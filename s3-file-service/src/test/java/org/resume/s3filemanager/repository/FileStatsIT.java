@@ -0,0 +1,154 @@
+package org.resume.s3filemanager.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.resume.s3filemanager.repository.FileMetadataRepository.ScanStatusTotals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Счётчики file_stats следуют за file_metadata при любом способе изменения:
+ * вставка, bulk UPDATE статуса, каскадное удаление пользователя. Каждый тест
+ * сравнивает счётчики с фактическим GROUP BY по таблице.
+ */
+@DisplayName("file_stats — счётчики файлов по статусам")
+class FileStatsIT extends BaseIntegrationTest {
+
+    private static final String PREFIX = "stats-";
+    private static final int THREADS = 8;
+    private static final int FILES_PER_THREAD = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        fileMetadataRepository.reconcileFileStats();
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password) VALUES (?, 'password') RETURNING id",
+                Long.class, PREFIX + "user");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM file_blobs WHERE storage_key LIKE ?", PREFIX + "%");
+    }
+
+    /**
+     * Вставка и bulk-смена статуса попадают в счётчики в той же транзакции.
+     */
+    @Test
+    void shouldTrackCounters_whenFilesInsertedAndStatusChanged() {
+        insertFile(ScanStatus.PENDING_SCAN, 100);
+        insertFile(ScanStatus.PENDING_SCAN, 200);
+        insertFile(ScanStatus.CLEAN, 300);
+        assertThat(trackedTotals()).isEqualTo(actualTotals());
+
+        fileMetadataRepository.updateScanStatusByStorageKeys(
+                List.of(PREFIX + 1, PREFIX + 2), ScanStatus.INFECTED);
+
+        assertThat(trackedTotals()).isEqualTo(actualTotals());
+    }
+
+    /**
+     * Удаление пользователя каскадом удаляет файлы — счётчики уменьшаются.
+     */
+    @Test
+    void shouldTrackCounters_whenUserDeletedWithCascade() {
+        insertFile(ScanStatus.CLEAN, 100);
+        insertFile(ScanStatus.ERROR, 200);
+
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+
+        assertThat(trackedTotals()).isEqualTo(actualTotals());
+    }
+
+    /**
+     * Параллельные вставки из разных соединений не теряют приращений.
+     */
+    @Test
+    void shouldNotLoseIncrements_whenFilesInsertedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> inserts = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            inserts.add(executor.submit(() -> {
+                for (int i = 0; i < FILES_PER_THREAD; i++) {
+                    insertFile(ScanStatus.PENDING_SCAN, 10);
+                }
+            }));
+        }
+        for (Future<?> insert : inserts) {
+            insert.get();
+        }
+        executor.shutdown();
+
+        assertThat(trackedTotals()).isEqualTo(actualTotals());
+    }
+
+    /**
+     * Счётчики испорчены в обход триггера — сверка возвращает их к фактическим значениям.
+     */
+    @Test
+    void shouldCorrectDrift_whenCountersTampered() {
+        insertFile(ScanStatus.CLEAN, 100);
+        jdbcTemplate.update("UPDATE file_stats SET file_count = file_count + 5 WHERE scan_status = 'CLEAN'");
+
+        int corrected = fileMetadataRepository.reconcileFileStats();
+
+        assertThat(corrected).isEqualTo(1);
+        assertThat(trackedTotals()).isEqualTo(actualTotals());
+        assertThat(fileMetadataRepository.reconcileFileStats()).isZero();
+    }
+
+    private void insertFile(ScanStatus scanStatus, long size) {
+        String key = PREFIX + sequence.incrementAndGet();
+        Long blobId = jdbcTemplate.queryForObject(
+                "INSERT INTO file_blobs (storage_key, size, scan_status) VALUES (?, ?, ?) RETURNING id",
+                Long.class, key, size, scanStatus.name());
+        jdbcTemplate.update("""
+                INSERT INTO file_metadata (unique_name, original_name, size, file_hash, user_id, blob_id, scan_status)
+                VALUES (?, 'document.pdf', ?, ?, ?, ?, ?)
+                """, key, size, "sha256:" + key, userId, blobId, scanStatus.name());
+    }
+
+    private Map<String, List<Long>> trackedTotals() {
+        Map<String, List<Long>> totals = new HashMap<>();
+        for (ScanStatusTotals status : fileMetadataRepository.sumFileStats()) {
+            if (status.getFileCount() != 0 || status.getTotalSize() != 0) {
+                totals.put(status.getScanStatus(), List.of(status.getFileCount(), status.getTotalSize()));
+            }
+        }
+        return totals;
+    }
+
+    private Map<String, List<Long>> actualTotals() {
+        Map<String, List<Long>> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT scan_status, count(*), sum(size) FROM file_metadata GROUP BY scan_status",
+                row -> {
+                    totals.put(row.getString(1), List.of(row.getLong(2), row.getLong(3)));
+                });
+        return totals;
+    }
+}
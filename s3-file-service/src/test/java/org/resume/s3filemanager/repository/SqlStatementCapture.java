@@ -0,0 +1,40 @@
+package org.resume.s3filemanager.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Перехватывает SQL, который Hibernate отправляет в БД из текущего потока.
+ * <p>
+ * Подключается свойством {@code spring.jpa.properties.hibernate.session_factory.statement_inspector};
+ * вне {@link #record(Runnable)} ничего не запоминает.
+ */
+public class SqlStatementCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * Выполняет действие и возвращает SQL всех запросов, отправленных за это время, по порядку.
+     */
+    public static List<String> record(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        try {
+            action.run();
+        } finally {
+            STATEMENTS.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
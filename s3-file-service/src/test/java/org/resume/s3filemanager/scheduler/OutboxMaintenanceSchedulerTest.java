@@ -0,0 +1,33 @@
+package org.resume.s3filemanager.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.s3filemanager.service.kafka.OutboxMaintenanceService;
+
+import static org.mockito.Mockito.inOrder;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxMaintenanceSchedulerTest {
+
+    @Mock
+    private OutboxMaintenanceService outboxMaintenanceService;
+
+    @InjectMocks
+    private OutboxMaintenanceScheduler outboxMaintenanceScheduler;
+
+    /**
+     * Scheduler сначала создаёт секции на ближайшие дни, затем удаляет старые.
+     */
+    @Test
+    void shouldCreatePartitionsThenPurge_whenSchedulerTriggered() {
+        outboxMaintenanceScheduler.maintainPartitions();
+
+        InOrder order = inOrder(outboxMaintenanceService);
+        order.verify(outboxMaintenanceService).createUpcomingPartitions();
+        order.verify(outboxMaintenanceService).purgeSentPartitions();
+    }
+}
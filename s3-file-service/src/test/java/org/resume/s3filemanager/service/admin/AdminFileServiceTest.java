@@ -10,25 +10,30 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.model.ScanStatus;
 import org.resume.s3filemanager.dto.AdminFileResponse;
+import org.resume.s3filemanager.dto.CursorPageResponse;
 import org.resume.s3filemanager.dto.FileStatsResponse;
+import org.resume.s3filemanager.entity.FileBlob;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.UserRole;
 import org.resume.s3filemanager.exception.FileNotFoundException;
 import org.resume.s3filemanager.exception.InvalidScanStatusException;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
-import org.resume.s3filemanager.service.file.YandexStorageService;
+import org.resume.s3filemanager.service.file.FileCursor;
+import org.resume.s3filemanager.service.file.ScanStatusTransitionService;
 import org.resume.s3filemanager.service.kafka.OutboxService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,7 +49,10 @@ class AdminFileServiceTest {
     private OutboxService outboxService;
 
     @Mock
-    private YandexStorageService yandexStorageService;
+    private ScanStatusTransitionService scanStatusTransitionService;
+
+    @Mock
+    private FileStatsService fileStatsService;
 
     @InjectMocks
     private AdminFileService adminFileService;
@@ -67,6 +75,7 @@ class AdminFileServiceTest {
         fileMetadata.setSize(FAKER.number().numberBetween(1L, 10_000_000L));
         fileMetadata.setScanStatus(ScanStatus.CLEAN);
         fileMetadata.setUser(user);
+        fileMetadata.setBlob(blobOf(fileMetadata.getUniqueName()));
     }
 
     /**
@@ -88,18 +97,35 @@ class AdminFileServiceTest {
     }
 
     /**
-     * Повторное сканирование — статус меняется на PENDING_SCAN и событие публикуется.
+     * Список по курсору — следующая страница начинается после последнего файла текущей.
+     */
+    @Test
+    void shouldReturnNextCursor_whenScrollHasMoreFiles() {
+        String cursor = FileCursor.encode(500L);
+        when(fileMetadataRepository.findSliceByScanStatusWithUser(ScanStatus.ERROR, 500L, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(fileMetadata), PageRequest.ofSize(1), true));
+
+        CursorPageResponse<AdminFileResponse> result = adminFileService.scrollByScanStatus(ScanStatus.ERROR, cursor, 1);
+
+        assertThat(result.content()).extracting(AdminFileResponse::uploadedUserName).containsExactly(user.getUsername());
+        assertThat(result.hasNext()).isTrue();
+        assertThat(FileCursor.decode(result.nextCursor())).isEqualTo(fileMetadata.getId());
+    }
+
+    /**
+     * Повторное сканирование — статус PENDING_SCAN получают объект и все ссылки, событие публикуется.
      */
     @Test
     void shouldRetryScan_whenFileStatusIsError() {
         fileMetadata.setScanStatus(ScanStatus.ERROR);
-        when(fileMetadataRepository.findById(fileMetadata.getId()))
+        String storageKey = fileMetadata.getBlob().getStorageKey();
+        when(fileMetadataRepository.findWithUserAndBlobById(fileMetadata.getId()))
                 .thenReturn(Optional.of(fileMetadata));
+        when(scanStatusTransitionService.transition(storageKey, ScanStatus.PENDING_SCAN)).thenReturn(true);
 
         AdminFileResponse result = adminFileService.retryScan(fileMetadata.getId());
 
         assertThat(result.scanStatus()).isEqualTo(ScanStatus.PENDING_SCAN);
-        verify(fileMetadataRepository).save(fileMetadata);
         verify(outboxService).saveFileUploadEvent(fileMetadata, fileMetadata.getUser().getId());
     }
 
@@ -108,7 +134,7 @@ class AdminFileServiceTest {
      */
     @Test
     void shouldThrowFileNotFoundException_whenFileNotFound() {
-        when(fileMetadataRepository.findById(fileMetadata.getId()))
+        when(fileMetadataRepository.findWithUserAndBlobById(fileMetadata.getId()))
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> adminFileService.retryScan(fileMetadata.getId()))
@@ -116,13 +142,16 @@ class AdminFileServiceTest {
     }
 
     /**
-     * Повторное сканирование — статус не ERROR, InvalidScanStatusException.
+     * Повторное сканирование — статус не ERROR (в том числе уже сменён параллельным повтором),
+     * переход не проходит, InvalidScanStatusException, событие не публикуется.
      */
     @Test
     void shouldThrowInvalidScanStatusException_whenFileStatusIsNotError() {
         fileMetadata.setScanStatus(ScanStatus.CLEAN);
-        when(fileMetadataRepository.findById(fileMetadata.getId()))
+        when(fileMetadataRepository.findWithUserAndBlobById(fileMetadata.getId()))
                 .thenReturn(Optional.of(fileMetadata));
+        when(scanStatusTransitionService.transition(fileMetadata.getBlob().getStorageKey(), ScanStatus.PENDING_SCAN))
+                .thenReturn(false);
 
         assertThatThrownBy(() -> adminFileService.retryScan(fileMetadata.getId()))
                 .isInstanceOf(InvalidScanStatusException.class);
@@ -132,58 +161,23 @@ class AdminFileServiceTest {
     }
 
     /**
-     * Статистика файлов — возвращает количество по каждому статусу.
+     * Статистика файлов — берётся из счётчиков, файлы не пересчитываются.
      */
     @Test
-    void shouldReturnFileStats_whenGetFileStats() {
-        when(fileMetadataRepository.countByScanStatus(ScanStatus.PENDING_SCAN)).thenReturn(3L);
-        when(fileMetadataRepository.countByScanStatus(ScanStatus.CLEAN)).thenReturn(10L);
-        when(fileMetadataRepository.countByScanStatus(ScanStatus.INFECTED)).thenReturn(1L);
-        when(fileMetadataRepository.countByScanStatus(ScanStatus.ERROR)).thenReturn(2L);
-        when(fileMetadataRepository.count()).thenReturn(16L);
+    void shouldReturnCounterStats_whenGetFileStats() {
+        FileStatsResponse stats = FileStatsResponse.builder().clean(10L).total(10L).totalSize("1.00 MB").build();
+        when(fileStatsService.getStats()).thenReturn(stats);
 
         FileStatsResponse result = adminFileService.getFileStats();
 
-        assertThat(result.pending()).isEqualTo(3L);
-        assertThat(result.clean()).isEqualTo(10L);
-        assertThat(result.infected()).isEqualTo(1L);
-        assertThat(result.error()).isEqualTo(2L);
-        assertThat(result.total()).isEqualTo(16L);
-    }
-
-    /**
-     * Удаление файлов не INFECTED — удаляет из S3 и метаданные.
-     */
-    @Test
-    void shouldDeleteFromS3AndDb_whenStatusIsNotInfected() {
-        FileMetadata second = new FileMetadata();
-        second.setUniqueName(FAKER.internet().uuid() + ".pdf");
-        second.setUser(user);
-
-        when(fileMetadataRepository.findAllByScanStatus(ScanStatus.ERROR))
-                .thenReturn(List.of(fileMetadata, second));
-
-        int deleted = adminFileService.deleteAllByScanStatus(ScanStatus.ERROR);
-
-        assertThat(deleted).isEqualTo(2);
-        verify(yandexStorageService).deleteFileYandexS3(fileMetadata.getUniqueName());
-        verify(yandexStorageService).deleteFileYandexS3(second.getUniqueName());
-        verify(fileMetadataRepository).deleteAll(List.of(fileMetadata, second));
+        assertThat(result).isEqualTo(stats);
+        verifyNoInteractions(fileMetadataRepository);
     }
 
-    /**
-     * Удаление INFECTED файлов — только метаданные, S3 не трогаем.
-     */
-    @Test
-    void shouldDeleteOnlyMetadata_whenStatusIsInfected() {
-        fileMetadata.setScanStatus(ScanStatus.INFECTED);
-        when(fileMetadataRepository.findAllByScanStatus(ScanStatus.INFECTED))
-                .thenReturn(List.of(fileMetadata));
-
-        int deleted = adminFileService.deleteAllByScanStatus(ScanStatus.INFECTED);
-
-        assertThat(deleted).isEqualTo(1);
-        verifyNoInteractions(yandexStorageService);
-        verify(fileMetadataRepository).deleteAll(List.of(fileMetadata));
+    private FileBlob blobOf(String storageKey) {
+        return FileBlob.builder()
+                .id(FAKER.number().randomNumber())
+                .storageKey(storageKey)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package org.resume.s3filemanager.service.admin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Удаление пользователя на реальной схеме: ссылки его файлов на общие объекты
+ * отпускаются, объекты без ссылок удаляются.
+ */
+@DisplayName("AdminUserService — удаление пользователя на реальной БД")
+class AdminUserServiceIT extends BaseIntegrationTest {
+
+    private static final String PREFIX = "user-delete-";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AdminUserService adminUserService;
+
+    private long deletedUserId;
+    private long keptUserId;
+
+    @BeforeEach
+    void setUp() {
+        deletedUserId = insertUser("deleted");
+        keptUserId = insertUser("kept");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM file_blobs WHERE storage_key LIKE ?", PREFIX + "%");
+    }
+
+    /**
+     * Общий с другим пользователем объект остаётся с одной ссылкой,
+     * собственный объект удалённого пользователя удаляется вместе с ним.
+     */
+    @Test
+    void shouldReleaseSharedBlobReferences_whenUserDeleted() {
+        insertBlob("shared", 2);
+        insertBlob("own", 1);
+        insertFile(deletedUserId, "shared", "a");
+        insertFile(deletedUserId, "own", "b");
+        insertFile(keptUserId, "shared", "c");
+
+        adminUserService.deleteUser(deletedUserId);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT ref_count FROM file_blobs WHERE storage_key = ?",
+                Integer.class, PREFIX + "shared")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT storage_key FROM file_blobs WHERE storage_key LIKE ?",
+                String.class, PREFIX + "%")).containsExactly(PREFIX + "shared");
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM file_metadata WHERE unique_name LIKE ?",
+                Long.class, PREFIX + "%")).isEqualTo(List.of(keptUserId));
+    }
+
+    private long insertUser(String name) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password) VALUES (?, 'password') RETURNING id",
+                Long.class, PREFIX + name);
+    }
+
+    private void insertBlob(String key, int refCount) {
+        jdbcTemplate.update("INSERT INTO file_blobs (storage_key, size, scan_status, ref_count) VALUES (?, 10, 'CLEAN', ?)",
+                PREFIX + key, refCount);
+    }
+
+    private void insertFile(long userId, String key, String name) {
+        jdbcTemplate.update("""
+                INSERT INTO file_metadata (unique_name, original_name, size, file_hash, user_id, blob_id, scan_status)
+                SELECT ?, 'document.pdf', 10, ?, ?, id, 'CLEAN' FROM file_blobs WHERE storage_key = ?
+                """, PREFIX + name, "sha256:" + PREFIX + key, userId, PREFIX + key);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -13,16 +14,24 @@ import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.FileUploadStatus;
 import org.resume.s3filemanager.enums.UserRole;
 import org.resume.s3filemanager.enums.UserStatus;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
 import org.resume.s3filemanager.security.JwtWhitelistService;
 import org.resume.s3filemanager.service.auth.UserService;
+import org.resume.s3filemanager.service.file.FileBlobService;
+import org.resume.s3filemanager.service.file.FileBlobService.DeletedFiles;
+import org.resume.s3filemanager.service.file.YandexAsyncStorageService;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +46,15 @@ class AdminUserServiceTest {
     @Mock
     private JwtWhitelistService jwtWhitelistService;
 
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Mock
+    private FileBlobService fileBlobService;
+
+    @Mock
+    private YandexAsyncStorageService yandexAsyncStorageService;
+
     @InjectMocks
     private AdminUserService adminUserService;
 
@@ -118,4 +136,28 @@ class AdminUserServiceTest {
         verify(jwtWhitelistService).deleteToken(user.getUsername());
         verify(userService).delete(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Удаление пользователя с файлами — файлы удаляются пачками с отпусканием ссылок,
+     * объекты без ссылок удаляются из S3, и только потом удаляется пользователь.
+     */
+    @Test
+    void shouldReleaseFileReferencesBeforeDeletingUser_whenUserHasFiles() {
+        when(userService.findById(user.getId())).thenReturn(user);
+        when(fileMetadataRepository.findIdsByUserIdAfter(eq(user.getId()), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(fileMetadataRepository.findIdsByUserIdAfter(eq(user.getId()), eq(2L), any(Limit.class)))
+                .thenReturn(List.of());
+        when(fileBlobService.deleteUserFiles(List.of(1L, 2L), user.getId()))
+                .thenReturn(new DeletedFiles(2, List.of("orphan.pdf")));
+        when(yandexAsyncStorageService.deleteFilesAsync(List.of("orphan.pdf")))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        adminUserService.deleteUser(user.getId());
+
+        InOrder inOrder = inOrder(fileBlobService, yandexAsyncStorageService, userService);
+        inOrder.verify(fileBlobService).deleteUserFiles(List.of(1L, 2L), user.getId());
+        inOrder.verify(yandexAsyncStorageService).deleteFilesAsync(List.of("orphan.pdf"));
+        inOrder.verify(userService).delete(user);
+    }
+}
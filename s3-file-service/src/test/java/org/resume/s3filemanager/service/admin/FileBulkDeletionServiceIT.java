@@ -0,0 +1,173 @@
+package org.resume.s3filemanager.service.admin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.resume.s3filemanager.dto.FileDeletionJobResponse;
+import org.resume.s3filemanager.entity.FileDeletionJob;
+import org.resume.s3filemanager.enums.DeletionJobStatus;
+import org.resume.s3filemanager.repository.FileDeletionJobRepository;
+import org.resume.s3filemanager.service.file.FileBlobService;
+import org.resume.s3filemanager.service.file.FileBlobService.DeletedFiles;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Массовое удаление на реальной схеме: set-based удаление пачки с общими объектами,
+ * проход задачи до конца и единственность выполняющейся задачи на статус.
+ * Используется статус INFECTED, для которого S3 не вызывается.
+ */
+@DisplayName("FileBulkDeletionService — массовое удаление на реальной БД")
+class FileBulkDeletionServiceIT extends BaseIntegrationTest {
+
+    private static final String PREFIX = "bulk-";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FileBlobService fileBlobService;
+
+    @Autowired
+    private FileBulkDeletionService fileBulkDeletionService;
+
+    @Autowired
+    private FileDeletionJobRepository fileDeletionJobRepository;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password) VALUES (?, 'password') RETURNING id",
+                Long.class, PREFIX + "user");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM file_deletion_jobs");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM file_blobs WHERE storage_key LIKE ?", PREFIX + "%");
+    }
+
+    /**
+     * Две ссылки на общий объект в одной пачке отпускаются вместе; объект, на который
+     * ссылается файл вне пачки, остаётся, файлы в другом статусе не удаляются.
+     */
+    @Test
+    void shouldReleaseSharedReferences_whenChunkDeleted() {
+        String sharedKey = insertBlob(ScanStatus.INFECTED, 3);
+        String keptKey = insertBlob(ScanStatus.INFECTED, 2);
+        long first = insertFile(sharedKey, ScanStatus.INFECTED);
+        long second = insertFile(sharedKey, ScanStatus.INFECTED);
+        long third = insertFile(sharedKey, ScanStatus.INFECTED);
+        long kept = insertFile(keptKey, ScanStatus.INFECTED);
+        long outsider = insertFile(keptKey, ScanStatus.INFECTED);
+        jdbcTemplate.update("UPDATE file_metadata SET scan_status = 'CLEAN' WHERE id = ?", third);
+
+        DeletedFiles deleted = fileBlobService.deleteFiles(List.of(first, second, third, kept), ScanStatus.INFECTED);
+
+        assertThat(deleted.count()).isEqualTo(3);
+        assertThat(deleted.orphanedKeys()).isEmpty();
+        assertThat(refCount(sharedKey)).isEqualTo(1);
+        assertThat(refCount(keptKey)).isEqualTo(1);
+        assertThat(fileIds()).containsExactlyInAnyOrder(third, outsider);
+
+        DeletedFiles last = fileBlobService.deleteFiles(List.of(outsider), ScanStatus.INFECTED);
+
+        assertThat(last.orphanedKeys()).containsExactly(keptKey);
+    }
+
+    /**
+     * Задача проходит все файлы статуса и завершается с итоговыми счётчиками.
+     */
+    @Test
+    void shouldDeleteAllFilesOfStatus_whenJobRuns() {
+        for (int i = 0; i < 5; i++) {
+            insertFile(insertBlob(ScanStatus.INFECTED, 1), ScanStatus.INFECTED);
+        }
+        long clean = insertFile(insertBlob(ScanStatus.CLEAN, 1), ScanStatus.CLEAN);
+        FileDeletionJob job = fileDeletionJobRepository.saveAndFlush(
+                new FileDeletionJob(ScanStatus.INFECTED, "owner-0"));
+
+        fileBulkDeletionService.run(job.getId(), "owner-0");
+
+        FileDeletionJobResponse progress = fileBulkDeletionService.getProgress(job.getId());
+        assertThat(progress.status()).isEqualTo(DeletionJobStatus.COMPLETED);
+        assertThat(progress.deletedFiles()).isEqualTo(5L);
+        assertThat(progress.finishedAt()).isNotNull();
+        assertThat(fileIds()).containsExactly(clean);
+    }
+
+    /**
+     * Вторая выполняющаяся задача для того же статуса отклоняется уникальным индексом.
+     */
+    @Test
+    void shouldAllowSingleRunningJobPerStatus() {
+        fileDeletionJobRepository.saveAndFlush(new FileDeletionJob(ScanStatus.ERROR, "owner-0"));
+
+        assertThatThrownBy(() -> fileDeletionJobRepository.saveAndFlush(
+                new FileDeletionJob(ScanStatus.ERROR, "owner-1")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    /**
+     * Зависшую задачу забирает только один из конкурирующих экземпляров;
+     * прежний исполнитель больше не записывает прогресс и не завершает задачу.
+     */
+    @Test
+    void shouldClaimStaleJobOnce() {
+        FileDeletionJob job = fileDeletionJobRepository.saveAndFlush(new FileDeletionJob(ScanStatus.ERROR, "owner-0"));
+        jdbcTemplate.update("UPDATE file_deletion_jobs SET heartbeat_at = now() - interval '1 hour' WHERE id = ?",
+                job.getId());
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(Duration.ofMinutes(2));
+
+        assertThat(fileDeletionJobRepository.findStaleJobIds(staleBefore)).containsExactly(job.getId());
+        assertThat(fileDeletionJobRepository.claimStale(job.getId(), "owner-1", now, staleBefore)).isEqualTo(1);
+        assertThat(fileDeletionJobRepository.claimStale(job.getId(), "owner-2", now, staleBefore)).isZero();
+
+        assertThat(fileDeletionJobRepository.recordProgress(job.getId(), "owner-0", 10, 10, 0, 0, now)).isZero();
+        assertThat(fileDeletionJobRepository.finish(job.getId(), "owner-0", DeletionJobStatus.FAILED, "lost", now))
+                .isZero();
+        assertThat(fileDeletionJobRepository.recordProgress(job.getId(), "owner-1", 10, 10, 0, 0, now)).isEqualTo(1);
+    }
+
+    private String insertBlob(ScanStatus scanStatus, int refCount) {
+        String key = PREFIX + sequence.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO file_blobs (storage_key, size, scan_status, ref_count) VALUES (?, 10, ?, ?)",
+                key, scanStatus.name(), refCount);
+        return key;
+    }
+
+    private long insertFile(String storageKey, ScanStatus scanStatus) {
+        String name = PREFIX + sequence.incrementAndGet();
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO file_metadata (unique_name, original_name, size, file_hash, user_id, blob_id, scan_status)
+                SELECT ?, 'document.pdf', 10, ?, ?, id, ? FROM file_blobs WHERE storage_key = ?
+                RETURNING id
+                """, Long.class, name, "sha256:" + name, userId, scanStatus.name(), storageKey);
+    }
+
+    private int refCount(String storageKey) {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM file_blobs WHERE storage_key = ?",
+                Integer.class, storageKey);
+    }
+
+    private List<Long> fileIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM file_metadata WHERE user_id = ?", Long.class, userId);
+    }
+}
@@ -0,0 +1,281 @@
+package org.resume.s3filemanager.service.admin;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.dto.FileDeletionJobResponse;
+import org.resume.s3filemanager.entity.FileDeletionJob;
+import org.resume.s3filemanager.enums.DeletionJobStatus;
+import org.resume.s3filemanager.exception.DeletionJobNotFoundException;
+import org.resume.s3filemanager.properties.BulkDeletionProperties;
+import org.resume.s3filemanager.repository.FileDeletionJobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.service.file.FileBlobService;
+import org.resume.s3filemanager.service.file.FileBlobService.DeletedFiles;
+import org.resume.s3filemanager.service.file.YandexAsyncStorageService;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FileBulkDeletionService — фоновое удаление файлов по статусу")
+class FileBulkDeletionServiceTest {
+
+    private static final long JOB_ID = 7L;
+    private static final String OWNER = "owner-1";
+    private static final Limit STEP = Limit.of(4);
+
+    @Mock
+    private FileDeletionJobRepository fileDeletionJobRepository;
+
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Mock
+    private FileBlobService fileBlobService;
+
+    @Mock
+    private YandexAsyncStorageService yandexAsyncStorageService;
+
+    private FileBulkDeletionService fileBulkDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        fileBulkDeletionService = service(Runnable::run);
+    }
+
+    /**
+     * Удаление для статуса уже идёт — возвращается его прогресс, новая задача не создаётся.
+     */
+    @Test
+    void shouldReturnRunningJob_whenDeletionAlreadyRunning() {
+        FileDeletionJob running = job(ScanStatus.ERROR);
+        running.setDeletedFiles(10);
+        when(fileDeletionJobRepository.findByScanStatusAndStatus(ScanStatus.ERROR, DeletionJobStatus.RUNNING))
+                .thenReturn(Optional.of(running));
+
+        FileDeletionJobResponse response = fileBulkDeletionService.start(ScanStatus.ERROR);
+
+        assertThat(response.id()).isEqualTo(JOB_ID);
+        assertThat(response.deletedFiles()).isEqualTo(10L);
+        verify(fileDeletionJobRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(fileBlobService);
+    }
+
+    /**
+     * Файлы удаляются шагами по две пачки; граница и счётчики сохраняются после каждого шага,
+     * объекты, которые S3 не удалил, считаются отдельно и не останавливают задачу.
+     */
+    @Test
+    void shouldDeleteInChunksAndComplete_whenStarted() {
+        FileDeletionJob job = job(ScanStatus.ERROR);
+        when(fileDeletionJobRepository.findByScanStatusAndStatus(ScanStatus.ERROR, DeletionJobStatus.RUNNING))
+                .thenReturn(Optional.empty());
+        when(fileDeletionJobRepository.saveAndFlush(any(FileDeletionJob.class))).thenReturn(job);
+        when(fileDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.ERROR, 0L, STEP))
+                .thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.ERROR, 4L, STEP)).thenReturn(List.of(5L));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.ERROR, 5L, STEP)).thenReturn(List.of());
+        when(fileBlobService.deleteFiles(List.of(1L, 2L), ScanStatus.ERROR))
+                .thenReturn(new DeletedFiles(2, List.of("a.pdf")));
+        when(fileBlobService.deleteFiles(List.of(3L, 4L), ScanStatus.ERROR))
+                .thenReturn(new DeletedFiles(2, List.of()));
+        when(fileBlobService.deleteFiles(List.of(5L), ScanStatus.ERROR))
+                .thenReturn(new DeletedFiles(1, List.of("b.pdf")));
+        when(yandexAsyncStorageService.deleteFilesAsync(List.of("a.pdf")))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(yandexAsyncStorageService.deleteFilesAsync(List.of("b.pdf")))
+                .thenReturn(CompletableFuture.completedFuture(List.of("b.pdf")));
+        when(fileDeletionJobRepository.recordProgress(
+                eq(JOB_ID), any(), anyLong(), anyLong(), anyLong(), anyLong(), any()))
+                .thenReturn(1);
+
+        FileDeletionJobResponse response = fileBulkDeletionService.start(ScanStatus.ERROR);
+
+        assertThat(response.status()).isEqualTo(DeletionJobStatus.RUNNING);
+        ArgumentCaptor<FileDeletionJob> saved = ArgumentCaptor.forClass(FileDeletionJob.class);
+        verify(fileDeletionJobRepository).saveAndFlush(saved.capture());
+        String owner = saved.getValue().getClaimedBy();
+        assertThat(owner).isNotBlank();
+        verify(fileDeletionJobRepository).recordProgress(eq(JOB_ID), eq(owner), eq(4L), eq(4L), eq(1L), eq(0L), any());
+        verify(fileDeletionJobRepository).recordProgress(eq(JOB_ID), eq(owner), eq(5L), eq(1L), eq(0L), eq(1L), any());
+        verify(fileDeletionJobRepository)
+                .finish(eq(JOB_ID), eq(owner), eq(DeletionJobStatus.COMPLETED), isNull(), any());
+    }
+
+    /**
+     * INFECTED — удаляются только метаданные, объекты S3 уже удалены при сканировании.
+     */
+    @Test
+    void shouldDeleteOnlyMetadata_whenStatusIsInfected() {
+        when(fileDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job(ScanStatus.INFECTED)));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.INFECTED, 0L, STEP)).thenReturn(List.of(1L));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.INFECTED, 1L, STEP)).thenReturn(List.of());
+        when(fileBlobService.deleteFiles(List.of(1L), ScanStatus.INFECTED))
+                .thenReturn(new DeletedFiles(1, List.of("infected.pdf")));
+        when(fileDeletionJobRepository.recordProgress(eq(JOB_ID), eq(OWNER), eq(1L), eq(1L), eq(0L), eq(0L), any()))
+                .thenReturn(1);
+
+        fileBulkDeletionService.run(JOB_ID, OWNER);
+
+        verifyNoInteractions(yandexAsyncStorageService);
+        verify(fileDeletionJobRepository)
+                .finish(eq(JOB_ID), eq(OWNER), eq(DeletionJobStatus.COMPLETED), isNull(), any());
+    }
+
+    /**
+     * Пачка упала — счётчики успевших пачек сохраняются, граница остаётся на месте,
+     * задача завершается в статусе FAILED с текстом ошибки.
+     */
+    @Test
+    void shouldFailJobAndKeepCursor_whenChunkDeletionFails() {
+        when(fileDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job(ScanStatus.ERROR)));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.ERROR, 0L, STEP))
+                .thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(fileBlobService.deleteFiles(List.of(1L, 2L), ScanStatus.ERROR))
+                .thenReturn(new DeletedFiles(2, List.of()));
+        when(fileBlobService.deleteFiles(List.of(3L, 4L), ScanStatus.ERROR))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        fileBulkDeletionService.run(JOB_ID, OWNER);
+
+        verify(fileDeletionJobRepository).recordProgress(eq(JOB_ID), eq(OWNER), eq(0L), eq(2L), eq(0L), eq(0L), any());
+        verify(fileDeletionJobRepository)
+                .finish(eq(JOB_ID), eq(OWNER), eq(DeletionJobStatus.FAILED), eq("connection lost"), any());
+    }
+
+    /**
+     * S3 не ответил за objectDeleteTimeout — объекты считаются неудалёнными,
+     * шаг не растягивается дольше аренды, задача продолжается.
+     */
+    @Test
+    void shouldCountObjectsAsFailed_whenS3DeletionTimesOut() {
+        when(fileDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job(ScanStatus.ERROR)));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.ERROR, 0L, STEP)).thenReturn(List.of(1L));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.ERROR, 1L, STEP)).thenReturn(List.of());
+        when(fileBlobService.deleteFiles(List.of(1L), ScanStatus.ERROR))
+                .thenReturn(new DeletedFiles(1, List.of("a.pdf", "b.pdf")));
+        when(yandexAsyncStorageService.deleteFilesAsync(List.of("a.pdf", "b.pdf")))
+                .thenReturn(new CompletableFuture<>());
+        when(fileDeletionJobRepository.recordProgress(eq(JOB_ID), eq(OWNER), eq(1L), eq(1L), eq(0L), eq(2L), any()))
+                .thenReturn(1);
+
+        fileBulkDeletionService.run(JOB_ID, OWNER);
+
+        verify(fileDeletionJobRepository)
+                .finish(eq(JOB_ID), eq(OWNER), eq(DeletionJobStatus.COMPLETED), isNull(), any());
+    }
+
+    /**
+     * Задачу завершили или забрали — исполнитель останавливается после текущего шага.
+     */
+    @Test
+    void shouldStop_whenJobIsNoLongerRunning() {
+        when(fileDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job(ScanStatus.CLEAN)));
+        when(fileMetadataRepository.findIdsByScanStatusAfter(ScanStatus.CLEAN, 0L, STEP)).thenReturn(List.of(1L));
+        when(fileBlobService.deleteFiles(List.of(1L), ScanStatus.CLEAN)).thenReturn(new DeletedFiles(1, List.of()));
+        when(fileDeletionJobRepository.recordProgress(eq(JOB_ID), eq(OWNER), eq(1L), eq(1L), eq(0L), eq(0L), any()))
+                .thenReturn(0);
+
+        fileBulkDeletionService.run(JOB_ID, OWNER);
+
+        verify(fileMetadataRepository, times(1)).findIdsByScanStatusAfter(any(), anyLong(), any());
+        verify(fileDeletionJobRepository, never()).finish(anyLong(), any(), any(), any(), any());
+    }
+
+    /**
+     * Зависшие задачи — продолжается только та, которую удалось забрать.
+     */
+    @Test
+    void shouldResumeOnlyClaimedJobs_whenStaleJobsFound() {
+        Executor executor = mock(Executor.class);
+        FileBulkDeletionService service = service(executor);
+        when(fileDeletionJobRepository.findStaleJobIds(any(Instant.class))).thenReturn(List.of(1L, 2L));
+        when(fileDeletionJobRepository.claimStale(eq(1L), any(), any(), any())).thenReturn(1);
+        when(fileDeletionJobRepository.claimStale(eq(2L), any(), any(), any())).thenReturn(0);
+
+        int resumed = service.resumeStaleJobs();
+
+        assertThat(resumed).isEqualTo(1);
+        verify(executor, times(1)).execute(any(Runnable.class));
+    }
+
+    /**
+     * Executor не принял новую задачу — она сразу завершается FAILED, а не висит RUNNING до истечения аренды.
+     */
+    @Test
+    void shouldFailJob_whenExecutorRejectsStart() {
+        Executor executor = mock(Executor.class);
+        FileBulkDeletionService service = service(executor);
+        FileDeletionJob job = job(ScanStatus.ERROR);
+        when(fileDeletionJobRepository.findByScanStatusAndStatus(ScanStatus.ERROR, DeletionJobStatus.RUNNING))
+                .thenReturn(Optional.empty());
+        when(fileDeletionJobRepository.saveAndFlush(any(FileDeletionJob.class))).thenReturn(job);
+        when(fileDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        doThrow(new RejectedExecutionException("shutdown")).when(executor).execute(any(Runnable.class));
+
+        service.start(ScanStatus.ERROR);
+
+        verify(fileDeletionJobRepository).finish(eq(JOB_ID), any(), eq(DeletionJobStatus.FAILED), any(), any());
+    }
+
+    /**
+     * Executor не принял подхваченную задачу — она отпускается для следующей проверки.
+     */
+    @Test
+    void shouldReleaseClaim_whenExecutorRejectsResume() {
+        Executor executor = mock(Executor.class);
+        FileBulkDeletionService service = service(executor);
+        when(fileDeletionJobRepository.findStaleJobIds(any(Instant.class))).thenReturn(List.of(1L));
+        when(fileDeletionJobRepository.claimStale(eq(1L), any(), any(), any())).thenReturn(1);
+        doThrow(new RejectedExecutionException("shutdown")).when(executor).execute(any(Runnable.class));
+
+        int resumed = service.resumeStaleJobs();
+
+        assertThat(resumed).isZero();
+        verify(fileDeletionJobRepository).releaseClaim(eq(1L), any(), eq(Instant.EPOCH));
+    }
+
+    /**
+     * Задачи нет — DeletionJobNotFoundException.
+     */
+    @Test
+    void shouldThrowDeletionJobNotFoundException_whenJobNotFound() {
+        when(fileDeletionJobRepository.findById(JOB_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> fileBulkDeletionService.getProgress(JOB_ID))
+                .isInstanceOf(DeletionJobNotFoundException.class);
+    }
+
+    private FileBulkDeletionService service(Executor asyncExecutor) {
+        BulkDeletionProperties properties = new BulkDeletionProperties(
+                2, 2, Duration.ofMinutes(2), Duration.ofMillis(100), 60_000);
+        return new FileBulkDeletionService(fileDeletionJobRepository, fileMetadataRepository, fileBlobService,
+                yandexAsyncStorageService, properties, asyncExecutor, Runnable::run);
+    }
+
+    private FileDeletionJob job(ScanStatus scanStatus) {
+        FileDeletionJob job = new FileDeletionJob(scanStatus, OWNER);
+        job.setId(JOB_ID);
+        return job;
+    }
+}
@@ -0,0 +1,131 @@
+package org.resume.s3filemanager.service.admin;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.s3filemanager.dto.FileStatsResponse;
+import org.resume.s3filemanager.properties.FileStatsProperties;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository.ScanStatusTotals;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FileStatsService — статистика файлов по счётчикам")
+class FileStatsServiceTest {
+
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    /**
+     * Счётчики по статусам складываются в итог, статус без файлов — ноль.
+     */
+    @Test
+    void shouldSumCounters_whenGetStats() {
+        when(fileMetadataRepository.sumFileStats()).thenReturn(List.of(
+                totals("CLEAN", 10, 3 * 1_048_576L),
+                totals("PENDING_SCAN", 3, 1_048_576L),
+                totals("ERROR", 2, 0)));
+
+        FileStatsResponse stats = service(Duration.ZERO).getStats();
+
+        assertThat(stats.clean()).isEqualTo(10L);
+        assertThat(stats.pending()).isEqualTo(3L);
+        assertThat(stats.error()).isEqualTo(2L);
+        assertThat(stats.infected()).isZero();
+        assertThat(stats.total()).isEqualTo(15L);
+        assertThat(stats.totalSize()).isEqualTo("4.00 MB");
+    }
+
+    /**
+     * В пределах TTL статистика отдаётся из памяти без запроса к БД.
+     */
+    @Test
+    void shouldReadCountersOnce_whenCalledWithinTtl() {
+        when(fileMetadataRepository.sumFileStats()).thenReturn(List.of(totals("CLEAN", 1, 1)));
+        FileStatsService service = service(Duration.ofMinutes(1));
+
+        FileStatsResponse first = service.getStats();
+        FileStatsResponse second = service.getStats();
+
+        assertThat(second).isSameAs(first);
+        verify(fileMetadataRepository, times(1)).sumFileStats();
+    }
+
+    /**
+     * TTL 0 — кэш выключен, каждое чтение идёт в БД.
+     */
+    @Test
+    void shouldReadCountersEachTime_whenTtlIsZero() {
+        when(fileMetadataRepository.sumFileStats()).thenReturn(List.of(totals("CLEAN", 1, 1)));
+        FileStatsService service = service(Duration.ZERO);
+
+        service.getStats();
+        service.getStats();
+
+        verify(fileMetadataRepository, times(2)).sumFileStats();
+    }
+
+    /**
+     * Сверка нашла расхождение — кэш сбрасывается, следующее чтение видит исправленные счётчики.
+     */
+    @Test
+    void shouldDropCache_whenReconcileCorrectsDrift() {
+        when(fileMetadataRepository.sumFileStats())
+                .thenReturn(List.of(totals("CLEAN", 1, 1)))
+                .thenReturn(List.of(totals("CLEAN", 2, 2)));
+        when(fileMetadataRepository.reconcileFileStats()).thenReturn(1);
+        FileStatsService service = service(Duration.ofMinutes(1));
+        service.getStats();
+
+        int corrected = service.reconcile();
+
+        assertThat(corrected).isEqualTo(1);
+        assertThat(service.getStats().clean()).isEqualTo(2L);
+    }
+
+    /**
+     * Расхождения нет — кэш остаётся.
+     */
+    @Test
+    void shouldKeepCache_whenNoDrift() {
+        when(fileMetadataRepository.sumFileStats()).thenReturn(List.of(totals("CLEAN", 1, 1)));
+        when(fileMetadataRepository.reconcileFileStats()).thenReturn(0);
+        FileStatsService service = service(Duration.ofMinutes(1));
+        service.getStats();
+
+        service.reconcile();
+        service.getStats();
+
+        verify(fileMetadataRepository, times(1)).sumFileStats();
+    }
+
+    private FileStatsService service(Duration cacheTtl) {
+        return new FileStatsService(fileMetadataRepository, new FileStatsProperties(cacheTtl, 60_000));
+    }
+
+    private ScanStatusTotals totals(String scanStatus, long fileCount, long totalSize) {
+        return new ScanStatusTotals() {
+            @Override
+            public String getScanStatus() {
+                return scanStatus;
+            }
+
+            @Override
+            public long getFileCount() {
+                return fileCount;
+            }
+
+            @Override
+            public long getTotalSize() {
+                return totalSize;
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package org.resume.s3filemanager.service.file;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.entity.FileBlob;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FileBlobService — общие объекты S3 со счётчиком ссылок")
+class FileBlobServiceTest {
+
+    private static final Faker FAKER = new Faker();
+
+    @Mock
+    private FileBlobRepository fileBlobRepository;
+
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    @InjectMocks
+    private FileBlobService fileBlobService;
+
+    private FileBlob blob;
+    private String contentHash;
+    private String storageKey;
+
+    @BeforeEach
+    void setUp() {
+        contentHash = FAKER.internet().uuid();
+        storageKey = FAKER.internet().uuid() + ".pdf";
+        blob = FileBlob.builder()
+                .id(FAKER.number().randomNumber())
+                .contentHash(contentHash)
+                .storageKey(storageKey)
+                .size(FAKER.number().numberBetween(1L, 10_000_000L))
+                .build();
+    }
+
+    // acquire
+
+    /**
+     * Новое содержимое — только что загруженный объект становится общим, статус PENDING_SCAN.
+     */
+    @Test
+    void shouldRegisterUploadedObject_whenContentIsNew() {
+        when(fileBlobRepository.acquireReference(contentHash, storageKey, blob.getSize())).thenReturn(blob.getId());
+        when(fileBlobRepository.findById(blob.getId())).thenReturn(Optional.of(blob));
+
+        FileBlob acquired = fileBlobService.acquire(contentHash, storageKey, blob.getSize());
+
+        assertThat(acquired.getStorageKey()).isEqualTo(storageKey);
+        assertThat(acquired.getScanStatus()).isEqualTo(ScanStatus.PENDING_SCAN);
+    }
+
+    /**
+     * Содержимое уже хранится — возвращается существующий объект со своим ключом и вердиктом.
+     */
+    @Test
+    void shouldReturnExistingBlob_whenContentAlreadyStored() {
+        blob.setScanStatus(ScanStatus.CLEAN);
+        blob.setRefCount(2);
+        String uploadedKey = FAKER.internet().uuid() + ".pdf";
+
+        when(fileBlobRepository.acquireReference(contentHash, uploadedKey, blob.getSize())).thenReturn(blob.getId());
+        when(fileBlobRepository.findById(blob.getId())).thenReturn(Optional.of(blob));
+
+        FileBlob acquired = fileBlobService.acquire(contentHash, uploadedKey, blob.getSize());
+
+        assertThat(acquired.getStorageKey()).isEqualTo(storageKey);
+        assertThat(acquired.getScanStatus()).isEqualTo(ScanStatus.CLEAN);
+    }
+
+    // release
+
+    /**
+     * Остались другие ссылки — объект не удаляется.
+     */
+    @Test
+    void shouldKeepBlob_whenOtherReferencesRemain() {
+        when(fileBlobRepository.releaseReference(blob.getId())).thenReturn(1);
+
+        assertThat(fileBlobService.release(blob)).isEmpty();
+
+        verify(fileBlobRepository, never()).deleteIfUnreferenced(anyLong());
+    }
+
+    /**
+     * Последняя ссылка — запись объекта удаляется, возвращается ключ S3 для удаления.
+     */
+    @Test
+    void shouldReturnStorageKey_whenLastReferenceReleased() {
+        when(fileBlobRepository.releaseReference(blob.getId())).thenReturn(0);
+        when(fileBlobRepository.deleteIfUnreferenced(blob.getId())).thenReturn(Optional.of(storageKey));
+
+        assertThat(fileBlobService.release(blob)).contains(storageKey);
+    }
+
+    // deleteFiles
+
+    /**
+     * Пачка файлов — ссылки на общий объект отпускаются одним UPDATE на количество ссылок,
+     * возвращаются ключи объектов, оставшихся без ссылок.
+     */
+    @Test
+    void shouldReleaseReferencesGroupedByCount_whenFilesDeleted() {
+        long sharedBlobId = blob.getId() + 1;
+        when(fileMetadataRepository.deleteByIdsAndScanStatus(List.of(1L, 2L, 3L), "ERROR"))
+                .thenReturn(List.of(blob.getId(), sharedBlobId, sharedBlobId));
+        when(fileBlobRepository.deleteUnreferenced(Set.of(blob.getId(), sharedBlobId)))
+                .thenReturn(List.of(storageKey));
+
+        FileBlobService.DeletedFiles deleted = fileBlobService.deleteFiles(List.of(1L, 2L, 3L), ScanStatus.ERROR);
+
+        assertThat(deleted.count()).isEqualTo(3);
+        assertThat(deleted.orphanedKeys()).containsExactly(storageKey);
+        verify(fileBlobRepository).lockByIds(Set.of(blob.getId(), sharedBlobId));
+        verify(fileBlobRepository).releaseReferences(List.of(blob.getId()), 1);
+        verify(fileBlobRepository).releaseReferences(List.of(sharedBlobId), 2);
+    }
+
+    /**
+     * Файлы пачки уже удалены или сменили статус — объекты не трогаем.
+     */
+    @Test
+    void shouldSkipBlobs_whenNoFilesDeleted() {
+        when(fileMetadataRepository.deleteByIdsAndScanStatus(List.of(1L), "CLEAN")).thenReturn(List.of());
+
+        FileBlobService.DeletedFiles deleted = fileBlobService.deleteFiles(List.of(1L), ScanStatus.CLEAN);
+
+        assertThat(deleted.count()).isZero();
+        assertThat(deleted.orphanedKeys()).isEmpty();
+        verifyNoInteractions(fileBlobRepository);
+    }
+}
@@ -0,0 +1,47 @@
+package org.resume.s3filemanager.service.file;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.resume.s3filemanager.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("FileCursor — курсор постраничного просмотра")
+class FileCursorTest {
+
+    @Test
+    @DisplayName("Курсор восстанавливает id, из которого создан")
+    void shouldDecodeEncodedId() {
+        assertThat(FileCursor.decode(FileCursor.encode(1_234_567L))).isEqualTo(1_234_567L);
+    }
+
+    @Test
+    @DisplayName("Без курсора — первая страница, граница не ограничивает id")
+    void shouldReturnUpperBound_whenCursorMissing() {
+        assertThat(FileCursor.decode(null)).isEqualTo(Long.MAX_VALUE);
+        assertThat(FileCursor.decode(" ")).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not-base64!", "MTIz", "djE6YWJj", "djE6LTE"})
+    @DisplayName("Курсор, не выданный сервером, отклоняется")
+    void shouldRejectForeignCursor(String cursor) {
+        assertThatThrownBy(() -> FileCursor.decode(cursor))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Курсор — Base64 URL без символов, требующих экранирования в query")
+    void shouldBeUrlSafe() {
+        String cursor = FileCursor.encode(Long.MAX_VALUE - 1);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)).startsWith("v1:");
+    }
+}
@@ -13,7 +13,9 @@ import org.resume.s3filemanager.enums.FileUploadStatus;
 import org.resume.s3filemanager.enums.UserRole;
 import org.resume.s3filemanager.enums.UserStatus;
 import org.resume.s3filemanager.repository.AuditLogRepository;
+import org.resume.s3filemanager.repository.FileBlobRepository;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.repository.OutboxRepository;
 import org.resume.s3filemanager.repository.UserRepository;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,8 +26,10 @@ import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.BucketAlreadyExistsException;
 import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -45,6 +49,12 @@ class FileFacadeServiceIT extends BaseIntegrationTest {
     @Autowired
     private FileMetadataRepository fileMetadataRepository;
 
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -60,20 +70,13 @@ class FileFacadeServiceIT extends BaseIntegrationTest {
     @BeforeEach
     void setUp() throws IOException {
         fileMetadataRepository.deleteAll();
+        fileBlobRepository.deleteAll();
+        outboxRepository.deleteAll();
         auditLogRepository.deleteAll();
         userRepository.deleteAll();
 
-        user = new User();
-        user.setUsername(FAKER.name().username());
-        user.setPassword(FAKER.internet().password());
-        user.setRole(UserRole.ADMIN);
-        user.setUploadStatus(FileUploadStatus.UNLIMITED);
-        user.setStatus(UserStatus.ACTIVE);
-        user = userRepository.save(user);
-
-        SecurityContextHolder.getContext().setAuthentication(
-                new UsernamePasswordAuthenticationToken(user.getUsername(), null, List.of())
-        );
+        user = saveAdmin();
+        authenticate(user);
 
         MDC.put(MdcConstants.REQUEST_ID, UUID.randomUUID().toString());
         MDC.put(MdcConstants.USERNAME, user.getUsername());
@@ -126,9 +129,11 @@ class FileFacadeServiceIT extends BaseIntegrationTest {
         fileFacadeService.uploadFile(multipartFile);
 
         String uniqueName = fileMetadataRepository.findAll().getFirst().getUniqueName();
-        var response = fileFacadeService.downloadFile(uniqueName);
+        var response = fileFacadeService.streamFile(uniqueName, null, null);
 
-        assertThat(response.getContent()).isEqualTo(multipartFile.getBytes());
+        try (InputStream content = response.getContent()) {
+            assertThat(content.readAllBytes()).isEqualTo(multipartFile.getBytes());
+        }
         assertThat(response.getContentType()).isEqualTo("image/png");
     }
 
@@ -145,19 +150,70 @@ class FileFacadeServiceIT extends BaseIntegrationTest {
         assertThat(fileMetadataRepository.findByUniqueName(uniqueName)).isEmpty();
     }
 
+    /**
+     * Одинаковое содержимое от двух пользователей — в S3 один объект с двумя ссылками,
+     * второй файл не отправляется на сканирование; объект удаляется с последней ссылкой.
+     */
+    @Test
+    void shouldShareStoredObject_whenSameContentUploadedByDifferentUsers() {
+        fileFacadeService.uploadFile(multipartFile);
+        User secondUser = saveAdmin();
+        authenticate(secondUser);
+        fileFacadeService.uploadFile(multipartFile);
+
+        List<FileMetadata> files = fileMetadataRepository.findAll();
+        assertThat(files).hasSize(2);
+        assertThat(fileBlobRepository.findAll())
+                .singleElement()
+                .satisfies(blob -> assertThat(blob.getRefCount()).isEqualTo(2));
+        assertThat(outboxRepository.count()).isEqualTo(1);
+
+        String storageKey = fileBlobRepository.findAll().getFirst().getStorageKey();
+        assertThat(yandexS3Client.listObjectsV2(r -> r.bucket(BUCKET)).contents())
+                .extracting(S3Object::key)
+                .contains(storageKey)
+                .doesNotContain(files.stream()
+                        .map(FileMetadata::getUniqueName)
+                        .filter(name -> !name.equals(storageKey))
+                        .toArray(String[]::new));
+
+        files.forEach(file -> fileFacadeService.deleteFile(file.getUniqueName()));
+
+        assertThat(fileBlobRepository.count()).isZero();
+        assertThat(yandexS3Client.listObjectsV2(r -> r.bucket(BUCKET)).contents())
+                .extracting(S3Object::key)
+                .doesNotContain(storageKey);
+    }
+
     /**
      * Аудит — после upload/download/delete в БД появляются записи аудита.
      */
     @Test
-    void shouldCreateAuditLogs_forUploadDownloadDelete() {
+    void shouldCreateAuditLogs_forUploadDownloadDelete() throws IOException {
         fileFacadeService.uploadFile(multipartFile);
 
         String uniqueName = fileMetadataRepository.findAll().getFirst().getUniqueName();
 
-        fileFacadeService.downloadFile(uniqueName);
+        fileFacadeService.streamFile(uniqueName, null, null).getContent().close();
         fileFacadeService.deleteFile(uniqueName);
 
         await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
                 assertThat(auditLogRepository.count()).isEqualTo(3));
     }
-}
\ No newline at end of file
+
+    private User saveAdmin() {
+        User admin = new User();
+        admin.setUsername(FAKER.name().username() + UUID.randomUUID());
+        admin.setPassword(FAKER.internet().password());
+        admin.setRole(UserRole.ADMIN);
+        admin.setUploadStatus(FileUploadStatus.UNLIMITED);
+        admin.setStatus(UserStatus.ACTIVE);
+        return userRepository.save(admin);
+    }
+
+    private void authenticate(User currentUser) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(currentUser.getUsername(), null, List.of())
+        );
+    }
+}
@@ -5,31 +5,58 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.s3filemanager.constant.ErrorMessages;
+import org.resume.s3filemanager.constant.SuccessMessages;
 import org.resume.s3filemanager.constant.ValidationMessages;
-import org.resume.s3filemanager.dto.FileDownloadResponse;
+import org.resume.s3filemanager.dto.FileStreamResponse;
 import org.resume.s3filemanager.dto.MultipleUploadResponse;
+import org.resume.s3filemanager.entity.FileBlob;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.CommonResponseStatus;
 import org.resume.s3filemanager.exception.*;
 import org.resume.s3filemanager.properties.FileUploadProperties;
+import org.resume.s3filemanager.service.hash.HashingInputStream;
+import org.resume.s3filemanager.service.hash.IncrementalHash;
 import org.resume.s3filemanager.service.kafka.OutboxService;
 import org.resume.s3filemanager.validation.FileValidator;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
-
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,6 +86,9 @@ class FileFacadeServiceTest {
     @Mock
     private OutboxService outboxService;
 
+    @Spy
+    private TaskExecutor batchUploadExecutor = new SyncTaskExecutor();
+
     @InjectMocks
     private FileFacadeService fileFacadeService;
 
@@ -84,20 +114,41 @@ class FileFacadeServiceTest {
      * Успешная загрузка — файл уходит в S3, метаданные сохраняются, событие публикуется.
      */
     @Test
-    void shouldUploadFile_whenAllChecksPass() {
+    void shouldUploadFile_whenAllChecksPass() throws IOException {
         String fileHash = FAKER.internet().uuid();
-        FileMetadata saved = buildFileMetadata();
 
         when(filePermissionService.checkUploadPermission()).thenReturn(user);
-        when(fileHashService.calculateMD5(any())).thenReturn(fileHash);
+        stubHashingStream(fileHash);
         when(fileMetadataService.saveFileWithPermission(any(), anyString(), eq(fileHash), eq(user)))
-                .thenReturn(saved);
+                .thenAnswer(this::savedWithOwnBlob);
 
         fileFacadeService.uploadFile(validPdfFile);
 
-        verify(fileStorageService).uploadFileYandexS3(anyString(), any(), eq("application/pdf"));
+        verify(fileStorageService).uploadFileYandexS3(anyString(), any(InputStream.class), anyLong(), eq("application/pdf"));
         verify(fileMetadataService).saveFileWithPermission(any(), anyString(), eq(fileHash), eq(user));
-        verify(outboxService).saveFileUploadEvent(eq(saved), eq(user.getId()));
+        verify(outboxService).saveFileUploadEvent(any(FileMetadata.class), eq(user.getId()));
+        verify(fileStorageService, never()).deleteFileYandexS3(anyString());
+    }
+
+    /**
+     * Содержимое уже хранится — файл ссылается на существующий объект,
+     * только что загруженная копия удаляется, событие на сканирование не отправляется.
+     */
+    @Test
+    void shouldReuseStoredBlobAndSkipScan_whenContentAlreadyStored() throws IOException {
+        FileMetadata saved = buildFileMetadata();
+        String sharedKey = saved.getBlob().getStorageKey();
+
+        when(filePermissionService.checkUploadPermission()).thenReturn(user);
+        stubHashingStream(FAKER.internet().uuid());
+        when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
+                .thenReturn(saved);
+
+        fileFacadeService.uploadFile(validPdfFile);
+
+        verify(fileStorageService).deleteFileYandexS3(argThat(key -> !key.equals(sharedKey)));
+        verify(fileStorageService, never()).deleteFileYandexS3(sharedKey);
+        verifyNoInteractions(outboxService);
     }
 
     /**
@@ -115,35 +166,58 @@ class FileFacadeServiceTest {
     }
 
     /**
-     * Дубликат файла — DuplicateFileException пробрасывается до загрузки в S3.
+     * Дубликат файла — хеш известен только после потоковой загрузки,
+     * поэтому объект откатывается из S3, а метаданные не сохраняются.
      */
     @Test
-    void shouldThrowDuplicateFileException_whenFileHashAlreadyExists() {
+    void shouldThrowDuplicateFileException_whenFileHashAlreadyExists() throws IOException {
         when(filePermissionService.checkUploadPermission()).thenReturn(user);
-        when(fileHashService.calculateMD5(any())).thenReturn(FAKER.internet().uuid());
+        stubHashingStream(FAKER.internet().uuid());
         doThrow(new DuplicateFileException())
                 .when(fileHashService).checkDuplicateInDatabase(anyString(), any());
 
         assertThatThrownBy(() -> fileFacadeService.uploadFile(validPdfFile))
                 .isInstanceOf(DuplicateFileException.class);
 
-        verifyNoInteractions(fileStorageService, fileMetadataService, outboxService);
+        verify(fileStorageService).uploadFileYandexS3(anyString(), any(InputStream.class), anyLong(), anyString());
+        verify(fileStorageService).deleteFileYandexS3(anyString());
+        verifyNoInteractions(fileMetadataService, outboxService);
+    }
+
+    /**
+     * Загрузка читает файл потоком — getBytes() не вызывается, в S3 уходит точный размер файла.
+     */
+    @Test
+    void shouldStreamFileToStorage_withoutReadingWholeFileIntoMemory() throws Exception {
+        MockMultipartFile file = spy(validPdfFile);
+
+        when(filePermissionService.checkUploadPermission()).thenReturn(user);
+        stubHashingStream(FAKER.internet().uuid());
+        when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
+                .thenAnswer(this::savedWithOwnBlob);
+
+        fileFacadeService.uploadFile(file);
+
+        verify(file, never()).getBytes();
+        verify(file).getInputStream();
+        verify(fileStorageService).uploadFileYandexS3(
+                anyString(), any(InputStream.class), eq(validPdfFile.getSize()), eq("application/pdf"));
     }
 
     /**
      * Ошибка сохранения в БД — файл откатывается из S3 (паттерн Saga).
      */
     @Test
-    void shouldRollbackS3Upload_whenDatabaseSaveFails() {
+    void shouldRollbackS3Upload_whenDatabaseSaveFails() throws IOException {
         when(filePermissionService.checkUploadPermission()).thenReturn(user);
-        when(fileHashService.calculateMD5(any())).thenReturn(FAKER.internet().uuid());
+        stubHashingStream(FAKER.internet().uuid());
         when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
                 .thenThrow(new RuntimeException());
 
         assertThatThrownBy(() -> fileFacadeService.uploadFile(validPdfFile))
                 .isInstanceOf(RuntimeException.class);
 
-        verify(fileStorageService).uploadFileYandexS3(anyString(), any(), anyString());
+        verify(fileStorageService).uploadFileYandexS3(anyString(), any(InputStream.class), anyLong(), anyString());
         verify(fileStorageService).deleteFileYandexS3(anyString());
         verifyNoInteractions(outboxService);
     }
@@ -155,7 +229,7 @@ class FileFacadeServiceTest {
      * Валидный загружается, невалидный отклоняется с сообщением из ValidationMessages.
      */
     @Test
-    void shouldReturnPartialSuccess_whenOneFileIsInvalidAndOneIsValid() {
+    void shouldReturnPartialSuccess_whenOneFileIsInvalidAndOneIsValid() throws IOException {
         MockMultipartFile invalidFile = new MockMultipartFile(
                 "file",
                 FAKER.file().fileName(null, null, "exe", null),
@@ -165,15 +239,14 @@ class FileFacadeServiceTest {
         String validationError = String.format(
                 ValidationMessages.FILE_TYPE_NOT_ALLOWED, "exe", "application/x-msdownload");
 
-        FileMetadata saved = buildFileMetadata();
 
         when(fileUploadProperties.getMaxBatchSize()).thenReturn(5);
         when(filePermissionService.checkUploadPermission()).thenReturn(user);
         when(fileValidator.validateFile(validPdfFile)).thenReturn(Optional.empty());
         when(fileValidator.validateFile(invalidFile)).thenReturn(Optional.of(validationError));
-        when(fileHashService.calculateMD5(any())).thenReturn(FAKER.internet().uuid());
+        stubHashingStream(FAKER.internet().uuid());
         when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
-                .thenReturn(saved);
+                .thenAnswer(this::savedWithOwnBlob);
 
         List<MultipleUploadResponse> results = fileFacadeService.multipleUpload(
                 new MultipartFile[]{validPdfFile, invalidFile});
@@ -183,7 +256,7 @@ class FileFacadeServiceTest {
         assertThat(results.get(1).status()).isEqualTo(CommonResponseStatus.ERROR);
         assertThat(results.get(1).message()).isEqualTo(validationError);
 
-        verify(fileStorageService).uploadFileYandexS3(anyString(), any(), anyString());
+        verify(fileStorageService).uploadFileYandexS3(anyString(), any(InputStream.class), anyLong(), anyString());
     }
 
     /**
@@ -267,17 +340,16 @@ class FileFacadeServiceTest {
                 "application/pdf",
                 FAKER.lorem().characters(5).getBytes());
 
-        FileMetadata saved = buildFileMetadata();
 
         when(fileUploadProperties.getMaxBatchSize()).thenReturn(5);
         when(filePermissionService.checkUploadPermission()).thenReturn(user);
         when(fileValidator.validateFile(any())).thenReturn(Optional.empty());
-        when(fileHashService.calculateMD5(any())).thenReturn(FAKER.internet().uuid());
+        stubHashingStream(FAKER.internet().uuid());
         doThrow(new DuplicateFileException())
                 .doNothing()
                 .when(fileHashService).checkDuplicateInDatabase(anyString(), any());
         when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
-                .thenReturn(saved);
+                .thenAnswer(this::savedWithOwnBlob);
 
         List<MultipleUploadResponse> results = fileFacadeService.multipleUpload(
                 new MultipartFile[]{duplicate, validPdfFile});
@@ -288,11 +360,44 @@ class FileFacadeServiceTest {
         assertThat(results.get(1).status()).isEqualTo(CommonResponseStatus.SUCCESS);
     }
 
+    /**
+     * Две одинаковые части в одном пакете — обе проходят проверку дубликата,
+     * вторая упирается в uk_file_hash_user и получает FILE_ALREADY_BEEN_UPLOADED,
+     * её копия в S3 удаляется.
+     */
+    @Test
+    void shouldMarkSecondCopyAsDuplicate_whenIdenticalFilesUploadedInOneBatch() {
+        byte[] content = FAKER.lorem().characters(10).getBytes();
+        MockMultipartFile first = new MockMultipartFile("files", "copy-1.pdf", "application/pdf", content);
+        MockMultipartFile second = new MockMultipartFile("files", "copy-2.pdf", "application/pdf", content);
+
+        when(fileUploadProperties.getMaxBatchSize()).thenReturn(5);
+        when(filePermissionService.checkUploadPermission()).thenReturn(user);
+        when(fileValidator.validateFile(any())).thenReturn(Optional.empty());
+        stubHashingStream(FAKER.internet().uuid());
+        when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
+                .thenAnswer(this::savedWithOwnBlob)
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new IllegalStateException(
+                                "duplicate key value violates unique constraint \"uk_file_hash_user\"")));
+
+        List<MultipleUploadResponse> results = fileFacadeService.multipleUpload(
+                new MultipartFile[]{first, second});
+
+        assertThat(results)
+                .extracting(MultipleUploadResponse::status, MultipleUploadResponse::message)
+                .containsExactly(
+                        tuple(CommonResponseStatus.SUCCESS, SuccessMessages.FILE_UPLOAD_SUCCESS),
+                        tuple(CommonResponseStatus.ERROR, ErrorMessages.FILE_ALREADY_BEEN_UPLOADED));
+        verify(fileStorageService, times(1)).deleteFileYandexS3(anyString());
+        verify(outboxService, times(1)).saveFileUploadEvent(any(), eq(user.getId()));
+    }
+
     /**
      * S3 ошибка при загрузке в пакетном режиме — файл получает FILE_STORAGE_ERROR.
      */
     @Test
-    void shouldMarkFileAsError_whenS3FailsDuringBatchUpload() {
+    void shouldMarkFileAsError_whenS3FailsDuringBatchUpload() throws IOException {
         MockMultipartFile secondFile = new MockMultipartFile(
                 "file",
                 FAKER.file().fileName(null, null, "pdf", null),
@@ -302,13 +407,13 @@ class FileFacadeServiceTest {
         when(fileUploadProperties.getMaxBatchSize()).thenReturn(5);
         when(filePermissionService.checkUploadPermission()).thenReturn(user);
         when(fileValidator.validateFile(any())).thenReturn(Optional.empty());
-        when(fileHashService.calculateMD5(any())).thenReturn(FAKER.internet().uuid());
+        stubHashingStream(FAKER.internet().uuid());
 
         doThrow(new S3YandexException(new RuntimeException(), FAKER.internet().uuid()))
                 .doNothing()
-                .when(fileStorageService).uploadFileYandexS3(anyString(), any(), anyString());
+                .when(fileStorageService).uploadFileYandexS3(anyString(), any(InputStream.class), anyLong(), anyString());
         when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
-                .thenReturn(buildFileMetadata());
+                .thenAnswer(this::savedWithOwnBlob);
 
         List<MultipleUploadResponse> results = fileFacadeService.multipleUpload(
                 new MultipartFile[]{validPdfFile, secondFile});
@@ -325,13 +430,13 @@ class FileFacadeServiceTest {
     void shouldMarkFileAsError_whenFileReadFailsDuringBatchUpload() throws Exception {
         MockMultipartFile unreadableFile = mock(MockMultipartFile.class);
         when(unreadableFile.getOriginalFilename()).thenReturn("broken.pdf");
-        when(unreadableFile.getBytes()).thenThrow(new java.io.IOException());
+        when(unreadableFile.getInputStream()).thenThrow(new java.io.IOException());
 
         when(fileUploadProperties.getMaxBatchSize()).thenReturn(5);
         when(filePermissionService.checkUploadPermission()).thenReturn(user);
-        when(fileHashService.calculateMD5(any())).thenReturn(FAKER.internet().uuid());
+        stubHashingStream(FAKER.internet().uuid());
         when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
-                .thenReturn(buildFileMetadata());
+                .thenAnswer(this::savedWithOwnBlob);
 
         List<MultipleUploadResponse> results = fileFacadeService.multipleUpload(
                 new MultipartFile[]{unreadableFile, validPdfFile});
@@ -342,33 +447,66 @@ class FileFacadeServiceTest {
     }
 
 
-    // downloadFile
-
     /**
-     * Успешное скачивание — возвращаем байты, кириллическое имя кодируется для заголовка.
+     * Параллельная пакетная загрузка — все файлы одновременно находятся в загрузке в S3
+     * (иначе барьер не сработает), порядок результатов совпадает с порядком файлов,
+     * а S3 откатывается ровно для тех файлов, что упали на сохранении метаданных.
      */
     @Test
-    void shouldReturnFileContent_whenFileExistsInStorage() {
-        byte[] content = FAKER.lorem().characters(20).getBytes();
-        String uniqueName = FAKER.internet().uuid() + ".pdf";
-        FileMetadata metadata = buildFileMetadataWithName("example.pdf");
-
-        when(fileStorageService.downloadFileYandexS3(uniqueName)).thenReturn(content);
-        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
-
-        FileDownloadResponse response = fileFacadeService.downloadFile(uniqueName);
+    void shouldKeepOrderAndCompensateEachFailedFile_whenBatchProcessedConcurrently() throws Exception {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("test-batch-");
+        executor.setVirtualThreads(true);
+        FileFacadeService concurrentFacade = new FileFacadeService(
+                fileHashService, fileStorageService, fileMetadataService, filePermissionService,
+                fileValidator, fileUploadProperties, outboxService, executor);
+
+        MultipartFile[] files = {
+                pdfFile("ok-1.pdf"), pdfFile("fail-1.pdf"), pdfFile("ok-2.pdf"), pdfFile("fail-2.pdf")
+        };
+        CyclicBarrier allUploading = new CyclicBarrier(files.length);
+        Map<String, String> uniqueNames = new ConcurrentHashMap<>();
 
-        assertThat(response.getContent()).isEqualTo(content);
-        assertThat(response.getContentType()).isEqualTo("application/pdf");
-        assertThat(response.getSize()).isEqualTo(content.length);
-        assertThat(response.getFileName()).doesNotContain(" ");
+        when(fileUploadProperties.getMaxBatchSize()).thenReturn(5);
+        when(filePermissionService.checkUploadPermission()).thenReturn(user);
+        when(fileValidator.validateFile(any())).thenReturn(Optional.empty());
+        stubHashingStream(FAKER.internet().uuid());
+        doAnswer(inv -> {
+            allUploading.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(fileStorageService).uploadFileYandexS3(anyString(), any(InputStream.class), anyLong(), anyString());
+        when(fileMetadataService.saveFileWithPermission(any(), anyString(), anyString(), eq(user)))
+                .thenAnswer(inv -> {
+                    MultipartFile file = inv.getArgument(0);
+                    uniqueNames.put(file.getOriginalFilename(), inv.getArgument(1));
+                    if (file.getOriginalFilename().startsWith("fail")) {
+                        throw new IllegalStateException("DB unavailable");
+                    }
+                    return savedWithOwnBlob(inv);
+                });
 
-        verify(fileStorageService).downloadFileYandexS3(uniqueName);
-        verify(fileMetadataService).findByUniqueName(uniqueName);
+        List<MultipleUploadResponse> results = concurrentFacade.multipleUpload(files);
+
+        assertThat(results)
+                .extracting(MultipleUploadResponse::originalFileName, MultipleUploadResponse::status)
+                .containsExactly(
+                        tuple("ok-1.pdf", CommonResponseStatus.SUCCESS),
+                        tuple("fail-1.pdf", CommonResponseStatus.ERROR),
+                        tuple("ok-2.pdf", CommonResponseStatus.SUCCESS),
+                        tuple("fail-2.pdf", CommonResponseStatus.ERROR));
+        assertThat(results.get(0).uniqueName()).isEqualTo(uniqueNames.get("ok-1.pdf"));
+        assertThat(results.get(2).uniqueName()).isEqualTo(uniqueNames.get("ok-2.pdf"));
+
+        verify(fileStorageService).deleteFileYandexS3(uniqueNames.get("fail-1.pdf"));
+        verify(fileStorageService).deleteFileYandexS3(uniqueNames.get("fail-2.pdf"));
+        verify(fileStorageService, never()).deleteFileYandexS3(uniqueNames.get("ok-1.pdf"));
+        verify(fileStorageService, never()).deleteFileYandexS3(uniqueNames.get("ok-2.pdf"));
+        verify(outboxService, times(2)).saveFileUploadEvent(any(), eq(user.getId()));
     }
 
+    // streamFile
+
     /**
-     * Файл не найден в БД — FileNotFoundException пробрасывается.
+     * Файл не найден в БД — FileNotFoundException пробрасывается, в S3 не ходим.
      */
     @Test
     void shouldThrowFileNotFoundException_whenMetadataNotFound() {
@@ -377,8 +515,10 @@ class FileFacadeServiceTest {
         when(fileMetadataService.findByUniqueName(uniqueName))
                 .thenThrow(new FileNotFoundException(uniqueName));
 
-        assertThatThrownBy(() -> fileFacadeService.downloadFile(uniqueName))
+        assertThatThrownBy(() -> fileFacadeService.streamFile(uniqueName, null, null))
                 .isInstanceOf(FileNotFoundException.class);
+
+        verifyNoInteractions(fileStorageService);
     }
 
     /**
@@ -386,21 +526,181 @@ class FileFacadeServiceTest {
      */
     @Test
     void shouldThrowFileNotFoundException_whenFileNotInS3() {
-        String uniqueName = FAKER.internet().uuid() + ".pdf";
+        FileMetadata metadata = buildFileMetadata();
+        String uniqueName = metadata.getUniqueName();
 
         when(fileMetadataService.findByUniqueName(uniqueName))
-                .thenReturn(mock(FileMetadata.class));
-        when(fileStorageService.downloadFileYandexS3(uniqueName))
+                .thenReturn(metadata);
+        when(fileStorageService.openFileStreamYandexS3(uniqueName, null))
                 .thenThrow(new FileNotFoundException(uniqueName));
 
-        assertThatThrownBy(() -> fileFacadeService.downloadFile(uniqueName))
+        assertThatThrownBy(() -> fileFacadeService.streamFile(uniqueName, null, null))
                 .isInstanceOf(FileNotFoundException.class);
     }
 
+    /**
+     * Без Range — отдаётся весь объект потоком, ответ не частичный.
+     */
+    @Test
+    void shouldStreamWholeFile_whenRangeHeaderAbsent() throws Exception {
+        byte[] content = FAKER.lorem().characters(100).getBytes();
+        FileMetadata metadata = buildFileMetadataWithName("отчёт 2024.pdf");
+        metadata.setSize(content.length);
+        String uniqueName = metadata.getUniqueName();
+
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
+        when(fileStorageService.openFileStreamYandexS3(uniqueName, null))
+                .thenReturn(s3Stream(content, GetObjectResponse.builder()
+                        .contentLength((long) content.length)
+                        .eTag("\"etag\"")
+                        .build()));
+
+        FileStreamResponse response = fileFacadeService.streamFile(uniqueName, null, null);
+
+        assertThat(response.isPartial()).isFalse();
+        assertThat(response.getContentRange()).isNull();
+        assertThat(response.getContentLength()).isEqualTo(content.length);
+        assertThat(response.getETag()).isEqualTo("\"etag\"");
+        assertThat(response.getFileName()).doesNotContain(" ");
+        assertThat(response.getContent().readAllBytes()).isEqualTo(content);
+    }
+
+    /**
+     * Одиночный Range — в S3 уходит ranged GET, ответ частичный с Content-Range.
+     */
+    @Test
+    void shouldRequestRangeFromStorage_whenSingleRangeRequested() {
+        FileMetadata metadata = buildFileMetadata();
+        metadata.setSize(1000);
+        String uniqueName = metadata.getUniqueName();
+
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
+        when(fileStorageService.openFileStreamYandexS3(uniqueName, "bytes=900-999"))
+                .thenReturn(s3Stream(new byte[100], GetObjectResponse.builder()
+                        .contentLength(100L)
+                        .contentRange("bytes 900-999/1000")
+                        .build()));
+
+        FileStreamResponse response = fileFacadeService.streamFile(uniqueName, "bytes=-100", null);
+
+        assertThat(response.isPartial()).isTrue();
+        assertThat(response.getContentLength()).isEqualTo(100);
+        assertThat(response.getContentRange()).isEqualTo("bytes 900-999/1000");
+    }
+
+    /**
+     * Диапазон за пределами файла — RangeNotSatisfiableException, в S3 не ходим.
+     */
+    @Test
+    void shouldThrowRangeNotSatisfiable_whenRangeStartsBeyondFile() {
+        FileMetadata metadata = buildFileMetadata();
+        metadata.setSize(1000);
+        String uniqueName = metadata.getUniqueName();
+
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
+
+        assertThatThrownBy(() -> fileFacadeService.streamFile(uniqueName, "bytes=5000-", null))
+                .isInstanceOf(RangeNotSatisfiableException.class)
+                .extracting("fileSize").isEqualTo(1000L);
+
+        verify(fileStorageService, never()).openFileStreamYandexS3(anyString(), any());
+    }
+
+    /**
+     * Некорректный Range — игнорируется, отдаётся весь файл.
+     */
+    @Test
+    void shouldStreamWholeFile_whenRangeHeaderMalformed() {
+        FileMetadata metadata = buildFileMetadata();
+        String uniqueName = metadata.getUniqueName();
+
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
+        when(fileStorageService.openFileStreamYandexS3(uniqueName, null))
+                .thenReturn(s3Stream(new byte[0], GetObjectResponse.builder().build()));
+
+        FileStreamResponse response = fileFacadeService.streamFile(uniqueName, "items=1-2", null);
+
+        assertThat(response.isPartial()).isFalse();
+        assertThat(response.getContentLength()).isEqualTo(metadata.getSize());
+    }
+
+    /**
+     * If-Range с устаревшим ETag — Range игнорируется, поток открывается один раз на весь файл.
+     */
+    @Test
+    void shouldStreamWholeFile_whenIfRangeETagDoesNotMatch() {
+        FileMetadata metadata = buildFileMetadata();
+        metadata.setSize(1000);
+        String uniqueName = metadata.getUniqueName();
+
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
+        when(fileStorageService.headFileYandexS3(uniqueName))
+                .thenReturn(HeadObjectResponse.builder().eTag("\"current\"").build());
+        when(fileStorageService.openFileStreamYandexS3(eq(uniqueName), isNull()))
+                .thenReturn(s3Stream(new byte[1000], GetObjectResponse.builder()
+                        .eTag("\"current\"")
+                        .contentLength(1000L)
+                        .build()));
+
+        FileStreamResponse response = fileFacadeService.streamFile(uniqueName, "bytes=0-99", "\"stale\"");
+
+        assertThat(response.isPartial()).isFalse();
+        assertThat(response.getContentLength()).isEqualTo(1000);
+        verify(fileStorageService, times(1)).openFileStreamYandexS3(anyString(), any());
+    }
+
+    /**
+     * If-Range не совпал, а диапазон за пределами файла — не 416, а весь файл.
+     */
+    @Test
+    void shouldStreamWholeFile_whenIfRangeMismatchedAndRangeUnsatisfiable() {
+        FileMetadata metadata = buildFileMetadata();
+        metadata.setSize(1000);
+        String uniqueName = metadata.getUniqueName();
+
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
+        when(fileStorageService.headFileYandexS3(uniqueName))
+                .thenReturn(HeadObjectResponse.builder()
+                        .lastModified(Instant.parse("2024-05-01T10:00:00Z"))
+                        .build());
+        when(fileStorageService.openFileStreamYandexS3(eq(uniqueName), isNull()))
+                .thenReturn(s3Stream(new byte[1000], GetObjectResponse.builder().contentLength(1000L).build()));
+
+        FileStreamResponse response = fileFacadeService.streamFile(
+                uniqueName, "bytes=5000-", "Wed, 01 May 2024 09:00:00 GMT");
+
+        assertThat(response.isPartial()).isFalse();
+        assertThat(response.getContentLength()).isEqualTo(1000);
+    }
+
+    /**
+     * If-Range совпал по ETag — отдаётся запрошенный диапазон.
+     */
+    @Test
+    void shouldRequestRangeFromStorage_whenIfRangeETagMatches() {
+        FileMetadata metadata = buildFileMetadata();
+        metadata.setSize(1000);
+        String uniqueName = metadata.getUniqueName();
+
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(metadata);
+        when(fileStorageService.headFileYandexS3(uniqueName))
+                .thenReturn(HeadObjectResponse.builder().eTag("\"current\"").build());
+        when(fileStorageService.openFileStreamYandexS3(uniqueName, "bytes=0-99"))
+                .thenReturn(s3Stream(new byte[100], GetObjectResponse.builder()
+                        .contentLength(100L)
+                        .contentRange("bytes 0-99/1000")
+                        .build()));
+
+        FileStreamResponse response = fileFacadeService.streamFile(uniqueName, "bytes=0-99", "\"current\"");
+
+        assertThat(response.isPartial()).isTrue();
+        assertThat(response.getContentRange()).isEqualTo("bytes 0-99/1000");
+    }
+
     // deleteFile
 
     /**
-     * Успешное удаление — файл удаляется из S3 и БД.
+     * Успешное удаление последней ссылки — файл удаляется из БД, затем объект из S3.
      */
     @Test
     void shouldDeleteFile_whenUserIsOwner() {
@@ -409,11 +709,30 @@ class FileFacadeServiceTest {
 
         when(filePermissionService.getCurrentUser()).thenReturn(user);
         when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(file);
+        when(fileMetadataService.deleteFileAndUpdateUserStatus(file)).thenReturn(Optional.of(uniqueName));
+
+        fileFacadeService.deleteFile(uniqueName);
+
+        InOrder inOrder = inOrder(fileMetadataService, fileStorageService);
+        inOrder.verify(fileMetadataService).deleteFileAndUpdateUserStatus(file);
+        inOrder.verify(fileStorageService).deleteFileYandexS3(uniqueName);
+    }
+
+    /**
+     * На содержимое ссылаются другие файлы — удаляются только метаданные, объект в S3 остаётся.
+     */
+    @Test
+    void shouldKeepStoredObject_whenOtherFilesStillReferenceIt() {
+        FileMetadata file = buildFileMetadata();
+        String uniqueName = file.getUniqueName();
+
+        when(filePermissionService.getCurrentUser()).thenReturn(user);
+        when(fileMetadataService.findByUniqueName(uniqueName)).thenReturn(file);
+        when(fileMetadataService.deleteFileAndUpdateUserStatus(file)).thenReturn(Optional.empty());
 
         fileFacadeService.deleteFile(uniqueName);
 
-        verify(fileStorageService).deleteFileYandexS3(uniqueName);
-        verify(fileMetadataService).deleteFileAndUpdateUserStatus(file);
+        verifyNoInteractions(fileStorageService);
     }
 
     /**
@@ -446,13 +765,53 @@ class FileFacadeServiceTest {
     }
 
     private FileMetadata buildFileMetadataWithName(String originalName) {
+        String uniqueName = FAKER.internet().uuid() + ".pdf";
         return FileMetadata.builder()
-                .uniqueName(FAKER.internet().uuid() + ".pdf")
+                .uniqueName(uniqueName)
                 .originalName(originalName)
                 .type("application/pdf")
                 .size(FAKER.number().numberBetween(1L, 10_000_000L))
                 .fileHash(FAKER.internet().uuid())
                 .user(user)
+                .blob(FileBlob.builder().storageKey(uniqueName).build())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Ответ saveFileWithPermission для нового содержимого: объект S3 — только что загруженный файл.
+     */
+    private FileMetadata savedWithOwnBlob(InvocationOnMock invocation) {
+        String uniqueFileName = invocation.getArgument(1);
+        FileMetadata saved = buildFileMetadata();
+        saved.setUniqueName(uniqueFileName);
+        saved.setBlob(FileBlob.builder().storageKey(uniqueFileName).build());
+        return saved;
+    }
+
+    /**
+     * Хеширующий поток, который пропускает содержимое и возвращает заданный хеш.
+     */
+    private void stubHashingStream(String fileHash) {
+        when(fileHashService.hashingStream(any())).thenAnswer(invocation ->
+                new HashingInputStream(invocation.getArgument(0), new IncrementalHash() {
+                    @Override
+                    public void update(byte[] bytes, int offset, int length) {
+                    }
+
+                    @Override
+                    public String digest() {
+                        return fileHash;
+                    }
+                }));
+    }
+
+    private MockMultipartFile pdfFile(String originalName) {
+        return new MockMultipartFile(
+                "files", originalName, "application/pdf", FAKER.lorem().characters(10).getBytes());
+    }
+
+    private ResponseInputStream<GetObjectResponse> s3Stream(byte[] content, GetObjectResponse response) {
+        return new ResponseInputStream<>(response,
+                AbortableInputStream.create(new ByteArrayInputStream(content)));
+    }
+}
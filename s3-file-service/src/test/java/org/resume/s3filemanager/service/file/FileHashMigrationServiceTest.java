@@ -0,0 +1,253 @@
+package org.resume.s3filemanager.service.file;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.s3filemanager.entity.FileBlob;
+import org.resume.s3filemanager.entity.FileMetadata;
+import org.resume.s3filemanager.enums.HashAlgorithm;
+import org.resume.s3filemanager.exception.FileNotFoundException;
+import org.resume.s3filemanager.properties.HashingProperties;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.repository.JobCursorRepository;
+import org.resume.s3filemanager.repository.JobLeaseRepository;
+import org.resume.s3filemanager.service.hash.Sha256ContentHasher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FileHashMigrationService — пересчёт устаревших MD5-хешей")
+class FileHashMigrationServiceTest {
+
+    private static final Faker FAKER = new Faker();
+    private static final int BATCH_SIZE = 50;
+    private static final String MIGRATION_JOB = "file-hash-migration";
+
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Mock
+    private FileBlobRepository fileBlobRepository;
+
+    @Mock
+    private YandexStorageService fileStorageService;
+
+    @Mock
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Mock
+    private JobCursorRepository jobCursorRepository;
+
+    private FileHashService fileHashService;
+    private FileHashMigrationService migrationService;
+
+    private final AtomicLong storedCursor = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        HashingProperties properties = new HashingProperties(
+                HashAlgorithm.SHA256, DataSize.ofMegabytes(1), 1, true, BATCH_SIZE, 60_000, Duration.ofMinutes(5));
+        fileHashService = new FileHashService(fileMetadataRepository, properties, List.of(new Sha256ContentHasher()));
+        migrationService = new FileHashMigrationService(fileMetadataRepository, fileBlobRepository,
+                fileStorageService, fileHashService, properties, jobLeaseRepository, jobCursorRepository);
+    }
+
+    /**
+     * Файл с MD5 — содержимое читается из S3, file_hash и хеш объекта
+     * заменяются на хеш текущего алгоритма.
+     */
+    @Test
+    void shouldRehashFileAndBlob_whenFileHasLegacyHash() {
+        givenLeaseAcquired();
+        byte[] content = FAKER.lorem().paragraph().getBytes();
+        FileMetadata file = legacyFile(1L, blob(10L, null));
+
+        when(fileMetadataRepository.findLegacyHashedAfter(0L, Limit.of(BATCH_SIZE))).thenReturn(List.of(file));
+        when(fileStorageService.openFileStreamYandexS3(file.getBlob().getStorageKey(), null))
+                .thenReturn(s3Stream(content));
+        when(fileMetadataRepository.updateFileHash(1L, fileHashService.hash(content))).thenReturn(1);
+        givenLeaseRenewed();
+
+        assertThat(migrationService.migrateNextBatch()).isEqualTo(1);
+
+        verify(fileBlobRepository).assignContentHash(10L, fileHashService.hash(content));
+    }
+
+    /**
+     * Несколько файлов на одном объекте — объект читается из S3 один раз.
+     */
+    @Test
+    void shouldReadSharedBlobOnce_whenFilesReferenceSameObject() {
+        givenLeaseAcquired();
+        byte[] content = FAKER.lorem().paragraph().getBytes();
+        FileBlob shared = blob(10L, "sha256:" + FAKER.crypto().sha256());
+        List<FileMetadata> batch = List.of(legacyFile(1L, shared), legacyFile(2L, shared));
+
+        when(fileMetadataRepository.findLegacyHashedAfter(0L, Limit.of(BATCH_SIZE))).thenReturn(batch);
+        when(fileStorageService.openFileStreamYandexS3(shared.getStorageKey(), null)).thenReturn(s3Stream(content));
+        when(fileMetadataRepository.updateFileHash(anyLong(), eq(fileHashService.hash(content)))).thenReturn(1);
+        givenLeaseRenewed();
+
+        assertThat(migrationService.migrateNextBatch()).isEqualTo(2);
+
+        verify(fileStorageService, times(1)).openFileStreamYandexS3(anyString(), any());
+        verify(fileBlobRepository, never()).assignContentHash(anyLong(), anyString());
+    }
+
+    /**
+     * Объект пропал из S3 или у пользователя уже есть файл с новым хешем —
+     * файл пропускается, остальные пачки обрабатываются.
+     */
+    @Test
+    void shouldSkipFile_whenObjectMissingOrHashConflicts() {
+        givenLeaseAcquired();
+        byte[] content = FAKER.lorem().paragraph().getBytes();
+        FileMetadata missing = legacyFile(1L, blob(10L, null));
+        FileMetadata conflicting = legacyFile(2L, blob(20L, "sha256:" + FAKER.crypto().sha256()));
+
+        when(fileMetadataRepository.findLegacyHashedAfter(0L, Limit.of(BATCH_SIZE)))
+                .thenReturn(List.of(missing, conflicting));
+        when(fileStorageService.openFileStreamYandexS3(missing.getBlob().getStorageKey(), null))
+                .thenThrow(new FileNotFoundException(missing.getBlob().getStorageKey()));
+        when(fileStorageService.openFileStreamYandexS3(conflicting.getBlob().getStorageKey(), null))
+                .thenReturn(s3Stream(content));
+        when(fileMetadataRepository.updateFileHash(2L, fileHashService.hash(content)))
+                .thenThrow(new DataIntegrityViolationException("uk_file_hash_user"));
+        givenLeaseRenewed();
+
+        assertThat(migrationService.migrateNextBatch()).isZero();
+
+        verify(fileMetadataRepository, never()).updateFileHash(eq(1L), anyString());
+    }
+
+    /**
+     * Курсор двигается по id: следующая пачка начинается после последнего файла,
+     * а после пустой пачки проход начинается заново.
+     */
+    @Test
+    void shouldAdvanceCursor_andRestartAfterEmptyBatch() {
+        givenLeaseAcquired();
+        byte[] content = FAKER.lorem().paragraph().getBytes();
+        FileMetadata file = legacyFile(7L, blob(10L, "sha256:" + FAKER.crypto().sha256()));
+
+        when(fileMetadataRepository.findLegacyHashedAfter(0L, Limit.of(BATCH_SIZE))).thenReturn(List.of(file));
+        when(fileMetadataRepository.findLegacyHashedAfter(7L, Limit.of(BATCH_SIZE))).thenReturn(List.of());
+        when(fileStorageService.openFileStreamYandexS3(anyString(), any())).thenReturn(s3Stream(content));
+        when(fileMetadataRepository.updateFileHash(anyLong(), anyString())).thenReturn(1);
+        givenLeaseRenewed();
+
+        migrationService.migrateNextBatch();
+        migrationService.migrateNextBatch();
+        migrationService.migrateNextBatch();
+
+        verify(fileMetadataRepository, times(2)).findLegacyHashedAfter(0L, Limit.of(BATCH_SIZE));
+        verify(fileMetadataRepository).findLegacyHashedAfter(7L, Limit.of(BATCH_SIZE));
+        verify(jobLeaseRepository, times(3)).release(eq(MIGRATION_JOB), anyString());
+    }
+
+    /**
+     * Курсор читается из БД: после рестарта обход продолжается с сохранённого id.
+     */
+    @Test
+    void shouldResumeFromStoredCursor_afterRestart() {
+        givenLeaseAcquired();
+        storedCursor.set(42L);
+        when(fileMetadataRepository.findLegacyHashedAfter(42L, Limit.of(BATCH_SIZE))).thenReturn(List.of());
+
+        assertThat(migrationService.migrateNextBatch()).isZero();
+
+        assertThat(storedCursor.get()).isZero();
+    }
+
+    /**
+     * Пачку ведёт другой экземпляр — этот запуск ничего не читает и не пишет.
+     */
+    @Test
+    void shouldSkipBatch_whenLeaseHeldByAnotherInstance() {
+        when(jobLeaseRepository.tryAcquire(eq(MIGRATION_JOB), anyString(), any(), any())).thenReturn(0);
+
+        assertThat(migrationService.migrateNextBatch()).isZero();
+
+        verifyNoInteractions(fileMetadataRepository, jobCursorRepository, fileStorageService);
+        verify(jobLeaseRepository, never()).release(anyString(), anyString());
+    }
+
+    /**
+     * Аренду перехватили посреди пачки — обработка останавливается,
+     * курсор сохраняется после последнего обработанного файла.
+     */
+    @Test
+    void shouldStopBatchAndSaveCursor_whenLeaseLost() {
+        givenLeaseAcquired();
+        byte[] content = FAKER.lorem().paragraph().getBytes();
+        FileBlob shared = blob(10L, "sha256:" + FAKER.crypto().sha256());
+        when(fileMetadataRepository.findLegacyHashedAfter(0L, Limit.of(BATCH_SIZE)))
+                .thenReturn(List.of(legacyFile(1L, shared), legacyFile(2L, shared)));
+        when(fileStorageService.openFileStreamYandexS3(shared.getStorageKey(), null)).thenReturn(s3Stream(content));
+        when(fileMetadataRepository.updateFileHash(1L, fileHashService.hash(content))).thenReturn(1);
+        when(jobLeaseRepository.renew(eq(MIGRATION_JOB), anyString(), any())).thenReturn(0);
+
+        assertThat(migrationService.migrateNextBatch()).isEqualTo(1);
+
+        verify(fileMetadataRepository, never()).updateFileHash(eq(2L), anyString());
+        assertThat(storedCursor.get()).isEqualTo(1L);
+        verify(jobLeaseRepository).release(eq(MIGRATION_JOB), anyString());
+    }
+
+    private void givenLeaseAcquired() {
+        when(jobLeaseRepository.tryAcquire(eq(MIGRATION_JOB), anyString(), any(), any())).thenReturn(1);
+        when(jobCursorRepository.findLastId(MIGRATION_JOB)).thenAnswer(invocation -> Optional.of(storedCursor.get()));
+        doAnswer(invocation -> {
+            storedCursor.set(invocation.getArgument(1));
+            return null;
+        }).when(jobCursorRepository).saveLastId(eq(MIGRATION_JOB), anyLong());
+    }
+
+    private void givenLeaseRenewed() {
+        when(jobLeaseRepository.renew(eq(MIGRATION_JOB), anyString(), any())).thenReturn(1);
+    }
+
+    private FileMetadata legacyFile(Long id, FileBlob blob) {
+        FileMetadata file = new FileMetadata();
+        file.setId(id);
+        file.setUniqueName(FAKER.internet().uuid() + ".pdf");
+        file.setFileHash("md5:" + FAKER.crypto().md5());
+        file.setBlob(blob);
+        return file;
+    }
+
+    private FileBlob blob(Long id, String contentHash) {
+        return FileBlob.builder()
+                .id(id)
+                .contentHash(contentHash)
+                .storageKey(FAKER.internet().uuid() + ".pdf")
+                .build();
+    }
+
+    private ResponseInputStream<GetObjectResponse> s3Stream(byte[] content) {
+        return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(content)));
+    }
+}
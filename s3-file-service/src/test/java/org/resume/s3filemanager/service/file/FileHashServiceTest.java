@@ -5,11 +5,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.s3filemanager.enums.HashAlgorithm;
 import org.resume.s3filemanager.exception.DuplicateFileException;
+import org.resume.s3filemanager.properties.HashingProperties;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
+import org.resume.s3filemanager.service.hash.HashingInputStream;
+import org.resume.s3filemanager.service.hash.Sha256ContentHasher;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -21,34 +31,37 @@ class FileHashServiceTest {
 
     private static final Faker FAKER = new Faker();
     private static final String HELLO_CONTENT = "hello";
-    private static final String HELLO_MD5 = "5d41402abc4b2a76b9719d911017c592";
+    private static final String HELLO_SHA256 =
+            "sha256:2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
 
     @Mock
     private FileMetadataRepository fileMetadataRepository;
 
-    @InjectMocks
     private FileHashService fileHashService;
 
     private Long userId;
 
     @BeforeEach
     void setUp() {
+        HashingProperties properties = new HashingProperties(
+                HashAlgorithm.SHA256, DataSize.ofMegabytes(1), 1, false, 50, 60_000, Duration.ofMinutes(5));
+        fileHashService = new FileHashService(fileMetadataRepository, properties, List.of(new Sha256ContentHasher()));
         userId = FAKER.number().randomNumber();
     }
 
-    // calculateMD5
+    // hash
 
     /**
-     * Проверяет корректность MD5 хеша для известного содержимого.
-     * MD5 от строки "hello" должен возвращать фиксированное значение
+     * Проверяет корректность хеша для известного содержимого.
+     * SHA-256 от строки "hello" с тегом алгоритма должен возвращать фиксированное значение
      */
     @Test
-    void shouldCalculateMD5_forKnownContent() {
+    void shouldCalculateTaggedHash_forKnownContent() {
         byte[] content = HELLO_CONTENT.getBytes();
 
-        String hash = fileHashService.calculateMD5(content);
+        String hash = fileHashService.hash(content);
 
-        assertThat(hash).isEqualTo(HELLO_MD5);
+        assertThat(hash).isEqualTo(HELLO_SHA256);
     }
 
     /**
@@ -58,8 +71,8 @@ class FileHashServiceTest {
     void shouldReturnSameHash_forSameContent() {
         byte[] content = FAKER.lorem().sentence().getBytes();
 
-        String hash1 = fileHashService.calculateMD5(content);
-        String hash2 = fileHashService.calculateMD5(content);
+        String hash1 = fileHashService.hash(content);
+        String hash2 = fileHashService.hash(content);
 
         assertThat(hash1).isEqualTo(hash2);
     }
@@ -72,23 +85,49 @@ class FileHashServiceTest {
         byte[] content1 = FAKER.lorem().sentence().getBytes();
         byte[] content2 = FAKER.lorem().sentence().getBytes();
 
-        String hash1 = fileHashService.calculateMD5(content1);
-        String hash2 = fileHashService.calculateMD5(content2);
+        String hash1 = fileHashService.hash(content1);
+        String hash2 = fileHashService.hash(content2);
 
         assertThat(hash1).isNotEqualTo(hash2);
     }
 
     /**
-     * Проверяет что MD5 хеш возвращается в виде hex-строки длиной 32 символа.
+     * Проверяет что хеш возвращается в виде тега алгоритма и hex-строки длиной 64 символа.
      */
     @Test
-    void shouldReturnHexString_ofLength32() {
+    void shouldReturnTagAndHexString_ofLength64() {
         byte[] content = FAKER.lorem().sentence().getBytes();
 
-        String hash = fileHashService.calculateMD5(content);
+        String hash = fileHashService.hash(content);
+
+        assertThat(hash).matches("sha256:[0-9a-f]{64}");
+        assertThat(HashAlgorithm.fromStoredHash(hash)).isEqualTo(fileHashService.activeAlgorithm());
+    }
+
+    /**
+     * Проверяет что потоковый хеш совпадает с хешем, посчитанным по массиву байт.
+     */
+    @Test
+    void shouldCalculateSameHash_whenReadingAsStream() throws IOException {
+        byte[] content = FAKER.lorem().paragraph(50).getBytes();
+
+        HashingInputStream hashingStream = fileHashService.hashingStream(new ByteArrayInputStream(content));
+        hashingStream.transferTo(OutputStream.nullOutputStream());
+
+        assertThat(hashingStream.getHash()).isEqualTo(fileHashService.hash(content));
+    }
+
+    /**
+     * Проверяет что без реализации настроенного алгоритма сервис не создаётся.
+     */
+    @Test
+    void shouldFailFast_whenConfiguredAlgorithmHasNoHasher() {
+        HashingProperties properties = new HashingProperties(
+                HashAlgorithm.TREE_SHA256, DataSize.ofMegabytes(1), 1, false, 50, 60_000, Duration.ofMinutes(5));
 
-        assertThat(hash).hasSize(32);
-        assertThat(hash).containsPattern("[0-9a-f]+");
+        assertThatThrownBy(() -> new FileHashService(
+                fileMetadataRepository, properties, List.of(new Sha256ContentHasher())))
+                .isInstanceOf(IllegalStateException.class);
     }
 
     // checkDuplicateInDatabase
@@ -98,7 +137,7 @@ class FileHashServiceTest {
      */
     @Test
     void shouldNotThrow_whenNoDuplicateExists() {
-        String fileHash = FAKER.crypto().md5();
+        String fileHash = "sha256:" + FAKER.crypto().sha256();
         when(fileMetadataRepository.existsByFileHashAndUserId(fileHash, userId)).thenReturn(false);
 
         fileHashService.checkDuplicateInDatabase(fileHash, userId);
@@ -108,11 +147,11 @@ class FileHashServiceTest {
 
     /**
      * Проверяет что выбрасывается DuplicateFileException, если у пользователя
-     * уже есть файл с таким же MD5 хешем.
+     * уже есть файл с таким же хешем.
      */
     @Test
     void shouldThrowDuplicateFileException_whenFileHashAlreadyExists() {
-        String fileHash = FAKER.crypto().md5();
+        String fileHash = "sha256:" + FAKER.crypto().sha256();
         when(fileMetadataRepository.existsByFileHashAndUserId(fileHash, userId)).thenReturn(true);
 
         assertThatThrownBy(() -> fileHashService.checkDuplicateInDatabase(fileHash, userId))
@@ -127,7 +166,7 @@ class FileHashServiceTest {
      */
     @Test
     void shouldCheckDuplicatePerUser_notGlobally() {
-        String fileHash = FAKER.crypto().md5();
+        String fileHash = "sha256:" + FAKER.crypto().sha256();
         Long anotherUserId = userId + 1;
 
         when(fileMetadataRepository.existsByFileHashAndUserId(fileHash, userId)).thenReturn(false);
@@ -138,4 +177,4 @@ class FileHashServiceTest {
         assertThatThrownBy(() -> fileHashService.checkDuplicateInDatabase(fileHash, anotherUserId))
                 .isInstanceOf(DuplicateFileException.class);
     }
-}
\ No newline at end of file
+}
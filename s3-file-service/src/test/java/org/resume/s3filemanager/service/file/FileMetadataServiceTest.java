@@ -5,10 +5,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.entity.FileBlob;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.entity.User;
 import org.resume.s3filemanager.enums.FileUploadStatus;
@@ -39,6 +41,9 @@ class FileMetadataServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private FileBlobService fileBlobService;
+
     @InjectMocks
     private FileMetadataService fileMetadataService;
 
@@ -47,6 +52,7 @@ class FileMetadataServiceTest {
     private MockMultipartFile multipartFile;
     private String uniqueName;
     private String fileHash;
+    private FileBlob blob;
 
     @BeforeEach
     void setUp() {
@@ -55,7 +61,12 @@ class FileMetadataServiceTest {
         user.setUsername(FAKER.name().username());
 
         uniqueName = FAKER.internet().uuid() + ".pdf";
-        fileHash = FAKER.internet().uuid();
+        fileHash = "sha256:" + FAKER.internet().uuid();
+        blob = FileBlob.builder()
+                .id(FAKER.number().randomNumber())
+                .contentHash(fileHash)
+                .storageKey(uniqueName)
+                .build();
 
         fileMetadata = new FileMetadata();
         fileMetadata.setUniqueName(uniqueName);
@@ -64,6 +75,7 @@ class FileMetadataServiceTest {
         fileMetadata.setSize(FAKER.number().numberBetween(1L, 10_000_000L));
         fileMetadata.setFileHash(fileHash);
         fileMetadata.setUser(user);
+        fileMetadata.setBlob(blob);
 
         multipartFile = new MockMultipartFile(
                 "file",
@@ -77,40 +89,63 @@ class FileMetadataServiceTest {
      */
     @Test
     void shouldSaveMetadata_whenValidFileProvided() {
-        when(fileMetadataRepository.save(any())).thenReturn(fileMetadata);
+        when(fileMetadataRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
-        FileMetadata result = fileMetadataService.saveDatabaseMetadata(multipartFile, uniqueName, fileHash, user);
+        FileMetadata result = fileMetadataService.saveDatabaseMetadata(multipartFile, uniqueName, fileHash, blob, user);
 
         assertThat(result.getUniqueName()).isEqualTo(uniqueName);
         assertThat(result.getFileHash()).isEqualTo(fileHash);
+        assertThat(result.getBlob()).isEqualTo(blob);
         assertThat(result.getScanStatus()).isEqualTo(ScanStatus.PENDING_SCAN);
         verify(fileMetadataRepository).save(any());
     }
 
     /**
-     * Сохранение с привязкой — метаданные сохраняются и статус загрузки пользователя обновляется.
+     * Объект с таким содержимым уже просканирован — новый файл наследует его вердикт.
+     */
+    @Test
+    void shouldInheritBlobScanStatus_whenContentAlreadyScanned() {
+        blob.setScanStatus(ScanStatus.CLEAN);
+        when(fileMetadataRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        FileMetadata result = fileMetadataService.saveDatabaseMetadata(multipartFile, uniqueName, fileHash, blob, user);
+
+        assertThat(result.getScanStatus()).isEqualTo(ScanStatus.CLEAN);
+    }
+
+    /**
+     * Сохранение с привязкой — берётся ссылка на объект, метаданные сохраняются
+     * и статус загрузки пользователя обновляется.
      */
     @Test
     void shouldSaveAndMarkUploaded_whenSaveFileWithPermission() {
+        when(fileBlobService.acquire(fileHash, uniqueName, multipartFile.getSize())).thenReturn(blob);
         when(fileMetadataRepository.save(any())).thenReturn(fileMetadata);
 
-        FileMetadata result = fileMetadataService.saveFileWithPermission(multipartFile, uniqueName, fileHash, user);
+        FileMetadata result = fileMetadataService.saveFileWithPermission(
+                multipartFile, uniqueName, fileHash, user);
 
         assertThat(result).isEqualTo(fileMetadata);
+        verify(fileBlobService).acquire(fileHash, uniqueName, multipartFile.getSize());
         verify(fileMetadataRepository).save(any());
         verify(fileUploadPermissionService).markFileUploaded();
     }
 
     /**
-     * Удаление файла — метаданные удаляются и статус пользователя сбрасывается на NOT_UPLOADED.
+     * Удаление файла — метаданные удаляются, статус пользователя сбрасывается на NOT_UPLOADED,
+     * ссылка на объект отпускается и возвращается ключ объекта для удаления.
      */
     @Test
     void shouldDeleteAndResetUserStatus_whenDeletingFile() {
         when(fileMetadataRepository.deleteByUniqueName(uniqueName)).thenReturn(1);
+        when(fileBlobService.release(blob)).thenReturn(Optional.of(uniqueName));
 
-        fileMetadataService.deleteFileAndUpdateUserStatus(fileMetadata);
+        Optional<String> unreferencedKey = fileMetadataService.deleteFileAndUpdateUserStatus(fileMetadata);
 
-        verify(fileMetadataRepository).deleteByUniqueName(uniqueName);
+        assertThat(unreferencedKey).contains(uniqueName);
+        InOrder inOrder = inOrder(fileMetadataRepository, fileBlobService);
+        inOrder.verify(fileMetadataRepository).deleteByUniqueName(uniqueName);
+        inOrder.verify(fileBlobService).release(blob);
         verify(userService).updateUploadStatus(user, FileUploadStatus.NOT_UPLOADED);
     }
 
@@ -125,19 +160,6 @@ class FileMetadataServiceTest {
                 .isInstanceOf(FileNotFoundException.class);
     }
 
-    /**
-     * Обновление статуса сканирования — находит файл и сохраняет с новым статусом.
-     */
-    @Test
-    void shouldUpdateScanStatus_whenFileExists() {
-        when(fileMetadataRepository.findByUniqueName(uniqueName)).thenReturn(Optional.of(fileMetadata));
-
-        fileMetadataService.updateScanStatus(uniqueName, ScanStatus.CLEAN);
-
-        assertThat(fileMetadata.getScanStatus()).isEqualTo(ScanStatus.CLEAN);
-        verify(fileMetadataRepository).save(fileMetadata);
-    }
-
     /**
      * Файл не найден — FileNotFoundException.
      */
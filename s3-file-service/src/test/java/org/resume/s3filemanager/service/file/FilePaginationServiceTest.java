@@ -8,6 +8,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.dto.CursorPageResponse;
 import org.resume.s3filemanager.dto.FileResponse;
 import org.resume.s3filemanager.entity.FileMetadata;
 import org.resume.s3filemanager.repository.FileMetadataRepository;
@@ -15,6 +16,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 
@@ -78,6 +80,44 @@ class FilePaginationServiceTest {
         assertThat(result.getContent()).isEmpty();
     }
 
+    /**
+     * Первая страница по курсору — поиск от самого нового файла, курсор указывает на последний файл страницы.
+     */
+    @Test
+    void shouldStartFromNewestAndReturnCursor_whenScrollWithoutCursor() {
+        FileMetadata file = FileMetadata.builder()
+                .id(42L)
+                .originalName(FAKER.file().fileName())
+                .uniqueName(FAKER.internet().uuid() + ".pdf")
+                .size(ONE_MB)
+                .build();
+        when(fileMetadataRepository.findByScanStatusAndIdLessThanOrderByIdDesc(
+                ScanStatus.CLEAN, Long.MAX_VALUE, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(file), PageRequest.ofSize(1), true));
+
+        CursorPageResponse<FileResponse> result = filePaginationService.scroll(null, 1);
+
+        assertThat(result.content()).extracting(FileResponse::uniqueName).containsExactly(file.getUniqueName());
+        assertThat(result.hasNext()).isTrue();
+        assertThat(FileCursor.decode(result.nextCursor())).isEqualTo(42L);
+    }
+
+    /**
+     * Последняя страница — курсора на следующую нет.
+     */
+    @Test
+    void shouldReturnNoCursor_whenScrollReachesEnd() {
+        when(fileMetadataRepository.findByScanStatusAndIdLessThanOrderByIdDesc(
+                ScanStatus.CLEAN, 42L, PageRequest.ofSize(20)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.ofSize(20), false));
+
+        CursorPageResponse<FileResponse> result = filePaginationService.scroll(FileCursor.encode(42L), 20);
+
+        assertThat(result.content()).isEmpty();
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+    }
+
     /**
      * Конвертация байт в МБ — дробное значение округляется до двух знаков.
      */
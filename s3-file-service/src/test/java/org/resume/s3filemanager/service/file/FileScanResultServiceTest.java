@@ -1,6 +1,7 @@
 package org.resume.s3filemanager.service.file;
 
 import com.github.javafaker.Faker;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,7 +11,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.model.FileScanResult;
 import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.exception.S3YandexException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,10 +29,10 @@ class FileScanResultServiceTest {
     private static final Faker FAKER = new Faker();
 
     @Mock
-    private FileMetadataService fileMetadataService;
+    private ScanStatusTransitionService scanStatusTransitionService;
 
     @Mock
-    private YandexStorageService yandexStorageService;
+    private YandexAsyncStorageService yandexAsyncStorageService;
 
     @InjectMocks
     private FileScanResultService fileScanResultService;
@@ -36,60 +45,198 @@ class FileScanResultServiceTest {
         s3Key = FAKER.internet().uuid() + ".pdf";
         scanResult = new FileScanResult();
         scanResult.setS3Key(s3Key);
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
     }
 
     /**
-     * Файл чистый — статус обновляется, S3 не трогаем.
+     * Файл чистый — статус переводится, S3 не трогаем.
      */
     @Test
     void shouldUpdateStatus_whenFileIsClean() {
         scanResult.setStatus(ScanStatus.CLEAN);
+        when(scanStatusTransitionService.transition(s3Key, ScanStatus.CLEAN)).thenReturn(true);
 
         fileScanResultService.processScanResult(scanResult);
 
-        verify(fileMetadataService).updateScanStatus(s3Key, ScanStatus.CLEAN);
-        verifyNoInteractions(yandexStorageService);
+        verify(scanStatusTransitionService).transition(s3Key, ScanStatus.CLEAN);
+        verifyNoInteractions(yandexAsyncStorageService);
     }
 
     /**
-     * Ошибка сканирования — статус обновляется, S3 не трогаем.
+     * Ошибка сканирования — статус переводится, S3 не трогаем.
      */
     @Test
     void shouldUpdateStatus_whenScanResultIsError() {
         scanResult.setStatus(ScanStatus.ERROR);
+        when(scanStatusTransitionService.transition(s3Key, ScanStatus.ERROR)).thenReturn(true);
 
         fileScanResultService.processScanResult(scanResult);
 
-        verify(fileMetadataService).updateScanStatus(s3Key, ScanStatus.ERROR);
-        verifyNoInteractions(yandexStorageService);
+        verify(scanStatusTransitionService).transition(s3Key, ScanStatus.ERROR);
+        verifyNoInteractions(yandexAsyncStorageService);
     }
 
     /**
-     * Заражённый файл — удаляется из S3, статус обновляется на INFECTED.
+     * Заражённый файл — статус переводится на INFECTED, файл удаляется из S3.
      */
     @Test
     void shouldDeleteFromS3AndUpdateStatus_whenFileIsInfected() {
         scanResult.setStatus(ScanStatus.INFECTED);
         scanResult.setVirusName(FAKER.lorem().word());
+        when(scanStatusTransitionService.transition(s3Key, ScanStatus.INFECTED)).thenReturn(true);
+        when(yandexAsyncStorageService.deleteFileAsync(s3Key))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
         fileScanResultService.processScanResult(scanResult);
+        verifyNoInteractions(yandexAsyncStorageService);
+        commit();
 
-        verify(yandexStorageService).deleteFileYandexS3(s3Key);
-        verify(fileMetadataService).updateScanStatus(s3Key, ScanStatus.INFECTED);
+        verify(yandexAsyncStorageService).deleteFileAsync(s3Key);
+        verify(scanStatusTransitionService).transition(s3Key, ScanStatus.INFECTED);
     }
 
     /**
-     * Заражённый файл, S3 падает — статус всё равно обновляется на INFECTED.
+     * Заражённый файл, S3 падает — статус INFECTED остаётся, исключение не пробрасывается.
      */
     @Test
     void shouldUpdateStatus_whenInfectedFileFailsToDeleteFromS3() {
         scanResult.setStatus(ScanStatus.INFECTED);
         scanResult.setVirusName(FAKER.lorem().word());
+        when(scanStatusTransitionService.transition(s3Key, ScanStatus.INFECTED)).thenReturn(true);
+        when(yandexAsyncStorageService.deleteFileAsync(s3Key))
+                .thenReturn(CompletableFuture.failedFuture(new S3YandexException(new RuntimeException(), s3Key)));
+
+        fileScanResultService.processScanResult(scanResult);
+        commit();
+
+        verify(scanStatusTransitionService).transition(s3Key, ScanStatus.INFECTED);
+    }
 
-        doThrow(new RuntimeException()).when(yandexStorageService).deleteFileYandexS3(s3Key);
+    /**
+     * Транзакция откатилась — статус INFECTED не записан, объект в S3 не удаляется.
+     */
+    @Test
+    void shouldKeepObjectInS3_whenTransactionRolledBack() {
+        scanResult.setStatus(ScanStatus.INFECTED);
+        scanResult.setVirusName(FAKER.lorem().word());
+        when(scanStatusTransitionService.transition(s3Key, ScanStatus.INFECTED)).thenReturn(true);
 
         fileScanResultService.processScanResult(scanResult);
+        rollback();
+
+        verifyNoInteractions(yandexAsyncStorageService);
+    }
+
+    /**
+     * Повторный INFECTED для уже заражённого или удалённого объекта — переход не проходит,
+     * S3 повторно не вызывается.
+     */
+    @Test
+    void shouldSkipResult_whenTransitionNotAllowed() {
+        scanResult.setStatus(ScanStatus.INFECTED);
+        when(scanStatusTransitionService.transition(s3Key, ScanStatus.INFECTED)).thenReturn(false);
+
+        fileScanResultService.processScanResult(scanResult);
+
+        verifyNoInteractions(yandexAsyncStorageService);
+    }
+
+    // processScanResults
+
+    /**
+     * Повторные результаты одного объекта — применяется только последний вердикт.
+     */
+    @Test
+    void shouldApplyLatestVerdict_whenBatchHasDuplicateKeys() {
+        when(scanStatusTransitionService.transitionAll(List.of(s3Key), ScanStatus.CLEAN)).thenReturn(List.of(s3Key));
+
+        fileScanResultService.processScanResults(List.of(
+                result(s3Key, ScanStatus.ERROR),
+                result(s3Key, ScanStatus.CLEAN)
+        ));
+
+        verify(scanStatusTransitionService).transitionAll(List.of(s3Key), ScanStatus.CLEAN);
+        verifyNoMoreInteractions(scanStatusTransitionService);
+        verifyNoInteractions(yandexAsyncStorageService);
+    }
+
+    /**
+     * Разные статусы — по одному bulk-переходу на статус.
+     */
+    @Test
+    void shouldUpdateOncePerStatus_whenBatchHasMixedVerdicts() {
+        String otherCleanKey = FAKER.internet().uuid() + ".pdf";
+        String errorKey = FAKER.internet().uuid() + ".pdf";
+        when(scanStatusTransitionService.transitionAll(List.of(s3Key, otherCleanKey), ScanStatus.CLEAN))
+                .thenReturn(List.of(s3Key, otherCleanKey));
+        when(scanStatusTransitionService.transitionAll(List.of(errorKey), ScanStatus.ERROR)).thenReturn(List.of(errorKey));
+
+        fileScanResultService.processScanResults(List.of(
+                result(s3Key, ScanStatus.CLEAN),
+                result(errorKey, ScanStatus.ERROR),
+                result(otherCleanKey, ScanStatus.CLEAN)
+        ));
+
+        verify(scanStatusTransitionService, times(2)).transitionAll(any(), any());
+        verifyNoInteractions(yandexAsyncStorageService);
+    }
+
+    /**
+     * Заражённые объекты — удаляются из S3 одной пачкой, отсутствующие в БД пропускаются.
+     */
+    @Test
+    void shouldDeleteFoundInfectedFilesInOneBatch_whenBatchHasInfectedResults() {
+        String otherInfectedKey = FAKER.internet().uuid() + ".pdf";
+        String missingKey = FAKER.internet().uuid() + ".pdf";
+        when(scanStatusTransitionService.transitionAll(List.of(s3Key, otherInfectedKey, missingKey), ScanStatus.INFECTED))
+                .thenReturn(List.of(s3Key, otherInfectedKey));
+        when(yandexAsyncStorageService.deleteFilesAsync(List.of(s3Key, otherInfectedKey)))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        fileScanResultService.processScanResults(List.of(
+                result(s3Key, ScanStatus.INFECTED),
+                result(otherInfectedKey, ScanStatus.INFECTED),
+                result(missingKey, ScanStatus.INFECTED)
+        ));
+        verifyNoInteractions(yandexAsyncStorageService);
+        commit();
+
+        verify(yandexAsyncStorageService).deleteFilesAsync(List.of(s3Key, otherInfectedKey));
+    }
+
+    /**
+     * Транзакция пачки откатилась — заражённые объекты остаются в S3.
+     */
+    @Test
+    void shouldKeepObjectsInS3_whenBatchTransactionRolledBack() {
+        when(scanStatusTransitionService.transitionAll(List.of(s3Key), ScanStatus.INFECTED)).thenReturn(List.of(s3Key));
+
+        fileScanResultService.processScanResults(List.of(result(s3Key, ScanStatus.INFECTED)));
+        rollback();
+
+        verifyNoInteractions(yandexAsyncStorageService);
+    }
+
+    private static void commit() {
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static void rollback() {
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
 
-        verify(fileMetadataService).updateScanStatus(s3Key, ScanStatus.INFECTED);
+    private static FileScanResult result(String s3Key, ScanStatus status) {
+        return FileScanResult.builder()
+                .s3Key(s3Key)
+                .status(status)
+                .virusName(status == ScanStatus.INFECTED ? FAKER.lorem().word() : null)
+                .build();
     }
 }
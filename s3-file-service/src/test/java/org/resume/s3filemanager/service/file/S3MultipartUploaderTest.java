@@ -0,0 +1,266 @@
+package org.resume.s3filemanager.service.file;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.exception.S3YandexException;
+import org.resume.s3filemanager.properties.MultipartUploadProperties;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("S3MultipartUploader — параллельная загрузка по частям")
+class S3MultipartUploaderTest {
+
+    private static final Faker FAKER = new Faker();
+    private static final int PART_SIZE = (int) DataSize.ofMegabytes(5).toBytes();
+    private static final String UPLOAD_ID = "upload-id";
+
+    @Mock
+    private S3Client yandexS3Client;
+
+    @Mock
+    private YandexStorageProperties storageProperties;
+
+    private ExecutorService executor;
+    private S3MultipartUploader uploader;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        MultipartUploadProperties properties = new MultipartUploadProperties(
+                DataSize.ofMegabytes(10),
+                DataSize.ofMegabytes(5),
+                2,
+                2,
+                2,
+                3,
+                Duration.ofMillis(1)
+        );
+        uploader = new S3MultipartUploader(yandexS3Client, storageProperties, properties, executor);
+        key = FAKER.internet().uuid() + ".bin";
+
+        when(storageProperties.getBucketName()).thenReturn("test-bucket");
+        when(yandexS3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId(UPLOAD_ID).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Файл режется на части по partSize, последняя часть — остаток;
+     * CompleteMultipartUpload получает части в порядке номеров.
+     */
+    @Test
+    void shouldUploadAllParts_andCompleteInPartNumberOrder() throws Exception {
+        byte[] content = new byte[PART_SIZE * 2 + 100];
+        stubUploadPartSuccess();
+
+        uploader.upload(key, new ByteArrayInputStream(content), content.length, "application/zip");
+
+        ArgumentCaptor<UploadPartRequest> partCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+        verify(yandexS3Client, times(3)).uploadPart(partCaptor.capture(), any(RequestBody.class));
+        assertThat(partCaptor.getAllValues())
+                .extracting(UploadPartRequest::contentLength)
+                .containsExactlyInAnyOrder((long) PART_SIZE, (long) PART_SIZE, 100L);
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(yandexS3Client).completeMultipartUpload(completeCaptor.capture());
+        assertThat(completeCaptor.getValue().multipartUpload().parts())
+                .extracting(CompletedPart::partNumber, CompletedPart::eTag)
+                .containsExactly(
+                        tuple(1, "etag-1"),
+                        tuple(2, "etag-2"),
+                        tuple(3, "etag-3"));
+        verify(yandexS3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    /**
+     * Временная ошибка S3 (503) на части — часть повторяется, загрузка завершается.
+     */
+    @Test
+    void shouldRetryPart_whenS3ReturnsTransientError() throws Exception {
+        byte[] content = new byte[PART_SIZE * 2];
+        when(yandexS3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(503).message("Slow Down").build())
+                .thenAnswer(inv -> UploadPartResponse.builder()
+                        .eTag("etag-" + inv.<UploadPartRequest>getArgument(0).partNumber())
+                        .build());
+
+        uploader.upload(key, new ByteArrayInputStream(content), content.length, "application/zip");
+
+        verify(yandexS3Client, times(3)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verify(yandexS3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    /**
+     * Неустранимая ошибка части (403) — без повторов, загрузка прерывается,
+     * CompleteMultipartUpload не вызывается.
+     */
+    @Test
+    void shouldAbortUpload_whenPartFailsPermanently() {
+        byte[] content = new byte[PART_SIZE * 2];
+        when(yandexS3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).message("Access Denied").build());
+
+        assertThatThrownBy(() -> uploader.upload(
+                key, new ByteArrayInputStream(content), content.length, "application/zip"))
+                .isInstanceOf(S3YandexException.class);
+
+        verify(yandexS3Client).abortMultipartUpload(argThat((AbortMultipartUploadRequest request) ->
+                request.uploadId().equals(UPLOAD_ID) && request.key().equals(key)));
+        verify(yandexS3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    /**
+     * Часть упала с 403 — слоты упавшей загрузки возвращаются, следующая загрузка
+     * на том же uploader не ждёт вечно. Общий лимит — один слот, поэтому
+     * потерянный слот сразу блокирует вторую загрузку.
+     */
+    @Test
+    void shouldReleaseSlots_whenPartFailsPermanently() throws Exception {
+        S3MultipartUploader singleSlotUploader = new S3MultipartUploader(yandexS3Client, storageProperties,
+                new MultipartUploadProperties(DataSize.ofMegabytes(10), DataSize.ofMegabytes(5),
+                        1, 1, 2, 3, Duration.ofMillis(1)),
+                executor);
+        when(yandexS3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).message("Access Denied").build())
+                .thenAnswer(inv -> UploadPartResponse.builder().eTag("etag").build());
+        byte[] content = new byte[PART_SIZE * 3];
+
+        assertThatThrownBy(() -> singleSlotUploader.upload(
+                key, new ByteArrayInputStream(content), content.length, "application/zip"))
+                .isInstanceOf(S3YandexException.class);
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            caller.submit(() -> {
+                singleSlotUploader.upload(key, new ByteArrayInputStream(content), content.length, "application/zip");
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            caller.shutdownNow();
+        }
+        verify(yandexS3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    /**
+     * Поток короче заявленного размера — IOException, ни одна часть не отправлена,
+     * загрузка прерывается.
+     */
+    @Test
+    void shouldAbortUpload_whenStreamEndsEarly() {
+        byte[] content = new byte[PART_SIZE - 10];
+
+        assertThatThrownBy(() -> uploader.upload(
+                key, new ByteArrayInputStream(content), PART_SIZE * 3L, "application/zip"))
+                .isInstanceOf(EOFException.class);
+
+        verify(yandexS3Client, never()).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verify(yandexS3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(yandexS3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    /**
+     * Файл не укладывается в 10 000 частей S3 — отказ до CreateMultipartUpload.
+     */
+    @Test
+    void shouldRejectUpload_whenPartLimitExceeded() {
+        reset(yandexS3Client, storageProperties);
+
+        assertThatThrownBy(() -> uploader.upload(
+                key, new ByteArrayInputStream(new byte[0]), PART_SIZE * 10_000L + 1, "application/zip"))
+                .isInstanceOf(S3YandexException.class)
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(yandexS3Client);
+    }
+
+    /**
+     * Несколько загрузок одновременно — частей в памяти не больше общего лимита
+     * сервиса, даже если пул потоков и лимиты отдельных загрузок позволяют больше.
+     */
+    @Test
+    void shouldBoundBufferedPartsAcrossUploads_whenUploadsRunConcurrently() throws Exception {
+        ExecutorService wideExecutor = Executors.newFixedThreadPool(8);
+        S3MultipartUploader sharedUploader = new S3MultipartUploader(yandexS3Client, storageProperties,
+                new MultipartUploadProperties(DataSize.ofMegabytes(10), DataSize.ofMegabytes(5),
+                        2, 3, 8, 3, Duration.ofMillis(1)),
+                wideExecutor);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(yandexS3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenAnswer(inv -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    return UploadPartResponse.builder().eTag("etag").build();
+                });
+        byte[] content = new byte[PART_SIZE * 4];
+
+        List<Future<?>> uploads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            uploads.add(wideExecutor.submit(() -> {
+                sharedUploader.upload(key, new ByteArrayInputStream(content), content.length, "application/zip");
+                return null;
+            }));
+        }
+        for (Future<?> upload : uploads) {
+            upload.get(10, TimeUnit.SECONDS);
+        }
+        wideExecutor.shutdownNow();
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+        verify(yandexS3Client, times(3)).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    /**
+     * Порог multipart-загрузки — файлы меньше него грузятся одним PUT.
+     */
+    @Test
+    void shouldSupportOnlyFilesFromThreshold() {
+        reset(yandexS3Client, storageProperties);
+
+        assertThat(uploader.supports(DataSize.ofMegabytes(10).toBytes())).isTrue();
+        assertThat(uploader.supports(DataSize.ofMegabytes(10).toBytes() - 1)).isFalse();
+    }
+
+    private void stubUploadPartSuccess() {
+        when(yandexS3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenAnswer(inv -> UploadPartResponse.builder()
+                        .eTag("etag-" + inv.<UploadPartRequest>getArgument(0).partNumber())
+                        .build());
+    }
+}
@@ -0,0 +1,135 @@
+package org.resume.s3filemanager.service.file;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Условные переходы статуса на реальной схеме: повторные и запоздавшие
+ * результаты не меняют статус, из параллельных одинаковых переходов проходит один.
+ */
+@DisplayName("ScanStatusTransitionService — переходы статуса на реальной БД")
+class ScanStatusTransitionServiceIT extends BaseIntegrationTest {
+
+    private static final String PREFIX = "transition-";
+    private static final int THREADS = 8;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ScanStatusTransitionService scanStatusTransitionService;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password) VALUES (?, 'password') RETURNING id",
+                Long.class, PREFIX + "user");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM file_blobs WHERE storage_key LIKE ?", PREFIX + "%");
+    }
+
+    /**
+     * Вердикт применяется к объекту и всем файлам; запоздавший ERROR после CLEAN
+     * и повторный CLEAN ничего не меняют.
+     */
+    @Test
+    void shouldIgnoreDuplicateAndLateResults_whenVerdictApplied() {
+        String key = insertBlob(ScanStatus.PENDING_SCAN, 2);
+
+        assertThat(scanStatusTransitionService.transition(key, ScanStatus.CLEAN)).isTrue();
+        assertThat(scanStatusTransitionService.transition(key, ScanStatus.CLEAN)).isFalse();
+        assertThat(scanStatusTransitionService.transition(key, ScanStatus.ERROR)).isFalse();
+
+        assertThat(blobStatus(key)).isEqualTo("CLEAN");
+        assertThat(fileStatuses(key)).containsOnly("CLEAN").hasSize(2);
+    }
+
+    /**
+     * Пачка смешанных статусов — переходят только объекты, чей статус это допускает.
+     */
+    @Test
+    void shouldTransitionAllowedBlobsOnly_whenBatchApplied() {
+        String pending = insertBlob(ScanStatus.PENDING_SCAN, 1);
+        String error = insertBlob(ScanStatus.ERROR, 1);
+        String clean = insertBlob(ScanStatus.CLEAN, 1);
+
+        List<String> updated = scanStatusTransitionService.transitionAll(
+                List.of(pending, error, clean, PREFIX + "missing"), ScanStatus.INFECTED);
+
+        assertThat(updated).containsExactlyInAnyOrder(pending, error);
+        assertThat(fileStatuses(clean)).containsOnly("CLEAN");
+        assertThat(fileStatuses(error)).containsOnly("INFECTED");
+    }
+
+    /**
+     * Одновременные повторы сканирования одного файла — переход выигрывает ровно один.
+     */
+    @Test
+    void shouldAllowSingleRetry_whenRetriedConcurrently() throws Exception {
+        String key = insertBlob(ScanStatus.ERROR, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Boolean>> retries = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            retries.add(() -> scanStatusTransitionService.transition(key, ScanStatus.PENDING_SCAN));
+        }
+
+        int succeeded = 0;
+        for (Future<Boolean> retry : executor.invokeAll(retries)) {
+            succeeded += retry.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(blobStatus(key)).isEqualTo("PENDING_SCAN");
+    }
+
+    private String insertBlob(ScanStatus scanStatus, int files) {
+        String key = PREFIX + sequence.incrementAndGet();
+        Long blobId = jdbcTemplate.queryForObject(
+                "INSERT INTO file_blobs (storage_key, size, scan_status, ref_count) VALUES (?, 10, ?, ?) RETURNING id",
+                Long.class, key, scanStatus.name(), files);
+        for (int i = 0; i < files; i++) {
+            String name = key + "-" + i;
+            jdbcTemplate.update("""
+                    INSERT INTO file_metadata (unique_name, original_name, size, file_hash, user_id, blob_id, scan_status)
+                    VALUES (?, 'document.pdf', 10, ?, ?, ?, ?)
+                    """, name, "sha256:" + name, userId, blobId, scanStatus.name());
+        }
+        return key;
+    }
+
+    private String blobStatus(String storageKey) {
+        return jdbcTemplate.queryForObject("SELECT scan_status FROM file_blobs WHERE storage_key = ?",
+                String.class, storageKey);
+    }
+
+    private List<String> fileStatuses(String storageKey) {
+        return jdbcTemplate.queryForList("""
+                SELECT f.scan_status FROM file_metadata f JOIN file_blobs b ON b.id = f.blob_id
+                WHERE b.storage_key = ?
+                """, String.class, storageKey);
+    }
+}
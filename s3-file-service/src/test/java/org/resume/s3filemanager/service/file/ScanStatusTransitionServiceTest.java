@@ -0,0 +1,111 @@
+package org.resume.s3filemanager.service.file;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.model.ScanStatus;
+import org.resume.s3filemanager.repository.FileBlobRepository;
+import org.resume.s3filemanager.repository.FileMetadataRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScanStatusTransitionService — условные переходы статуса сканирования")
+class ScanStatusTransitionServiceTest {
+
+    private static final Faker FAKER = new Faker();
+
+    @Mock
+    private FileBlobRepository fileBlobRepository;
+
+    @Mock
+    private FileMetadataRepository fileMetadataRepository;
+
+    @InjectMocks
+    private ScanStatusTransitionService scanStatusTransitionService;
+
+    private String storageKey;
+
+    @BeforeEach
+    void setUp() {
+        storageKey = FAKER.internet().uuid() + ".pdf";
+    }
+
+    /**
+     * Вердикт антивируса — условие допускает PENDING_SCAN и ERROR, статус получают объект и файлы.
+     */
+    @Test
+    void shouldApplyVerdictToBlobAndFiles_whenTransitionAllowed() {
+        when(fileBlobRepository.transitionScanStatus(
+                eq(List.of(storageKey)), argThat(sources -> sources.size() == 2
+                        && sources.containsAll(List.of("PENDING_SCAN", "ERROR"))), eq("CLEAN")))
+                .thenReturn(List.of(storageKey));
+
+        boolean transitioned = scanStatusTransitionService.transition(storageKey, ScanStatus.CLEAN);
+
+        assertThat(transitioned).isTrue();
+        verify(fileMetadataRepository).updateScanStatusByStorageKeys(List.of(storageKey), ScanStatus.CLEAN);
+    }
+
+    /**
+     * Повторное сканирование — допустимо только из ERROR.
+     */
+    @Test
+    void shouldAllowRetryOnlyFromError() {
+        when(fileBlobRepository.transitionScanStatus(List.of(storageKey), List.of("ERROR"), "PENDING_SCAN"))
+                .thenReturn(List.of(storageKey));
+
+        assertThat(scanStatusTransitionService.transition(storageKey, ScanStatus.PENDING_SCAN)).isTrue();
+    }
+
+    /**
+     * Повторный или запоздавший результат — условие не прошло, файлы не трогаем.
+     */
+    @Test
+    void shouldSkipFiles_whenTransitionNotAllowed() {
+        when(fileBlobRepository.transitionScanStatus(List.of(storageKey), List.of("PENDING_SCAN"), "ERROR"))
+                .thenReturn(List.of());
+
+        boolean transitioned = scanStatusTransitionService.transition(storageKey, ScanStatus.ERROR);
+
+        assertThat(transitioned).isFalse();
+        verifyNoInteractions(fileMetadataRepository);
+    }
+
+    /**
+     * Пачка — один условный UPDATE объектов и один UPDATE файлов только по сменившим статус.
+     */
+    @Test
+    void shouldUpdateFilesOfTransitionedBlobsOnly_whenBatchTransitioned() {
+        String skippedKey = FAKER.internet().uuid() + ".pdf";
+        when(fileBlobRepository.transitionScanStatus(eq(List.of(storageKey, skippedKey)), any(), eq("INFECTED")))
+                .thenReturn(List.of(storageKey));
+
+        List<String> updated = scanStatusTransitionService.transitionAll(List.of(storageKey, skippedKey),
+                ScanStatus.INFECTED);
+
+        assertThat(updated).containsExactly(storageKey);
+        verify(fileMetadataRepository).updateScanStatusByStorageKeys(List.of(storageKey), ScanStatus.INFECTED);
+    }
+
+    /**
+     * Пустая пачка — запросов нет.
+     */
+    @Test
+    void shouldSkipQueries_whenNoKeys() {
+        assertThat(scanStatusTransitionService.transitionAll(List.of(), ScanStatus.CLEAN)).isEmpty();
+
+        verifyNoInteractions(fileBlobRepository, fileMetadataRepository);
+    }
+}
@@ -0,0 +1,79 @@
+package org.resume.s3filemanager.service.file;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.BaseIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YandexAsyncStorageServiceIT extends BaseIntegrationTest {
+
+    private static final Faker FAKER = new Faker();
+    private static final String BUCKET = "test-bucket";
+
+    @Autowired
+    private YandexAsyncStorageService asyncStorageService;
+
+    @Autowired
+    private S3Client yandexS3Client;
+
+    private String fileName;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() {
+        fileName = FAKER.file().fileName();
+        content = FAKER.lorem().paragraph().getBytes();
+
+        try {
+            yandexS3Client.createBucket(CreateBucketRequest.builder().bucket(BUCKET).build());
+        } catch (BucketAlreadyExistsException | BucketAlreadyOwnedByYouException e) {
+            // бакет уже существует — ок
+        }
+    }
+
+    /**
+     * Проверяет что после асинхронного удаления объект недоступен.
+     */
+    @Test
+    void shouldDeleteFileAsync() {
+        upload(fileName);
+
+        asyncStorageService.deleteFileAsync(fileName).join();
+
+        assertThatThrownBy(() -> head(fileName)).isInstanceOf(NoSuchKeyException.class);
+    }
+
+    /**
+     * Проверяет пакетное удаление через DeleteObjects: неудалённых ключей нет.
+     */
+    @Test
+    void shouldDeleteFilesAsync() {
+        String otherFileName = FAKER.internet().uuid() + ".txt";
+        upload(fileName);
+        upload(otherFileName);
+
+        List<String> failed = asyncStorageService.deleteFilesAsync(List.of(fileName, otherFileName)).join();
+
+        assertThat(failed).isEmpty();
+        assertThatThrownBy(() -> head(fileName)).isInstanceOf(NoSuchKeyException.class);
+        assertThatThrownBy(() -> head(otherFileName)).isInstanceOf(NoSuchKeyException.class);
+    }
+
+    private void upload(String key) {
+        yandexS3Client.putObject(PutObjectRequest.builder().bucket(BUCKET).key(key).build(),
+                RequestBody.fromBytes(content));
+    }
+
+    private void head(String key) {
+        yandexS3Client.headObject(HeadObjectRequest.builder().bucket(BUCKET).key(key).build());
+    }
+}
@@ -0,0 +1,106 @@
+package org.resume.s3filemanager.service.file;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.exception.S3YandexException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class YandexAsyncStorageServiceTest {
+
+    private static final Faker FAKER = new Faker();
+
+    @Mock
+    private S3AsyncClient yandexS3AsyncClient;
+
+    @Mock
+    private YandexStorageProperties properties;
+
+    @InjectMocks
+    private YandexAsyncStorageService storageService;
+
+    private String fileName;
+
+    @BeforeEach
+    void setUp() {
+        fileName = FAKER.file().fileName();
+
+        when(properties.getBucketName()).thenReturn("test-bucket");
+    }
+
+    /**
+     * Проверяет что успешное удаление завершает future без ошибки.
+     */
+    @Test
+    void shouldCompleteFuture_whenDeleteSucceeds() {
+        when(yandexS3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectResponse.builder().build()));
+
+        assertThat(storageService.deleteFileAsync(fileName)).isCompleted().isNotCompletedExceptionally();
+    }
+
+    /**
+     * Проверяет что ошибка S3 при удалении приводится к {@link S3YandexException}.
+     */
+    @Test
+    void shouldFailWithS3YandexException_whenDeleteFails() {
+        when(yandexS3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().message("S3 error").build()));
+
+        assertThatThrownBy(() -> storageService.deleteFileAsync(fileName).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(S3YandexException.class);
+    }
+
+    /**
+     * Пачка больше предела S3 делится на запросы DeleteObjects по 1000 ключей,
+     * ключи с ошибкой возвращаются вызывающему коду.
+     */
+    @Test
+    void shouldDeleteInChunksAndReturnFailedKeys_whenBatchDeleted() {
+        List<String> keys = IntStream.range(0, YandexAsyncStorageService.MAX_KEYS_PER_DELETE + 1)
+                .mapToObj(i -> "key-" + i)
+                .toList();
+        when(yandexS3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("key-7").code("AccessDenied").build())
+                        .build()))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder().build()));
+
+        List<String> failed = storageService.deleteFilesAsync(keys).join();
+
+        assertThat(failed).containsExactly("key-7");
+        verify(yandexS3AsyncClient, times(2)).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    /**
+     * Ошибка запроса DeleteObjects — все ключи пачки считаются неудалёнными, future без ошибки.
+     */
+    @Test
+    void shouldReturnAllKeys_whenBatchDeleteRequestFails() {
+        List<String> keys = List.of(fileName, FAKER.file().fileName());
+        when(yandexS3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().message("S3 error").build()));
+
+        assertThat(storageService.deleteFilesAsync(keys).join()).containsExactlyElementsOf(keys);
+    }
+}
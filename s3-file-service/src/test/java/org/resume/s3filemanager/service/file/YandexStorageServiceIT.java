@@ -6,10 +6,13 @@ import org.junit.jupiter.api.Test;
 import org.resume.s3filemanager.BaseIntegrationTest;
 import org.resume.s3filemanager.exception.FileNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,10 +56,9 @@ class YandexStorageServiceIT extends BaseIntegrationTest {
         byte[] imageBytes = Objects.requireNonNull(
                 getClass().getResourceAsStream("/fixtures/java_black.png")).readAllBytes();
 
-        storageService.uploadFileYandexS3(fileName, imageBytes, "image/png");
+        upload(imageBytes, "image/png");
 
-        byte[] downloaded = storageService.downloadFileYandexS3(fileName);
-        assertThat(downloaded).isEqualTo(imageBytes);
+        assertThat(download()).isEqualTo(imageBytes);
     }
 
     /**
@@ -65,12 +67,22 @@ class YandexStorageServiceIT extends BaseIntegrationTest {
      * Ожидается что содержимое скачанного файла совпадает с загруженным.
      */
     @Test
-    void shouldUploadAndDownloadFile() {
-        storageService.uploadFileYandexS3(fileName, content, contentType);
+    void shouldUploadAndDownloadFile() throws IOException {
+        upload(content, contentType);
 
-        byte[] downloaded = storageService.downloadFileYandexS3(fileName);
+        assertThat(download()).isEqualTo(content);
+    }
+
+    /**
+     * Проверяет чтение диапазона байт: в S3 уходит ranged GET.
+     */
+    @Test
+    void shouldStreamRange() throws IOException {
+        upload(content, contentType);
 
-        assertThat(downloaded).isEqualTo(content);
+        try (ResponseInputStream<GetObjectResponse> stream = storageService.openFileStreamYandexS3(fileName, "bytes=0-9")) {
+            assertThat(stream.readAllBytes()).containsExactly(Arrays.copyOf(content, 10));
+        }
     }
 
     /**
@@ -78,11 +90,21 @@ class YandexStorageServiceIT extends BaseIntegrationTest {
      * После удаления попытка скачать файл вызывает {@link FileNotFoundException}.
      */
     @Test
-    void shouldDeleteFile() {
-        storageService.uploadFileYandexS3(fileName, content, contentType);
+    void shouldDeleteFile() throws IOException {
+        upload(content, contentType);
         storageService.deleteFileYandexS3(fileName);
 
-        assertThatThrownBy(() -> storageService.downloadFileYandexS3(fileName))
+        assertThatThrownBy(() -> storageService.openFileStreamYandexS3(fileName, null))
                 .isInstanceOf(FileNotFoundException.class);
     }
-}
\ No newline at end of file
+
+    private void upload(byte[] bytes, String type) throws IOException {
+        storageService.uploadFileYandexS3(fileName, new ByteArrayInputStream(bytes), bytes.length, type);
+    }
+
+    private byte[] download() throws IOException {
+        try (ResponseInputStream<GetObjectResponse> stream = storageService.openFileStreamYandexS3(fileName, null)) {
+            return stream.readAllBytes();
+        }
+    }
+}
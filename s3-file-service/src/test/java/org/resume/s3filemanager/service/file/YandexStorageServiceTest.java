@@ -8,11 +8,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.resume.common.properties.YandexStorageProperties;
+import org.resume.s3filemanager.exception.FileNotFoundException;
 import org.resume.s3filemanager.exception.S3YandexException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.ByteArrayInputStream;
+
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -28,6 +31,9 @@ class YandexStorageServiceTest {
     @Mock
     private YandexStorageProperties properties;
 
+    @Mock
+    private S3MultipartUploader multipartUploader;
+
     @InjectMocks
     private YandexStorageService storageService;
 
@@ -45,29 +51,42 @@ class YandexStorageServiceTest {
     }
 
     /**
-     * Проверяет что при ошибке S3 во время загрузки бросается {@link S3YandexException}.
+     * Проверяет что при ошибке S3 во время потоковой загрузки бросается {@link S3YandexException}.
      */
     @Test
-    void shouldThrowS3YandexException_whenUploadFails() {
+    void shouldThrowS3YandexException_whenStreamingUploadFails() {
         when(yandexS3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
                 .thenThrow(S3Exception.builder().message("S3 error").build());
 
-        assertThatThrownBy(() -> storageService.uploadFileYandexS3(fileName, content, contentType))
+        assertThatThrownBy(() -> storageService.uploadFileYandexS3(
+                fileName, new ByteArrayInputStream(content), content.length, contentType))
                 .isInstanceOf(S3YandexException.class);
     }
 
     /**
-     * Проверяет что при ошибке S3 во время скачивания бросается {@link S3YandexException}.
+     * Проверяет что при ошибке S3 во время открытия потока на чтение бросается {@link S3YandexException}.
      */
     @Test
-    void shouldThrowS3YandexException_whenDownloadFails() {
+    void shouldThrowS3YandexException_whenOpenStreamFails() {
         when(yandexS3Client.getObject(any(GetObjectRequest.class)))
                 .thenThrow(S3Exception.builder().message("S3 error").build());
 
-        assertThatThrownBy(() -> storageService.downloadFileYandexS3(fileName))
+        assertThatThrownBy(() -> storageService.openFileStreamYandexS3(fileName, null))
                 .isInstanceOf(S3YandexException.class);
     }
 
+    /**
+     * Проверяет что при отсутствии объекта HEAD-запрос бросает {@link FileNotFoundException}.
+     */
+    @Test
+    void shouldThrowFileNotFoundException_whenHeadFindsNoObject() {
+        when(yandexS3Client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(NoSuchKeyException.builder().message("Not found").build());
+
+        assertThatThrownBy(() -> storageService.headFileYandexS3(fileName))
+                .isInstanceOf(FileNotFoundException.class);
+    }
+
     /**
      * Проверяет что при ошибке S3 во время удаления бросается {@link S3YandexException}.
      */
@@ -0,0 +1,140 @@
+package org.resume.s3filemanager.service.hash;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.enums.HashAlgorithm;
+import org.resume.s3filemanager.properties.HashingProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TreeSha256ContentHasher — древовидный SHA-256 по чанкам")
+class TreeSha256ContentHasherTest {
+
+    private static final int CHUNK_SIZE = (int) DataSize.ofKilobytes(4).toBytes();
+    private static final Random RANDOM = new Random(42);
+
+    private ExecutorService executor;
+    private ExecutorService singleExecutor;
+    private TreeSha256ContentHasher parallelHasher;
+    private TreeSha256ContentHasher sequentialHasher;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        parallelHasher = new TreeSha256ContentHasher(properties(4), executor);
+        singleExecutor = Executors.newSingleThreadExecutor();
+        sequentialHasher = new TreeSha256ContentHasher(properties(1), singleExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        singleExecutor.shutdownNow();
+    }
+
+    /**
+     * Хеш не зависит от числа потоков: параллельное и последовательное
+     * вычисление дают одно и то же значение.
+     */
+    @Test
+    void shouldProduceSameHash_regardlessOfParallelism() {
+        byte[] content = randomBytes(CHUNK_SIZE * 9 + 123);
+
+        assertThat(parallelHasher.hash(content)).isEqualTo(sequentialHasher.hash(content));
+    }
+
+    /**
+     * Потоковое вычисление с произвольными размерами чтения совпадает
+     * с хешированием массива целиком, в том числе на границе чанка.
+     */
+    @Test
+    void shouldProduceSameHash_whenStreamedInOddSizedReads() throws IOException {
+        for (int size : new int[]{0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, CHUNK_SIZE * 5}) {
+            byte[] content = randomBytes(size);
+
+            HashingInputStream stream = new HashingInputStream(
+                    new OddSizedReads(new ByteArrayInputStream(content)), parallelHasher.newHash());
+            stream.transferTo(OutputStream.nullOutputStream());
+
+            assertThat(stream.getHash()).as("size %d", size).isEqualTo(parallelHasher.hash(content));
+        }
+    }
+
+    /**
+     * Хеш помечен своим тегом и отличается от плоского SHA-256 того же содержимого.
+     */
+    @Test
+    void shouldTagHash_andDifferFromFlatSha256() {
+        byte[] content = randomBytes(CHUNK_SIZE * 2);
+
+        String hash = parallelHasher.hash(content);
+
+        assertThat(hash).matches("tree-sha256:[0-9a-f]{64}");
+        assertThat(hash.substring(hash.indexOf(':')))
+                .isNotEqualTo(new Sha256ContentHasher().hash(content).substring("sha256".length()));
+    }
+
+    /**
+     * Перестановка чанков меняет хеш — позиция чанка входит в лист.
+     */
+    @Test
+    void shouldChangeHash_whenChunksAreReordered() {
+        byte[] first = randomBytes(CHUNK_SIZE);
+        byte[] second = randomBytes(CHUNK_SIZE);
+
+        assertThat(parallelHasher.hash(concat(first, second)))
+                .isNotEqualTo(parallelHasher.hash(concat(second, first)));
+    }
+
+    private static HashingProperties properties(int parallelism) {
+        return new HashingProperties(
+                HashAlgorithm.TREE_SHA256, DataSize.ofBytes(CHUNK_SIZE), parallelism, false, 50, 60_000, Duration.ofMinutes(5));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Поток, отдающий данные кусками некратного чанку размера.
+     */
+    private static final class OddSizedReads extends InputStream {
+
+        private final InputStream delegate;
+
+        private OddSizedReads(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            return delegate.read(bytes, offset, Math.min(length, 1000));
+        }
+    }
+}
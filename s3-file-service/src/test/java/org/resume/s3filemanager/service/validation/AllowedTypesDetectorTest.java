@@ -0,0 +1,111 @@
+package org.resume.s3filemanager.service.validation;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.mime.MimeTypes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.validation.AllowedTypesDetector;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AllowedTypesDetector — детекция по реестру разрешённых типов")
+class AllowedTypesDetectorTest {
+
+    private static final MimeTypes ALL_TYPES = MimeTypes.getDefaultMimeTypes();
+    private static final AllowedTypesDetector DETECTOR = new AllowedTypesDetector(ALL_TYPES);
+
+    /**
+     * Сигнатуры разрешённых типов, их уточнений и типичных подмен.
+     */
+    private static final Map<String, byte[]> SAMPLES = Map.ofEntries(
+            Map.entry("document.pdf", ascii("%PDF-1.7\n")),
+            Map.entry("document.rtf", ascii("{\\rtf1\\ansi hello}")),
+            Map.entry("document.docx", bytes(0x50, 0x4B, 0x03, 0x04, 0x14, 0x00)),
+            Map.entry("image.png", bytes(0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A)),
+            Map.entry("image.jpg", bytes(0xFF, 0xD8, 0xFF, 0xE0, 0x00, 0x10, 0x4A, 0x46, 0x49, 0x46)),
+            Map.entry("image.gif", ascii("GIF89a")),
+            Map.entry("image.webp", ascii("RIFF\0\0\0\0WEBPVP8 ")),
+            Map.entry("image.bmp", bytes(0x42, 0x4D, 0x3A, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x36, 0x00, 0x00, 0x00, 0x28, 0x00)),
+            Map.entry("image.ico", bytes(0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x10, 0x10)),
+            Map.entry("video.mp4", bytes(0x00, 0x00, 0x00, 0x18, 0x66, 0x74, 0x79, 0x70, 0x69, 0x73, 0x6F, 0x6D)),
+            Map.entry("video.webm", bytes(0x1A, 0x45, 0xDF, 0xA3, 0x9F, 0x42, 0x86, 0x81, 0x01, 0x42, 0x82, 0x84, 0x77, 0x65, 0x62, 0x6D)),
+            Map.entry("audio.mp3", ascii("ID3\u0004\0\0\0\0\0\0")),
+            Map.entry("audio.wav", ascii("RIFF\0\0\0\0WAVEfmt ")),
+            Map.entry("audio.ogg", ascii("OggS\0\u0002\0\0\0\0\0\0\0\0")),
+            Map.entry("archive.zip", bytes(0x50, 0x4B, 0x03, 0x04, 0x14, 0x00)),
+            Map.entry("archive.rar", bytes(0x52, 0x61, 0x72, 0x21, 0x1A, 0x07, 0x00)),
+            Map.entry("archive.7z", bytes(0x37, 0x7A, 0xBC, 0xAF, 0x27, 0x1C)),
+            Map.entry("notes.txt", ascii("plain notes")),
+            Map.entry("table.csv", ascii("id,name\n1,file\n")),
+            Map.entry("data.json", ascii("{\"id\": 1}")),
+            Map.entry("data.xml", ascii("<?xml version=\"1.0\"?><root/>")),
+            Map.entry("readme.md", ascii("# Title\n")),
+            Map.entry("page.txt", ascii("<html><body>page</body></html>")),
+            Map.entry("script.txt", ascii("#!/bin/sh\necho hi\n")),
+            Map.entry("drawing.xml", ascii("<svg xmlns=\"http://www.w3.org/2000/svg\"></svg>")),
+            Map.entry("program.txt", bytes(0x4D, 0x5A, 0x90, 0x00, 0x03, 0x00, 0x00, 0x00, 0x04, 0x00, 0x00, 0x00, 0xFF, 0xFF))
+    );
+
+    /**
+     * На разрешённых типах и на подменах урезанный реестр даёт тот же тип,
+     * что и полный, — проверка подмены не ослабла.
+     */
+    @Test
+    void shouldAgreeWithFullRegistry_onAllowedTypesAndSpoofs() throws IOException {
+        for (Map.Entry<String, byte[]> sample : SAMPLES.entrySet()) {
+            assertThat(detect(DETECTOR::detect, sample.getKey(), sample.getValue()))
+                    .as(sample.getKey())
+                    .isEqualTo(detect(ALL_TYPES::detect, sample.getKey(), sample.getValue()));
+        }
+    }
+
+    /**
+     * Несвязанный бинарный формат в урезанном реестре не распознаётся
+     * и остаётся {@code application/octet-stream}.
+     */
+    @Test
+    void shouldReturnOctetStream_forUnrelatedBinaryFormat() throws IOException {
+        byte[] javaClass = bytes(0xCA, 0xFE, 0xBA, 0xBE, 0x00, 0x00, 0x00, 0x41);
+
+        assertThat(detect(ALL_TYPES::detect, "Main.class", javaClass)).isEqualTo(MediaType.parse("application/java-vm"));
+        assertThat(detect(DETECTOR::detect, "Main.class", javaClass)).isEqualTo(MediaType.OCTET_STREAM);
+    }
+
+    /**
+     * Урезанному реестру хватает префикса по умолчанию (64KB).
+     */
+    @Test
+    void shouldFitIntoDefaultPrefix() {
+        assertThat(DETECTOR.getMinLength()).isLessThanOrEqualTo(64 * 1024);
+    }
+
+    private static MediaType detect(DetectCall detector, String fileName, byte[] bytes) throws IOException {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fileName);
+        return detector.detect(new ByteArrayInputStream(bytes), metadata);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface DetectCall {
+        MediaType detect(java.io.InputStream input, Metadata metadata) throws IOException;
+    }
+}
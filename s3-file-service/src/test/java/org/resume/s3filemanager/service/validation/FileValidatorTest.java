@@ -167,7 +167,7 @@ class FileValidatorTest {
      * Защита от обхода фильтра через переименование
      */
     @Test
-    void shouldReturnSignatureMismatch_whenFileIsRenamedToWrongExtension() {
+    void shouldReturnSignatureMismatch_whenFileIsRenamedToWrongExtension() throws IOException {
         MockMultipartFile file = validPdfFile;
 
         when(tikaFileDetector.verifyContentType(any(), eq("document.pdf"), eq("application/pdf")))
@@ -185,7 +185,7 @@ class FileValidatorTest {
      * Валидный PDF — расширение, MIME-тип и сигнатура совпадают, ошибок нет
      */
     @Test
-    void shouldReturnEmpty_whenFilePassesAllChecks() {
+    void shouldReturnEmpty_whenFilePassesAllChecks() throws IOException {
         MockMultipartFile file = validPdfFile;
 
         when(tikaFileDetector.verifyContentType(any(), eq("document.pdf"), eq("application/pdf")))
@@ -198,20 +198,36 @@ class FileValidatorTest {
         verify(tikaFileDetector).verifyContentType(any(), eq("document.pdf"), eq("application/pdf"));
     }
 
+    /**
+     * Валидатор отдаёт Tika поток, а не массив байт — файл целиком в память не читается.
+     */
+    @Test
+    void shouldPassStreamToTika_withoutReadingWholeFile() throws Exception {
+        MockMultipartFile file = spy(validPdfFile);
+
+        when(tikaFileDetector.verifyContentType(any(), eq("document.pdf"), eq("application/pdf")))
+                .thenReturn(true);
+
+        fileValidator.validateFile(file);
+
+        verify(file, never()).getBytes();
+        verify(file).getInputStream();
+    }
+
     // validateFile — обработка исключений
 
     /**
-     * IOException при чтении байтов — возвращаем FILE_PROCESSING_ERROR, не пробрасываем.
-     * MockMultipartFile мокируется вручную — единственный способ заставить getBytes() бросить IOException
+     * IOException при открытии потока — возвращаем FILE_PROCESSING_ERROR, не пробрасываем.
+     * MockMultipartFile мокируется вручную — единственный способ заставить getInputStream() бросить IOException
      */
     @Test
-    void shouldReturnProcessingError_whenReadingFileBytesThrowsIOException() throws Exception {
+    void shouldReturnProcessingError_whenReadingFileStreamThrowsIOException() throws Exception {
         MockMultipartFile file = mock(MockMultipartFile.class);
 
         when(file.isEmpty()).thenReturn(false);
         when(file.getOriginalFilename()).thenReturn("document.pdf");
         when(file.getContentType()).thenReturn("application/pdf");
-        when(file.getBytes()).thenThrow(new IOException());
+        when(file.getInputStream()).thenThrow(new IOException());
 
         Optional<String> result = fileValidator.validateFile(file);
 
@@ -223,7 +239,7 @@ class FileValidatorTest {
      * возвращаем FILE_PROCESSING_ERROR.
      */
     @Test
-    void shouldReturnProcessingError_whenTikaThrowsUnexpectedException() {
+    void shouldReturnProcessingError_whenTikaThrowsUnexpectedException() throws IOException {
         MockMultipartFile file = validPdfFile;
 
         when(tikaFileDetector.verifyContentType(any(), any(), any()))
@@ -257,7 +273,7 @@ class FileValidatorTest {
      * Валидный файл — isValid возвращает true, контекст не трогается.
      */
     @Test
-    void shouldReturnTrue_andNotTouchContext_whenFileIsValid() {
+    void shouldReturnTrue_andNotTouchContext_whenFileIsValid() throws IOException {
         MockMultipartFile file = validPdfFile;
 
         when(tikaFileDetector.verifyContentType(any(), eq("document.pdf"), eq("application/pdf")))
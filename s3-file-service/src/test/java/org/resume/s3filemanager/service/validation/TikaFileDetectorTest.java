@@ -1,19 +1,28 @@
 package org.resume.s3filemanager.service.validation;
 
-import org.apache.tika.Tika;
+import org.apache.tika.mime.MimeTypes;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.resume.s3filemanager.properties.FileDetectionProperties;
+import org.resume.s3filemanager.validation.AllowedTypesDetector;
 import org.resume.s3filemanager.validation.TikaFileDetector;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("TikaFileDetector — определение реального типа файла по сигнатуре")
 class TikaFileDetectorTest {
 
+    private static final AllowedTypesDetector DETECTOR = new AllowedTypesDetector(MimeTypes.getDefaultMimeTypes());
+    private static final int PREFIX_SIZE = (int) DataSize.ofKilobytes(64).toBytes();
 
     private static final byte[] PDF_MAGIC_BYTES = {0x25, 0x50, 0x44, 0x46, 0x2D, 0x31, 0x2E};
     private static final byte[] PNG_MAGIC_BYTES = {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A};
+    private static final byte[] EXE_MAGIC_BYTES = {0x4D, 0x5A, (byte) 0x90, 0x00, 0x03, 0x00, 0x00, 0x00, 0x04, 0x00};
 
     private static final String PDF_FILENAME = "document.pdf";
     private static final String PDF_CONTENT_TYPE = "application/pdf";
@@ -22,7 +31,8 @@ class TikaFileDetectorTest {
 
     @BeforeEach
     void setUp() {
-        tikaFileDetector = new TikaFileDetector(new Tika());
+        tikaFileDetector = new TikaFileDetector(
+                DETECTOR, new FileDetectionProperties(DataSize.ofBytes(PREFIX_SIZE), true, 0));
     }
 
     // detectContentType
@@ -47,14 +57,54 @@ class TikaFileDetectorTest {
         assertThat(detected).isEqualTo("image/png");
     }
 
+    /**
+     * Детекция по потоку читает только начало файла — хвост после сигнатуры не влияет на результат.
+     */
+    @Test
+    void shouldDetectPdf_fromStreamPrefix() throws IOException {
+        byte[] content = new byte[1024 * 1024];
+        System.arraycopy(PDF_MAGIC_BYTES, 0, content, 0, PDF_MAGIC_BYTES.length);
+
+        String detected = tikaFileDetector.detectContentType(new ByteArrayInputStream(content), PDF_FILENAME);
+
+        assertThat(detected).isEqualTo(PDF_CONTENT_TYPE);
+    }
+
+    /**
+     * Из потока читается не больше prefix-size байтов, как бы велик ни был файл.
+     */
+    @Test
+    void shouldReadAtMostPrefix_fromLargeStream() throws IOException {
+        byte[] content = new byte[PREFIX_SIZE * 16];
+        System.arraycopy(PDF_MAGIC_BYTES, 0, content, 0, PDF_MAGIC_BYTES.length);
+        ByteArrayInputStream stream = new ByteArrayInputStream(content);
+
+        tikaFileDetector.detectContentType(stream, PDF_FILENAME);
+
+        assertThat(stream.available()).isEqualTo(content.length - PREFIX_SIZE);
+    }
+
+    /**
+     * Массив длиннее префикса — хвост за префиксом не учитывается.
+     */
+    @Test
+    void shouldIgnoreBytesBeyondPrefix_whenDetectingArray() {
+        byte[] content = new byte[PREFIX_SIZE + PNG_MAGIC_BYTES.length];
+        System.arraycopy(PNG_MAGIC_BYTES, 0, content, PREFIX_SIZE, PNG_MAGIC_BYTES.length);
+
+        String detected = tikaFileDetector.detectContentType(content, "upload");
+
+        assertThat(detected).isEqualTo("application/octet-stream");
+    }
+
     // verifyContentType
 
     /**
      * Сигнатура файла совпадает с заявленным типом — файл валиден.
      */
     @Test
-    void shouldReturnTrue_whenSignatureMatchesDeclaredType() {
-        boolean result = tikaFileDetector.verifyContentType(PDF_MAGIC_BYTES, PDF_FILENAME, PDF_CONTENT_TYPE);
+    void shouldReturnTrue_whenSignatureMatchesDeclaredType() throws IOException {
+        boolean result = tikaFileDetector.verifyContentType(new ByteArrayInputStream(PDF_MAGIC_BYTES), PDF_FILENAME, PDF_CONTENT_TYPE);
 
         assertThat(result).isTrue();
     }
@@ -63,8 +113,8 @@ class TikaFileDetectorTest {
      * PNG байты объявлены как PDF — классический случай переименования. Tika видит реальную сигнатуру и возвращает false.
      */
     @Test
-    void shouldReturnFalse_whenPngBytesAreDeclaredAsPdf() {
-        boolean result = tikaFileDetector.verifyContentType(PNG_MAGIC_BYTES, PDF_FILENAME, PDF_CONTENT_TYPE);
+    void shouldReturnFalse_whenPngBytesAreDeclaredAsPdf() throws IOException {
+        boolean result = tikaFileDetector.verifyContentType(new ByteArrayInputStream(PNG_MAGIC_BYTES), PDF_FILENAME, PDF_CONTENT_TYPE);
 
         assertThat(result).isFalse();
     }
@@ -73,9 +123,20 @@ class TikaFileDetectorTest {
      * Сравнение типов нечувствительно к регистру — "application/PDF" принимается как "application/pdf".
      */
     @Test
-    void shouldReturnTrue_whenContentTypeIsUpperCase() {
-        boolean result = tikaFileDetector.verifyContentType(PDF_MAGIC_BYTES, PDF_FILENAME, "application/PDF");
+    void shouldReturnTrue_whenContentTypeIsUpperCase() throws IOException {
+        boolean result = tikaFileDetector.verifyContentType(new ByteArrayInputStream(PDF_MAGIC_BYTES), PDF_FILENAME, "application/PDF");
 
         assertThat(result).isTrue();
     }
-}
\ No newline at end of file
+
+    /**
+     * Исполняемый файл под видом txt: сигнатуры exe нет среди разрешённых типов,
+     * но текстовый результат перепроверяется полным реестром — подмена видна.
+     */
+    @Test
+    void shouldReturnFalse_whenExecutableIsDeclaredAsText() throws IOException {
+        boolean result = tikaFileDetector.verifyContentType(new ByteArrayInputStream(EXE_MAGIC_BYTES), "notes.txt", "text/plain");
+
+        assertThat(result).isFalse();
+    }
+}